@@ -0,0 +1,13 @@
+// src/main/java/br/com/kandu/config/AgendamentoConfig.java
+package br.com.kandu.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as tarefas agendadas (@Scheduled), como a purga dos tokens revogados já expirados.
+ */
+@Configuration
+@EnableScheduling
+public class AgendamentoConfig {
+}
@@ -1,9 +1,14 @@
 // src/main/java/br/com/kandu/config/SecurityConfig.java
 package br.com.kandu.config;
 
+import br.com.kandu.security.ExecutorPasswordEncoder;
+import br.com.kandu.security.apikey.ChaveApiAuthenticationFilter;
 import br.com.kandu.security.jwt.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -12,7 +17,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -23,15 +27,30 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final ChaveApiAuthenticationFilter chaveApiAuthenticationFilter;
 
     @Autowired
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
+                          ChaveApiAuthenticationFilter chaveApiAuthenticationFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.chaveApiAuthenticationFilter = chaveApiAuthenticationFilter;
     }
 
+    /**
+     * BCrypt em executor dedicado e limitado (ver ExecutorPasswordEncoder).
+     * Custo 0 (padrão) calibra o custo na inicialização para a latência alvo; os testes fixam um custo baixo.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${kandu.senha.bcrypt.custo:0}") int custoFixo,
+                                           @Value("${kandu.senha.bcrypt.latencia-alvo-ms:250}") long latenciaAlvoMs,
+                                           @Value("${kandu.senha.executor.threads:0}") int threads,
+                                           @Value("${kandu.senha.executor.fila:100}") int fila,
+                                           @Value("${kandu.senha.executor.espera-maxima-ms:5000}") long esperaMaximaMs,
+                                           @Value("${kandu.senha.executor.retry-after-segundos:2}") long retryAfterSegundos) {
+        int custo = custoFixo > 0 ? custoFixo : ExecutorPasswordEncoder.calibrarCusto(latenciaAlvoMs, 10, 14);
+        int threadsEfetivas = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ExecutorPasswordEncoder(custo, threadsEfetivas, fila, esperaMaximaMs, retryAfterSegundos, meterRegistry);
     }
 
     @Bean
@@ -45,17 +64,25 @@ public class SecurityConfig {
                         )
                 )
                 .authorizeHttpRequests(authz -> authz
+                        // Continuação de respostas em streaming (ex: exportação de OS): a requisição original já foi autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(HttpMethod.POST, "/auth/login").permitAll()
                         .requestMatchers(HttpMethod.POST, "/auth/cadastrar").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/auth/refresh").permitAll()
                         .requestMatchers("/h2-console/**").permitAll()
                         .requestMatchers("/api/test/public").permitAll()
+                        // Health aberto para o balanceador; métricas (ex: taxa de acerto dos caches) apenas para ADM
+                        .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("ADM")
                         // Não precisamos mais de uma regra específica para /api/empresas/** aqui,
                         // pois @PreAuthorize cuidará disso no controller.
                         // Mas se quisesse fazer a nível de HttpSecurity:
                         // .requestMatchers("/api/empresas/**").hasAuthority("ADM")
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Integrações (header X-API-Key) são autenticadas antes do JWT, em filtro próprio
+                .addFilterBefore(chaveApiAuthenticationFilter, JwtAuthenticationFilter.class);
 
         http.headers(headers -> headers.frameOptions(frameOptions -> frameOptions.sameOrigin()));
 
@@ -1,16 +1,25 @@
 package br.com.kandu.controller;
 
 import br.com.kandu.dto.LoginDTO;
+import br.com.kandu.dto.RefreshTokenDTO;
 import br.com.kandu.dto.TokenDTO;
 import br.com.kandu.dto.UsuarioCadastroDTO; // Para o endpoint de cadastro
 import br.com.kandu.entity.Usuario;       // Para o retorno do cadastro
+import br.com.kandu.exception.MuitasTentativasException;
+import br.com.kandu.exception.ServicoIndisponivelException;
+import br.com.kandu.security.LimitadorDeLogin;
+import br.com.kandu.security.jwt.TokenRevogacaoService;
+import br.com.kandu.service.RefreshTokenService;
 import br.com.kandu.service.UsuarioService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -19,10 +28,17 @@ import org.springframework.web.bind.annotation.RestController;
 public class AutenticacaoController {
 
     private final UsuarioService usuarioService;
+    private final LimitadorDeLogin limitadorDeLogin;
+    private final TokenRevogacaoService tokenRevogacaoService;
+    private final RefreshTokenService refreshTokenService;
 
     @Autowired
-    public AutenticacaoController(UsuarioService usuarioService) {
+    public AutenticacaoController(UsuarioService usuarioService, LimitadorDeLogin limitadorDeLogin,
+                                  TokenRevogacaoService tokenRevogacaoService, RefreshTokenService refreshTokenService) {
         this.usuarioService = usuarioService;
+        this.limitadorDeLogin = limitadorDeLogin;
+        this.tokenRevogacaoService = tokenRevogacaoService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     // Endpoint de Cadastro (movido ou criado aqui para centralizar auth)
@@ -36,6 +52,8 @@ public class AutenticacaoController {
             return ResponseEntity.status(HttpStatus.CREATED).body("Usuário " + novoUsuario.getNomeUsuario() + " cadastrado com sucesso!");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ServicoIndisponivelException e) {
+            return servicoIndisponivel(e);
         } catch (Exception e) {
             // Logar a exceção e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro ao cadastrar usuário.");
@@ -44,15 +62,70 @@ public class AutenticacaoController {
 
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginDTO loginDTO) {
+    public ResponseEntity<?> login(@RequestBody LoginDTO loginDTO, HttpServletRequest request) {
+        // Já resolvido pelo Tomcat a partir do X-Forwarded-For quando a conexão vem de um proxy confiável
+        String enderecoCliente = request.getRemoteAddr();
         try {
-            String token = usuarioService.autenticar(loginDTO);
-            return ResponseEntity.ok(new TokenDTO(token));
+            // Antes de qualquer BCrypt: tentativas acima do limite não chegam a custar CPU
+            limitadorDeLogin.verificar(loginDTO.getNomeUsuario(), enderecoCliente);
+            TokenDTO tokens = usuarioService.autenticar(loginDTO);
+            limitadorDeLogin.registrarSucesso(loginDTO.getNomeUsuario(), enderecoCliente);
+            return ResponseEntity.ok(tokens);
         } catch (BadCredentialsException e) {
+            limitadorDeLogin.registrarFalha(loginDTO.getNomeUsuario(), enderecoCliente);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Falha na autenticação: " + e.getMessage());
+        } catch (MuitasTentativasException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSegundos()))
+                    .body(e.getMessage());
+        } catch (ServicoIndisponivelException e) {
+            return servicoIndisponivel(e);
         } catch (Exception e) {
             // Logar a exceção e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno durante a autenticação.");
         }
     }
+
+    /**
+     * Troca um refresh token por um novo par de tokens, sem verificar a senha.
+     * O refresh token apresentado deixa de valer; reapresentá-lo revoga toda a cadeia.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenDTO dto) {
+        try {
+            return ResponseEntity.ok(refreshTokenService.renovar(dto.getRefreshToken()));
+        } catch (BadCredentialsException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Falha na renovação: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno durante a renovação do token.");
+        }
+    }
+
+    /**
+     * Revoga o token usado na requisição; ele deixa de ser aceito mesmo antes de expirar.
+     * Também revoga os refresh tokens: só a família do refresh token informado no corpo ou, sem ele,
+     * todos os do usuário. Assim o logout não pode ser desfeito com uma renovação.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                    @RequestBody(required = false) RefreshTokenDTO dto) {
+        try {
+            Long usuarioId = tokenRevogacaoService.revogarToken(authorization.substring("Bearer ".length()));
+            if (usuarioId != null) {
+                refreshTokenService.encerrarSessao(usuarioId, dto != null ? dto.getRefreshToken() : null);
+            }
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return ResponseEntity.badRequest().body("Token inválido para logout.");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno durante o logout.");
+        }
+    }
+
+    // 503 + Retry-After: o cliente sabe que deve tentar de novo, em vez de tratar como erro definitivo
+    static ResponseEntity<String> servicoIndisponivel(ServicoIndisponivelException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSegundos()))
+                .body(e.getMessage());
+    }
 }
\ No newline at end of file
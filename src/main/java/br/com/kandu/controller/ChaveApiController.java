@@ -0,0 +1,72 @@
+// src/main/java/br/com/kandu/controller/ChaveApiController.java
+package br.com.kandu.controller;
+
+import br.com.kandu.dto.ChaveApiCriacaoDTO;
+import br.com.kandu.dto.ChaveApiResponseDTO;
+import br.com.kandu.service.ChaveApiService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/chaves-api") // Chaves de API das integrações da empresa
+public class ChaveApiController {
+
+    private final ChaveApiService chaveApiService;
+
+    @Autowired
+    public ChaveApiController(ChaveApiService chaveApiService) {
+        this.chaveApiService = chaveApiService;
+    }
+
+    /**
+     * Endpoint para DIRETOR ou ADM criar uma chave de API para uma integração da sua empresa.
+     * A chave em claro só é devolvida nesta resposta.
+     *
+     * @param dto Descrição e nível da conta de serviço.
+     * @return ChaveApiResponseDTO com a chave, e status CREATED.
+     */
+    @PostMapping
+    @PreAuthorize("hasAnyAuthority('ADM', 'DIRETOR')")
+    public ResponseEntity<?> criarChave(@RequestBody ChaveApiCriacaoDTO dto) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(chaveApiService.criarChave(dto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno ao criar chave de API: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint para listar as chaves de API da empresa (sem os segredos).
+     */
+    @GetMapping
+    @PreAuthorize("hasAnyAuthority('ADM', 'DIRETOR')")
+    public ResponseEntity<List<ChaveApiResponseDTO>> listarChaves() {
+        return ResponseEntity.ok(chaveApiService.listarChavesDaEmpresa());
+    }
+
+    /**
+     * Endpoint para revogar uma chave de API. A revogação vale a partir da próxima requisição.
+     *
+     * @param id O ID da chave.
+     * @return NO_CONTENT, ou erro.
+     */
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyAuthority('ADM', 'DIRETOR')")
+    public ResponseEntity<?> revogarChave(@PathVariable Long id) {
+        try {
+            chaveApiService.revogarChave(id);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        }
+    }
+}
@@ -36,7 +36,7 @@ public class EmpresaController {
     public ResponseEntity<?> criarEmpresa(@RequestBody EmpresaDTO empresaDTO) {
         try {
             Empresa novaEmpresa = empresaService.criarEmpresa(empresaDTO);
-            EmpresaDTO responseDTO = new EmpresaDTO(novaEmpresa.getId(), novaEmpresa.getNome(), novaEmpresa.getCodigoInscricao());
+            EmpresaDTO responseDTO = new EmpresaDTO(novaEmpresa.getId(), novaEmpresa.getNome(), novaEmpresa.getCodigoInscricao(), novaEmpresa.getDiasParaArquivar());
             return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -57,7 +57,7 @@ public class EmpresaController {
     public ResponseEntity<?> buscarEmpresaPorId(@PathVariable Long id) {
         try {
             Empresa empresa = empresaService.buscarEmpresaPorId(id);
-            EmpresaDTO responseDTO = new EmpresaDTO(empresa.getId(), empresa.getNome(), empresa.getCodigoInscricao());
+            EmpresaDTO responseDTO = new EmpresaDTO(empresa.getId(), empresa.getNome(), empresa.getCodigoInscricao(), empresa.getDiasParaArquivar());
             return ResponseEntity.ok(responseDTO);
         } catch (IllegalArgumentException e) { // Ou RecursoNaoEncontradoException
             return ResponseEntity.notFound().build();
@@ -76,7 +76,7 @@ public class EmpresaController {
     public ResponseEntity<List<EmpresaDTO>> listarTodasEmpresas() {
         List<Empresa> empresas = empresaService.listarTodasEmpresas();
         List<EmpresaDTO> dtos = empresas.stream()
-                .map(empresa -> new EmpresaDTO(empresa.getId(), empresa.getNome(), empresa.getCodigoInscricao()))
+                .map(empresa -> new EmpresaDTO(empresa.getId(), empresa.getNome(), empresa.getCodigoInscricao(), empresa.getDiasParaArquivar()))
                 .collect(Collectors.toList());
         return ResponseEntity.ok(dtos);
     }
@@ -93,7 +93,7 @@ public class EmpresaController {
     public ResponseEntity<?> atualizarEmpresa(@PathVariable Long id, @RequestBody EmpresaDTO empresaDTO) {
         try {
             Empresa empresaAtualizada = empresaService.atualizarEmpresa(id, empresaDTO);
-            EmpresaDTO responseDTO = new EmpresaDTO(empresaAtualizada.getId(), empresaAtualizada.getNome(), empresaAtualizada.getCodigoInscricao());
+            EmpresaDTO responseDTO = new EmpresaDTO(empresaAtualizada.getId(), empresaAtualizada.getNome(), empresaAtualizada.getCodigoInscricao(), empresaAtualizada.getDiasParaArquivar());
             return ResponseEntity.ok(responseDTO);
         } catch (IllegalArgumentException e) { // Ou RecursoNaoEncontradoException/ValidacaoException
             return ResponseEntity.badRequest().body(e.getMessage());
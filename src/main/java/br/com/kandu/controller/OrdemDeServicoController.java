@@ -2,27 +2,85 @@
 package br.com.kandu.controller;
 
 import br.com.kandu.dto.OrdemDeServicoCriacaoDTO;
+import br.com.kandu.dto.OrdemDeServicoFiltroDTO;
 import br.com.kandu.dto.OrdemDeServicoResponseDTO;
+import br.com.kandu.dto.PaginaDTO;
+import br.com.kandu.dto.TransicaoStatusDTO;
 import br.com.kandu.entity.OrdemDeServico;
+import br.com.kandu.enums.FormatoExportacao;
+import br.com.kandu.enums.StatusOS;
+import br.com.kandu.exception.ServicoIndisponivelException;
+import br.com.kandu.exception.VersaoDesatualizadaException;
+import br.com.kandu.service.BuscaTextoOSService;
+import br.com.kandu.service.CarimboAlteracoesOSService;
+import br.com.kandu.service.ContadorStatusOSService;
+import br.com.kandu.service.ExportacaoOSService;
+import br.com.kandu.service.ImportacaoOSService;
 import br.com.kandu.service.OrdemDeServicoService;
+import br.com.kandu.service.RepetidorDeTransacoes;
+import br.com.kandu.service.TransicaoStatusOSService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/os")
 public class OrdemDeServicoController {
 
+    private static final Pattern ETAG_OS = Pattern.compile("(?:W/)?\"os-(\\d{1,18})-(\\d{1,18})\"");
+
     private final OrdemDeServicoService osService;
+    private final ExportacaoOSService exportacaoService;
+    private final ImportacaoOSService importacaoService;
+    private final ContadorStatusOSService contadorStatus;
+    private final CarimboAlteracoesOSService carimboAlteracoes;
+    private final RepetidorDeTransacoes repetidor;
+    private final TransicaoStatusOSService transicaoService;
+    private final BuscaTextoOSService buscaTexto;
+    private final int tamanhoPadrao;
+    private final int tamanhoMaximo;
+    private final long deslocamentoMaximo;
 
     @Autowired
-    public OrdemDeServicoController(OrdemDeServicoService osService) {
+    public OrdemDeServicoController(OrdemDeServicoService osService,
+                                    ExportacaoOSService exportacaoService,
+                                    ImportacaoOSService importacaoService,
+                                    ContadorStatusOSService contadorStatus,
+                                    CarimboAlteracoesOSService carimboAlteracoes,
+                                    RepetidorDeTransacoes repetidor,
+                                    TransicaoStatusOSService transicaoService,
+                                    BuscaTextoOSService buscaTexto,
+                                    @Value("${kandu.os.paginacao.tamanho-padrao:20}") int tamanhoPadrao,
+                                    @Value("${kandu.os.paginacao.tamanho-maximo:100}") int tamanhoMaximo,
+                                    @Value("${kandu.os.paginacao.deslocamento-maximo:1000}") long deslocamentoMaximo) {
         this.osService = osService;
+        this.exportacaoService = exportacaoService;
+        this.importacaoService = importacaoService;
+        this.contadorStatus = contadorStatus;
+        this.carimboAlteracoes = carimboAlteracoes;
+        this.repetidor = repetidor;
+        this.transicaoService = transicaoService;
+        this.buscaTexto = buscaTexto;
+        this.tamanhoPadrao = tamanhoPadrao;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.deslocamentoMaximo = deslocamentoMaximo;
     }
 
     @PostMapping
@@ -30,28 +88,186 @@ public class OrdemDeServicoController {
     public ResponseEntity<?> criarOS(@RequestBody OrdemDeServicoCriacaoDTO dto) {
         try {
             OrdemDeServico novaOS = osService.criarOS(dto);
-            return ResponseEntity.status(HttpStatus.CREATED).body(mapToResponseDTO(novaOS));
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(etagOS(novaOS.getId(), novaOS.getVersao()))
+                    .body(mapToResponseDTO(novaOS));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Lista as OS visíveis ao utilizador, paginadas por cursor (da mais recente para a mais antiga).
+     * O tamanho da página é limitado a kandu.os.paginacao.tamanho-maximo; o salto por número de página
+     * só é aceito até kandu.os.paginacao.deslocamento-maximo itens, e além disso é preciso seguir o cursor.
+     * Responde 304, sem consultar as OS, quando o If-None-Match traz o ETag atual da mesma consulta.
+     *
+     * @param cursor  O proximoCursor devolvido na página anterior.
+     * @param pagina  Número da página (a partir de 0), para saltos da interface.
+     * @param tamanho Itens por página.
+     * @return A página de OS e o cursor da próxima.
+     */
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<OrdemDeServicoResponseDTO>> listarOS() {
-        List<OrdemDeServico> listaOS = osService.listarOS();
-        List<OrdemDeServicoResponseDTO> dtos = listaOS.stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<?> listarOS(@RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) Integer pagina,
+                                      @RequestParam(required = false) Integer tamanho,
+                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                      HttpServletRequest request) {
+        int tamanhoEfetivo = tamanho == null ? tamanhoPadrao : Math.max(1, Math.min(tamanho, tamanhoMaximo));
+        if (pagina != null && (pagina < 0 || (long) pagina * tamanhoEfetivo > deslocamentoMaximo)) {
+            return ResponseEntity.badRequest().body("Página fora do limite para salto direto; use o cursor para avançar.");
+        }
+        String etag = etagListagem(request);
+        if (CarimboAlteracoesOSService.corresponde(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        try {
+            PaginaDTO<OrdemDeServicoResponseDTO> paginaOS = osService.listarOS(cursor, pagina, tamanhoEfetivo)
+                    .map(this::mapToResponseDTO);
+            return ResponseEntity.ok().eTag(etag).body(paginaOS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Filtra as OS visíveis ao utilizador por status, responsável, criador, intervalo de prazo, local,
+     * projeto privado e data de criação. Paginado por cursor, com os mesmos limites de tamanho da listagem.
+     *
+     * @param filtro  Critérios do filtro, como parâmetros de consulta (ex: ?status=ABERTA&status=EM_ANDAMENTO&responsavelId=3).
+     * @param cursor  O proximoCursor devolvido na página anterior.
+     * @param tamanho Itens por página.
+     * @return A página de OS filtradas e o cursor da próxima.
+     */
+    @GetMapping("/filtrar")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> filtrarOS(@ModelAttribute OrdemDeServicoFiltroDTO filtro,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(required = false) Integer tamanho,
+                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                       HttpServletRequest request) {
+        int tamanhoEfetivo = tamanho == null ? tamanhoPadrao : Math.max(1, Math.min(tamanho, tamanhoMaximo));
+        String etag = etagListagem(request);
+        if (CarimboAlteracoesOSService.corresponde(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        try {
+            PaginaDTO<OrdemDeServicoResponseDTO> paginaOS = osService.filtrarOS(filtro, cursor, tamanhoEfetivo)
+                    .map(this::mapToResponseDTO);
+            return ResponseEntity.ok().eTag(etag).body(paginaOS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Busca textual no título, na descrição e nos requisitos das OS visíveis ao utilizador (mesmas regras da
+     * listagem). Todos os termos precisam aparecer, cada um como início de palavra, sem diferenciar acentos nem
+     * maiúsculas. Paginado por cursor, do maior id para o menor (aproximadamente da OS mais recente para a mais
+     * antiga), com os limites de tamanho da listagem.
+     *
+     * @param q                 O texto buscado (ex: "vazamento bomba").
+     * @param incluirArquivadas Se as OS arquivadas também entram no resultado.
+     * @param cursor            O proximoCursor devolvido na página anterior.
+     * @param tamanho           Itens por página.
+     * @return A página de OS encontradas; 503 com Retry-After enquanto o índice é construído.
+     */
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> buscarOS(@RequestParam String q,
+                                      @RequestParam(defaultValue = "false") boolean incluirArquivadas,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) Integer tamanho) {
+        int tamanhoEfetivo = tamanho == null ? tamanhoPadrao : Math.max(1, Math.min(tamanho, tamanhoMaximo));
+        try {
+            PaginaDTO<OrdemDeServicoResponseDTO> paginaOS = buscaTexto.buscar(osService.visibilidadeDoUtilizadorLogado(),
+                    q, incluirArquivadas, cursor, tamanhoEfetivo).map(this::mapToResponseDTO);
+            return ResponseEntity.ok(paginaOS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ServicoIndisponivelException e) {
+            return AutenticacaoController.servicoIndisponivel(e);
+        }
     }
 
+    /**
+     * Exporta todas as OS visíveis ao utilizador (mesmas regras da listagem) em NDJSON ou CSV.
+     * A resposta é escrita à medida que as linhas são lidas do banco, sem montar a lista em memória.
+     *
+     * @param formato "ndjson" (padrão) ou "csv".
+     * @return O corpo em streaming, como anexo.
+     */
+    @GetMapping("/exportar")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> exportarOS(@RequestParam(defaultValue = "ndjson") String formato) {
+        FormatoExportacao formatoExportacao;
+        try {
+            formatoExportacao = FormatoExportacao.valueOf(formato.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            // O tipo de retorno precisa ser StreamingResponseBody também no erro
+            byte[] mensagem = "Formato de exportação inválido: use ndjson ou csv.".getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(saida -> saida.write(mensagem));
+        }
+        // Resolvida aqui: a escrita roda em outra thread, sem o contexto de segurança da requisição
+        OrdemDeServicoService.Visibilidade visibilidade = osService.visibilidadeDoUtilizadorLogado();
+        StreamingResponseBody corpo = saida -> exportacaoService.exportar(visibilidade, formatoExportacao, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatoExportacao.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ordens-de-servico." + formatoExportacao.getExtensao() + "\"")
+                .body(corpo);
+    }
+
+    /**
+     * Importa OS em massa para a empresa do utilizador, a partir de CSV (com cabeçalho, colunas como na exportação)
+     * ou NDJSON, conforme o Content-Type. O corpo é lido à medida que chega; as linhas válidas são gravadas em
+     * blocos e as inválidas voltam no relatório, sem impedir as demais.
+     *
+     * @return 200 com o total importado e os erros por linha; 400 se o arquivo não puder ser lido; 415 para outro formato.
+     */
+    @PostMapping("/importar")
+    @PreAuthorize("hasAnyAuthority('SUPERVISOR', 'GESTOR', 'DIRETOR', 'ADM')")
+    public ResponseEntity<?> importarOS(@RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                        InputStream corpo) {
+        FormatoExportacao formato = FormatoExportacao.doContentType(contentType);
+        if (formato == null) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body("Envie text/csv ou application/x-ndjson.");
+        }
+        try {
+            return ResponseEntity.ok(importacaoService.importar(formato, corpo));
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Quantidade de OS da empresa em cada status, para os painéis. Lida da contagem em memória, sem COUNT no banco.
+     * O ADM recebe a soma de todas as empresas.
+     *
+     * @return Um total para cada StatusOS.
+     */
+    @GetMapping("/contagem")
+    @PreAuthorize("hasAnyAuthority('SUPERVISOR', 'GESTOR', 'DIRETOR', 'ADM')")
+    public ResponseEntity<Map<StatusOS, Long>> contarPorStatus() {
+        return ResponseEntity.ok(contadorStatus.contagem(osService.visibilidadeDoUtilizadorLogado().empresaId()));
+    }
+
+    /**
+     * Detalhe de uma OS, com a versão da OS como ETag.
+     * Com If-None-Match, a versão atual é lida sem carregar a OS; se o cliente já a tem, a resposta é 304.
+     */
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> buscarOSPorId(@PathVariable Long id) {
+    public ResponseEntity<?> buscarOSPorId(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            if (ifNoneMatch != null) {
+                String etagAtual = etagOS(id, osService.buscarVersaoOS(id));
+                if (CarimboAlteracoesOSService.corresponde(ifNoneMatch, etagAtual)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etagAtual).build();
+                }
+            }
             OrdemDeServico os = osService.buscarOSPorId(id);
-            return ResponseEntity.ok(mapToResponseDTO(os));
+            return ResponseEntity.ok().eTag(etagOS(os.getId(), os.getVersao())).body(mapToResponseDTO(os));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         } catch (SecurityException e) {
@@ -59,17 +275,51 @@ public class OrdemDeServicoController {
         }
     }
 
+    /**
+     * Cancela (ou arquiva) a OS. Com If-Match, só altera a versão que o cliente viu (412 se já mudou);
+     * sem ele, a operação é repetida automaticamente se outra escrita na OS acontecer ao mesmo tempo.
+     * Um conflito que persista é respondido com 409.
+     */
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAnyAuthority('SUPERVISOR', 'GESTOR', 'DIRETOR', 'ADM')")
-    public ResponseEntity<Void> deletarOS(@PathVariable Long id) {
+    public ResponseEntity<?> deletarOS(@PathVariable Long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long versaoEsperada = versaoDoIfMatch(ifMatch, id);
         try {
-            osService.deletarOS(id);
+            if (versaoEsperada == null) {
+                repetidor.executar(() -> osService.deletarOS(id, null));
+            } else {
+                osService.deletarOS(id, versaoEsperada);
+            }
             return ResponseEntity.noContent().build();
+        } catch (VersaoDesatualizadaException e) {
+            return versaoDesatualizada(id, e);
+        } catch (OptimisticLockingFailureException e) {
+            return conflitoDeVersao();
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Aplica um lote de mudanças de status (ex: o encerramento de um turno) em uma única transação:
+     * ou todas as transições válidas são aplicadas, ou nenhuma. O ciclo de vida e os níveis exigidos
+     * estão em MaquinaDeEstadosOS; o tamanho do lote é limitado por kandu.os.transicoes.lote-maximo.
+     */
+    @PostMapping("/transitions")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> aplicarTransicoes(@RequestBody List<TransicaoStatusDTO> transicoes) {
+        try {
+            return ResponseEntity.ok(transicaoService.aplicar(transicoes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
     // --- NOVOS ENDPOINTS PARA PARTICIPANTES ---
 
     @PostMapping("/{osId}/participantes/{usuarioId}")
@@ -83,33 +333,66 @@ public class OrdemDeServicoController {
         }
     }
 
+    // Mesmas regras de If-Match e repetição do deletarOS
     @DeleteMapping("/{osId}/participantes/{participanteId}")
     @PreAuthorize("hasAnyAuthority('SUPERVISOR', 'GESTOR', 'DIRETOR', 'ADM')")
-    public ResponseEntity<?> removerParticipante(@PathVariable Long osId, @PathVariable Long participanteId) {
+    public ResponseEntity<?> removerParticipante(@PathVariable Long osId, @PathVariable Long participanteId,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long versaoEsperada = versaoDoIfMatch(ifMatch, osId);
         try {
-            osService.removerParticipante(osId, participanteId);
+            if (versaoEsperada == null) {
+                repetidor.executar(() -> osService.removerParticipante(osId, participanteId, null));
+            } else {
+                osService.removerParticipante(osId, participanteId, versaoEsperada);
+            }
             return ResponseEntity.noContent().build();
+        } catch (VersaoDesatualizadaException e) {
+            return versaoDesatualizada(osId, e);
+        } catch (OptimisticLockingFailureException e) {
+            return conflitoDeVersao();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    // Calculado antes de consultar as OS (ver CarimboAlteracoesOSService.etagListagem)
+    private String etagListagem(HttpServletRequest request) {
+        OrdemDeServicoService.Visibilidade visibilidade = osService.visibilidadeDoUtilizadorLogado();
+        return carimboAlteracoes.etagListagem(visibilidade.empresaId(),
+                CarimboAlteracoesOSService.descreverConsulta(request.getRequestURI(), request.getParameterMap())
+                        + "|criador=" + visibilidade.criadorId());
+    }
+
+    private static String etagOS(Long id, Long versao) {
+        return "W/\"os-" + id + "-" + versao + "\"";
+    }
+
+    /*
+     * Versão que o cliente espera alterar, lida do If-Match: null sem o header ou com "*".
+     * O ETag do detalhe é fraco só por não garantir bytes idênticos; ele identifica a versão exata, por isso é
+     * aceito aqui. Um ETag de outra OS ou de outro formato vira uma versão inexistente, e a alteração recebe 412.
+     */
+    private static Long versaoDoIfMatch(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Matcher etag = ETAG_OS.matcher(ifMatch.trim());
+        if (!etag.matches() || !etag.group(1).equals(id.toString())) {
+            return -1L;
+        }
+        return Long.valueOf(etag.group(2));
+    }
+
+    private static ResponseEntity<String> versaoDesatualizada(Long id, VersaoDesatualizadaException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(etagOS(id, e.getVersaoAtual())).body(e.getMessage());
+    }
+
+    private static ResponseEntity<String> conflitoDeVersao() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("A Ordem de Serviço foi alterada ao mesmo tempo por outro utilizador. Recarregue e tente novamente.");
+    }
+
     private OrdemDeServicoResponseDTO mapToResponseDTO(OrdemDeServico os) {
-        return OrdemDeServicoResponseDTO.builder()
-                .id(os.getId())
-                .titulo(os.getTitulo())
-                .descricao(os.getDescricao())
-                .local(os.getLocal())
-                .dataCadastro(os.getDataCadastro())
-                .prazo(os.getPrazo())
-                .status(os.getStatus())
-                .requisitos(os.getRequisitos())
-                .projetoPrivado(os.isProjetoPrivado())
-                .empresaId(os.getEmpresa().getId())
-                .criadorId(os.getCriador().getId())
-                .criadorNome(os.getCriador().getNomeCompleto())
-                .responsavelId(os.getResponsavel() != null ? os.getResponsavel().getId() : null)
-                .responsavelNome(os.getResponsavel() != null ? os.getResponsavel().getNomeCompleto() : null)
-                .build();
+        return OrdemDeServicoResponseDTO.de(os);
     }
 }
@@ -0,0 +1,80 @@
+// src/main/java/br/com/kandu/controller/QuadroController.java
+package br.com.kandu.controller;
+
+import br.com.kandu.enums.AgrupamentoQuadro;
+import br.com.kandu.service.CarimboAlteracoesOSService;
+import br.com.kandu.service.OrdemDeServicoService;
+import br.com.kandu.service.QuadroService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Locale;
+
+/**
+ * Quadro Kanban das Ordens de Serviço.
+ */
+@RestController
+@RequestMapping("/api/board")
+public class QuadroController {
+
+    private final QuadroService quadroService;
+    private final OrdemDeServicoService osService;
+    private final CarimboAlteracoesOSService carimboAlteracoes;
+    private final int cartoesPadrao;
+    private final int cartoesMaximo;
+
+    @Autowired
+    public QuadroController(QuadroService quadroService,
+                            OrdemDeServicoService osService,
+                            CarimboAlteracoesOSService carimboAlteracoes,
+                            @Value("${kandu.quadro.cartoes-por-coluna.padrao:10}") int cartoesPadrao,
+                            @Value("${kandu.quadro.cartoes-por-coluna.maximo:50}") int cartoesMaximo) {
+        this.quadroService = quadroService;
+        this.osService = osService;
+        this.carimboAlteracoes = carimboAlteracoes;
+        this.cartoesPadrao = cartoesPadrao;
+        this.cartoesMaximo = cartoesMaximo;
+    }
+
+    /**
+     * Devolve o quadro das OS visíveis ao utilizador: uma coluna por status, com o total de OS e os
+     * cartões mais recentes de cada uma, opcionalmente em raias por responsável.
+     * Responde 304, sem montar o quadro, quando o If-None-Match traz o ETag atual (ver CarimboAlteracoesOSService).
+     *
+     * @param raias    "responsavel" para uma raia por responsável; omitido para uma raia única.
+     * @param cartoes  Cartões por coluna, limitado a kandu.quadro.cartoes-por-coluna.maximo.
+     * @return O quadro, com todas as colunas (inclusive as vazias).
+     */
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> quadro(@RequestParam(required = false) String raias,
+                                    @RequestParam(required = false) Integer cartoes,
+                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                    HttpServletRequest request) {
+        AgrupamentoQuadro agrupamento;
+        try {
+            agrupamento = raias == null ? AgrupamentoQuadro.NENHUM : AgrupamentoQuadro.valueOf(raias.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Agrupamento de raias inválido: use responsavel ou nenhum.");
+        }
+        int cartoesEfetivo = cartoes == null ? cartoesPadrao : Math.max(1, Math.min(cartoes, cartoesMaximo));
+        OrdemDeServicoService.Visibilidade visibilidade = osService.visibilidadeDoUtilizadorLogado();
+        String etag = carimboAlteracoes.etagListagem(visibilidade.empresaId(),
+                CarimboAlteracoesOSService.descreverConsulta(request.getRequestURI(), request.getParameterMap())
+                        + "|criador=" + visibilidade.criadorId());
+        if (CarimboAlteracoesOSService.corresponde(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(quadroService.montarQuadro(visibilidade, agrupamento, cartoesEfetivo));
+    }
+}
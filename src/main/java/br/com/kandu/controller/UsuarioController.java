@@ -5,6 +5,7 @@ import br.com.kandu.dto.UsuarioAdminCriacaoDTO;
 import br.com.kandu.dto.UsuarioAdminAtualizacaoDTO;
 import br.com.kandu.dto.UsuarioResponseDTO;
 import br.com.kandu.entity.Usuario;
+import br.com.kandu.exception.ServicoIndisponivelException;
 import br.com.kandu.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -74,6 +75,8 @@ public class UsuarioController {
             return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
         } catch (IllegalArgumentException | SecurityException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ServicoIndisponivelException e) {
+            return AutenticacaoController.servicoIndisponivel(e);
         } catch (Exception e) {
             // Logar e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno ao criar usuário: " + e.getMessage());
@@ -0,0 +1,11 @@
+// src/main/java/br/com/kandu/dto/ChaveApiCriacaoDTO.java
+package br.com.kandu.dto;
+
+import br.com.kandu.enums.NivelHierarquia;
+import lombok.Data;
+
+@Data
+public class ChaveApiCriacaoDTO {
+    private String descricao;
+    private NivelHierarquia nivelHierarquia; // Nível da conta de serviço (COMUM ou SUPERVISOR); padrão COMUM
+}
@@ -0,0 +1,26 @@
+// src/main/java/br/com/kandu/dto/ChaveApiResponseDTO.java
+package br.com.kandu.dto;
+
+import br.com.kandu.enums.NivelHierarquia;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+public class ChaveApiResponseDTO {
+
+    private Long id;
+    private String prefixo;
+    private String descricao;
+    private Long contaServicoId;
+    private String contaServicoNome;
+    private NivelHierarquia nivelHierarquia;
+    private boolean ativa;
+    private LocalDateTime criadaEm;
+    private LocalDateTime revogadaEm;
+    private String chave; // Só preenchida na criação: o segredo não pode ser recuperado depois
+}
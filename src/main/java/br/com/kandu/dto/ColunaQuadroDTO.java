@@ -0,0 +1,21 @@
+// src/main/java/br/com/kandu/dto/ColunaQuadroDTO.java
+package br.com.kandu.dto;
+
+import br.com.kandu.enums.StatusOS;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Coluna do quadro Kanban: um status, o total de OS nele e os cartões mais recentes.
+ * O total conta todas as OS da coluna, mesmo as que não vieram em cartoes.
+ */
+@Getter
+@AllArgsConstructor
+public class ColunaQuadroDTO {
+
+    private StatusOS status;
+    private long total;
+    private List<OrdemDeServicoResponseDTO> cartoes; // Da mais recente para a mais antiga, no máximo o limite pedido
+}
@@ -23,10 +23,18 @@ public class EmpresaDTO {
     // @Size(min = 3, max = 20, message = "O código de inscrição deve ter entre 3 e 20 caracteres.")
     private String codigoInscricao;
 
+    // Dias após o encerramento para arquivar as OS. Na atualização: nulo mantém o valor atual, 0 volta ao padrão.
+    private Integer diasParaArquivar;
+
     // Construtor para facilitar a criação do DTO a partir da entidade
     public EmpresaDTO(Long id, String nome, String codigoInscricao) {
         this.id = id;
         this.nome = nome;
         this.codigoInscricao = codigoInscricao;
     }
+
+    public EmpresaDTO(Long id, String nome, String codigoInscricao, Integer diasParaArquivar) {
+        this(id, nome, codigoInscricao);
+        this.diasParaArquivar = diasParaArquivar;
+    }
 }
@@ -0,0 +1,16 @@
+// src/main/java/br/com/kandu/dto/ErroImportacaoDTO.java
+package br.com.kandu.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Uma linha rejeitada na importação de OS e o motivo.
+ */
+@Getter
+@AllArgsConstructor
+public class ErroImportacaoDTO {
+
+    private long linha; // Linha do arquivo (CSV: onde o registro começa; NDJSON: a linha do objeto)
+    private String mensagem;
+}
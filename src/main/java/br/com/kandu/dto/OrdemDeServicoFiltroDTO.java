@@ -0,0 +1,39 @@
+// src/main/java/br/com/kandu/dto/OrdemDeServicoFiltroDTO.java
+package br.com.kandu.dto;
+
+import br.com.kandu.enums.StatusOS;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Critérios de filtro das Ordens de Serviço, recebidos como parâmetros de consulta.
+ * Todos são opcionais e combinados com E; campos nulos não filtram.
+ */
+@Getter
+@Setter
+public class OrdemDeServicoFiltroDTO {
+
+    private Set<StatusOS> status; // Qualquer um dos status informados (ex: status=ABERTA&status=EM_ANDAMENTO)
+
+    private Boolean incluirArquivadas; // Sem filtro de status, as OS ARQUIVADA só entram com incluirArquivadas=true
+    private Long responsavelId;
+    private Long criadorId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate prazoDe; // Inclusivo
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate prazoAte; // Inclusivo
+
+    private String local; // Prefixo do local (ex: "Bloco A" encontra "Bloco A - Sala 3")
+
+    private Boolean projetoPrivado;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime criadaApos; // Exclusivo
+}
@@ -1,6 +1,7 @@
 // src/main/java/br/com/kandu/dto/OrdemDeServicoResponseDTO.java
 package br.com.kandu.dto;
 
+import br.com.kandu.entity.OrdemDeServico;
 import br.com.kandu.enums.StatusOS;
 import lombok.Builder;
 import lombok.Getter;
@@ -28,4 +29,26 @@ public class OrdemDeServicoResponseDTO {
     private String criadorNome;
     private Long responsavelId;
     private String responsavelNome;
+
+    /**
+     * Monta o DTO a partir da entidade. Espera criador e responsável já carregados.
+     */
+    public static OrdemDeServicoResponseDTO de(OrdemDeServico os) {
+        return OrdemDeServicoResponseDTO.builder()
+                .id(os.getId())
+                .titulo(os.getTitulo())
+                .descricao(os.getDescricao())
+                .local(os.getLocal())
+                .dataCadastro(os.getDataCadastro())
+                .prazo(os.getPrazo())
+                .status(os.getStatus())
+                .requisitos(os.getRequisitos())
+                .projetoPrivado(os.isProjetoPrivado())
+                .empresaId(os.getEmpresa().getId())
+                .criadorId(os.getCriador().getId())
+                .criadorNome(os.getCriador().getNomeCompleto())
+                .responsavelId(os.getResponsavel() != null ? os.getResponsavel().getId() : null)
+                .responsavelNome(os.getResponsavel() != null ? os.getResponsavel().getNomeCompleto() : null)
+                .build();
+    }
 }
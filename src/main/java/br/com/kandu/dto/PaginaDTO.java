@@ -0,0 +1,25 @@
+// src/main/java/br/com/kandu/dto/PaginaDTO.java
+package br.com.kandu.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Página de resultados de uma listagem paginada por cursor.
+ * O cliente repete a requisição com {@code cursor=proximoCursor} até que proximoCursor venha nulo.
+ */
+@Getter
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+    private List<T> itens;
+    private String proximoCursor; // Opaco para o cliente; nulo na última página
+
+    public <R> PaginaDTO<R> map(Function<T, R> conversor) {
+        return new PaginaDTO<>(itens.stream().map(conversor).collect(Collectors.toList()), proximoCursor);
+    }
+}
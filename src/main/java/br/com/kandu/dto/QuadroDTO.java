@@ -0,0 +1,20 @@
+// src/main/java/br/com/kandu/dto/QuadroDTO.java
+package br.com.kandu.dto;
+
+import br.com.kandu.enums.AgrupamentoQuadro;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Quadro Kanban das OS visíveis ao utilizador, já agrupado por raia e por status.
+ */
+@Getter
+@AllArgsConstructor
+public class QuadroDTO {
+
+    private AgrupamentoQuadro agrupamento;
+    private int cartoesPorColuna;
+    private List<RaiaQuadroDTO> raias;
+}
@@ -0,0 +1,21 @@
+// src/main/java/br/com/kandu/dto/RaiaQuadroDTO.java
+package br.com.kandu.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Raia (swimlane) do quadro Kanban, com uma coluna para cada status.
+ * Sem agrupamento, o quadro tem uma única raia com responsavelId e responsavelNome nulos;
+ * agrupado por responsável, a raia das OS sem responsável também vem com eles nulos.
+ */
+@Getter
+@AllArgsConstructor
+public class RaiaQuadroDTO {
+
+    private Long responsavelId;
+    private String responsavelNome;
+    private List<ColunaQuadroDTO> colunas;
+}
@@ -0,0 +1,10 @@
+package br.com.kandu.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class RefreshTokenDTO {
+    private String refreshToken;
+}
@@ -0,0 +1,19 @@
+// src/main/java/br/com/kandu/dto/ResultadoImportacaoDTO.java
+package br.com.kandu.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Resultado de uma importação de OS. As linhas válidas são gravadas mesmo quando outras são rejeitadas.
+ */
+@Getter
+@AllArgsConstructor
+public class ResultadoImportacaoDTO {
+
+    private long importadas;
+    private long rejeitadas;
+    private List<ErroImportacaoDTO> erros; // Limitada a kandu.os.importacao.max-erros; rejeitadas tem o total
+}
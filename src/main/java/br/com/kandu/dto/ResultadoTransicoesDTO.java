@@ -0,0 +1,16 @@
+// src/main/java/br/com/kandu/dto/ResultadoTransicoesDTO.java
+package br.com.kandu.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Resultado de um lote de transições de status, aplicado por inteiro ou não aplicado.
+ */
+@Getter
+@AllArgsConstructor
+public class ResultadoTransicoesDTO {
+
+    private int aplicadas;
+    private int ignoradas; // OS que já estavam no status pedido
+}
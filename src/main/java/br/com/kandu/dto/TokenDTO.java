@@ -12,8 +12,14 @@ import lombok.Setter;
 public class TokenDTO {
     private String tipo = "Bearer"; // Tipo de token, comum ser "Bearer"
     private String token;
+    private String refreshToken; // Uso único: cada renovação devolve um novo
 
     public TokenDTO(String token) {
         this.token = token;
     }
+
+    public TokenDTO(String token, String refreshToken) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+    }
 }
\ No newline at end of file
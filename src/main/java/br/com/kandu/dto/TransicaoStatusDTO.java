@@ -0,0 +1,18 @@
+// src/main/java/br/com/kandu/dto/TransicaoStatusDTO.java
+package br.com.kandu.dto;
+
+import br.com.kandu.enums.StatusOS;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Um item do lote de POST /api/os/transitions: a OS e o status para o qual ela deve ir.
+ */
+@Getter
+@Setter
+public class TransicaoStatusDTO {
+
+    private Long osId;
+
+    private StatusOS status;
+}
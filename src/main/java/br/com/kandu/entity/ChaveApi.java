@@ -0,0 +1,63 @@
+// src/main/java/br/com/kandu/entity/ChaveApi.java
+package br.com.kandu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Chave de API de uma integração (máquina a máquina) de uma empresa.
+ * Por que foi implementado: integrações não devem usar login e senha de pessoas nem renovar tokens JWT.
+ * Cada chave pertence a uma conta de serviço (um Usuario da empresa, com nível limitado) e é apresentada
+ * no header X-API-Key. Só o prefixo (público, usado para localizar a chave) e o HMAC-SHA256 do segredo
+ * são gravados; o segredo em claro só existe na resposta da criação.
+ */
+@Entity
+@Table(name = "chaves_api",
+        uniqueConstraints = @UniqueConstraint(columnNames = "prefixo", name = "uk_chave_api_prefixo"),
+        indexes = @Index(columnList = "empresa_id", name = "idx_chave_api_empresa"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class ChaveApi {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String prefixo;
+
+    @Column(nullable = false, length = 64)
+    private String hash;
+
+    @Column(length = 150)
+    private String descricao;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "empresa_id", nullable = false)
+    private Empresa empresa;
+
+    /**
+     * Conta de serviço em nome da qual a integração age (define o nível hierárquico da chave).
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "conta_servico_id", nullable = false)
+    private Usuario contaServico;
+
+    @CreationTimestamp
+    @Column(name = "criada_em", nullable = false, updatable = false)
+    private LocalDateTime criadaEm;
+
+    @Column(name = "revogada_em")
+    private LocalDateTime revogadaEm;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean ativa = true;
+}
@@ -18,7 +18,8 @@ import java.util.List; // Será usado para relacionamentos futuros (ex: com Usua
 public class Empresa {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_empresas")
+    @SequenceGenerator(name = "seq_empresas", sequenceName = "seq_empresas", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 100)
@@ -31,6 +32,13 @@ public class Empresa {
     @Column(name = "codigo_inscricao", nullable = false, unique = true, length = 20)
     private String codigoInscricao;
 
+    /**
+     * Dias após o encerramento (conclusão ou cancelamento) em que as OS da empresa são arquivadas automaticamente.
+     * Nulo usa o padrão da aplicação (kandu.os.arquivamento.dias-padrao).
+     */
+    @Column(name = "dias_para_arquivar")
+    private Integer diasParaArquivar;
+
     // Relacionamento com Usuario (Uma Empresa para Muitos Usuários)
     // O mappedBy indica que a entidade Usuario é a dona do relacionamento.
     // CascadeType.ALL pode ser perigoso aqui, especialmente para remoção.
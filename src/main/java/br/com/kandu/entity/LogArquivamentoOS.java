@@ -0,0 +1,58 @@
+// src/main/java/br/com/kandu/entity/LogArquivamentoOS.java
+package br.com.kandu.entity;
+
+import br.com.kandu.enums.StatusOS;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de auditoria de um lote do arquivamento automático de OS.
+ * Por que foi implementado: o job arquiva milhares de OS por execução, e um LogHistoricoOS por OS dobraria
+ * as escritas do lote (e cresceria junto com o que se quer tirar do caminho). Cada lote grava um único
+ * resumo: empresa, status de origem, quantidade, intervalo de ids e a data de corte usada.
+ */
+@Entity
+@Table(name = "log_arquivamento_os",
+        indexes = @Index(columnList = "empresa_id, timestamp", name = "idx_log_arquivamento_empresa"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class LogArquivamentoOS {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Uma linha por lote: não há INSERTs para agrupar
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "empresa_id", nullable = false)
+    private Empresa empresa;
+
+    @CreationTimestamp
+    @Column(name = "timestamp", nullable = false, updatable = false)
+    private LocalDateTime timestamp;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status_anterior", nullable = false, length = 30)
+    private StatusOS statusAnterior;
+
+    @Column(nullable = false)
+    private int quantidade;
+
+    @Column(name = "primeiro_os_id", nullable = false)
+    private Long primeiroOsId;
+
+    @Column(name = "ultimo_os_id", nullable = false)
+    private Long ultimoOsId;
+
+    /**
+     * Data de corte do lote: foram arquivadas as OS encerradas antes dela.
+     */
+    @Column(name = "encerradas_antes_de", nullable = false)
+    private LocalDateTime encerradasAntesDe;
+}
@@ -14,7 +14,9 @@ import java.time.LocalDateTime;
  * e eventos importantes que ocorreram durante o ciclo de vida de uma OS.
  */
 @Entity
-@Table(name = "log_historico_os")
+@Table(name = "log_historico_os", indexes = {
+        @Index(columnList = "ordem_servico_id, timestamp", name = "idx_log_os_timestamp") // Histórico da OS, mais recente primeiro
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,7 +26,8 @@ import java.time.LocalDateTime;
 public class LogHistoricoOS {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_log_historico_os")
+    @SequenceGenerator(name = "seq_log_historico_os", sequenceName = "seq_log_historico_os", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -11,7 +11,17 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ordens_servico")
+@Table(name = "ordens_servico", indexes = {
+        // Listagem paginada por cursor: (empresa, data de cadastro, id), percorrido em ordem decrescente
+        @Index(columnList = "empresa_id, data_cadastro, id", name = "idx_os_empresa_data_cadastro"),
+        @Index(columnList = "empresa_id, criador_id, data_cadastro, id", name = "idx_os_empresa_criador_data_cadastro"),
+        // Filtros do quadro (OrdemDeServicoSpecs)
+        @Index(columnList = "empresa_id, status, data_cadastro", name = "idx_os_empresa_status"),
+        @Index(columnList = "empresa_id, responsavel_id, data_cadastro", name = "idx_os_empresa_responsavel"),
+        @Index(columnList = "empresa_id, prazo", name = "idx_os_empresa_prazo"),
+        // Lotes do arquivamento automático (ArquivamentoOSService)
+        @Index(columnList = "empresa_id, status, data_encerramento", name = "idx_os_empresa_status_encerramento")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,7 +31,9 @@ import java.time.LocalDateTime;
 public class OrdemDeServico {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Ids reservados em blocos (pooled-lo, ver V4__sequencias_ids.sql), o que permite agrupar os INSERTs em lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_ordens_servico")
+    @SequenceGenerator(name = "seq_ordens_servico", sequenceName = "seq_ordens_servico", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 200)
@@ -47,9 +59,22 @@ public class OrdemDeServico {
     @Column(columnDefinition = "TEXT")
     private String requisitos;
 
+    /**
+     * Quando a OS foi concluída ou cancelada (nula enquanto estiver em aberto). Conta o prazo do arquivamento automático.
+     */
+    @Column(name = "data_encerramento")
+    private LocalDateTime dataEncerramento;
+
     @Column(name = "projeto_privado", nullable = false)
     private boolean projetoPrivado = false;
 
+    /**
+     * Incrementada pelo Hibernate a cada atualização da OS. Identifica a versão exibida ao cliente (ETag).
+     */
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "empresa_id", nullable = false)
     private Empresa empresa;
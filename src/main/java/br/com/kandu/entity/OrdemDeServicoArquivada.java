@@ -0,0 +1,101 @@
+// src/main/java/br/com/kandu/entity/OrdemDeServicoArquivada.java
+package br.com.kandu.entity;
+
+import br.com.kandu.enums.StatusOS;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Uma OS ARQUIVADA já transferida para o arquivo (ordens_servico_arquivo). Somente leitura.
+ * Por que foi implementado: mesmo fora das listagens, as OS arquivadas continuavam ocupando ordens_servico e os
+ * seus índices, que crescem sem parar enquanto o trabalho ativo fica do mesmo tamanho. No arquivo, elas continuam
+ * acessíveis pelo detalhe e pela busca com arquivadas, convertidas em {@link OrdemDeServico} desanexadas.
+ * Os atributos têm os mesmos nomes da OS, para que OrdemDeServicoSpecs filtre as duas tabelas.
+ */
+@Entity
+@Immutable
+@Table(name = "ordens_servico_arquivo", indexes = {
+        @Index(columnList = "empresa_id, data_cadastro, id", name = "idx_os_arquivo_empresa_data_cadastro"),
+        @Index(columnList = "empresa_id, criador_id, data_cadastro, id", name = "idx_os_arquivo_empresa_criador")
+})
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class OrdemDeServicoArquivada {
+
+    @Id
+    private Long id; // O mesmo da OS original
+
+    @Column(nullable = false, length = 200)
+    private String titulo;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String descricao;
+
+    @Column(length = 255)
+    private String local;
+
+    @Column(name = "data_cadastro", nullable = false)
+    private LocalDateTime dataCadastro;
+
+    @Column(name = "prazo")
+    private LocalDate prazo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private StatusOS status;
+
+    @Column(columnDefinition = "TEXT")
+    private String requisitos;
+
+    @Column(name = "projeto_privado", nullable = false)
+    private boolean projetoPrivado;
+
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
+    @Column(name = "data_encerramento")
+    private LocalDateTime dataEncerramento;
+
+    @Column(name = "transferida_em", nullable = false)
+    private LocalDateTime transferidaEm;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "empresa_id", nullable = false)
+    private Empresa empresa;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "criador_id", nullable = false)
+    private Usuario criador;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "responsavel_id")
+    private Usuario responsavel;
+
+    /**
+     * Cópia desanexada como OrdemDeServico, para as respostas que já montam o DTO a partir dela.
+     * Não deve ser salva: a OS não existe mais em ordens_servico.
+     */
+    public OrdemDeServico paraOrdemDeServico() {
+        return OrdemDeServico.builder()
+                .id(id)
+                .titulo(titulo)
+                .descricao(descricao)
+                .local(local)
+                .dataCadastro(dataCadastro)
+                .prazo(prazo)
+                .status(status)
+                .requisitos(requisitos)
+                .projetoPrivado(projetoPrivado)
+                .versao(versao)
+                .dataEncerramento(dataEncerramento)
+                .empresa(empresa)
+                .criador(criador)
+                .responsavel(responsavel)
+                .build();
+    }
+}
@@ -27,7 +27,8 @@ import java.time.LocalDateTime;
 public class ParticipanteOS {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_participantes_os")
+    @SequenceGenerator(name = "seq_participantes_os", sequenceName = "seq_participantes_os", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -0,0 +1,61 @@
+// src/main/java/br/com/kandu/entity/RefreshToken.java
+package br.com.kandu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Refresh token de uso único, usado para obter um novo token de acesso sem repetir o login.
+ * Por que foi implementado: com tokens de acesso curtos, cada renovação por login custaria uma
+ * verificação BCrypt; a renovação por refresh token é só uma busca indexada pelo hash.
+ * Apenas o hash SHA-256 do token é gravado. Cada uso gera um novo token da mesma família; o reuso de
+ * um token já usado indica roubo e revoga a família inteira.
+ */
+@Entity
+@Table(name = "refresh_tokens",
+        uniqueConstraints = @UniqueConstraint(columnNames = "hash", name = "uk_refresh_token_hash"),
+        indexes = {
+                @Index(columnList = "familia", name = "idx_refresh_token_familia"),
+                @Index(columnList = "expira_em", name = "idx_refresh_token_expira_em")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String hash;
+
+    /**
+     * Identifica a cadeia de tokens originada em um mesmo login.
+     */
+    @Column(nullable = false, length = 36)
+    private String familia;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @CreationTimestamp
+    @Column(name = "criado_em", nullable = false, updatable = false)
+    private LocalDateTime criadoEm;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    @Column(name = "usado_em")
+    private LocalDateTime usadoEm;
+
+    @Column(nullable = false)
+    private boolean revogado;
+}
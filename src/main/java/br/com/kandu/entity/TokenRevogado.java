@@ -0,0 +1,49 @@
+// src/main/java/br/com/kandu/entity/TokenRevogado.java
+package br.com.kandu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Token JWT revogado antes da sua expiração (ex: logout).
+ * Por que foi implementado: o JWT é stateless e valeria até o "exp"; a lista de revogados guarda o "jti"
+ * dos tokens invalidados até o momento em que eles expirariam, quando a linha pode ser apagada.
+ */
+@Entity
+@Table(name = "tokens_revogados",
+        uniqueConstraints = @UniqueConstraint(columnNames = "jti", name = "uk_token_revogado_jti"),
+        indexes = {
+                @Index(columnList = "expira_em", name = "idx_token_revogado_expira_em"),
+                @Index(columnList = "revogado_em", name = "idx_token_revogado_revogado_em")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class TokenRevogado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String jti;
+
+    /**
+     * Usuário dono do token. Sem chave estrangeira: a linha é só uma marca de revogação.
+     */
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    @CreationTimestamp
+    @Column(name = "revogado_em", nullable = false, updatable = false)
+    private LocalDateTime revogadoEm;
+}
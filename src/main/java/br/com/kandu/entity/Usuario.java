@@ -23,7 +23,8 @@ import java.util.List;
 public class Usuario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_usuarios")
+    @SequenceGenerator(name = "seq_usuarios", sequenceName = "seq_usuarios", allocationSize = 50)
     private Long id;
 
     @Column(name = "nome_completo", nullable = false, length = 150)
@@ -48,6 +49,10 @@ public class Usuario {
     @Column(nullable = false)
     private boolean ativo = true;
 
+    // Incrementada quando o nível ou o status da conta mudam; tokens com versão anterior deixam de valer
+    @Column(name = "versao_conta", nullable = false)
+    private long versaoConta;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "empresa_id", nullable = false)
     private Empresa empresa;
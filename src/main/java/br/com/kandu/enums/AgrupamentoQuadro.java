@@ -0,0 +1,12 @@
+// src/main/java/br/com/kandu/enums/AgrupamentoQuadro.java
+package br.com.kandu.enums;
+
+/**
+ * Raias (swimlanes) do quadro Kanban: como as colunas de status são repetidas em linhas.
+ * NENHUM monta uma única raia com todas as OS; RESPONSAVEL monta uma raia por responsável,
+ * mais uma para as OS sem responsável.
+ */
+public enum AgrupamentoQuadro {
+    NENHUM,
+    RESPONSAVEL
+}
@@ -0,0 +1,45 @@
+// src/main/java/br/com/kandu/enums/FormatoExportacao.java
+package br.com.kandu.enums;
+
+/**
+ * Formatos aceitos na exportação (e na importação) de Ordens de Serviço.
+ * Por que foi implementado: as cargas noturnas para planilhas e BI consomem CSV, e as integrações
+ * preferem NDJSON (um objeto JSON por linha), que pode ser processado à medida que chega.
+ */
+public enum FormatoExportacao {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extensao;
+
+    FormatoExportacao(String contentType, String extensao) {
+        this.contentType = contentType;
+        this.extensao = extensao;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    /**
+     * @return O formato com o Content-Type informado (parâmetros como charset são ignorados), ou null.
+     */
+    public static FormatoExportacao doContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String tipo = contentType.split(";", 2)[0].trim();
+        for (FormatoExportacao formato : values()) {
+            if (formato.contentType.equalsIgnoreCase(tipo)) {
+                return formato;
+            }
+        }
+        return null;
+    }
+}
@@ -36,5 +36,12 @@ public enum StatusOS {
     /**
      * A OS foi cancelada antes da sua conclusão.
      */
-    CANCELADA
+    CANCELADA;
+
+    /**
+     * @return true para os status em que a OS está encerrada e aguarda o arquivamento (CONCLUIDA e CANCELADA).
+     */
+    public boolean isEncerramento() {
+        return this == CONCLUIDA || this == CANCELADA;
+    }
 }
@@ -0,0 +1,23 @@
+// src/main/java/br/com/kandu/exception/MuitasTentativasException.java
+package br.com.kandu.exception;
+
+/**
+ * Lançada quando um cliente excede o limite de tentativas (ex: de login).
+ * Os controllers a convertem em 429 (Too Many Requests) com o header Retry-After.
+ */
+public class MuitasTentativasException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    public MuitasTentativasException(String mensagem, long retryAfterSegundos) {
+        super(mensagem);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    /**
+     * @return Em quantos segundos o cliente pode tentar novamente.
+     */
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
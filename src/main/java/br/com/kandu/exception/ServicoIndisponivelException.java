@@ -0,0 +1,23 @@
+// src/main/java/br/com/kandu/exception/ServicoIndisponivelException.java
+package br.com.kandu.exception;
+
+/**
+ * Lançada quando o servidor recusa uma operação por estar sobrecarregado.
+ * Os controllers a convertem em 503 (Service Unavailable) com o header Retry-After.
+ */
+public class ServicoIndisponivelException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    public ServicoIndisponivelException(String mensagem, long retryAfterSegundos) {
+        super(mensagem);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    /**
+     * @return Em quantos segundos o cliente deve tentar novamente.
+     */
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
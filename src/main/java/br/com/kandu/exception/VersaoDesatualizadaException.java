@@ -0,0 +1,23 @@
+// src/main/java/br/com/kandu/exception/VersaoDesatualizadaException.java
+package br.com.kandu.exception;
+
+/**
+ * Lançada quando o cliente pede uma alteração condicionada a uma versão (If-Match) que não é mais a atual.
+ * Os controllers a convertem em 412 (Precondition Failed) com o ETag atual, para o cliente recarregar a OS.
+ */
+public class VersaoDesatualizadaException extends RuntimeException {
+
+    private final long versaoAtual;
+
+    public VersaoDesatualizadaException(String mensagem, long versaoAtual) {
+        super(mensagem);
+        this.versaoAtual = versaoAtual;
+    }
+
+    /**
+     * @return A versão atual da OS.
+     */
+    public long getVersaoAtual() {
+        return versaoAtual;
+    }
+}
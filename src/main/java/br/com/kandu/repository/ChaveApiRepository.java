@@ -0,0 +1,21 @@
+// src/main/java/br/com/kandu/repository/ChaveApiRepository.java
+package br.com.kandu.repository;
+
+import br.com.kandu.entity.ChaveApi;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChaveApiRepository extends JpaRepository<ChaveApi, Long> {
+
+    // Já traz a conta de serviço e a empresa, das quais sai o principal da integração
+    @EntityGraph(attributePaths = {"contaServico", "empresa"})
+    Optional<ChaveApi> findByPrefixo(String prefixo);
+
+    @EntityGraph(attributePaths = {"contaServico"})
+    List<ChaveApi> findByEmpresaIdOrderByCriadaEmDesc(Long empresaId);
+}
@@ -2,12 +2,31 @@ package br.com.kandu.repository;
 
 import br.com.kandu.entity.Empresa;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
     Optional<Empresa> findByCodigoInscricao(String codigoInscricao);
     boolean existsByCodigoInscricao(String codigoInscricao);
+
+    // Carimbo de alterações das OS (ver CarimboAlteracoesOSService); a coluna não é mapeada na entidade
+    @Modifying
+    @Query(value = "update empresas set carimbo_os = carimbo_os + 1 where id = :id", nativeQuery = true)
+    int avancarCarimboOS(@Param("id") Long id);
+
+    @Query(value = "select carimbo_os from empresas where id = :id", nativeQuery = true)
+    Optional<Long> findCarimboOS(@Param("id") Long id);
+
+    @Query(value = "select cast(coalesce(sum(carimbo_os), 0) as bigint) from empresas", nativeQuery = true)
+    long somarCarimbosOS();
+
+    // Carimbo de cada empresa (id, carimbo_os), para a sincronização periódica da busca textual
+    @Query(value = "select id, carimbo_os from empresas", nativeQuery = true)
+    List<Object[]> buscarCarimbosOS();
 }
@@ -0,0 +1,17 @@
+// src/main/java/br/com/kandu/repository/LogArquivamentoOSRepository.java
+package br.com.kandu.repository;
+
+import br.com.kandu.entity.LogArquivamentoOS;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LogArquivamentoOSRepository extends JpaRepository<LogArquivamentoOS, Long> {
+
+    @Query("select l from LogArquivamentoOS l where l.empresa.id = :empresaId order by l.timestamp desc, l.id desc")
+    List<LogArquivamentoOS> findByEmpresaId(@Param("empresaId") Long empresaId);
+}
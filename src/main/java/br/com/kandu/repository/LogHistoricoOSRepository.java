@@ -3,6 +3,8 @@ package br.com.kandu.repository;
 
 import br.com.kandu.entity.LogHistoricoOS;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,8 +15,10 @@ public interface LogHistoricoOSRepository extends JpaRepository<LogHistoricoOS,
     /**
      * Encontra todos os logs de histórico para uma Ordem de Serviço específica,
      * ordenados pelo timestamp mais recente primeiro.
+     * Em JPQL para não fazer JOIN com ordens_servico: a condição fica direto na coluna indexada.
      * @param ordemDeServicoId O ID da Ordem de Serviço.
      * @return Uma lista de logs de histórico.
      */
-    List<LogHistoricoOS> findByOrdemDeServicoIdOrderByTimestampDesc(Long ordemDeServicoId);
+    @Query("select l from LogHistoricoOS l where l.ordemDeServico.id = :ordemDeServicoId order by l.timestamp desc")
+    List<LogHistoricoOS> findByOrdemDeServicoIdOrderByTimestampDesc(@Param("ordemDeServicoId") Long ordemDeServicoId);
 }
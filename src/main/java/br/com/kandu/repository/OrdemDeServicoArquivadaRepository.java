@@ -0,0 +1,38 @@
+// src/main/java/br/com/kandu/repository/OrdemDeServicoArquivadaRepository.java
+package br.com.kandu.repository;
+
+import br.com.kandu.entity.OrdemDeServicoArquivada;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Leitura das OS transferidas para o arquivo. As escritas são feitas só pela TransferenciaArquivoOSService.
+ */
+@Repository
+public interface OrdemDeServicoArquivadaRepository extends JpaRepository<OrdemDeServicoArquivada, Long>,
+        JpaSpecificationExecutor<OrdemDeServicoArquivada> {
+
+    // Detalhe com o que o OrdemDeServicoResponseDTO usa, como em OrdemDeServicoRepository.findDetalheById
+    @EntityGraph(attributePaths = {"criador", "responsavel"})
+    Optional<OrdemDeServicoArquivada> findDetalheById(Long id);
+
+    @Query("select os.empresa.id as empresaId, os.versao as versao from OrdemDeServicoArquivada os where os.id = :id")
+    Optional<OrdemDeServicoRepository.VersaoOS> findVersaoById(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = {"criador", "responsavel"})
+    List<OrdemDeServicoArquivada> findDetalhesByIdIn(Collection<Long> ids);
+
+    @Query("select os.id as id, os.empresa.id as empresaId, os.criador.id as criadorId, os.status as status, " +
+            "os.titulo as titulo, os.descricao as descricao, os.requisitos as requisitos " +
+            "from OrdemDeServicoArquivada os where os.id > :id order by os.id")
+    List<OrdemDeServicoRepository.TextoOS> buscarTextosApos(@Param("id") Long id, Pageable pageable);
+}
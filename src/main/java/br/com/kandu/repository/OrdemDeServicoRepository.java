@@ -3,19 +3,152 @@ package br.com.kandu.repository;
 
 import br.com.kandu.entity.OrdemDeServico;
 import br.com.kandu.enums.StatusOS;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // Para filtros dinâmicos
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 // JpaSpecificationExecutor permite criar queries dinâmicas e complexas, muito útil para filtros
 public interface OrdemDeServicoRepository extends JpaRepository<OrdemDeServico, Long>, JpaSpecificationExecutor<OrdemDeServico> {
 
-    // Exemplos de queries que o Spring Data JPA pode gerar automaticamente
-    List<OrdemDeServico> findByEmpresaId(Long empresaId);
-    List<OrdemDeServico> findByEmpresaIdAndStatus(Long empresaId, StatusOS status);
-    List<OrdemDeServico> findByEmpresaIdAndResponsavelId(Long empresaId, Long responsavelId);
-    List<OrdemDeServico> findByEmpresaIdAndCriadorId(Long empresaId, Long criadorId);
+    // Condição das listagens: as OS arquivadas só aparecem quando pedidas explicitamente
+    String FORA_DO_ARQUIVO = "os.status <> br.com.kandu.enums.StatusOS.ARQUIVADA";
+
+    /*
+     * Consultas escritas em JPQL, e não derivadas do nome do método: a consulta derivada de "empresaId"
+     * faz um JOIN com empresas, e o banco passa a partir da empresa pelo índice da chave estrangeira,
+     * ignorando os índices compostos (empresa_id, status) e (empresa_id, responsavel_id). Comparando a
+     * coluna da chave estrangeira diretamente, o plano usa o índice composto (ver PlanoDeConsultaTest).
+     */
+    @Query("select os from OrdemDeServico os where os.empresa.id = :empresaId and os.status = :status")
+    List<OrdemDeServico> findByEmpresaIdAndStatus(@Param("empresaId") Long empresaId, @Param("status") StatusOS status);
+
+    @Query("select os from OrdemDeServico os where os.empresa.id = :empresaId and os.responsavel.id = :responsavelId")
+    List<OrdemDeServico> findByEmpresaIdAndResponsavelId(@Param("empresaId") Long empresaId, @Param("responsavelId") Long responsavelId);
+
+    // Contagem por empresa e status em um único GROUP BY (reconciliação do ContadorStatusOSService).
+    // As OS já transferidas para o arquivo continuam contando; a mesma empresa e status pode vir em duas linhas.
+    @Query("select os.empresa.id, os.status, count(os) from OrdemDeServico os group by os.empresa.id, os.status " +
+            "union all select a.empresa.id, a.status, count(a) from OrdemDeServicoArquivada a group by a.empresa.id, a.status")
+    List<Object[]> contarPorEmpresaEStatus();
+
+    /**
+     * Empresa e versão de uma OS, sem carregar a entidade: o suficiente para checar o acesso e responder
+     * a um GET condicional (If-None-Match) do detalhe.
+     */
+    interface VersaoOS {
+        Long getEmpresaId();
+        Long getVersao();
+    }
+
+    @Query("select os.empresa.id as empresaId, os.versao as versao from OrdemDeServico os where os.id = :id")
+    Optional<VersaoOS> findVersaoById(@Param("id") Long id);
+
+    /**
+     * Empresa e status de cada OS, sem carregar as entidades: o que a validação de um lote de transições precisa.
+     */
+    interface EstadoOS {
+        Long getId();
+        Long getEmpresaId();
+        StatusOS getStatus();
+    }
+
+    @Query("select os.id as id, os.empresa.id as empresaId, os.status as status from OrdemDeServico os where os.id in :ids")
+    List<EstadoOS> findEstadosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Carrega a OS para uma alteração que não muda as colunas da própria OS (ex: participantes), forçando o
+     * incremento da versão no commit. Assim a alteração também invalida o ETag e conflita com escritas simultâneas.
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select os from OrdemDeServico os where os.id = :id")
+    Optional<OrdemDeServico> findParaAlteracaoById(@Param("id") Long id);
+
+    // Detalhe da OS com tudo o que o OrdemDeServicoResponseDTO usa, em um único SELECT
+    @EntityGraph(attributePaths = {"criador", "responsavel"})
+    Optional<OrdemDeServico> findDetalheById(Long id);
+
+    // Uma página de resultados da busca textual, com o mesmo carregamento do detalhe
+    @EntityGraph(attributePaths = {"criador", "responsavel"})
+    List<OrdemDeServico> findDetalhesByIdIn(Collection<Long> ids);
+
+    /**
+     * O que o índice da busca textual guarda de cada OS, sem carregar as entidades.
+     */
+    interface TextoOS {
+        Long getId();
+        Long getEmpresaId();
+        Long getCriadorId();
+        StatusOS getStatus();
+        String getTitulo();
+        String getDescricao();
+        String getRequisitos();
+    }
+
+    // Leitura em páginas pela chave primária para reconstruir o índice (ver BuscaTextoOSService)
+    @Query("select os.id as id, os.empresa.id as empresaId, os.criador.id as criadorId, os.status as status, " +
+            "os.titulo as titulo, os.descricao as descricao, os.requisitos as requisitos " +
+            "from OrdemDeServico os where os.id > :id order by os.id")
+    List<TextoOS> buscarTextosApos(@Param("id") Long id, Pageable pageable);
+
+    @Query("select os.id as id, os.empresa.id as empresaId, os.criador.id as criadorId, os.status as status, " +
+            "os.titulo as titulo, os.descricao as descricao, os.requisitos as requisitos " +
+            "from OrdemDeServico os where os.id in :ids")
+    List<TextoOS> buscarTextosPorIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Id e status de uma OS, para comparar com o índice da busca textual sem ler os textos.
+     */
+    interface StatusDaOS {
+        Long getId();
+        StatusOS getStatus();
+    }
+
+    // Sincronização periódica do índice de uma empresa cujo carimbo mudou (ver BuscaTextoOSService)
+    @Query("select os.id as id, os.status as status from OrdemDeServico os where os.empresa.id = :empresaId")
+    List<StatusDaOS> buscarStatusDaEmpresa(@Param("empresaId") Long empresaId);
+
+    /*
+     * Listagem paginada por cursor (keyset), da OS mais recente para a mais antiga.
+     * O cursor é a chave (dataCadastro, id) do último item da página anterior; a primeira página usa um
+     * cursor acima de qualquer OS. O Slice busca tamanho + 1 linhas só para saber se há próxima página,
+     * sem COUNT, e o custo de cada página não cresce com a profundidade da listagem.
+     * O Pageable também aceita deslocamento (page > 0) para os saltos de página da interface.
+     * As OS arquivadas ficam fora da listagem (só aparecem no filtro, quando pedidas). O status é comparado
+     * com um literal, e não com um parâmetro, para que o banco não precise de um plano genérico.
+     */
+
+    @EntityGraph(attributePaths = {"criador", "responsavel"})
+    @Query("select os from OrdemDeServico os " +
+            "where " + FORA_DO_ARQUIVO + " and (os.dataCadastro < :data or (os.dataCadastro = :data and os.id < :id)) " +
+            "order by os.dataCadastro desc, os.id desc")
+    Slice<OrdemDeServico> buscarPaginaApos(@Param("data") LocalDateTime data, @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"criador", "responsavel"})
+    @Query("select os from OrdemDeServico os where os.empresa.id = :empresaId and " + FORA_DO_ARQUIVO + " " +
+            "and (os.dataCadastro < :data or (os.dataCadastro = :data and os.id < :id)) " +
+            "order by os.dataCadastro desc, os.id desc")
+    Slice<OrdemDeServico> buscarPaginaDaEmpresaApos(@Param("empresaId") Long empresaId,
+                                                    @Param("data") LocalDateTime data, @Param("id") Long id,
+                                                    Pageable pageable);
+
+    @EntityGraph(attributePaths = {"criador", "responsavel"})
+    @Query("select os from OrdemDeServico os where os.empresa.id = :empresaId and os.criador.id = :criadorId " +
+            "and " + FORA_DO_ARQUIVO + " and (os.dataCadastro < :data or (os.dataCadastro = :data and os.id < :id)) " +
+            "order by os.dataCadastro desc, os.id desc")
+    Slice<OrdemDeServico> buscarPaginaDoCriadorApos(@Param("empresaId") Long empresaId, @Param("criadorId") Long criadorId,
+                                                    @Param("data") LocalDateTime data, @Param("id") Long id,
+                                                    Pageable pageable);
 }
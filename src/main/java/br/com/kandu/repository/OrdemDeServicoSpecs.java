@@ -0,0 +1,85 @@
+// src/main/java/br/com/kandu/repository/OrdemDeServicoSpecs.java
+package br.com.kandu.repository;
+
+import br.com.kandu.dto.OrdemDeServicoFiltroDTO;
+import br.com.kandu.enums.StatusOS;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specifications das Ordens de Serviço, usadas com o JpaSpecificationExecutor do repositório.
+ * Por que foi implementado: os supervisores baixavam todas as OS da empresa para filtrar no navegador.
+ * Cada critério do filtro vira um predicado no WHERE, e só os critérios informados entram na consulta.
+ * Todos comparam colunas sem funções aplicadas, para que os índices (empresa_id, status),
+ * (empresa_id, responsavel_id), (empresa_id, criador_id) e (empresa_id, prazo) possam ser usados.
+ * São genéricas porque valem também para OrdemDeServicoArquivada, que tem os mesmos atributos.
+ */
+public final class OrdemDeServicoSpecs {
+
+    private OrdemDeServicoSpecs() {
+    }
+
+    /**
+     * Combina a visibilidade do utilizador, os critérios do filtro e a posição do cursor em uma única Specification.
+     *
+     * @param empresaId   Empresa visível (null = todas, para ADM).
+     * @param criadorId   Criador obrigatório (null = qualquer), para utilizadores que só veem as próprias OS.
+     * @param filtro      Critérios informados pelo cliente.
+     * @param dataCursor  dataCadastro do último item da página anterior.
+     * @param idCursor    id do último item da página anterior.
+     */
+    public static <T> Specification<T> filtrar(Long empresaId, Long criadorId, OrdemDeServicoFiltroDTO filtro,
+                                               LocalDateTime dataCursor, long idCursor) {
+        List<Specification<T>> specs = new ArrayList<>();
+        if (empresaId != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("empresa").get("id"), empresaId));
+        }
+        if (criadorId != null) {
+            specs.add(criador(criadorId));
+        }
+        if (filtro.getStatus() != null && !filtro.getStatus().isEmpty()) {
+            specs.add((root, query, cb) -> root.get("status").in(filtro.getStatus()));
+        } else if (!Boolean.TRUE.equals(filtro.getIncluirArquivadas())) {
+            specs.add((root, query, cb) -> cb.notEqual(root.get("status"), StatusOS.ARQUIVADA));
+        }
+        if (filtro.getResponsavelId() != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("responsavel").get("id"), filtro.getResponsavelId()));
+        }
+        if (filtro.getCriadorId() != null) {
+            specs.add(criador(filtro.getCriadorId()));
+        }
+        if (filtro.getPrazoDe() != null) {
+            specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("prazo"), filtro.getPrazoDe()));
+        }
+        if (filtro.getPrazoAte() != null) {
+            specs.add((root, query, cb) -> cb.lessThanOrEqualTo(root.get("prazo"), filtro.getPrazoAte()));
+        }
+        if (filtro.getLocal() != null && !filtro.getLocal().isBlank()) {
+            String prefixo = escaparLike(filtro.getLocal().trim()) + "%";
+            specs.add((root, query, cb) -> cb.like(root.get("local"), prefixo, '\\'));
+        }
+        if (filtro.getProjetoPrivado() != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("projetoPrivado"), filtro.getProjetoPrivado()));
+        }
+        if (filtro.getCriadaApos() != null) {
+            specs.add((root, query, cb) -> cb.greaterThan(root.get("dataCadastro"), filtro.getCriadaApos()));
+        }
+        // Keyset: (dataCadastro, id) menor que o do último item, na ordem decrescente da listagem
+        specs.add((root, query, cb) -> cb.or(
+                cb.lessThan(root.get("dataCadastro"), dataCursor),
+                cb.and(cb.equal(root.get("dataCadastro"), dataCursor), cb.lessThan(root.get("id"), idCursor))));
+        return Specification.allOf(specs);
+    }
+
+    private static <T> Specification<T> criador(Long criadorId) {
+        return (root, query, cb) -> cb.equal(root.get("criador").get("id"), criadorId);
+    }
+
+    // O texto do cliente é literal: % e _ não devem funcionar como curingas
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,43 @@
+// src/main/java/br/com/kandu/repository/RefreshTokenRepository.java
+package br.com.kandu.repository;
+
+import br.com.kandu.entity.RefreshToken;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // Já traz o usuário (e a empresa, usada nas claims do novo token de acesso)
+    @EntityGraph(attributePaths = {"usuario", "usuario.empresa"})
+    Optional<RefreshToken> findByHash(String hash);
+
+    /**
+     * Marca o token como usado somente se ainda não foi usado nem revogado.
+     * Por ser um único UPDATE condicional, duas renovações concorrentes com o mesmo token não passam ambas.
+     *
+     * @return 1 se o token foi consumido agora, 0 se já estava usado ou revogado.
+     */
+    @Modifying
+    @Query("update RefreshToken r set r.usadoEm = :agora where r.id = :id and r.usadoEm is null and r.revogado = false")
+    int marcarComoUsado(@Param("id") Long id, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revogado = true where r.familia = :familia")
+    int revogarFamilia(@Param("familia") String familia);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revogado = true where r.usuario.id = :usuarioId and r.revogado = false")
+    int revogarDoUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.expiraEm <= :agora")
+    int deleteExpiradosEm(@Param("agora") LocalDateTime agora);
+}
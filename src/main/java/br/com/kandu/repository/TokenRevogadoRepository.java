@@ -0,0 +1,32 @@
+// src/main/java/br/com/kandu/repository/TokenRevogadoRepository.java
+package br.com.kandu.repository;
+
+import br.com.kandu.entity.TokenRevogado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevogadoRepository extends JpaRepository<TokenRevogado, Long> {
+
+    boolean existsByJti(String jti);
+
+    // Usado para reconstruir o filtro de Bloom apenas com revogações ainda relevantes
+    @Query("select t.jti from TokenRevogado t where t.expiraEm > :agora")
+    List<String> findJtisValidosEm(@Param("agora") LocalDateTime agora);
+
+    // Revogações recentes, inclusive as de outras instâncias, para a sincronização do filtro
+    @Query("select t.jti from TokenRevogado t where t.revogadoEm >= :desde")
+    List<String> findJtisRevogadosDesde(@Param("desde") LocalDateTime desde);
+
+    @Modifying
+    @Transactional
+    @Query("delete from TokenRevogado t where t.expiraEm <= :agora")
+    int deleteExpiradosEm(@Param("agora") LocalDateTime agora);
+}
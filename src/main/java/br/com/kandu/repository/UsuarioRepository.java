@@ -2,7 +2,10 @@
 package br.com.kandu.repository;
 
 import br.com.kandu.entity.Usuario;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -23,9 +26,26 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     boolean existsByNomeUsuarioAndEmpresaId(String nomeUsuario, Long empresaId);
     boolean existsByEmailAndEmpresaId(String email, Long empresaId);
 
-    // Método para listar usuários de uma empresa
+    // Método para listar usuários de uma empresa (com a empresa, exibida na resposta)
+    @EntityGraph(attributePaths = "empresa")
     List<Usuario> findByEmpresaId(Long empresaId);
 
+    // Listagem global (ADM), também com a empresa no mesmo SELECT
+    @Override
+    @EntityGraph(attributePaths = "empresa")
+    List<Usuario> findAll();
+
     // Método para verificar se uma empresa possui usuários (usado no EmpresaService ao deletar empresa)
     boolean existsByEmpresaId(Long empresaId);
+
+    // Carrega o usuário já com a empresa (usado para resolver o usuário autenticado em um único SELECT)
+    @EntityGraph(attributePaths = "empresa")
+    Optional<Usuario> findComEmpresaById(Long id);
+
+    @EntityGraph(attributePaths = "empresa")
+    Optional<Usuario> findComEmpresaByNomeUsuario(String nomeUsuario);
+
+    // Consulta escalar usada na checagem de revogação dos tokens (não carrega a entidade)
+    @Query("select u.versaoConta from Usuario u where u.id = :id and u.ativo = true")
+    Optional<Long> findVersaoContaAtivaById(@Param("id") Long id);
 }
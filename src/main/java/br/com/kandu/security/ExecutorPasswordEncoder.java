@@ -0,0 +1,160 @@
+// src/main/java/br/com/kandu/security/ExecutorPasswordEncoder.java
+package br.com.kandu.security;
+
+import br.com.kandu.exception.ServicoIndisponivelException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PasswordEncoder BCrypt que executa o hash em um pool de threads dedicado e limitado.
+ * Por que foi implementado: nos picos de login do início de turno, o BCrypt rodava nas threads do Tomcat
+ * e consumia toda a CPU, deixando os demais endpoints sem resposta. Aqui no máximo {@code threads} hashes
+ * rodam ao mesmo tempo e no máximo {@code fila} aguardam; o excedente é recusado na hora com
+ * {@link ServicoIndisponivelException} (503 + Retry-After), em vez de se acumular.
+ * O custo do BCrypt é escolhido na inicialização (ver {@link #calibrarCusto(long, int, int)}) e senhas
+ * gravadas com um custo menor são regravadas no próximo login ({@link #upgradeEncoding(String)}).
+ */
+public class ExecutorPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorPasswordEncoder.class);
+
+    // $2a$10$... : o custo fica entre o segundo e o terceiro '$'
+    private static final Pattern CUSTO_NO_HASH = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final int custo;
+    private final ThreadPoolExecutor executor;
+    private final long esperaMaximaMs;
+    private final long retryAfterSegundos;
+    private final Counter recusas;
+
+    public ExecutorPasswordEncoder(int custo, int threads, int fila, long esperaMaximaMs,
+                                   long retryAfterSegundos, MeterRegistry meterRegistry) {
+        this.bcrypt = new BCryptPasswordEncoder(custo);
+        this.custo = custo;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.retryAfterSegundos = retryAfterSegundos;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila), new ThreadsNomeadas(), new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "senha.bcrypt");
+        this.recusas = Counter.builder("senha.bcrypt.recusas")
+                .description("Operações de senha recusadas por saturação do executor")
+                .register(meterRegistry);
+        logger.info("BCrypt configurado com custo {} em {} threads (fila de {}).", custo, threads, fila);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executar(() -> bcrypt.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executar(() -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Indica se o hash foi gravado com um custo menor que o atual, para que o login regrave a senha com o
+     * custo calibrado. Um hash mais forte é mantido: a calibração varia de uma máquina (ou inicialização)
+     * para outra, e rebaixar o custo enfraqueceria a senha a cada variação para baixo.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = CUSTO_NO_HASH.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < custo;
+    }
+
+    public int getCusto() {
+        return custo;
+    }
+
+    private <T> T executar(Callable<T> tarefa) {
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(tarefa);
+        } catch (RejectedExecutionException ex) {
+            recusas.increment();
+            throw new ServicoIndisponivelException("Servidor ocupado processando senhas. Tente novamente em instantes.", retryAfterSegundos);
+        }
+        try {
+            return futuro.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            futuro.cancel(true);
+            recusas.increment();
+            throw new ServicoIndisponivelException("Tempo de espera para processar a senha esgotado. Tente novamente em instantes.", retryAfterSegundos);
+        } catch (InterruptedException ex) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Processamento da senha interrompido.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException causa) {
+                throw causa; // Ex: IllegalArgumentException do BCrypt para senha nula
+            }
+            throw new IllegalStateException("Falha ao processar a senha.", ex.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Escolhe o custo do BCrypt cujo hash leva aproximadamente a latência alvo nesta máquina.
+     * Mede o custo mínimo e extrapola (cada incremento de custo dobra o tempo), limitado a [minimo, maximo].
+     *
+     * @param latenciaAlvoMs Tempo desejado para um hash, em milissegundos.
+     * @param minimo         Menor custo aceito.
+     * @param maximo         Maior custo aceito.
+     * @return O custo calibrado.
+     */
+    public static int calibrarCusto(long latenciaAlvoMs, int minimo, int maximo) {
+        BCryptPasswordEncoder referencia = new BCryptPasswordEncoder(minimo);
+        referencia.encode("aquecimento"); // Primeira execução inclui carga de classes e JIT
+        int amostras = 3;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < amostras; i++) {
+            referencia.encode("calibracao-" + i);
+        }
+        double mediaMs = Math.max((System.nanoTime() - inicio) / 1_000_000.0 / amostras, 0.01);
+        int custo = minimo + (int) Math.round(Math.log(latenciaAlvoMs / mediaMs) / Math.log(2));
+        int calibrado = Math.max(minimo, Math.min(maximo, custo));
+        logger.info("Calibração do BCrypt: custo {} leva {} ms; custo escolhido {} para alvo de {} ms.",
+                minimo, String.format("%.1f", mediaMs), calibrado, latenciaAlvoMs);
+        return calibrado;
+    }
+
+    private static class ThreadsNomeadas implements ThreadFactory {
+        private final AtomicInteger contador = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "bcrypt-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
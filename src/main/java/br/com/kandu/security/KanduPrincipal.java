@@ -0,0 +1,54 @@
+// src/main/java/br/com/kandu/security/KanduPrincipal.java
+package br.com.kandu.security;
+
+import br.com.kandu.enums.NivelHierarquia;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Principal do usuário autenticado, montado a partir das claims do token JWT.
+ * Por que foi implementado: para que o filtro de autenticação não precise carregar a entidade Usuario
+ * do banco a cada requisição. O token já carrega tudo o que é necessário para autorização
+ * (id, empresa, nível hierárquico) e a versão da conta, usada para invalidar tokens antigos
+ * quando o usuário é desativado ou muda de nível.
+ */
+@Getter
+public class KanduPrincipal implements UserDetails {
+
+    private final Long id;
+    private final String nomeUsuario;
+    private final Long empresaId;
+    private final NivelHierarquia nivelHierarquia;
+    private final long versaoConta;
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    public KanduPrincipal(Long id, String nomeUsuario, Long empresaId, NivelHierarquia nivelHierarquia, long versaoConta) {
+        this.id = id;
+        this.nomeUsuario = nomeUsuario;
+        this.empresaId = empresaId;
+        this.nivelHierarquia = nivelHierarquia;
+        this.versaoConta = versaoConta;
+        // Mesma convenção do CustomUserDetailsService: o nome do enum é a própria autoridade
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority(nivelHierarquia.name()));
+    }
+
+    @Override
+    public String getUsername() {
+        return nomeUsuario;
+    }
+
+    @Override
+    public String getPassword() {
+        return null; // Autenticação por token: a senha nunca passa por aqui
+    }
+
+    @Override
+    public String toString() {
+        return nomeUsuario;
+    }
+}
@@ -0,0 +1,223 @@
+// src/main/java/br/com/kandu/security/LimitadorDeLogin.java
+package br.com.kandu.security;
+
+import br.com.kandu.exception.MuitasTentativasException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Limitador de tentativas de login por nome de usuário e por endereço do cliente.
+ * Por que foi implementado: /auth/login é público e cada tentativa para um usuário existente custa uma
+ * verificação BCrypt completa; rajadas de credential stuffing ocupavam todos os núcleos.
+ * Cada chave tem um balde de fichas (token bucket) e um contador de falhas consecutivas: ao atingir o limiar,
+ * a chave fica bloqueada por um tempo que dobra a cada nova falha. O estado de cada balde é atualizado por
+ * compare-and-set (sem locks) e os baldes ficam em caches limitados, descartados após um período ocioso.
+ * O endereço é compartilhado por muita gente (NAT de um escritório): o seu limiar de falhas é bem maior que o do
+ * usuário, as suas falhas são esquecidas com o tempo e cada login bem-sucedido perdoa metade delas. Atrás de um
+ * proxy reverso, o endereço precisa ser o do cliente, resolvido a partir do X-Forwarded-For de um proxy confiável
+ * (server.forward-headers-strategy), e não o do proxy, que faria todos os clientes dividirem o mesmo balde.
+ */
+@Component
+public class LimitadorDeLogin {
+
+    private final Regras regrasUsuario;
+    private final Regras regrasIp;
+    private final long bloqueioBaseNanos;
+    private final long bloqueioMaximoNanos;
+    private final Ticker relogio;
+
+    private final Cache<String, Balde> baldesPorUsuario;
+    private final Cache<String, Balde> baldesPorIp;
+
+    private final Counter recusasPorUsuario;
+    private final Counter recusasPorIp;
+
+    @Autowired
+    public LimitadorDeLogin(MeterRegistry meterRegistry,
+                            @Value("${kandu.login.limite.usuario.capacidade:5}") int capacidadeUsuario,
+                            @Value("${kandu.login.limite.usuario.recarga-por-minuto:5}") double recargaUsuario,
+                            @Value("${kandu.login.limite.ip.capacidade:30}") int capacidadeIp,
+                            @Value("${kandu.login.limite.ip.recarga-por-minuto:30}") double recargaIp,
+                            @Value("${kandu.login.bloqueio.falhas:5}") int falhasParaBloqueio,
+                            @Value("${kandu.login.bloqueio.ip.falhas:50}") int falhasParaBloqueioIp,
+                            @Value("${kandu.login.bloqueio.ip.esquecidas-por-minuto:5}") double falhasEsquecidasIp,
+                            @Value("${kandu.login.bloqueio.base-segundos:30}") long bloqueioBaseSegundos,
+                            @Value("${kandu.login.bloqueio.maximo-segundos:900}") long bloqueioMaximoSegundos,
+                            @Value("${kandu.login.limite.ocioso-minutos:15}") long ociosoMinutos,
+                            @Value("${kandu.login.limite.max-chaves:100000}") long maxChaves) {
+        this(meterRegistry, new Regras(capacidadeUsuario, recargaUsuario, falhasParaBloqueio, 0),
+                new Regras(capacidadeIp, recargaIp, falhasParaBloqueioIp, falhasEsquecidasIp),
+                bloqueioBaseSegundos, bloqueioMaximoSegundos, ociosoMinutos, maxChaves, Ticker.systemTicker());
+    }
+
+    // Construtor com relógio controlável, usado nos testes
+    LimitadorDeLogin(MeterRegistry meterRegistry, Regras regrasUsuario, Regras regrasIp,
+                     long bloqueioBaseSegundos, long bloqueioMaximoSegundos,
+                     long ociosoMinutos, long maxChaves, Ticker relogio) {
+        this.regrasUsuario = regrasUsuario;
+        this.regrasIp = regrasIp;
+        this.bloqueioBaseNanos = TimeUnit.SECONDS.toNanos(bloqueioBaseSegundos);
+        this.bloqueioMaximoNanos = TimeUnit.SECONDS.toNanos(bloqueioMaximoSegundos);
+        this.relogio = relogio;
+        // Um bloqueio ativo precisa sobreviver ao descarte por ociosidade
+        Duration ociosidade = Duration.ofMinutes(ociosoMinutos).plusSeconds(bloqueioMaximoSegundos);
+        this.baldesPorUsuario = Caffeine.newBuilder().maximumSize(maxChaves).expireAfterAccess(ociosidade).ticker(relogio).build();
+        this.baldesPorIp = Caffeine.newBuilder().maximumSize(maxChaves).expireAfterAccess(ociosidade).ticker(relogio).build();
+
+        this.recusasPorUsuario = Counter.builder("login.tentativas.recusadas").tag("chave", "usuario")
+                .description("Tentativas de login recusadas pelo limitador").register(meterRegistry);
+        this.recusasPorIp = Counter.builder("login.tentativas.recusadas").tag("chave", "ip")
+                .description("Tentativas de login recusadas pelo limitador").register(meterRegistry);
+        Gauge.builder("login.limitador.chaves", baldesPorUsuario, Cache::estimatedSize).tag("chave", "usuario").register(meterRegistry);
+        Gauge.builder("login.limitador.chaves", baldesPorIp, Cache::estimatedSize).tag("chave", "ip").register(meterRegistry);
+    }
+
+    /**
+     * Consome uma tentativa de login para o usuário e o endereço informados.
+     * Deve ser chamado antes de qualquer verificação de senha.
+     *
+     * @throws MuitasTentativasException se alguma das chaves estiver bloqueada ou sem fichas.
+     */
+    public void verificar(String nomeUsuario, String enderecoCliente) {
+        long agora = relogio.read();
+        long esperaIp = balde(baldesPorIp, chaveIp(enderecoCliente), regrasIp).consumir(agora);
+        if (esperaIp > 0) {
+            recusasPorIp.increment();
+            throw new MuitasTentativasException("Muitas tentativas de login a partir deste endereço. Tente novamente mais tarde.", segundos(esperaIp));
+        }
+        long esperaUsuario = balde(baldesPorUsuario, chaveUsuario(nomeUsuario), regrasUsuario).consumir(agora);
+        if (esperaUsuario > 0) {
+            recusasPorUsuario.increment();
+            throw new MuitasTentativasException("Muitas tentativas de login para este usuário. Tente novamente mais tarde.", segundos(esperaUsuario));
+        }
+    }
+
+    /**
+     * Registra uma senha incorreta; a partir do limiar de falhas a chave é bloqueada com tempo exponencial.
+     */
+    public void registrarFalha(String nomeUsuario, String enderecoCliente) {
+        long agora = relogio.read();
+        balde(baldesPorUsuario, chaveUsuario(nomeUsuario), regrasUsuario).falhar(agora);
+        balde(baldesPorIp, chaveIp(enderecoCliente), regrasIp).falhar(agora);
+    }
+
+    /**
+     * Registra um login bem-sucedido: zera as falhas do usuário e perdoa metade das falhas do endereço.
+     * As do endereço não são zeradas, para que um atacante com uma credencial válida não libere o IP de uma vez.
+     */
+    public void registrarSucesso(String nomeUsuario, String enderecoCliente) {
+        Balde baldeUsuario = baldesPorUsuario.getIfPresent(chaveUsuario(nomeUsuario));
+        if (baldeUsuario != null) {
+            baldeUsuario.zerarFalhas();
+        }
+        Balde baldeIp = baldesPorIp.getIfPresent(chaveIp(enderecoCliente));
+        if (baldeIp != null) {
+            baldeIp.perdoarMetadeDasFalhas(relogio.read());
+        }
+    }
+
+    private Balde balde(Cache<String, Balde> baldes, String chave, Regras regras) {
+        return baldes.get(chave, c -> new Balde(regras, relogio.read()));
+    }
+
+    private static String chaveUsuario(String nomeUsuario) {
+        return nomeUsuario == null ? "" : nomeUsuario.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String chaveIp(String enderecoCliente) {
+        return enderecoCliente == null ? "" : enderecoCliente;
+    }
+
+    private static long segundos(long nanos) {
+        return Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    /**
+     * Capacidade do balde, fichas recarregadas por minuto, falhas para o bloqueio e falhas esquecidas por minuto
+     * (0: as falhas só são esquecidas no login bem-sucedido).
+     */
+    record Regras(int capacidade, double recargaPorMinuto, int falhasParaBloqueio, double falhasEsquecidasPorMinuto) {
+        double recargaPorNano() {
+            return recargaPorMinuto / TimeUnit.MINUTES.toNanos(1);
+        }
+
+        double esquecimentoPorNano() {
+            return falhasEsquecidasPorMinuto / TimeUnit.MINUTES.toNanos(1);
+        }
+    }
+
+    // Estado imutável; cada alteração cria um novo estado e o publica por compare-and-set
+    private record Estado(double fichas, long ultimaRecarga, double falhas, long ultimaFalha, long bloqueadoAte) {
+    }
+
+    private class Balde {
+        private final Regras regras;
+        private final AtomicReference<Estado> estado;
+
+        Balde(Regras regras, long agora) {
+            this.regras = regras;
+            this.estado = new AtomicReference<>(new Estado(regras.capacidade(), agora, 0, agora, 0));
+        }
+
+        /**
+         * @return 0 se a tentativa foi aceita, ou quantos nanos faltam para a próxima ser aceita.
+         */
+        long consumir(long agora) {
+            while (true) {
+                Estado atual = estado.get();
+                if (agora < atual.bloqueadoAte()) {
+                    return atual.bloqueadoAte() - agora;
+                }
+                double fichas = Math.min(regras.capacidade(),
+                        atual.fichas() + (agora - atual.ultimaRecarga()) * regras.recargaPorNano());
+                if (fichas < 1) {
+                    return (long) Math.ceil((1 - fichas) / regras.recargaPorNano());
+                }
+                Estado novo = new Estado(fichas - 1, agora, atual.falhas(), atual.ultimaFalha(), atual.bloqueadoAte());
+                if (estado.compareAndSet(atual, novo)) {
+                    return 0;
+                }
+            }
+        }
+
+        void falhar(long agora) {
+            estado.updateAndGet(atual -> {
+                double falhas = falhasAtuais(atual, agora) + 1;
+                long bloqueadoAte = atual.bloqueadoAte();
+                if (falhas >= regras.falhasParaBloqueio()) {
+                    // Dobra a cada falha além do limiar: base, 2x base, 4x base... até o máximo
+                    int expoente = (int) Math.min(falhas - regras.falhasParaBloqueio(), 30);
+                    long duracao = Math.min(bloqueioMaximoNanos, bloqueioBaseNanos << expoente);
+                    bloqueadoAte = agora + (duracao < 0 ? bloqueioMaximoNanos : duracao);
+                }
+                return new Estado(atual.fichas(), atual.ultimaRecarga(), falhas, agora, bloqueadoAte);
+            });
+        }
+
+        void zerarFalhas() {
+            estado.updateAndGet(atual -> new Estado(atual.fichas(), atual.ultimaRecarga(), 0, atual.ultimaFalha(), 0));
+        }
+
+        void perdoarMetadeDasFalhas(long agora) {
+            estado.updateAndGet(atual -> new Estado(atual.fichas(), atual.ultimaRecarga(),
+                    falhasAtuais(atual, agora) / 2, agora, atual.bloqueadoAte()));
+        }
+
+        // Falhas já descontado o esquecimento desde a última falha
+        private double falhasAtuais(Estado atual, long agora) {
+            return Math.max(0, atual.falhas() - (agora - atual.ultimaFalha()) * regras.esquecimentoPorNano());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+// src/main/java/br/com/kandu/security/apikey/ChaveApiAuthenticationFilter.java
+package br.com.kandu.security.apikey;
+
+import br.com.kandu.security.KanduPrincipal;
+import br.com.kandu.service.VersaoContaService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Autenticação das integrações pelo header X-API-Key.
+ * Por que foi implementado: separa o tráfego máquina a máquina do login de pessoas. A chave é trocada por
+ * um principal da conta de serviço (mesmo formato do principal montado a partir do JWT), limitado à empresa
+ * e ao nível da conta, sem consultar UsuarioRepository no caminho comum.
+ */
+@Component
+public class ChaveApiAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-API-Key";
+
+    private static final Logger logger = LoggerFactory.getLogger(ChaveApiAuthenticationFilter.class);
+
+    private final ChaveApiVerificador verificador;
+    private final VersaoContaService versaoContaService;
+
+    @Autowired
+    public ChaveApiAuthenticationFilter(ChaveApiVerificador verificador, VersaoContaService versaoContaService) {
+        this.verificador = verificador;
+        this.versaoContaService = versaoContaService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String chave = request.getHeader(HEADER);
+        if (StringUtils.hasText(chave) && SecurityContextHolder.getContext().getAuthentication() == null) {
+            KanduPrincipal principal = verificador.verificar(chave.trim()).orElse(null);
+
+            // Mesma checagem do JWT: a conta de serviço desativada pelo admin deixa de valer. A versão guardada
+            // com a chave em cache pode ser anterior a uma alteração da conta, então é conferida uma vez relendo a chave
+            if (principal != null && !versaoValida(principal)) {
+                principal = verificador.reverificar(chave.trim()).filter(this::versaoValida).orElse(null);
+            }
+
+            if (principal != null) {
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        principal, null, principal.getAuthorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            } else {
+                logger.debug("Chave de API recusada: malformada, desconhecida, revogada ou incorreta.");
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean versaoValida(KanduPrincipal principal) {
+        return versaoContaService.isVersaoValida(principal.getId(), principal.getVersaoConta());
+    }
+}
@@ -0,0 +1,194 @@
+// src/main/java/br/com/kandu/security/apikey/ChaveApiVerificador.java
+package br.com.kandu.security.apikey;
+
+import br.com.kandu.entity.ChaveApi;
+import br.com.kandu.entity.Usuario;
+import br.com.kandu.repository.ChaveApiRepository;
+import br.com.kandu.security.KanduPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Verificação das chaves de API apresentadas pelas integrações.
+ * Por que foi implementado: integrações fazem muitas requisições seguidas com a mesma chave, e consultar o
+ * banco em cada uma seria desperdício. Após o primeiro uso, o hash esperado e o principal da conta de serviço
+ * ficam em memória por prefixo; cada requisição seguinte custa só um HMAC-SHA256 do segredo (microssegundos)
+ * e uma comparação em tempo constante. O HMAC usa um "pepper" guardado fora do banco, para que um vazamento
+ * da tabela chaves_api não permita testar segredos offline. Prefixos desconhecidos e chaves revogadas ficam em
+ * um cache separado e menor, para que uma enxurrada de prefixos inventados não expulse as chaves válidas.
+ * Formato da chave: {@code kdu_<prefixo>.<segredo>}.
+ */
+@Component
+public class ChaveApiVerificador {
+
+    static final String NOME_CACHE = "chaves-api";
+    static final String INICIO_CHAVE = "kdu_";
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final Duration TTL_RECUSADAS = Duration.ofMinutes(1);
+
+    private record ChaveVerificada(byte[] hash, KanduPrincipal principal) {
+    }
+
+    private final ChaveApiRepository chaveApiRepository;
+    private final SecretKeySpec pepper;
+    private final ThreadLocal<Mac> macs; // Mac não é thread-safe; um por thread evita recriá-lo a cada requisição
+    private final LoadingCache<String, ChaveVerificada> chaves;
+    private final Cache<String, Boolean> recusadas; // Prefixo inexistente ou chave revogada
+
+    @Autowired
+    public ChaveApiVerificador(ChaveApiRepository chaveApiRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${kandu.api-keys.pepper}") String pepper,
+                               @Value("${kandu.api-keys.cache.max-size:10000}") long tamanhoMaximo,
+                               @Value("${kandu.api-keys.cache.ttl-minutes:10}") long ttlMinutos,
+                               @Value("${kandu.api-keys.cache.recusadas.max-size:1000}") long tamanhoMaximoRecusadas) {
+        this.chaveApiRepository = chaveApiRepository;
+        this.pepper = new SecretKeySpec(pepper.getBytes(StandardCharsets.UTF_8), ALGORITMO);
+        this.macs = ThreadLocal.withInitial(this::novoMac);
+        this.chaves = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos)) // Rede de segurança caso alguma revogação não invalide
+                .recordStats()
+                .build(this::carregar);
+        this.recusadas = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximoRecusadas)
+                .expireAfterWrite(TTL_RECUSADAS)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, chaves, NOME_CACHE);
+    }
+
+    /**
+     * Verifica uma chave de API.
+     *
+     * @param chave A chave completa recebida no header.
+     * @return O principal da conta de serviço, ou vazio se a chave for malformada, desconhecida, revogada ou incorreta.
+     */
+    public Optional<KanduPrincipal> verificar(String chave) {
+        String prefixo = prefixo(chave);
+        if (prefixo == null) {
+            return Optional.empty();
+        }
+        if (recusadas.getIfPresent(prefixo) != null) {
+            return Optional.empty();
+        }
+        ChaveVerificada verificada = chaves.get(prefixo); // Nulo quando recusada (não fica neste cache)
+        if (verificada == null) {
+            return Optional.empty();
+        }
+        byte[] hashApresentado = hmac(chave.substring(INICIO_CHAVE.length() + prefixo.length() + 1));
+        if (!MessageDigest.isEqual(verificada.hash(), hashApresentado)) {
+            return Optional.empty();
+        }
+        return Optional.of(verificada.principal());
+    }
+
+    /**
+     * Verifica uma chave relendo-a do banco. Usado quando a versão da conta guardada junto com a chave já não é
+     * a atual (ex: o nível da conta de serviço mudou depois que a chave entrou em cache).
+     */
+    public Optional<KanduPrincipal> reverificar(String chave) {
+        String prefixo = prefixo(chave);
+        if (prefixo != null) {
+            chaves.invalidate(prefixo);
+        }
+        return verificar(chave);
+    }
+
+    /**
+     * Calcula o hash gravado no banco para o segredo de uma nova chave.
+     */
+    public String hash(String segredo) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hmac(segredo));
+    }
+
+    /**
+     * Monta a chave entregue ao cliente a partir do prefixo e do segredo.
+     */
+    public static String montar(String prefixo, String segredo) {
+        return INICIO_CHAVE + prefixo + "." + segredo;
+    }
+
+    /**
+     * Descarta a verificação em memória de uma chave (ex: revogação).
+     * A entrada é removida imediatamente e de novo após o commit, como nos demais caches de autenticação.
+     */
+    public void invalidar(String prefixo) {
+        chaves.invalidate(prefixo);
+        recusadas.invalidate(prefixo);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    chaves.invalidate(prefixo);
+                    recusadas.invalidate(prefixo);
+                }
+            });
+        }
+    }
+
+    // Prefixo de uma chave bem formada, ou null
+    private static String prefixo(String chave) {
+        if (chave == null || !chave.startsWith(INICIO_CHAVE)) {
+            return null;
+        }
+        int separador = chave.indexOf('.', INICIO_CHAVE.length());
+        if (separador <= INICIO_CHAVE.length() || separador == chave.length() - 1
+                || separador - INICIO_CHAVE.length() > 16) {
+            return null;
+        }
+        return chave.substring(INICIO_CHAVE.length(), separador);
+    }
+
+    private ChaveVerificada carregar(String prefixo) {
+        ChaveVerificada verificada = chaveApiRepository.findByPrefixo(prefixo)
+                .filter(ChaveApi::isAtiva)
+                .filter(chave -> chave.getContaServico().isAtivo())
+                .map(chave -> {
+                    Usuario conta = chave.getContaServico();
+                    KanduPrincipal principal = new KanduPrincipal(conta.getId(), conta.getNomeUsuario(),
+                            chave.getEmpresa().getId(), conta.getNivelHierarquia(), conta.getVersaoConta());
+                    return new ChaveVerificada(Base64.getUrlDecoder().decode(chave.getHash()), principal);
+                })
+                .orElse(null);
+        if (verificada == null) {
+            recusadas.put(prefixo, Boolean.TRUE);
+        }
+        return verificada;
+    }
+
+    private byte[] hmac(String segredo) {
+        return macs.get().doFinal(segredo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac novoMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(pepper);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 não disponível na JVM.", e);
+        }
+    }
+
+    long tamanhoEstimado() {
+        chaves.cleanUp();
+        return chaves.estimatedSize();
+    }
+}
@@ -0,0 +1,86 @@
+// src/main/java/br/com/kandu/security/jwt/FiltroBloom.java
+package br.com.kandu.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom para strings, seguro para uso concorrente.
+ * Responde "com certeza não contém" ou "talvez contenha": nunca há falso negativo, e a taxa de falso
+ * positivo fica próxima da configurada enquanto o número de elementos não passar da capacidade.
+ * Não suporta remoção; para descartar elementos, constrói-se um novo filtro.
+ */
+class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long totalBits;
+    private final int funcoesHash;
+
+    /**
+     * @param capacidade        Número de elementos esperado.
+     * @param taxaFalsoPositivo Taxa de falso positivo desejada na capacidade (ex: 0.01).
+     */
+    FiltroBloom(long capacidade, double taxaFalsoPositivo) {
+        long n = Math.max(1, capacidade);
+        // m = -n ln(p) / (ln 2)^2 ; k = (m / n) ln 2
+        long m = (long) Math.ceil(-n * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.totalBits = Math.max(64, m);
+        this.funcoesHash = Math.max(1, (int) Math.round((double) totalBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((totalBits + 63) / 64));
+    }
+
+    void adicionar(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= funcoesHash; i++) {
+            long indice = indice(h1, h2, i);
+            int palavra = (int) (indice >>> 6);
+            long mascara = 1L << indice;
+            long atual;
+            do {
+                atual = bits.get(palavra);
+                if ((atual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palavra, atual, atual | mascara));
+        }
+    }
+
+    boolean podeConter(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= funcoesHash; i++) {
+            long indice = indice(h1, h2, i);
+            if ((bits.get((int) (indice >>> 6)) & (1L << indice)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Hashing duplo (Kirsch-Mitzenmacher): as k posições derivam de dois hashes de 32 bits
+    private long indice(int h1, int h2, int i) {
+        int combinado = h1 + i * h2;
+        if (combinado < 0) {
+            combinado = ~combinado;
+        }
+        return combinado % totalBits;
+    }
+
+    // FNV-1a de 64 bits seguido do finalizador do MurmurHash3, para espalhar bem os bits altos e baixos
+    private static long hash64(String valor) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,35 +1,43 @@
 package br.com.kandu.security.jwt;
 
-import br.com.kandu.service.CustomUserDetailsService;
+import br.com.kandu.security.KanduPrincipal;
+import br.com.kandu.service.VersaoContaService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component // Para que o Spring possa injetá-lo
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
-
+    private final JwtTokenCache tokenCache;
     private final JwtTokenProvider tokenProvider;
-    private final CustomUserDetailsService customUserDetailsService;
+    private final VersaoContaService versaoContaService;
+    private final TokenRevogacaoService tokenRevogacaoService;
+    private final RegistroDeRejeicoesJwt rejeicoes;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, CustomUserDetailsService customUserDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenCache tokenCache,
+                                   JwtTokenProvider tokenProvider,
+                                   VersaoContaService versaoContaService,
+                                   TokenRevogacaoService tokenRevogacaoService,
+                                   RegistroDeRejeicoesJwt rejeicoes) {
+        this.tokenCache = tokenCache;
         this.tokenProvider = tokenProvider;
-        this.customUserDetailsService = customUserDetailsService;
+        this.versaoContaService = versaoContaService;
+        this.tokenRevogacaoService = tokenRevogacaoService;
+        this.rejeicoes = rejeicoes;
     }
 
     @Override
@@ -39,18 +47,37 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromJWT(jwt);
+            // Um único parse por token; requisições seguintes com o mesmo token não reverificam a assinatura
+            Optional<Claims> claims = StringUtils.hasText(jwt) ? tokenCache.verificar(jwt) : Optional.empty();
+
+            // Token revogado (ex: logout): no caso comum custa só uma consulta ao filtro de Bloom
+            if (claims.isPresent() && tokenRevogacaoService.isRevogado(claims.get().getId())) {
+                rejeicoes.registrar(RegistroDeRejeicoesJwt.Motivo.REVOGADO, "revogado antes da expiração");
+                claims = Optional.empty();
+            }
+
+            // O principal vem das próprias claims; do banco só é consultada a versão da conta (e em cache)
+            KanduPrincipal principal = claims.map(tokenProvider::getPrincipal).orElse(null);
+            if (claims.isPresent() && principal == null) {
+                rejeicoes.registrar(RegistroDeRejeicoesJwt.Motivo.CLAIMS_INCOMPLETAS, "emitido antes das claims de identificação");
+            }
+
+            if (principal != null && !versaoContaService.isVersaoValida(principal.getId(), principal.getVersaoConta())) {
+                rejeicoes.registrar(RegistroDeRejeicoesJwt.Motivo.CONTA_ALTERADA,
+                        "conta '" + principal.getUsername() + "' inativa ou alterada após a emissão");
+                principal = null;
+            }
 
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (Exception ex) {
-            logger.error("Não foi possível definir a autenticação do usuário no contexto de segurança", ex);
+            // Não é uma recusa do token, e sim um defeito: vai para o log com a pilha, sem amostragem
+            rejeicoes.registrarErroInterno(ex);
             // Não relançar a exceção aqui para permitir que a cadeia de filtros continue
             // e a negação de acesso seja tratada pelo Spring Security mais adiante (ex: AuthenticationEntryPoint)
         }
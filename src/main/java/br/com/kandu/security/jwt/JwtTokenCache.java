@@ -0,0 +1,119 @@
+package br.com.kandu.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache de tokens JWT já verificados.
+ * Por que foi implementado: clientes que fazem polling do quadro enviam o mesmo token dezenas de vezes
+ * por minuto, e cada requisição refazia a verificação HMAC. Aqui o token é verificado uma única vez e
+ * as claims ficam em memória até a expiração do próprio token.
+ * A chave do cache é o SHA-256 do token, para não manter o token em claro na memória.
+ * Tokens inválidos nunca são armazenados.
+ */
+@Component
+public class JwtTokenCache {
+
+    static final String NOME_CACHE = "jwt.tokens";
+
+    private final JwtTokenProvider tokenProvider;
+    private final Cache<String, Claims> cache;
+
+    @Autowired
+    public JwtTokenCache(JwtTokenProvider tokenProvider,
+                         MeterRegistry meterRegistry,
+                         @Value("${kandu.jwt.cache.max-size:10000}") long tamanhoMaximo) {
+        this.tokenProvider = tokenProvider;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ExpiracaoDoToken())
+                .recordStats()
+                .build();
+        // Expõe cache.gets (hit/miss), cache.evictions e cache.size no Actuator
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOME_CACHE);
+    }
+
+    /**
+     * Retorna as claims de um token válido, verificando a assinatura apenas na primeira vez que o token é visto.
+     *
+     * @param token O token JWT.
+     * @return As claims do token, ou vazio se o token for inválido ou estiver expirado.
+     */
+    public Optional<Claims> verificar(String token) {
+        String chave = digest(token);
+        Claims emCache = cache.getIfPresent(chave);
+        if (emCache != null) {
+            // A entrada expira junto com o token, mas a granularidade do cache não é exata
+            if (emCache.getExpiration() != null && emCache.getExpiration().before(new Date())) {
+                cache.invalidate(chave);
+                return Optional.empty();
+            }
+            return Optional.of(emCache);
+        }
+        Optional<Claims> claims = tokenProvider.validarEObterClaims(token);
+        claims.ifPresent(c -> cache.put(chave, c));
+        return claims;
+    }
+
+    /**
+     * Remove um token do cache (ex: quando ele é revogado).
+     */
+    public void invalidar(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    long tamanhoEstimado() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível na JVM.", e);
+        }
+    }
+
+    /**
+     * Cada entrada vive até o "exp" do token que ela representa.
+     */
+    private static class ExpiracaoDoToken implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String chave, Claims claims, long currentTime) {
+            if (claims.getExpiration() == null) {
+                return 0; // Sem expiração declarada: não mantemos em cache
+            }
+            long restanteMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(restanteMs, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String chave, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String chave, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
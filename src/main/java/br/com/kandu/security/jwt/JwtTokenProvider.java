@@ -1,12 +1,15 @@
 package br.com.kandu.security.jwt;
 
 import br.com.kandu.entity.Usuario;
+import br.com.kandu.enums.NivelHierarquia;
+import br.com.kandu.security.KanduPrincipal;
 import io.jsonwebtoken.*; // Adicionar Claims, ExpiredJwtException, etc.
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException; // Adicionar SignatureException
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger; // Para logging
 import org.slf4j.LoggerFactory; // Para logging
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -15,12 +18,20 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class); // Para logs
 
+    // Claims adicionais: permitem montar o principal sem consultar o banco a cada requisição
+    static final String CLAIM_USUARIO_ID = "uid";
+    static final String CLAIM_EMPRESA_ID = "eid";
+    static final String CLAIM_NIVEL = "nivel";
+    static final String CLAIM_VERSAO_CONTA = "ver";
+
     @Value("${kandu.jwt.secret}")
     private String jwtSecretString;
 
@@ -29,9 +40,20 @@ public class JwtTokenProvider {
 
     private SecretKey jwtSecretKey;
 
+    // O parser é imutável e thread-safe: construído uma única vez em vez de a cada requisição.
+    private JwtParser jwtParser;
+
+    private final RegistroDeRejeicoesJwt rejeicoes;
+
+    @Autowired
+    public JwtTokenProvider(RegistroDeRejeicoesJwt rejeicoes) {
+        this.rejeicoes = rejeicoes;
+    }
+
     @PostConstruct
     protected void init() {
         this.jwtSecretKey = Keys.hmacShaKeyFor(jwtSecretString.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser().verifyWith(jwtSecretKey).build();
     }
 
     public String generateToken(Usuario usuario) {
@@ -40,11 +62,17 @@ public class JwtTokenProvider {
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
         Map<String, Object> claims = new HashMap<>();
-        // claims.put("userId", usuario.getId()); // Exemplo de claim adicional
+        claims.put(CLAIM_USUARIO_ID, usuario.getId());
+        if (usuario.getEmpresa() != null) {
+            claims.put(CLAIM_EMPRESA_ID, usuario.getEmpresa().getId()); // Não inicializa o proxy lazy: o id já está nele
+        }
+        claims.put(CLAIM_NIVEL, usuario.getNivelHierarquia().name());
+        claims.put(CLAIM_VERSAO_CONTA, usuario.getVersaoConta());
 
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(username)
+                .setId(UUID.randomUUID().toString()) // jti: identifica o token para revogação
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(jwtSecretKey, SignatureAlgorithm.HS256)
@@ -58,37 +86,82 @@ public class JwtTokenProvider {
      * @return O nome de usuário contido no token.
      */
     public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(jwtSecretKey) // Usa a chave secreta para verificar a assinatura
-                .build()
-                .parseSignedClaims(token)
-                .getPayload(); // Alterado de getBody() para getPayload() na v0.12.x do jjwt
+        return parseClaims(token).getSubject();
+    }
 
-        return claims.getSubject();
+    /**
+     * Verifica a assinatura e a expiração do token e retorna suas claims, com um único parse.
+     *
+     * @param token O token JWT.
+     * @return As claims do token.
+     * @throws JwtException se o token for inválido, expirado ou tiver assinatura incorreta.
+     * @throws IllegalArgumentException se o token for nulo ou vazio.
+     */
+    public Claims parseClaims(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload(); // getPayload() substitui getBody() na v0.12.x do jjwt
     }
 
     /**
-     * Valida um token JWT.
-     * Verifica se a assinatura é válida e se o token não está expirado ou malformado.
+     * Valida um token JWT e, se válido, retorna suas claims.
+     * Substitui a sequência validateToken + getUsernameFromJWT, que verificava a assinatura duas vezes.
+     * A recusa é contada por motivo e registrada no log amostrado (ver {@link RegistroDeRejeicoesJwt}).
      *
      * @param authToken O token JWT a ser validado.
-     * @return true se o token for válido, false caso contrário.
+     * @return As claims do token, ou vazio se o token for inválido.
      */
-    public boolean validateToken(String authToken) {
+    public Optional<Claims> validarEObterClaims(String authToken) {
         try {
-            Jwts.parser().verifyWith(jwtSecretKey).build().parseSignedClaims(authToken);
-            return true;
+            return Optional.of(parseClaims(authToken));
+        } catch (ExpiredJwtException ex) {
+            rejeicoes.registrar(RegistroDeRejeicoesJwt.Motivo.EXPIRADO, "expirado em " + ex.getClaims().getExpiration());
         } catch (SignatureException ex) {
-            logger.error("Assinatura JWT inválida: {}", ex.getMessage());
+            rejeicoes.registrar(RegistroDeRejeicoesJwt.Motivo.ASSINATURA_INVALIDA, ex.getMessage());
         } catch (MalformedJwtException ex) {
-            logger.error("Token JWT malformado: {}", ex.getMessage());
-        } catch (ExpiredJwtException ex) {
-            logger.error("Token JWT expirado: {}", ex.getMessage());
+            rejeicoes.registrar(RegistroDeRejeicoesJwt.Motivo.MALFORMADO, ex.getMessage());
         } catch (UnsupportedJwtException ex) {
-            logger.error("Token JWT não suportado: {}", ex.getMessage());
+            rejeicoes.registrar(RegistroDeRejeicoesJwt.Motivo.NAO_SUPORTADO, ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            rejeicoes.registrar(RegistroDeRejeicoesJwt.Motivo.VAZIO, ex.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Monta o principal do usuário a partir das claims de um token já verificado.
+     *
+     * @param claims As claims do token.
+     * @return O principal, ou null se o token não carregar as claims de identificação
+     *         (tokens emitidos antes da inclusão delas, que passam a exigir novo login).
+     */
+    public KanduPrincipal getPrincipal(Claims claims) {
+        Number usuarioId = claims.get(CLAIM_USUARIO_ID, Number.class);
+        String nivel = claims.get(CLAIM_NIVEL, String.class);
+        Number versaoConta = claims.get(CLAIM_VERSAO_CONTA, Number.class);
+        if (usuarioId == null || nivel == null || versaoConta == null) {
+            return null;
+        }
+        Number empresaId = claims.get(CLAIM_EMPRESA_ID, Number.class);
+        try {
+            return new KanduPrincipal(
+                    usuarioId.longValue(),
+                    claims.getSubject(),
+                    empresaId != null ? empresaId.longValue() : null,
+                    NivelHierarquia.valueOf(nivel),
+                    versaoConta.longValue());
         } catch (IllegalArgumentException ex) {
-            logger.error("String de claims JWT está vazia: {}", ex.getMessage());
+            logger.warn("Token JWT com nível hierárquico desconhecido: {}", nivel);
+            return null;
         }
-        return false;
+    }
+
+    /**
+     * Valida um token JWT.
+     * Verifica se a assinatura é válida e se o token não está expirado ou malformado.
+     *
+     * @param authToken O token JWT a ser validado.
+     * @return true se o token for válido, false caso contrário.
+     */
+    public boolean validateToken(String authToken) {
+        return validarEObterClaims(authToken).isPresent();
     }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+// src/main/java/br/com/kandu/security/jwt/RegistroDeRejeicoesJwt.java
+package br.com.kandu.security.jwt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Registro dos tokens JWT recusados: um contador por motivo e um canal de log amostrado e limitado.
+ * Por que foi implementado: cada token expirado, malformado ou com assinatura inválida gerava uma linha de
+ * log em ERROR (e o filtro ainda imprimia a pilha inteira). Uma frota de clientes com tokens expirados
+ * inundava o pipeline de logs. Agora a contagem exata fica no contador jwt.rejeicoes{motivo}, e o log recebe
+ * no máximo uma amostra por intervalo, com o total de rejeições omitidas desde a última linha.
+ * Token expirado é um desfecho normal (o cliente deve renovar pelo refresh token): só aparece em DEBUG.
+ * Uma exceção inesperada ao autenticar não é uma recusa do cliente, e sim um defeito: é contada como
+ * erro_interno e sempre registrada, com a pilha, no log da classe (fora da amostragem).
+ */
+@Component
+public class RegistroDeRejeicoesJwt {
+
+    /**
+     * Motivos de recusa de um token, usados como tag do contador.
+     */
+    public enum Motivo {
+        EXPIRADO,
+        ASSINATURA_INVALIDA,
+        MALFORMADO,
+        NAO_SUPORTADO,
+        VAZIO,
+        REVOGADO,
+        CLAIMS_INCOMPLETAS,
+        CONTA_ALTERADA,
+        ERRO_INTERNO;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // Canal próprio: pode ter o nível ajustado (ou ser desligado) sem afetar os demais logs de segurança
+    private static final Logger logger = LoggerFactory.getLogger("br.com.kandu.security.jwt.rejeicoes");
+    private static final Logger loggerErros = LoggerFactory.getLogger(RegistroDeRejeicoesJwt.class);
+
+    private final Map<Motivo, Counter> contadores = new EnumMap<>(Motivo.class);
+    private final long amostragem;
+    private final long intervaloNanos;
+    private final LongSupplier relogio;
+
+    private final AtomicLong recusas = new AtomicLong();
+    private final AtomicLong proximoLogPermitido = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong omitidas = new AtomicLong();
+
+    @Autowired
+    public RegistroDeRejeicoesJwt(MeterRegistry meterRegistry,
+                                  @Value("${kandu.jwt.rejeicoes.log.amostragem:10}") long amostragem,
+                                  @Value("${kandu.jwt.rejeicoes.log.intervalo-ms:1000}") long intervaloMs) {
+        this(meterRegistry, amostragem, intervaloMs, System::nanoTime);
+    }
+
+    // Construtor para testes, com relógio controlado
+    RegistroDeRejeicoesJwt(MeterRegistry meterRegistry, long amostragem, long intervaloMs, LongSupplier relogio) {
+        for (Motivo motivo : Motivo.values()) {
+            contadores.put(motivo, Counter.builder("jwt.rejeicoes")
+                    .tag("motivo", motivo.tag())
+                    .description("Tokens JWT recusados, por motivo")
+                    .register(meterRegistry));
+        }
+        this.amostragem = Math.max(1, amostragem);
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, intervaloMs));
+        this.relogio = relogio;
+    }
+
+    /**
+     * Registra a recusa de um token.
+     *
+     * @param motivo   O motivo da recusa.
+     * @param detalhe  Descrição curta (ex: mensagem da exceção do jjwt); nunca o token em si.
+     */
+    public void registrar(Motivo motivo, String detalhe) {
+        contadores.get(motivo).increment();
+
+        if (motivo == Motivo.EXPIRADO) {
+            logger.debug("Token JWT recusado ({}): {}", motivo.tag(), detalhe);
+            return;
+        }
+        if (recusas.incrementAndGet() % amostragem != 0 || !podeRegistrarAgora()) {
+            omitidas.incrementAndGet();
+            return;
+        }
+        long anteriores = omitidas.getAndSet(0);
+        logger.warn("Token JWT recusado ({}): {} [{} outras recusas omitidas do log; ver métrica jwt.rejeicoes]",
+                motivo.tag(), detalhe, anteriores);
+    }
+
+    /**
+     * Registra uma exceção inesperada durante a autenticação: contada como erro_interno e registrada
+     * sempre, com a pilha, sem passar pela amostragem das recusas.
+     */
+    public void registrarErroInterno(Exception ex) {
+        contadores.get(Motivo.ERRO_INTERNO).increment();
+        loggerErros.error("Erro inesperado ao autenticar a requisição pelo token JWT.", ex);
+    }
+
+    private boolean podeRegistrarAgora() {
+        long agora = relogio.getAsLong();
+        long permitido = proximoLogPermitido.get();
+        // Só uma thread ganha a janela; as demais contam como omitidas
+        return (permitido == Long.MIN_VALUE || agora - permitido >= 0)
+                && proximoLogPermitido.compareAndSet(permitido, agora + intervaloNanos);
+    }
+
+    double contagem(Motivo motivo) {
+        return contadores.get(motivo).count();
+    }
+
+    long omitidasDesdeUltimoLog() {
+        return omitidas.get();
+    }
+}
@@ -0,0 +1,181 @@
+// src/main/java/br/com/kandu/security/jwt/TokenRevogacaoService.java
+package br.com.kandu.security.jwt;
+
+import br.com.kandu.entity.TokenRevogado;
+import br.com.kandu.repository.TokenRevogadoRepository;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Revogação de tokens JWT antes da expiração, pelo "jti".
+ * Por que foi implementado: até aqui a única forma de invalidar um token era desativar o usuário.
+ * Os revogados ficam persistidos em tokens_revogados, e um filtro de Bloom em memória responde à
+ * pergunta "este token foi revogado?" sem ir ao banco no caso comum (token não revogado). Só os
+ * "talvez" do filtro, raros, são confirmados no banco.
+ * As linhas expiradas são apagadas periodicamente e o filtro é reconstruído, já que ele não admite remoção.
+ * O filtro é de cada instância: uma revogação feita em outra instância só entra nele na sincronização
+ * seguinte (kandu.jwt.revogacao.sincronizacao-ms), que lê do banco as revogações recentes. Até lá, o token
+ * revogado em outra instância ainda é aceito nesta.
+ */
+@Service
+public class TokenRevogacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevogacaoService.class);
+
+    // A sincronização relê um pouco antes da anterior: cobre relógios desalinhados e commits que demoraram
+    private static final Duration MARGEM_SINCRONIZACAO = Duration.ofMinutes(1);
+
+    private final TokenRevogadoRepository tokenRevogadoRepository;
+    private final JwtTokenCache tokenCache;
+    private final long capacidadeEsperada;
+    private final double taxaFalsoPositivo;
+
+    // Trocado por inteiro na reconstrução; adições e reconstrução são serializadas pelo lock abaixo
+    private volatile FiltroBloom filtro;
+    private final Object lockFiltro = new Object();
+    private LocalDateTime ultimaSincronizacao = LocalDateTime.now(); // Protegida por lockFiltro
+
+    private final Counter descartadosPeloFiltro;
+    private final Counter falsosPositivos;
+    private final Counter revogadosEncontrados;
+
+    @Autowired
+    public TokenRevogacaoService(TokenRevogadoRepository tokenRevogadoRepository,
+                                 JwtTokenCache tokenCache,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${kandu.jwt.revogacao.capacidade-esperada:100000}") long capacidadeEsperada,
+                                 @Value("${kandu.jwt.revogacao.taxa-falso-positivo:0.01}") double taxaFalsoPositivo) {
+        this.tokenRevogadoRepository = tokenRevogadoRepository;
+        this.tokenCache = tokenCache;
+        this.capacidadeEsperada = capacidadeEsperada;
+        this.taxaFalsoPositivo = taxaFalsoPositivo;
+        this.filtro = new FiltroBloom(capacidadeEsperada, taxaFalsoPositivo);
+        this.descartadosPeloFiltro = consultas(meterRegistry, "filtro");
+        this.falsosPositivos = consultas(meterRegistry, "falso_positivo");
+        this.revogadosEncontrados = consultas(meterRegistry, "revogado");
+    }
+
+    private static Counter consultas(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("jwt.revogacao.consultas").tag("resultado", resultado)
+                .description("Verificações de revogação de token por resultado").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void carregar() {
+        reconstruirFiltro();
+    }
+
+    /**
+     * Verifica se o token com o "jti" informado foi revogado.
+     *
+     * @param jti O identificador do token; tokens sem "jti" não são revogáveis.
+     * @return true se o token foi revogado.
+     */
+    public boolean isRevogado(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        if (!filtro.podeConter(jti)) {
+            descartadosPeloFiltro.increment();
+            return false;
+        }
+        boolean revogado = tokenRevogadoRepository.existsByJti(jti);
+        (revogado ? revogadosEncontrados : falsosPositivos).increment();
+        return revogado;
+    }
+
+    /**
+     * Revoga um token JWT (ex: logout).
+     *
+     * @param token O token em claro, como recebido no header Authorization.
+     * @return O id do usuário do token (para encerrar também os seus refresh tokens), ou null se o token não o tiver.
+     * @throws IllegalArgumentException se o token for inválido ou já tiver expirado.
+     */
+    public Long revogarToken(String token) {
+        Claims claims = tokenCache.verificar(token)
+                .orElseThrow(() -> new IllegalArgumentException("Token inválido ou expirado."));
+        revogar(claims);
+        tokenCache.invalidar(token);
+        Number usuarioId = claims.get(JwtTokenProvider.CLAIM_USUARIO_ID, Number.class);
+        return usuarioId != null ? usuarioId.longValue() : null;
+    }
+
+    /**
+     * Revoga o token descrito pelas claims, até a sua expiração.
+     * A gravação é confirmada antes de o "jti" entrar no filtro, para que uma reconstrução concorrente não o perca.
+     */
+    public void revogar(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            throw new IllegalArgumentException("Token sem identificador (jti) não pode ser revogado.");
+        }
+        if (!tokenRevogadoRepository.existsByJti(jti)) {
+            Number usuarioId = claims.get(JwtTokenProvider.CLAIM_USUARIO_ID, Number.class);
+            try {
+                tokenRevogadoRepository.save(TokenRevogado.builder()
+                        .jti(jti)
+                        .usuarioId(usuarioId != null ? usuarioId.longValue() : null)
+                        .expiraEm(LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()))
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                // Outra requisição revogou o mesmo token entre a consulta e a gravação (uk_token_revogado_jti)
+                logger.debug("Token {} já revogado por uma requisição concorrente.", jti);
+            }
+        }
+        synchronized (lockFiltro) {
+            filtro.adicionar(jti);
+        }
+    }
+
+    /**
+     * Apaga as revogações de tokens que já expiraram (e que, portanto, seriam recusados de qualquer forma)
+     * e reconstrói o filtro só com as restantes.
+     */
+    @Scheduled(fixedDelayString = "${kandu.jwt.revogacao.purga-ms:3600000}",
+            initialDelayString = "${kandu.jwt.revogacao.purga-ms:3600000}")
+    public void purgarExpirados() {
+        int apagados = tokenRevogadoRepository.deleteExpiradosEm(LocalDateTime.now());
+        reconstruirFiltro();
+        logger.info("Purga de tokens revogados: {} registros expirados removidos.", apagados);
+    }
+
+    /**
+     * Acrescenta ao filtro as revogações gravadas desde a última sincronização, inclusive as feitas por
+     * outras instâncias. É uma consulta pelo índice de revogado_em; o filtro não é reconstruído.
+     */
+    @Scheduled(fixedDelayString = "${kandu.jwt.revogacao.sincronizacao-ms:10000}",
+            initialDelayString = "${kandu.jwt.revogacao.sincronizacao-ms:10000}")
+    public void sincronizar() {
+        synchronized (lockFiltro) {
+            LocalDateTime inicio = LocalDateTime.now();
+            tokenRevogadoRepository.findJtisRevogadosDesde(ultimaSincronizacao.minus(MARGEM_SINCRONIZACAO))
+                    .forEach(filtro::adicionar);
+            ultimaSincronizacao = inicio;
+        }
+    }
+
+    private void reconstruirFiltro() {
+        synchronized (lockFiltro) {
+            ultimaSincronizacao = LocalDateTime.now();
+            List<String> jtis = tokenRevogadoRepository.findJtisValidosEm(LocalDateTime.now());
+            // Se a lista cresceu além do previsto, o novo filtro é dimensionado com folga para manter a taxa
+            FiltroBloom novo = new FiltroBloom(Math.max(capacidadeEsperada, jtis.size() * 2L), taxaFalsoPositivo);
+            jtis.forEach(novo::adicionar);
+            this.filtro = novo;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+// src/main/java/br/com/kandu/service/ArquivamentoOSService.java
+package br.com.kandu.service;
+
+import br.com.kandu.entity.Empresa;
+import br.com.kandu.entity.LogArquivamentoOS;
+import br.com.kandu.enums.StatusOS;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Arquivamento automático das OS encerradas há mais de N dias (Empresa.diasParaArquivar, ou o padrão da aplicação).
+ * Por que foi implementado: só o deletarOS levava uma OS a ARQUIVADA, e as concluídas e canceladas se acumulavam
+ * nas listagens de cada empresa para sempre. O job percorre as empresas e arquiva em lotes de tamanho fixo: cada
+ * lote escolhe os ids mais antigos, muda o status com um único UPDATE e grava um único LogArquivamentoOS com o
+ * resumo, tudo na mesma transação. Não há estado de progresso a guardar: um lote confirmado já saiu da seleção,
+ * e um lote interrompido (queda, deploy) é desfeito por inteiro e escolhido de novo na próxima execução.
+ */
+@Service
+public class ArquivamentoOSService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArquivamentoOSService.class);
+
+    private static final List<StatusOS> ENCERRAMENTOS = List.of(StatusOS.CONCLUIDA, StatusOS.CANCELADA);
+
+    // Um lote cheio (selecionadas == tamanho do lote) indica que pode haver mais, mesmo que alguma OS tenha mudado no meio
+    private record Lote(int selecionadas, int arquivadas) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ContadorStatusOSService contadorStatus;
+    private final CarimboAlteracoesOSService carimboAlteracoes;
+    private final BuscaTextoOSService buscaTexto;
+    private final TransactionTemplate transactionTemplate;
+    private final int diasPadrao;
+    private final int tamanhoLote;
+
+    @Autowired
+    public ArquivamentoOSService(ContadorStatusOSService contadorStatus, CarimboAlteracoesOSService carimboAlteracoes,
+                                 BuscaTextoOSService buscaTexto,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${kandu.os.arquivamento.dias-padrao:90}") int diasPadrao,
+                                 @Value("${kandu.os.arquivamento.tamanho-lote:500}") int tamanhoLote) {
+        this.contadorStatus = contadorStatus;
+        this.carimboAlteracoes = carimboAlteracoes;
+        this.buscaTexto = buscaTexto;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.diasPadrao = diasPadrao;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Arquiva as OS vencidas de todas as empresas.
+     *
+     * @return Quantas OS foram arquivadas nesta execução.
+     */
+    @Scheduled(fixedDelayString = "${kandu.os.arquivamento.intervalo-ms:3600000}",
+            initialDelayString = "${kandu.os.arquivamento.intervalo-ms:3600000}")
+    public long arquivarVencidas() {
+        return arquivarVencidas(LocalDateTime.now());
+    }
+
+    long arquivarVencidas(LocalDateTime agora) {
+        List<Object[]> empresas = transactionTemplate.execute(status -> entityManager
+                .createQuery("select e.id, e.diasParaArquivar from Empresa e order by e.id", Object[].class)
+                .getResultList());
+        long total = 0;
+        for (Object[] empresa : empresas) {
+            Long empresaId = (Long) empresa[0];
+            int dias = empresa[1] == null ? diasPadrao : (Integer) empresa[1];
+            LocalDateTime limite = agora.minusDays(dias);
+            try {
+                for (StatusOS origem : ENCERRAMENTOS) {
+                    Lote lote;
+                    do {
+                        lote = arquivarLote(empresaId, origem, limite);
+                        total += lote.arquivadas();
+                    } while (lote.selecionadas() == tamanhoLote);
+                }
+            } catch (RuntimeException e) {
+                // Os lotes já confirmados ficam; o restante da empresa é tentado de novo na próxima execução
+                logger.warn("Arquivamento automático interrompido na empresa {}.", empresaId, e);
+            }
+        }
+        if (total > 0) {
+            logger.info("Arquivamento automático: {} OS arquivadas.", total);
+        }
+        return total;
+    }
+
+    // Um lote: seleção, UPDATE e resumo de auditoria confirmados juntos, ou nenhum deles
+    private Lote arquivarLote(Long empresaId, StatusOS origem, LocalDateTime limite) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = entityManager.createQuery("select os.id from OrdemDeServico os where os.empresa.id = :empresaId " +
+                            "and os.status = :origem and os.dataEncerramento < :limite order by os.dataEncerramento, os.id", Long.class)
+                    .setParameter("empresaId", empresaId)
+                    .setParameter("origem", origem)
+                    .setParameter("limite", limite)
+                    .setMaxResults(tamanhoLote)
+                    .getResultList();
+            if (ids.isEmpty()) {
+                return new Lote(0, 0);
+            }
+            // A condição no status protege contra uma mudança feita na OS entre a seleção e o UPDATE
+            int alteradas = entityManager.createQuery("update OrdemDeServico os set os.status = :arquivada, " +
+                            "os.versao = os.versao + 1 where os.id in :ids and os.status = :origem")
+                    .setParameter("arquivada", StatusOS.ARQUIVADA)
+                    .setParameter("origem", origem)
+                    .setParameter("ids", ids)
+                    .executeUpdate();
+            if (alteradas > 0) {
+                entityManager.persist(LogArquivamentoOS.builder()
+                        .empresa(entityManager.getReference(Empresa.class, empresaId))
+                        .statusAnterior(origem)
+                        .quantidade(alteradas)
+                        .primeiroOsId(ids.stream().min(Long::compare).orElseThrow())
+                        .ultimoOsId(ids.stream().max(Long::compare).orElseThrow())
+                        .encerradasAntesDe(limite)
+                        .build());
+                contadorStatus.registrarMudanca(empresaId, origem, StatusOS.ARQUIVADA, alteradas);
+                // Uma OS da seleção que mudou de status antes do UPDATE fica marcada até a reconstrução do índice
+                buscaTexto.registrarStatus(empresaId, ids, StatusOS.ARQUIVADA);
+                carimboAlteracoes.registrarAlteracao(empresaId);
+            }
+            return new Lote(ids.size(), alteradas);
+        });
+    }
+}
@@ -0,0 +1,320 @@
+// src/main/java/br/com/kandu/service/BuscaTextoOSService.java
+package br.com.kandu.service;
+
+import br.com.kandu.dto.PaginaDTO;
+import br.com.kandu.entity.OrdemDeServico;
+import br.com.kandu.enums.StatusOS;
+import br.com.kandu.exception.ServicoIndisponivelException;
+import br.com.kandu.repository.EmpresaRepository;
+import br.com.kandu.repository.OrdemDeServicoArquivadaRepository;
+import br.com.kandu.repository.OrdemDeServicoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Busca textual nas OS (título, descrição e requisitos), por um índice invertido em memória por empresa.
+ * Por que foi implementado: a única forma de achar as OS que falam de "bomba" ou "vazamento" era exportar
+ * tudo, e descricao e requisitos são colunas TEXT, em que um LIKE '%termo%' lê a tabela inteira. Cada empresa
+ * tem um {@link IndiceTextoOS}, atualizado depois do commit das operações que criam OS ou mudam o seu status;
+ * a busca consulta só o índice da empresa do utilizador e carrega do banco apenas a página pedida.
+ * O índice é reconstruído pelo banco ao iniciar e periodicamente, em segundo plano: as alterações confirmadas
+ * durante a reconstrução são guardadas e reaplicadas no índice novo antes da troca, e a reconstrução corrige
+ * o que não passou pelos serviços (ex: alterações feitas direto no banco).
+ * As alterações feitas por outras instâncias chegam pela sincronização periódica: a cada poucos segundos o
+ * carimbo de alterações de cada empresa (CarimboAlteracoesOSService) é comparado com o da última leitura, e só
+ * as empresas cujo carimbo mudou têm o id e o status das suas OS ativas conferidos com o índice; dessas, só as
+ * OS novas têm o texto lido. O resultado da busca segue a ordem dos ids, e não a data de cadastro: os ids vêm
+ * em blocos por instância, então duas OS gravadas quase juntas em instâncias diferentes podem sair invertidas.
+ */
+@Service
+public class BuscaTextoOSService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BuscaTextoOSService.class);
+
+    private static final int MAXIMO_TERMOS = 10;
+
+    private final OrdemDeServicoRepository osRepository;
+    private final OrdemDeServicoArquivadaRepository arquivoRepository;
+    private final EmpresaRepository empresaRepository;
+    private final int tamanhoLote;
+
+    private final Object estado = new Object(); // Protege a troca dos índices e a lista de alterações pendentes
+    private volatile Map<Long, IndiceTextoOS> indices = new ConcurrentHashMap<>();
+    private List<Consumer<Map<Long, IndiceTextoOS>>> pendentes; // Não nula só durante uma reconstrução
+    private volatile boolean pronto;
+    private Map<Long, Long> carimbosLidos = new HashMap<>(); // Por empresa, na última reconstrução ou sincronização
+
+    @Autowired
+    public BuscaTextoOSService(OrdemDeServicoRepository osRepository, OrdemDeServicoArquivadaRepository arquivoRepository,
+                               EmpresaRepository empresaRepository,
+                               @Value("${kandu.os.busca.tamanho-lote:1000}") int tamanhoLote) {
+        this.osRepository = osRepository;
+        this.arquivoRepository = arquivoRepository;
+        this.empresaRepository = empresaRepository;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Indexa (ou reindexa) a OS quando (e se) a transação atual for confirmada.
+     * Deve ser chamado por toda operação que cria uma OS ou muda o seu texto; a OS já precisa ter id.
+     */
+    public void registrarIndexacao(OrdemDeServico os) {
+        long id = os.getId();
+        Long empresaId = os.getEmpresa().getId();
+        long criadorId = os.getCriador().getId();
+        StatusOS status = os.getStatus();
+        String texto = texto(os.getTitulo(), os.getDescricao(), os.getRequisitos());
+        aposCommit(() -> aplicar(indices -> indice(indices, empresaId).indexar(id, criadorId, status, texto)));
+    }
+
+    /**
+     * Registra o novo status das OS da empresa, quando (e se) a transação atual for confirmada.
+     */
+    public void registrarStatus(Long empresaId, Collection<Long> ids, StatusOS status) {
+        List<Long> copia = List.copyOf(ids);
+        aposCommit(() -> aplicar(indices -> {
+            IndiceTextoOS indice = indices.get(empresaId);
+            if (indice != null) {
+                copia.forEach(id -> indice.alterarStatus(id, status));
+            }
+        }));
+    }
+
+    /**
+     * Busca as OS visíveis que contêm todos os termos da consulta (cada termo vale como prefixo, sem diferenciar
+     * acentos e maiúsculas), do maior id para o menor (aproximadamente da mais recente para a mais antiga, ver a
+     * descrição da classe), paginadas por cursor.
+     *
+     * @param visibilidade      As regras de visibilidade do utilizador (as mesmas da listagem).
+     * @param consulta          O texto buscado.
+     * @param incluirArquivadas Se as OS ARQUIVADA entram no resultado.
+     * @param cursor            O proximoCursor da página anterior, ou null para a primeira página.
+     * @param tamanho           Quantidade de itens por página (já limitada pelo controller).
+     * @throws IllegalArgumentException     se a consulta não tiver termos buscáveis, tiver termos demais ou o cursor for inválido.
+     * @throws ServicoIndisponivelException se o índice ainda não terminou de ser construído.
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<OrdemDeServico> buscar(OrdemDeServicoService.Visibilidade visibilidade, String consulta,
+                                            boolean incluirArquivadas, String cursor, int tamanho) {
+        List<String> termos = IndiceTextoOS.termos(consulta);
+        if (termos.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um termo com " + IndiceTextoOS.TAMANHO_MINIMO_TERMO
+                    + " ou mais letras ou números.");
+        }
+        if (termos.size() > MAXIMO_TERMOS) {
+            throw new IllegalArgumentException("A busca aceita no máximo " + MAXIMO_TERMOS + " termos.");
+        }
+        long antesDe = cursor != null ? decodificarCursor(cursor) : Long.MAX_VALUE;
+        if (!pronto) {
+            throw new ServicoIndisponivelException("O índice de busca ainda está sendo construído.", 5);
+        }
+
+        Map<Long, IndiceTextoOS> atuais = indices;
+        List<Long> ids;
+        if (visibilidade.empresaId() != null) {
+            IndiceTextoOS indice = atuais.get(visibilidade.empresaId());
+            ids = indice == null ? List.of()
+                    : indice.buscar(termos, visibilidade.criadorId(), incluirArquivadas, antesDe, tamanho + 1);
+        } else { // ADM: os primeiros de cada empresa, intercalados
+            ids = atuais.values().stream()
+                    .flatMap(indice -> indice.buscar(termos, null, incluirArquivadas, antesDe, tamanho + 1).stream())
+                    .sorted(Comparator.reverseOrder()).limit(tamanho + 1L).toList();
+        }
+        if (ids.isEmpty()) {
+            return new PaginaDTO<>(List.of(), null);
+        }
+
+        List<Long> daPagina = ids.subList(0, Math.min(tamanho, ids.size()));
+        Map<Long, OrdemDeServico> carregadas = new HashMap<>();
+        osRepository.findDetalhesByIdIn(daPagina).forEach(os -> carregadas.put(os.getId(), os));
+        if (carregadas.size() < daPagina.size()) { // As que já foram transferidas para o arquivo
+            List<Long> faltantes = daPagina.stream().filter(id -> !carregadas.containsKey(id)).toList();
+            arquivoRepository.findDetalhesByIdIn(faltantes).forEach(os -> carregadas.put(os.getId(), os.paraOrdemDeServico()));
+        }
+        // O banco decide: uma OS que sumiu ou foi arquivada sem passar pelos serviços some também da página
+        List<OrdemDeServico> itens = daPagina.stream().map(carregadas::get).filter(Objects::nonNull)
+                .filter(os -> incluirArquivadas || os.getStatus() != StatusOS.ARQUIVADA).toList();
+        String proximoCursor = ids.size() > tamanho ? codificarCursor(daPagina.get(daPagina.size() - 1)) : null;
+        return new PaginaDTO<>(itens, proximoCursor);
+    }
+
+    /**
+     * Reconstrói todos os índices pelo banco (OS ativas e arquivo), lendo em páginas pela chave primária,
+     * e troca os índices em uso pelos novos de uma vez. As buscas continuam a usar os anteriores enquanto isso.
+     */
+    @Scheduled(fixedDelayString = "${kandu.os.busca.reconstrucao-ms:21600000}",
+            initialDelayString = "${kandu.os.busca.atraso-inicial-ms:0}")
+    public synchronized void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        synchronized (estado) {
+            pendentes = new ArrayList<>();
+        }
+        try {
+            // Lidos antes das OS: o que mudar durante a leitura ainda é conferido na próxima sincronização
+            Map<Long, Long> carimbos = lerCarimbos();
+            Map<Long, IndiceTextoOS> novos = new ConcurrentHashMap<>();
+            // Ativas antes do arquivo: uma OS transferida durante a leitura é encontrada na segunda passada
+            long total = carregar(novos, osRepository::buscarTextosApos) + carregar(novos, arquivoRepository::buscarTextosApos);
+            synchronized (estado) {
+                pendentes.forEach(alteracao -> alteracao.accept(novos));
+                indices = novos;
+                pronto = true;
+            }
+            carimbosLidos = carimbos;
+            logger.info("Índice de busca das OS reconstruído: {} OS de {} empresas em {} ms.",
+                    total, novos.size(), System.currentTimeMillis() - inicio);
+        } finally {
+            synchronized (estado) {
+                pendentes = null;
+            }
+        }
+    }
+
+    /**
+     * Traz para o índice as OS criadas e os status alterados por outras instâncias (ou direto no banco), nas
+     * empresas cujo carimbo de alterações mudou desde a última leitura. Não roda antes da primeira reconstrução,
+     * nem ao mesmo tempo que uma reconstrução.
+     */
+    @Scheduled(fixedDelayString = "${kandu.os.busca.sincronizacao-ms:10000}",
+            initialDelayString = "${kandu.os.busca.sincronizacao-ms:10000}")
+    public synchronized void sincronizar() {
+        if (!pronto) {
+            return;
+        }
+        Map<Long, Long> carimbos = lerCarimbos();
+        int novas = 0;
+        int alteradas = 0;
+        for (Map.Entry<Long, Long> carimbo : carimbos.entrySet()) {
+            if (carimbo.getValue().equals(carimbosLidos.get(carimbo.getKey()))) {
+                continue;
+            }
+            Long empresaId = carimbo.getKey();
+            IndiceTextoOS indice = indices.get(empresaId);
+            List<Long> naoIndexadas = new ArrayList<>();
+            Map<Long, StatusOS> statusAlterados = new HashMap<>();
+            for (OrdemDeServicoRepository.StatusDaOS os : osRepository.buscarStatusDaEmpresa(empresaId)) {
+                StatusOS noIndice = indice == null ? null : indice.status(os.getId());
+                if (noIndice == null) {
+                    naoIndexadas.add(os.getId());
+                } else if (noIndice != os.getStatus()) {
+                    statusAlterados.put(os.getId(), os.getStatus());
+                }
+            }
+            if (!statusAlterados.isEmpty()) {
+                aplicarStatus(empresaId, statusAlterados);
+            }
+            for (int inicio = 0; inicio < naoIndexadas.size(); inicio += tamanhoLote) {
+                List<OrdemDeServicoRepository.TextoOS> textos = osRepository.buscarTextosPorIds(
+                        naoIndexadas.subList(inicio, Math.min(inicio + tamanhoLote, naoIndexadas.size())));
+                aplicar(atuais -> textos.forEach(os -> indice(atuais, empresaId).indexar(os.getId(), os.getCriadorId(),
+                        os.getStatus(), texto(os.getTitulo(), os.getDescricao(), os.getRequisitos()))));
+            }
+            novas += naoIndexadas.size();
+            alteradas += statusAlterados.size();
+        }
+        carimbosLidos = carimbos;
+        if (novas > 0 || alteradas > 0) {
+            logger.debug("Índice de busca das OS sincronizado: {} OS novas e {} com status alterado.", novas, alteradas);
+        }
+    }
+
+    private void aplicarStatus(Long empresaId, Map<Long, StatusOS> statusAlterados) {
+        aplicar(atuais -> {
+            IndiceTextoOS indice = atuais.get(empresaId);
+            if (indice != null) {
+                statusAlterados.forEach(indice::alterarStatus);
+            }
+        });
+    }
+
+    private Map<Long, Long> lerCarimbos() {
+        Map<Long, Long> carimbos = new HashMap<>();
+        for (Object[] linha : empresaRepository.buscarCarimbosOS()) {
+            carimbos.put(((Number) linha[0]).longValue(), ((Number) linha[1]).longValue());
+        }
+        return carimbos;
+    }
+
+    private long carregar(Map<Long, IndiceTextoOS> novos, BiFunction<Long, Pageable, List<OrdemDeServicoRepository.TextoOS>> leitura) {
+        long total = 0;
+        long ultimoId = 0;
+        List<OrdemDeServicoRepository.TextoOS> pagina;
+        do {
+            pagina = leitura.apply(ultimoId, PageRequest.of(0, tamanhoLote));
+            for (OrdemDeServicoRepository.TextoOS os : pagina) {
+                indice(novos, os.getEmpresaId()).indexar(os.getId(), os.getCriadorId(), os.getStatus(),
+                        texto(os.getTitulo(), os.getDescricao(), os.getRequisitos()));
+                ultimoId = os.getId();
+            }
+            total += pagina.size();
+        } while (pagina.size() == tamanhoLote);
+        return total;
+    }
+
+    // Aplica no índice em uso e, durante uma reconstrução, guarda para reaplicar no novo (reaplicar é inofensivo)
+    private void aplicar(Consumer<Map<Long, IndiceTextoOS>> alteracao) {
+        synchronized (estado) {
+            alteracao.accept(indices);
+            if (pendentes != null) {
+                pendentes.add(alteracao);
+            }
+        }
+    }
+
+    private static IndiceTextoOS indice(Map<Long, IndiceTextoOS> indices, Long empresaId) {
+        return indices.computeIfAbsent(empresaId, id -> new IndiceTextoOS());
+    }
+
+    private static String texto(String titulo, String descricao, String requisitos) {
+        return String.join(" ", Objects.toString(titulo, ""), Objects.toString(descricao, ""), Objects.toString(requisitos, ""));
+    }
+
+    // Como na listagem, o cursor (o id do último item) vai em Base64 para que o cliente o trate como opaco
+    private static String codificarCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodificarCursor(String cursor) {
+        try { // NumberFormatException é uma IllegalArgumentException
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
+    }
+
+    // Só indexa o que foi confirmado: um rollback não deixa no índice uma OS que não existe
+    private static void aposCommit(Runnable atualizacao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    atualizacao.run();
+                }
+            });
+        } else {
+            atualizacao.run();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+// src/main/java/br/com/kandu/service/CarimboAlteracoesOSService.java
+package br.com.kandu.service;
+
+import br.com.kandu.repository.EmpresaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Carimbo de alterações das OS de cada empresa, usado como ETag das listagens.
+ * Por que foi implementado: os aplicativos consultam as listagens a cada poucos segundos e baixavam de novo
+ * o mesmo conteúdo. O carimbo de uma empresa (empresas.carimbo_os) avança na mesma transação de qualquer
+ * alteração nas suas OS; enquanto ele não muda, a resposta de uma mesma consulta também não muda, e o controller
+ * responde 304 sem consultar as OS nem serializar nada (um ETag calculado sobre o corpo, como o do
+ * ShallowEtagHeaderFilter, ainda exigiria as duas coisas). O carimbo fica no banco, e não na memória de cada
+ * instância, para que todas as instâncias emitam e aceitem o mesmo ETag; lê-lo custa uma consulta pela chave
+ * primária de empresas.
+ */
+@Service
+public class CarimboAlteracoesOSService {
+
+    private final EmpresaRepository empresaRepository;
+
+    @Autowired
+    public CarimboAlteracoesOSService(EmpresaRepository empresaRepository) {
+        this.empresaRepository = empresaRepository;
+    }
+
+    /**
+     * Registra uma alteração nas OS da empresa. Deve ser chamado por toda operação que muda o conteúdo de uma
+     * OS listada. O carimbo só avança imediatamente antes do commit, uma vez por empresa e em ordem de id, para
+     * que o lock na linha da empresa dure o mínimo e duas transações não se travem em ordens diferentes.
+     */
+    @Transactional
+    public void registrarAlteracao(Long empresaId) {
+        for (TransactionSynchronization sincronizacao : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sincronizacao instanceof AvancoDeCarimbos avanco) {
+                avanco.empresas.add(empresaId);
+                return;
+            }
+        }
+        AvancoDeCarimbos avanco = new AvancoDeCarimbos();
+        avanco.empresas.add(empresaId);
+        TransactionSynchronizationManager.registerSynchronization(avanco);
+    }
+
+    /**
+     * ETag (fraco) de uma listagem. Deve ser calculado ANTES de consultar as OS: se algo mudar durante a
+     * consulta, o cliente recebe um ETag antigo e apenas baixa o conteúdo de novo na próxima vez.
+     *
+     * @param empresaId A empresa visível (null para o ADM).
+     * @param consulta  Tudo o que determina o conteúdo: caminho, parâmetros e restrições de visibilidade.
+     * @return O valor do header ETag.
+     */
+    public String etagListagem(Long empresaId, String consulta) {
+        // As listagens do ADM cobrem todas as empresas: a soma muda quando qualquer carimbo muda
+        long carimbo = empresaId == null ? empresaRepository.somarCarimbosOS()
+                : empresaRepository.findCarimboOS(empresaId).orElse(0L);
+        CRC32 crc = new CRC32();
+        crc.update(consulta.getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + (empresaId == null ? "*" : empresaId) + "-" + carimbo + "-"
+                + Long.toHexString(crc.getValue()) + "\"";
+    }
+
+    /**
+     * Descreve uma consulta pelo caminho e pelos parâmetros em ordem alfabética, para que a mesma consulta
+     * com os parâmetros em outra ordem tenha o mesmo ETag.
+     */
+    public static String descreverConsulta(String caminho, Map<String, String[]> parametros) {
+        return caminho + "?" + new TreeMap<>(parametros).entrySet().stream()
+                .map(p -> p.getKey() + "=" + String.join(",", Arrays.asList(p.getValue())))
+                .collect(Collectors.joining("&"));
+    }
+
+    /**
+     * Verifica se o header If-None-Match do cliente contém o ETag atual (comparação fraca, RFC 9110).
+     */
+    public static boolean corresponde(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String atual = semPrefixoFraco(etag);
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.equals("*") || semPrefixoFraco(valor).equals(atual)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String semPrefixoFraco(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    // Empresas alteradas na transação, cujos carimbos avançam antes do commit
+    private class AvancoDeCarimbos implements TransactionSynchronization {
+        private final Set<Long> empresas = new TreeSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            empresas.forEach(empresaRepository::avancarCarimboOS);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+// src/main/java/br/com/kandu/service/ChaveApiService.java
+package br.com.kandu.service;
+
+import br.com.kandu.dto.ChaveApiCriacaoDTO;
+import br.com.kandu.dto.ChaveApiResponseDTO;
+import br.com.kandu.entity.ChaveApi;
+import br.com.kandu.entity.Usuario;
+import br.com.kandu.enums.NivelHierarquia;
+import br.com.kandu.repository.ChaveApiRepository;
+import br.com.kandu.repository.UsuarioRepository;
+import br.com.kandu.security.apikey.ChaveApiVerificador;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Gestão das chaves de API das integrações de uma empresa.
+ * Por que foi implementado: cada chave ganha a sua própria conta de serviço, para que as ações da integração
+ * apareçam no histórico com um autor identificável e para que a chave herde as mesmas regras de empresa e
+ * nível hierárquico dos usuários. Revogar a chave desativa também a conta de serviço.
+ */
+@Service
+public class ChaveApiService {
+
+    // Não é um hash BCrypt: nenhuma senha confere, então a conta de serviço não consegue fazer login
+    private static final String SENHA_DESABILITADA = "!conta-de-servico";
+
+    private final ChaveApiRepository chaveApiRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final UsuarioService usuarioService;
+    private final ChaveApiVerificador verificador;
+    private final VersaoContaService versaoContaService;
+    private final UsuarioCacheService usuarioCache;
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    public ChaveApiService(ChaveApiRepository chaveApiRepository,
+                           UsuarioRepository usuarioRepository,
+                           UsuarioService usuarioService,
+                           ChaveApiVerificador verificador,
+                           VersaoContaService versaoContaService,
+                           UsuarioCacheService usuarioCache) {
+        this.chaveApiRepository = chaveApiRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.usuarioService = usuarioService;
+        this.verificador = verificador;
+        this.versaoContaService = versaoContaService;
+        this.usuarioCache = usuarioCache;
+    }
+
+    /**
+     * Cria uma chave de API e a conta de serviço correspondente na empresa do usuário logado.
+     *
+     * @param dto Descrição da integração e nível da conta de serviço (COMUM ou SUPERVISOR).
+     * @return Os dados da chave, incluindo a chave em claro (exibida apenas nesta resposta).
+     */
+    @Transactional
+    public ChaveApiResponseDTO criarChave(ChaveApiCriacaoDTO dto) {
+        if (dto == null || dto.getDescricao() == null || dto.getDescricao().isBlank()) {
+            throw new IllegalArgumentException("A descrição da integração é obrigatória.");
+        }
+        NivelHierarquia nivel = dto.getNivelHierarquia() == null ? NivelHierarquia.COMUM : dto.getNivelHierarquia();
+        if (nivel != NivelHierarquia.COMUM && nivel != NivelHierarquia.SUPERVISOR) {
+            throw new IllegalArgumentException("Contas de serviço só podem ter nível COMUM ou SUPERVISOR.");
+        }
+        Usuario adminLogado = usuarioService.getUsuarioAutenticado();
+        String descricao = dto.getDescricao().trim();
+        String prefixo = aleatorio(9);   // 12 caracteres
+        String segredo = aleatorio(32);  // 256 bits
+
+        Usuario conta = new Usuario();
+        conta.setNomeCompleto(limitar("Integração: " + descricao, 150));
+        conta.setNomeUsuario("api_" + prefixo);
+        conta.setEmail(prefixo + "@api.kandu.local");
+        conta.setSenha(SENHA_DESABILITADA);
+        conta.setNivelHierarquia(nivel);
+        conta.setFuncao("Conta de serviço");
+        conta.setAtivo(true);
+        conta.setEmpresa(adminLogado.getEmpresa());
+        conta = usuarioRepository.save(conta);
+
+        ChaveApi chave = chaveApiRepository.save(ChaveApi.builder()
+                .prefixo(prefixo)
+                .hash(verificador.hash(segredo))
+                .descricao(limitar(descricao, 150))
+                .empresa(adminLogado.getEmpresa())
+                .contaServico(conta)
+                .ativa(true)
+                .build());
+        verificador.invalidar(prefixo); // Descarta uma eventual recusa em cache para este prefixo
+
+        ChaveApiResponseDTO resposta = converter(chave);
+        resposta.setChave(ChaveApiVerificador.montar(prefixo, segredo));
+        return resposta;
+    }
+
+    /**
+     * Lista as chaves de API da empresa do usuário logado (sem os segredos).
+     */
+    @Transactional(readOnly = true)
+    public List<ChaveApiResponseDTO> listarChavesDaEmpresa() {
+        Usuario adminLogado = usuarioService.getUsuarioAutenticado();
+        return chaveApiRepository.findByEmpresaIdOrderByCriadaEmDesc(adminLogado.getEmpresa().getId()).stream()
+                .map(ChaveApiService::converter)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Revoga uma chave de API. O efeito é imediato: a verificação em memória é descartada e a conta de
+     * serviço é desativada (o que também invalida a versão da conta usada pelos filtros de autenticação).
+     *
+     * @param chaveId O ID da chave.
+     */
+    @Transactional
+    public void revogarChave(Long chaveId) {
+        Usuario adminLogado = usuarioService.getUsuarioAutenticado();
+        ChaveApi chave = chaveApiRepository.findById(chaveId)
+                .orElseThrow(() -> new IllegalArgumentException("Chave de API não encontrada com ID: " + chaveId));
+        if (adminLogado.getNivelHierarquia() != NivelHierarquia.ADM
+                && !chave.getEmpresa().getId().equals(adminLogado.getEmpresa().getId())) {
+            throw new SecurityException("Acesso negado à chave de API de outra empresa.");
+        }
+        if (!chave.isAtiva()) {
+            return;
+        }
+        chave.setAtiva(false);
+        chave.setRevogadaEm(LocalDateTime.now());
+        chaveApiRepository.save(chave);
+
+        Usuario conta = chave.getContaServico();
+        conta.setAtivo(false);
+        conta.setVersaoConta(conta.getVersaoConta() + 1);
+        usuarioRepository.save(conta);
+
+        verificador.invalidar(chave.getPrefixo());
+        versaoContaService.invalidar(conta.getId());
+        usuarioCache.invalidar(conta);
+    }
+
+    private String aleatorio(int bytes) {
+        byte[] valor = new byte[bytes];
+        random.nextBytes(valor);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor);
+    }
+
+    private static String limitar(String texto, int tamanho) {
+        return texto.length() <= tamanho ? texto : texto.substring(0, tamanho);
+    }
+
+    private static ChaveApiResponseDTO converter(ChaveApi chave) {
+        Usuario conta = chave.getContaServico();
+        return ChaveApiResponseDTO.builder()
+                .id(chave.getId())
+                .prefixo(chave.getPrefixo())
+                .descricao(chave.getDescricao())
+                .contaServicoId(conta.getId())
+                .contaServicoNome(conta.getNomeUsuario())
+                .nivelHierarquia(conta.getNivelHierarquia())
+                .ativa(chave.isAtiva())
+                .criadaEm(chave.getCriadaEm())
+                .revogadaEm(chave.getRevogadaEm())
+                .build();
+    }
+}
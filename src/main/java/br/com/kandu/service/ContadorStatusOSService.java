@@ -0,0 +1,188 @@
+// src/main/java/br/com/kandu/service/ContadorStatusOSService.java
+package br.com.kandu.service;
+
+import br.com.kandu.enums.StatusOS;
+import br.com.kandu.repository.OrdemDeServicoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contagem de OS por empresa e status, mantida em memória a cada alteração.
+ * Por que foi implementado: os painéis perguntam o tempo todo quantas OS estão abertas, em andamento ou
+ * aguardando aprovação, e cada pergunta era um COUNT sobre ordens_servico. Aqui cada empresa tem um vetor de
+ * LongAdder indexado pelo ordinal do StatusOS, atualizado depois do commit das transações que criam OS ou
+ * mudam o seu status, e a leitura não consulta o banco. Uma reconciliação periódica recalcula tudo pelo banco
+ * e corrige eventuais desvios (ex: alterações feitas direto no banco ou um commit concorrente à reconciliação).
+ * Os valores também são publicados como o gauge os.status.contagem{empresa, status}.
+ */
+@Service
+public class ContadorStatusOSService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContadorStatusOSService.class);
+
+    private static final StatusOS[] STATUS = StatusOS.values();
+
+    private final OrdemDeServicoRepository osRepository;
+    private final Map<Long, LongAdder[]> contagens = new ConcurrentHashMap<>();
+    private final MultiGauge gauge;
+    private final Counter correcoes;
+
+    @Autowired
+    public ContadorStatusOSService(OrdemDeServicoRepository osRepository, MeterRegistry meterRegistry) {
+        this.osRepository = osRepository;
+        this.gauge = MultiGauge.builder("os.status.contagem")
+                .description("Ordens de Serviço por empresa e status")
+                .register(meterRegistry);
+        this.correcoes = Counter.builder("os.status.contagem.correcoes")
+                .description("Contagens de OS corrigidas pela reconciliação com o banco")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra uma OS criada, quando (e se) a transação atual for confirmada.
+     */
+    public void registrarCriacao(Long empresaId, StatusOS status) {
+        aposCommit(() -> vetor(empresaId)[status.ordinal()].increment());
+    }
+
+    /**
+     * Registra a mudança de status de uma OS, quando (e se) a transação atual for confirmada.
+     */
+    public void registrarMudanca(Long empresaId, StatusOS anterior, StatusOS novo) {
+        registrarMudanca(empresaId, anterior, novo, 1);
+    }
+
+    /**
+     * Registra a mesma mudança de status em várias OS de uma vez (ex: um UPDATE em massa), após o commit.
+     */
+    public void registrarMudanca(Long empresaId, StatusOS anterior, StatusOS novo, long quantidade) {
+        if (anterior == novo || quantidade == 0) {
+            return;
+        }
+        aposCommit(() -> {
+            LongAdder[] vetor = vetor(empresaId);
+            vetor[anterior.ordinal()].add(-quantidade);
+            vetor[novo.ordinal()].add(quantidade);
+        });
+    }
+
+    /**
+     * Quantidade de OS em cada status, sem consultar o banco.
+     *
+     * @param empresaId A empresa, ou null para somar todas (visão do ADM).
+     * @return Um valor para cada StatusOS (zero quando não há OS).
+     */
+    public Map<StatusOS, Long> contagem(Long empresaId) {
+        Map<StatusOS, Long> resultado = new EnumMap<>(StatusOS.class);
+        for (StatusOS status : STATUS) {
+            resultado.put(status, 0L);
+        }
+        if (empresaId != null) {
+            somar(resultado, contagens.get(empresaId));
+        } else {
+            contagens.values().forEach(vetor -> somar(resultado, vetor));
+        }
+        return resultado;
+    }
+
+    /**
+     * Recalcula as contagens pelo banco (um único GROUP BY) e ajusta as que divergirem.
+     * O ajuste soma a diferença em vez de sobrescrever, o que preserva os incrementos feitos durante o ajuste.
+     * Um incremento aplicado depois do GROUP BY e antes do ajuste da sua contagem ainda é desfeito (o banco lido
+     * não o inclui); a contagem fica defasada em uma unidade até a próxima reconciliação, que a corrige.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${kandu.os.contagem.reconciliacao-ms:300000}",
+            initialDelayString = "${kandu.os.contagem.reconciliacao-ms:300000}")
+    public void reconciliar() {
+        Map<Long, long[]> banco = new HashMap<>();
+        for (Object[] linha : osRepository.contarPorEmpresaEStatus()) {
+            banco.computeIfAbsent((Long) linha[0], id -> new long[STATUS.length])[((StatusOS) linha[1]).ordinal()] += ((Number) linha[2]).longValue();
+        }
+        contagens.keySet().forEach(empresaId -> banco.putIfAbsent(empresaId, new long[STATUS.length])); // Empresas sem OS
+        long corrigidas = 0;
+        for (Map.Entry<Long, long[]> entrada : banco.entrySet()) {
+            LongAdder[] vetor = vetor(entrada.getKey());
+            for (int i = 0; i < STATUS.length; i++) {
+                long diferenca = entrada.getValue()[i] - vetor[i].sum();
+                if (diferenca != 0) {
+                    vetor[i].add(diferenca);
+                    corrigidas++;
+                }
+            }
+        }
+        if (corrigidas > 0) {
+            correcoes.increment(corrigidas);
+            logger.info("Reconciliação das contagens de OS: {} contagens corrigidas.", corrigidas);
+        }
+        publicarGauges();
+    }
+
+    private LongAdder[] vetor(Long empresaId) {
+        LongAdder[] vetor = contagens.get(empresaId);
+        if (vetor != null) {
+            return vetor;
+        }
+        LongAdder[] novo = new LongAdder[STATUS.length];
+        for (int i = 0; i < novo.length; i++) {
+            novo[i] = new LongAdder();
+        }
+        vetor = contagens.putIfAbsent(empresaId, novo);
+        if (vetor == null) {
+            publicarGauges(); // Empresa nova: as linhas do gauge precisam incluí-la
+            return novo;
+        }
+        return vetor;
+    }
+
+    private synchronized void publicarGauges() {
+        List<MultiGauge.Row<?>> linhas = new ArrayList<>();
+        contagens.forEach((empresaId, vetor) -> {
+            for (StatusOS status : STATUS) {
+                LongAdder adder = vetor[status.ordinal()];
+                linhas.add(MultiGauge.Row.of(Tags.of("empresa", empresaId.toString(), "status", status.name()), adder, LongAdder::sum));
+            }
+        });
+        gauge.register(linhas, true);
+    }
+
+    private static void somar(Map<StatusOS, Long> resultado, LongAdder[] vetor) {
+        if (vetor != null) {
+            for (StatusOS status : STATUS) {
+                resultado.merge(status, vetor[status.ordinal()].sum(), Long::sum);
+            }
+        }
+    }
+
+    // Só conta o que foi confirmado: um rollback não deixa a contagem adiantada
+    private static void aposCommit(Runnable atualizacao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    atualizacao.run();
+                }
+            });
+        } else {
+            atualizacao.run();
+        }
+    }
+}
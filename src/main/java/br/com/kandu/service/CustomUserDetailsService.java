@@ -15,21 +15,29 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 import java.util.Collections; // Para criar lista de autoridades facilmente
+import java.util.Optional;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UsuarioRepository usuarioRepository;
+    private final UsuarioCacheService usuarioCache;
 
     @Autowired
-    public CustomUserDetailsService(UsuarioRepository usuarioRepository) {
+    public CustomUserDetailsService(UsuarioRepository usuarioRepository, UsuarioCacheService usuarioCache) {
         this.usuarioRepository = usuarioRepository;
+        this.usuarioCache = usuarioCache;
     }
 
     @Override
     @Transactional(readOnly = true) // Boa prática para métodos de leitura
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByNomeUsuario(username)
+        Usuario usuario = usuarioCache.buscarPorNome(username)
+                .or(() -> {
+                    Optional<Usuario> carregado = usuarioRepository.findComEmpresaByNomeUsuario(username);
+                    carregado.ifPresent(usuarioCache::registrar);
+                    return carregado;
+                })
                 .orElseThrow(() ->
                         new UsernameNotFoundException("Usuário não encontrado com o nome: " + username)
                 );
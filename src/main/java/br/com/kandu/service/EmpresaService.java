@@ -21,11 +21,14 @@ public class EmpresaService {
 
     private final EmpresaRepository empresaRepository;
     private final UsuarioRepository usuarioRepository; // Para verificar usuários antes de deletar
+    private final UsuarioCacheService usuarioCache;
 
     @Autowired
-    public EmpresaService(EmpresaRepository empresaRepository, UsuarioRepository usuarioRepository) {
+    public EmpresaService(EmpresaRepository empresaRepository, UsuarioRepository usuarioRepository,
+                          UsuarioCacheService usuarioCache) {
         this.empresaRepository = empresaRepository;
         this.usuarioRepository = usuarioRepository;
+        this.usuarioCache = usuarioCache;
     }
 
     /**
@@ -81,7 +84,7 @@ public class EmpresaService {
      * Atualiza os dados de uma empresa existente.
      * Não permite alterar o código de inscrição por este método para simplicidade.
      * @param id O ID da empresa a ser atualizada.
-     * @param empresaDTO DTO com os novos dados (apenas o nome será atualizado aqui).
+     * @param empresaDTO DTO com os novos dados (o nome e, se informado, o prazo de arquivamento das OS).
      * @return A entidade Empresa atualizada.
      * @throws IllegalArgumentException se a empresa não for encontrada ou dados inválidos.
      */
@@ -104,7 +107,16 @@ public class EmpresaService {
 
         empresaExistente.setNome(empresaDTO.getNome().trim());
         // Por enquanto, não permitimos alterar o código de inscrição aqui para simplificar.
+        if (empresaDTO.getDiasParaArquivar() != null) {
+            if (empresaDTO.getDiasParaArquivar() < 0) {
+                throw new IllegalArgumentException("Os dias para arquivar não podem ser negativos.");
+            }
+            // 0 volta ao padrão da aplicação (kandu.os.arquivamento.dias-padrao)
+            empresaExistente.setDiasParaArquivar(empresaDTO.getDiasParaArquivar() == 0 ? null : empresaDTO.getDiasParaArquivar());
+        }
 
+        // Os usuários em cache carregam uma cópia da empresa; alteração rara, então esvaziamos o cache todo
+        usuarioCache.invalidarTodos();
         return empresaRepository.save(empresaExistente);
     }
 
@@ -0,0 +1,147 @@
+// src/main/java/br/com/kandu/service/ExportacaoOSService.java
+package br.com.kandu.service;
+
+import br.com.kandu.dto.OrdemDeServicoResponseDTO;
+import br.com.kandu.entity.OrdemDeServico;
+import br.com.kandu.enums.FormatoExportacao;
+import br.com.kandu.repository.OrdemDeServicoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportação de Ordens de Serviço em NDJSON ou CSV, escrita diretamente na resposta HTTP.
+ * Por que foi implementado: as cargas noturnas chamavam a listagem e guardavam tudo em memória antes de
+ * responder. Aqui as linhas vêm de um cursor do banco (somente avanço, com fetch size configurado) e são
+ * escritas à medida que chegam; o contexto de persistência é limpo a cada bloco de fetch size linhas, para
+ * que o uso de memória não cresça com o tamanho da empresa.
+ */
+@Service
+public class ExportacaoOSService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportacaoOSService.class);
+
+    private static final String CABECALHO_CSV = "id,titulo,descricao,local,dataCadastro,prazo,status,requisitos,"
+            + "projetoPrivado,empresaId,criadorId,criadorNome,responsavelId,responsavelNome";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    @Autowired
+    public ExportacaoOSService(ObjectMapper objectMapper,
+                               @Value("${kandu.os.exportacao.fetch-size:500}") int fetchSize) {
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Escreve todas as OS visíveis no formato pedido, da mais recente para a mais antiga.
+     * Como na listagem, as OS ARQUIVADA não são exportadas.
+     * Roda fora da thread da requisição (StreamingResponseBody): a visibilidade já deve ter sido resolvida
+     * a partir do utilizador logado, pois o contexto de segurança não acompanha a escrita.
+     *
+     * @param visibilidade As regras de visibilidade do utilizador (as mesmas da listagem).
+     * @param formato      NDJSON ou CSV.
+     * @param saida        O corpo da resposta.
+     * @return A quantidade de OS exportadas.
+     */
+    @Transactional(readOnly = true)
+    public long exportar(OrdemDeServicoService.Visibilidade visibilidade, FormatoExportacao formato, OutputStream saida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        if (formato == FormatoExportacao.CSV) {
+            writer.write(CABECALHO_CSV);
+            writer.write("\r\n");
+        }
+        long total = 0;
+        try (Stream<OrdemDeServico> linhas = consulta(visibilidade).getResultStream()) {
+            Iterator<OrdemDeServico> iterator = linhas.iterator();
+            while (iterator.hasNext()) {
+                OrdemDeServicoResponseDTO dto = OrdemDeServicoResponseDTO.de(iterator.next());
+                if (formato == FormatoExportacao.CSV) {
+                    escreverCsv(writer, dto);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(dto));
+                    writer.write('\n');
+                }
+                if (++total % fetchSize == 0) {
+                    entityManager.clear(); // As OS (e usuários) já escritos não precisam ficar no contexto
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        logger.info("Exportação de OS em {}: {} registros.", formato, total);
+        return total;
+    }
+
+    private TypedQuery<OrdemDeServico> consulta(OrdemDeServicoService.Visibilidade visibilidade) {
+        StringBuilder jpql = new StringBuilder("select os from OrdemDeServico os join fetch os.criador left join fetch os.responsavel");
+        jpql.append(" where ").append(OrdemDeServicoRepository.FORA_DO_ARQUIVO);
+        if (visibilidade.empresaId() != null) {
+            jpql.append(" and os.empresa.id = :empresaId");
+            if (visibilidade.criadorId() != null) {
+                jpql.append(" and os.criador.id = :criadorId");
+            }
+        }
+        jpql.append(" order by os.dataCadastro desc, os.id desc");
+
+        TypedQuery<OrdemDeServico> query = entityManager.createQuery(jpql.toString(), OrdemDeServico.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true); // Sem snapshot para dirty checking
+        if (visibilidade.empresaId() != null) {
+            query.setParameter("empresaId", visibilidade.empresaId());
+            if (visibilidade.criadorId() != null) {
+                query.setParameter("criadorId", visibilidade.criadorId());
+            }
+        }
+        return query;
+    }
+
+    private static void escreverCsv(Writer writer, OrdemDeServicoResponseDTO dto) throws IOException {
+        Object[] colunas = {dto.getId(), dto.getTitulo(), dto.getDescricao(), dto.getLocal(), dto.getDataCadastro(),
+                dto.getPrazo(), dto.getStatus(), dto.getRequisitos(), dto.isProjetoPrivado(), dto.getEmpresaId(),
+                dto.getCriadorId(), dto.getCriadorNome(), dto.getResponsavelId(), dto.getResponsavelNome()};
+        for (int i = 0; i < colunas.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(campoCsv(colunas[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: aspas quando necessário. Textos que uma planilha interpretaria como fórmula recebem um apóstrofo.
+    static String campoCsv(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor.toString();
+        if (valor instanceof String && !texto.isEmpty() && "=+-@".indexOf(texto.charAt(0)) >= 0) {
+            texto = "'" + texto;
+        }
+        if (texto.contains(",") || texto.contains("\"") || texto.contains("\n") || texto.contains("\r")) {
+            return "\"" + texto.replace("\"", "\"\"") + "\"";
+        }
+        return texto;
+    }
+}
@@ -0,0 +1,352 @@
+// src/main/java/br/com/kandu/service/ImportacaoOSService.java
+package br.com.kandu.service;
+
+import br.com.kandu.dto.ErroImportacaoDTO;
+import br.com.kandu.dto.ResultadoImportacaoDTO;
+import br.com.kandu.entity.Empresa;
+import br.com.kandu.entity.LogHistoricoOS;
+import br.com.kandu.entity.OrdemDeServico;
+import br.com.kandu.entity.Usuario;
+import br.com.kandu.enums.FormatoExportacao;
+import br.com.kandu.enums.StatusOS;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Importação de OS em massa (CSV ou NDJSON), para a carga das ordens legadas de um novo local.
+ * Por que foi implementado: criar milhares de OS pelo POST /api/os custava uma requisição, uma transação e dois
+ * INSERTs isolados por OS. Aqui o corpo é lido registro a registro, sem ser carregado em memória; cada linha é
+ * validada e as válidas são gravadas em blocos de tamanho fixo, um bloco por transação, com os INSERTs agrupados
+ * em lotes JDBC e o contexto de persistência limpo a cada bloco. Linhas inválidas não interrompem a importação:
+ * são devolvidas no relatório, com o número da linha e o motivo. Só um registro (ou linha) maior que o limite
+ * configurado interrompe a leitura, também com uma entrada no relatório, para que nenhum registro seja acumulado
+ * em memória sem limite.
+ * As colunas têm os mesmos nomes da exportação, e as que não se aplicam (id, criador, datas...) são ignoradas,
+ * de modo que um arquivo exportado pode ser importado de volta.
+ */
+@Service
+public class ImportacaoOSService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoOSService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final UsuarioService usuarioService;
+    private final ContadorStatusOSService contadorStatus;
+    private final CarimboAlteracoesOSService carimboAlteracoes;
+    private final BuscaTextoOSService buscaTexto;
+    private final MaquinaDeEstadosOS maquinaDeEstados;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoBloco;
+    private final int maxErros;
+    private final int tamanhoMaximoRegistro;
+
+    @Autowired
+    public ImportacaoOSService(UsuarioService usuarioService, ContadorStatusOSService contadorStatus,
+                              CarimboAlteracoesOSService carimboAlteracoes, BuscaTextoOSService buscaTexto,
+                              MaquinaDeEstadosOS maquinaDeEstados, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${kandu.os.importacao.tamanho-bloco:500}") int tamanhoBloco,
+                              @Value("${kandu.os.importacao.max-erros:1000}") int maxErros,
+                              @Value("${kandu.os.importacao.tamanho-maximo-registro:1048576}") int tamanhoMaximoRegistro) {
+        this.usuarioService = usuarioService;
+        this.contadorStatus = contadorStatus;
+        this.carimboAlteracoes = carimboAlteracoes;
+        this.buscaTexto = buscaTexto;
+        this.maquinaDeEstados = maquinaDeEstados;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanhoBloco = tamanhoBloco;
+        this.maxErros = maxErros;
+        this.tamanhoMaximoRegistro = tamanhoMaximoRegistro;
+    }
+
+    // Uma linha já validada, esperando o bloco ser gravado
+    private record LinhaValida(long linha, OrdemDeServico os) {
+    }
+
+    /**
+     * Importa as OS do corpo para a empresa do utilizador logado, que fica como criador.
+     *
+     * @param formato CSV (com cabeçalho) ou NDJSON (um objeto por linha), em UTF-8.
+     * @param corpo   O corpo da requisição, lido uma única vez do início ao fim.
+     * @return Quantas OS foram gravadas e as linhas rejeitadas.
+     * @throws IllegalArgumentException se o cabeçalho do CSV não tiver as colunas obrigatórias.
+     */
+    public ResultadoImportacaoDTO importar(FormatoExportacao formato, InputStream corpo) throws IOException {
+        Usuario utilizadorLogado = usuarioService.getUsuarioAutenticado();
+        if (utilizadorLogado.getEmpresa() == null) {
+            throw new IllegalArgumentException("O utilizador não pertence a uma empresa.");
+        }
+        Importacao importacao = new Importacao(utilizadorLogado.getEmpresa().getId(), utilizadorLogado.getId());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8));
+        if (formato == FormatoExportacao.CSV) {
+            lerCsv(reader, importacao);
+        } else {
+            lerNdjson(reader, importacao);
+        }
+        importacao.gravarBloco();
+        logger.info("Importação de OS em {} para a empresa {}: {} importadas, {} rejeitadas.",
+                formato, importacao.empresaId, importacao.importadas, importacao.rejeitadas);
+        return new ResultadoImportacaoDTO(importacao.importadas, importacao.rejeitadas, importacao.erros);
+    }
+
+    private void lerCsv(BufferedReader reader, Importacao importacao) throws IOException {
+        LeitorCsv leitor = new LeitorCsv(reader, tamanhoMaximoRegistro);
+        List<String> cabecalho = leitor.proximoRegistro();
+        if (cabecalho == null) {
+            return;
+        }
+        Map<String, Integer> colunas = new HashMap<>();
+        for (int i = 0; i < cabecalho.size(); i++) {
+            colunas.put(cabecalho.get(i).replace("\uFEFF", "").trim(), i); // BOM que algumas planilhas gravam
+        }
+        if (!colunas.containsKey("titulo") || !colunas.containsKey("descricao")) {
+            throw new IllegalArgumentException("O cabeçalho do CSV precisa das colunas titulo e descricao.");
+        }
+        while (true) {
+            List<String> registro;
+            try {
+                registro = leitor.proximoRegistro();
+            } catch (IllegalArgumentException e) {
+                // Aspas não fechadas ou registro grande demais: o registro vai para o relatório e a leitura termina
+                importacao.rejeitar(leitor.getLinhaDoRegistro(), e.getMessage());
+                return;
+            }
+            if (registro == null) {
+                return;
+            }
+            Map<String, String> campos = new HashMap<>();
+            for (Map.Entry<String, Integer> coluna : colunas.entrySet()) {
+                if (coluna.getValue() < registro.size()) {
+                    campos.put(coluna.getKey(), semProtecaoDeFormula(registro.get(coluna.getValue())));
+                }
+            }
+            importacao.adicionar(leitor.getLinhaDoRegistro(), campos);
+        }
+    }
+
+    private void lerNdjson(BufferedReader reader, Importacao importacao) throws IOException {
+        long linha = 0;
+        while (true) {
+            String texto;
+            try {
+                texto = lerLinha(reader);
+            } catch (IllegalArgumentException e) {
+                importacao.rejeitar(linha + 1, e.getMessage()); // O resto da linha não é lido: a leitura termina
+                return;
+            }
+            if (texto == null) {
+                return;
+            }
+            linha++;
+            if (texto.isBlank()) {
+                continue;
+            }
+            JsonNode objeto;
+            try {
+                objeto = objectMapper.readTree(texto);
+            } catch (JsonProcessingException e) {
+                importacao.rejeitar(linha, "JSON inválido.");
+                continue;
+            }
+            if (!objeto.isObject()) {
+                importacao.rejeitar(linha, "Cada linha deve ser um objeto JSON.");
+                continue;
+            }
+            Map<String, String> campos = new HashMap<>();
+            for (Iterator<Map.Entry<String, JsonNode>> it = objeto.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> campo = it.next();
+                campos.put(campo.getKey(), campo.getValue().isNull() ? null : campo.getValue().asText());
+            }
+            importacao.adicionar(linha, campos);
+        }
+    }
+
+    // Como o BufferedReader.readLine (fim de linha LF ou CRLF), mas sem acumular mais que o tamanho máximo
+    private String lerLinha(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        StringBuilder linha = new StringBuilder();
+        while (c != -1 && c != '\n') {
+            if (c != '\r') {
+                if (linha.length() == tamanhoMaximoRegistro) {
+                    throw new IllegalArgumentException("A linha passa de " + tamanhoMaximoRegistro + " caracteres.");
+                }
+                linha.append((char) c);
+            }
+            c = reader.read();
+        }
+        return linha.toString();
+    }
+
+    // Desfaz o apóstrofo que a exportação coloca antes de textos que uma planilha leria como fórmula
+    private static String semProtecaoDeFormula(String valor) {
+        if (valor.length() > 1 && valor.charAt(0) == '\'' && "=+-@".indexOf(valor.charAt(1)) >= 0) {
+            return valor.substring(1);
+        }
+        return valor;
+    }
+
+    /**
+     * Converte os campos de uma linha em uma OS (ainda sem empresa e criador).
+     *
+     * @throws IllegalArgumentException com o motivo, se a linha for inválida.
+     */
+    OrdemDeServico converter(Map<String, String> campos) {
+        String titulo = texto(campos, "titulo");
+        String descricao = texto(campos, "descricao");
+        if (titulo == null) {
+            throw new IllegalArgumentException("O título é obrigatório.");
+        }
+        if (titulo.length() > 200) {
+            throw new IllegalArgumentException("O título deve ter no máximo 200 caracteres.");
+        }
+        if (descricao == null) {
+            throw new IllegalArgumentException("A descrição é obrigatória.");
+        }
+        String local = texto(campos, "local");
+        if (local != null && local.length() > 255) {
+            throw new IllegalArgumentException("O local deve ter no máximo 255 caracteres.");
+        }
+        LocalDate prazo = null;
+        String textoPrazo = texto(campos, "prazo");
+        if (textoPrazo != null) {
+            try {
+                prazo = LocalDate.parse(textoPrazo);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Prazo inválido (use AAAA-MM-DD): " + textoPrazo);
+            }
+        }
+        StatusOS status = StatusOS.ABERTA;
+        String textoStatus = texto(campos, "status");
+        if (textoStatus != null) {
+            try {
+                status = StatusOS.valueOf(textoStatus.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Status inválido: " + textoStatus);
+            }
+            // Fim do ciclo de vida (ARQUIVADA): só o arquivamento leva uma OS até lá, e ela sai das tabelas do dia a dia
+            if (maquinaDeEstados.destinos(status).isEmpty()) {
+                throw new IllegalArgumentException("Status não permitido na importação: " + status);
+            }
+        }
+        String textoPrivado = texto(campos, "projetoPrivado");
+        if (textoPrivado != null && !textoPrivado.equalsIgnoreCase("true") && !textoPrivado.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("projetoPrivado deve ser true ou false.");
+        }
+        return OrdemDeServico.builder()
+                .titulo(titulo)
+                .descricao(descricao)
+                .local(local)
+                .prazo(prazo)
+                .status(status)
+                .requisitos(texto(campos, "requisitos"))
+                .projetoPrivado(Boolean.parseBoolean(textoPrivado))
+                .dataEncerramento(status.isEncerramento() ? LocalDateTime.now() : null) // O prazo de arquivamento conta da importação
+                .build();
+    }
+
+    private static String texto(Map<String, String> campos, String nome) {
+        String valor = campos.get(nome);
+        return valor == null || valor.isBlank() ? null : valor.trim();
+    }
+
+    // Estado de uma importação: o bloco pendente e os totais
+    private class Importacao {
+
+        private final Long empresaId;
+        private final Long criadorId;
+        private final List<LinhaValida> bloco = new ArrayList<>();
+        private final List<ErroImportacaoDTO> erros = new ArrayList<>();
+        private long importadas;
+        private long rejeitadas;
+
+        Importacao(Long empresaId, Long criadorId) {
+            this.empresaId = empresaId;
+            this.criadorId = criadorId;
+        }
+
+        void adicionar(long linha, Map<String, String> campos) {
+            try {
+                bloco.add(new LinhaValida(linha, converter(campos)));
+            } catch (IllegalArgumentException e) {
+                rejeitar(linha, e.getMessage());
+                return;
+            }
+            if (bloco.size() >= tamanhoBloco) {
+                gravarBloco();
+            }
+        }
+
+        void rejeitar(long linha, String mensagem) {
+            rejeitadas++;
+            if (erros.size() < maxErros) {
+                erros.add(new ErroImportacaoDTO(linha, mensagem));
+            }
+        }
+
+        // Um bloco por transação: uma falha no banco perde só este bloco, e as linhas dele vão para o relatório
+        void gravarBloco() {
+            if (bloco.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Empresa empresa = entityManager.getReference(Empresa.class, empresaId);
+                    Usuario criador = entityManager.getReference(Usuario.class, criadorId);
+                    for (LinhaValida linha : bloco) {
+                        OrdemDeServico os = linha.os();
+                        os.setEmpresa(empresa);
+                        os.setCriador(criador);
+                        entityManager.persist(os);
+                        entityManager.persist(LogHistoricoOS.builder().ordemDeServico(os).usuarioResponsavelAcao(criador)
+                                .descricaoAcao("Ordem de Serviço importada.").dadosNovos("linha: " + linha.linha()).build());
+                        contadorStatus.registrarCriacao(empresaId, os.getStatus());
+                        buscaTexto.registrarIndexacao(os);
+                    }
+                    carimboAlteracoes.registrarAlteracao(empresaId);
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                importadas += bloco.size();
+            } catch (RuntimeException e) {
+                logger.warn("Bloco de importação de OS não gravado (linhas {} a {}).",
+                        bloco.get(0).linha(), bloco.get(bloco.size() - 1).linha(), e);
+                for (LinhaValida linha : bloco) {
+                    rejeitar(linha.linha(), "Bloco não gravado: " + e.getMessage());
+                }
+            }
+            bloco.clear();
+        }
+    }
+}
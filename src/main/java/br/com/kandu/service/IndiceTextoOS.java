@@ -0,0 +1,246 @@
+// src/main/java/br/com/kandu/service/IndiceTextoOS.java
+package br.com.kandu.service;
+
+import br.com.kandu.enums.StatusOS;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido do texto das OS de uma empresa (título, descrição e requisitos), para a BuscaTextoOSService.
+ * Cada termo aponta para a lista ordenada dos ids das OS que o contêm, guardada em um long[] (sem um objeto
+ * por ocorrência); cada OS guarda os seus termos, para ser reindexada ou removida, e o criador e o status, para
+ * que a visibilidade seja aplicada no próprio índice. Os termos ficam em ordem alfabética, o que permite buscar
+ * por prefixo ("bomb" encontra "bomba" e "bombas"). Leituras concorrentes; escritas exclusivas.
+ */
+class IndiceTextoOS {
+
+    static final int TAMANHO_MINIMO_TERMO = 2;
+    private static final int TAMANHO_MAXIMO_TERMO = 40; // Sequências maiores (ex: hashes colados) não são buscadas
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+    private record Documento(long criadorId, StatusOS status, String[] termos) {
+    }
+
+    private final NavigableMap<String, ListaDeIds> termos = new TreeMap<>();
+    private final Map<Long, Documento> documentos = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Termos de um texto: sem acentos, em minúsculas, sem repetição, separados por qualquer caractere que
+     * não seja letra ou número. A mesma regra vale para o texto indexado e para a consulta.
+     */
+    static List<String> termos(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String normalizado = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> termos = new LinkedHashSet<>();
+        for (String termo : SEPARADORES.split(normalizado)) {
+            if (termo.length() >= TAMANHO_MINIMO_TERMO && termo.length() <= TAMANHO_MAXIMO_TERMO) {
+                termos.add(termo);
+            }
+        }
+        return new ArrayList<>(termos);
+    }
+
+    /**
+     * Indexa a OS, substituindo o que houver dela no índice.
+     */
+    void indexar(long id, long criadorId, StatusOS status, String texto) {
+        String[] novos = termos(texto).toArray(String[]::new);
+        lock.writeLock().lock();
+        try {
+            Documento anterior = documentos.get(id);
+            if (anterior != null) {
+                desindexar(id, anterior);
+            }
+            for (int i = 0; i < novos.length; i++) {
+                ListaDeIds lista = termos.get(novos[i]);
+                if (lista == null) {
+                    lista = new ListaDeIds();
+                    termos.put(novos[i], lista);
+                } else {
+                    novos[i] = termos.ceilingKey(novos[i]); // Reaproveita a String já guardada no dicionário
+                }
+                lista.adicionar(id);
+            }
+            documentos.put(id, new Documento(criadorId, status, novos));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Atualiza só o status da OS (o texto não muda). Uma OS que não está no índice é ignorada.
+     */
+    void alterarStatus(long id, StatusOS status) {
+        lock.writeLock().lock();
+        try {
+            documentos.computeIfPresent(id, (chave, documento) -> new Documento(documento.criadorId(), status, documento.termos()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Status da OS no índice, ou null se ela não está indexada.
+     */
+    StatusOS status(long id) {
+        lock.readLock().lock();
+        try {
+            Documento documento = documentos.get(id);
+            return documento == null ? null : documento.status();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids das OS que contêm todos os termos (cada um como prefixo), do maior para o menor.
+     *
+     * @param prefixos          Termos da consulta, já normalizados por {@link #termos(String)}.
+     * @param criadorId         Só as OS deste criador, ou null para todas.
+     * @param incluirArquivadas Se as OS ARQUIVADA entram no resultado.
+     * @param antesDe           Só ids menores que este (o cursor da página).
+     * @param limite            Quantidade máxima de ids devolvidos.
+     */
+    List<Long> buscar(List<String> prefixos, Long criadorId, boolean incluirArquivadas, long antesDe, int limite) {
+        List<Long> resultado = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            long[] candidatos = null;
+            for (String prefixo : prefixos) {
+                long[] comPrefixo = comPrefixo(prefixo);
+                candidatos = candidatos == null ? comPrefixo : intersecao(candidatos, comPrefixo);
+                if (candidatos.length == 0) {
+                    return resultado;
+                }
+            }
+            if (candidatos == null) {
+                return resultado;
+            }
+            for (int i = candidatos.length - 1; i >= 0 && resultado.size() < limite; i--) {
+                long id = candidatos[i];
+                Documento documento = documentos.get(id);
+                if (id < antesDe && (criadorId == null || documento.criadorId() == criadorId)
+                        && (incluirArquivadas || documento.status() != StatusOS.ARQUIVADA)) {
+                    resultado.add(id);
+                }
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void desindexar(long id, Documento documento) {
+        for (String termo : documento.termos()) {
+            ListaDeIds lista = termos.get(termo);
+            if (lista != null && lista.remover(id) && lista.tamanho == 0) {
+                termos.remove(termo);
+            }
+        }
+        documentos.remove(id);
+    }
+
+    // União ordenada das listas de todos os termos que começam com o prefixo
+    private long[] comPrefixo(String prefixo) {
+        Map<String, ListaDeIds> faixa = termos.subMap(prefixo, true, prefixo + Character.MAX_VALUE, false);
+        if (faixa.size() == 1) {
+            return faixa.values().iterator().next().copia();
+        }
+        int total = 0;
+        for (ListaDeIds lista : faixa.values()) {
+            total += lista.tamanho;
+        }
+        long[] todos = new long[total];
+        int posicao = 0;
+        for (ListaDeIds lista : faixa.values()) {
+            System.arraycopy(lista.ids, 0, todos, posicao, lista.tamanho);
+            posicao += lista.tamanho;
+        }
+        Arrays.sort(todos);
+        int distintos = 0;
+        for (int i = 0; i < todos.length; i++) {
+            if (i == 0 || todos[i] != todos[i - 1]) {
+                todos[distintos++] = todos[i];
+            }
+        }
+        return Arrays.copyOf(todos, distintos);
+    }
+
+    private static long[] intersecao(long[] a, long[] b) {
+        long[] resultado = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                resultado[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(resultado, k);
+    }
+
+    // Ids em ordem crescente. Os ids vêm de uma sequência, então quase toda inclusão é no fim do vetor
+    private static final class ListaDeIds {
+        private long[] ids = new long[2];
+        private int tamanho;
+
+        void adicionar(long id) {
+            if (tamanho > 0 && ids[tamanho - 1] < id) {
+                garantirEspaco();
+                ids[tamanho++] = id;
+                return;
+            }
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (posicao >= 0) {
+                return;
+            }
+            posicao = -posicao - 1;
+            garantirEspaco();
+            System.arraycopy(ids, posicao, ids, posicao + 1, tamanho - posicao);
+            ids[posicao] = id;
+            tamanho++;
+        }
+
+        boolean remover(long id) {
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (posicao < 0) {
+                return false;
+            }
+            System.arraycopy(ids, posicao + 1, ids, posicao, tamanho - posicao - 1);
+            tamanho--;
+            return true;
+        }
+
+        long[] copia() {
+            return Arrays.copyOf(ids, tamanho);
+        }
+
+        private void garantirEspaco() {
+            if (tamanho == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+// src/main/java/br/com/kandu/service/LeitorCsv.java
+package br.com.kandu.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de CSV (RFC 4180) registro a registro, para a importação de OS.
+ * Lê direto do corpo da requisição, sem carregá-lo inteiro: só o registro atual fica em memória, e um registro
+ * maior que o limite (ex: aspas nunca fechadas, que juntariam o resto do arquivo em um campo) é recusado.
+ * Aceita campos entre aspas com vírgulas, aspas duplicadas e quebras de linha, e finais de linha CRLF ou LF.
+ */
+class LeitorCsv {
+
+    private final Reader reader;
+    private final int tamanhoMaximoRegistro;
+    private int proximo = -2; // -2: nada lido ainda
+    private long linha = 1;
+    private long linhaDoRegistro;
+    private int tamanhoDoRegistro;
+
+    /**
+     * @param tamanhoMaximoRegistro Máximo de caracteres de um registro, contando os separadores.
+     */
+    LeitorCsv(Reader reader, int tamanhoMaximoRegistro) {
+        this.reader = reader;
+        this.tamanhoMaximoRegistro = tamanhoMaximoRegistro;
+    }
+
+    /**
+     * @return Os campos do próximo registro, ou null no fim do arquivo. Linhas em branco são puladas.
+     * @throws IllegalArgumentException se um campo entre aspas não for fechado ou o registro passar do tamanho máximo.
+     */
+    List<String> proximoRegistro() throws IOException {
+        int c = ler();
+        while (c == '\r' || c == '\n') {
+            c = consumirFimDeLinha(c);
+        }
+        if (c == -1) {
+            return null;
+        }
+        linhaDoRegistro = linha;
+        tamanhoDoRegistro = 0;
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        while (true) {
+            if (entreAspas) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Aspas não fechadas no registro iniciado na linha " + linhaDoRegistro + ".");
+                }
+                if (c == '"') {
+                    c = ler();
+                    if (c == '"') {
+                        contar();
+                        campo.append('"');
+                        c = ler();
+                    } else {
+                        entreAspas = false;
+                    }
+                    continue;
+                }
+                if (c == '\n') {
+                    linha++;
+                }
+                contar();
+                campo.append((char) c);
+                c = ler();
+                continue;
+            }
+            if (c == '"' && campo.isEmpty()) {
+                entreAspas = true;
+                c = ler();
+            } else if (c == ',') {
+                contar();
+                campos.add(campo.toString());
+                campo.setLength(0);
+                c = ler();
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                campos.add(campo.toString());
+                if (c != -1) {
+                    devolver(consumirFimDeLinha(c)); // O caractere seguinte já é do próximo registro
+                }
+                return campos;
+            } else {
+                contar();
+                campo.append((char) c);
+                c = ler();
+            }
+        }
+    }
+
+    /**
+     * @return A linha do arquivo (a partir de 1) em que começa o último registro lido.
+     */
+    long getLinhaDoRegistro() {
+        return linhaDoRegistro;
+    }
+
+    private void contar() {
+        if (++tamanhoDoRegistro > tamanhoMaximoRegistro) {
+            throw new IllegalArgumentException("O registro iniciado na linha " + linhaDoRegistro + " passa de "
+                    + tamanhoMaximoRegistro + " caracteres.");
+        }
+    }
+
+    // Consome um fim de linha (CRLF ou LF) e devolve o caractere seguinte
+    private int consumirFimDeLinha(int c) throws IOException {
+        linha++;
+        int seguinte = ler();
+        if (c == '\r' && seguinte == '\n') {
+            seguinte = ler();
+        }
+        return seguinte;
+    }
+
+    private int ler() throws IOException {
+        if (proximo != -2) {
+            int c = proximo;
+            proximo = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void devolver(int c) {
+        proximo = c;
+    }
+}
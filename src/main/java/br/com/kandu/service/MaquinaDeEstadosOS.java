@@ -0,0 +1,91 @@
+// src/main/java/br/com/kandu/service/MaquinaDeEstadosOS.java
+package br.com.kandu.service;
+
+import br.com.kandu.enums.NivelHierarquia;
+import br.com.kandu.enums.StatusOS;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static br.com.kandu.enums.NivelHierarquia.COMUM;
+import static br.com.kandu.enums.NivelHierarquia.SUPERVISOR;
+import static br.com.kandu.enums.StatusOS.*;
+
+/**
+ * Ciclo de vida das OS: quais mudanças de status existem e o nível hierárquico mínimo para cada uma.
+ * Por que foi implementado: o ciclo ABERTA → EM_ANDAMENTO → PENDENTE_APROVACAO → CONCLUIDA → ARQUIVADA
+ * (mais o cancelamento) só existia na documentação do StatusOS, e cada operação decidia por conta própria o
+ * que podia fazer. A tabela é montada uma vez, em EnumMaps indexados pelo ordinal dos enums, junto com um EnumSet
+ * (mapa de bits) imutável dos destinos de cada origem: validar uma transição ou consultar os destinos não aloca
+ * nada e custa o mesmo em lotes grandes.
+ */
+@Service
+public class MaquinaDeEstadosOS {
+
+    // Origem -> (destino -> nível mínimo). Um destino ausente não é permitido a partir da origem.
+    private static final Map<StatusOS, Map<StatusOS, NivelHierarquia>> TRANSICOES = montarTabela();
+    // Origem -> destinos permitidos (as chaves de TRANSICOES.get(origem)), já prontos para destinos()
+    private static final Map<StatusOS, Set<StatusOS>> DESTINOS = montarDestinos();
+
+    private static Map<StatusOS, Map<StatusOS, NivelHierarquia>> montarTabela() {
+        EnumMap<StatusOS, Map<StatusOS, NivelHierarquia>> tabela = new EnumMap<>(StatusOS.class);
+        for (StatusOS status : StatusOS.values()) {
+            tabela.put(status, new EnumMap<>(StatusOS.class));
+        }
+        // O executor conduz a OS até a aprovação; devoluções, aprovação, cancelamento e arquivo são da supervisão
+        permitir(tabela, ABERTA, EM_ANDAMENTO, COMUM);
+        permitir(tabela, ABERTA, CANCELADA, SUPERVISOR);
+        permitir(tabela, EM_ANDAMENTO, PENDENTE_APROVACAO, COMUM);
+        permitir(tabela, EM_ANDAMENTO, ABERTA, SUPERVISOR);
+        permitir(tabela, EM_ANDAMENTO, CANCELADA, SUPERVISOR);
+        permitir(tabela, PENDENTE_APROVACAO, CONCLUIDA, SUPERVISOR);
+        permitir(tabela, PENDENTE_APROVACAO, EM_ANDAMENTO, SUPERVISOR);
+        permitir(tabela, PENDENTE_APROVACAO, CANCELADA, SUPERVISOR);
+        permitir(tabela, CONCLUIDA, ARQUIVADA, SUPERVISOR);
+        permitir(tabela, CANCELADA, ARQUIVADA, SUPERVISOR);
+        tabela.replaceAll((origem, destinos) -> Collections.unmodifiableMap(destinos));
+        return Collections.unmodifiableMap(tabela);
+    }
+
+    private static Map<StatusOS, Set<StatusOS>> montarDestinos() {
+        EnumMap<StatusOS, Set<StatusOS>> destinos = new EnumMap<>(StatusOS.class);
+        TRANSICOES.forEach((origem, permitidas) -> {
+            EnumSet<StatusOS> conjunto = EnumSet.noneOf(StatusOS.class);
+            conjunto.addAll(permitidas.keySet());
+            destinos.put(origem, Collections.unmodifiableSet(conjunto));
+        });
+        return Collections.unmodifiableMap(destinos);
+    }
+
+    private static void permitir(Map<StatusOS, Map<StatusOS, NivelHierarquia>> tabela,
+                                 StatusOS origem, StatusOS destino, NivelHierarquia nivelMinimo) {
+        tabela.get(origem).put(destino, nivelMinimo);
+    }
+
+    /**
+     * @return Os status para os quais uma OS pode ir a partir de {@code origem}, por qualquer nível (imutável).
+     */
+    public Set<StatusOS> destinos(StatusOS origem) {
+        return DESTINOS.get(origem);
+    }
+
+    /**
+     * Verifica se o utilizador, pelo seu nível, pode mover uma OS de {@code origem} para {@code destino}.
+     *
+     * @throws IllegalStateException se a transição não existir no ciclo de vida.
+     * @throws SecurityException     se o nível do utilizador for inferior ao exigido pela transição.
+     */
+    public void verificar(StatusOS origem, StatusOS destino, NivelHierarquia nivel) {
+        NivelHierarquia nivelMinimo = TRANSICOES.get(origem).get(destino);
+        if (nivelMinimo == null) {
+            throw new IllegalStateException("Transição de status não permitida: " + origem + " para " + destino + ".");
+        }
+        if (nivel.compareTo(nivelMinimo) < 0) { // NivelHierarquia é declarado do menor para o maior
+            throw new SecurityException("A transição de " + origem + " para " + destino + " exige o nível " + nivelMinimo + ".");
+        }
+    }
+}
@@ -2,38 +2,78 @@
 package br.com.kandu.service;
 
 import br.com.kandu.dto.OrdemDeServicoCriacaoDTO;
+import br.com.kandu.dto.OrdemDeServicoFiltroDTO;
+import br.com.kandu.dto.PaginaDTO;
 import br.com.kandu.entity.*;
 import br.com.kandu.enums.NivelHierarquia;
 import br.com.kandu.enums.StatusOS;
+import br.com.kandu.exception.VersaoDesatualizadaException;
 import br.com.kandu.repository.LogHistoricoOSRepository;
+import br.com.kandu.repository.OrdemDeServicoArquivadaRepository;
 import br.com.kandu.repository.OrdemDeServicoRepository;
+import br.com.kandu.repository.OrdemDeServicoSpecs;
 import br.com.kandu.repository.ParticipanteOSRepository;
 import br.com.kandu.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
 public class OrdemDeServicoService {
 
+    /**
+     * Quais OS um utilizador pode listar: todas (ADM), as da empresa (SUPERVISOR e acima) ou só as que criou.
+     * Campos nulos não filtram. Usada pela listagem paginada e pela exportação, para que as regras não divirjam.
+     */
+    public record Visibilidade(Long empresaId, Long criadorId) {
+    }
+
+    // Cursor da primeira página: acima de qualquer OS na ordenação (dataCadastro desc, id desc)
+    private static final LocalDateTime DATA_CURSOR_INICIAL = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final Sort ORDEM_LISTAGEM = Sort.by(Sort.Order.desc("dataCadastro"), Sort.Order.desc("id"));
+    private static final Comparator<OrdemDeServico> COMPARADOR_LISTAGEM = Comparator
+            .comparing(OrdemDeServico::getDataCadastro).thenComparing(OrdemDeServico::getId).reversed();
+
     private final OrdemDeServicoRepository osRepository;
+    private final OrdemDeServicoArquivadaRepository arquivoRepository;
     private final UsuarioService usuarioService;
     private final LogHistoricoOSRepository logRepository;
     private final ParticipanteOSRepository participanteRepository;
     private final UsuarioRepository usuarioRepository;
+    private final ContadorStatusOSService contadorStatus;
+    private final CarimboAlteracoesOSService carimboAlteracoes;
+    private final MaquinaDeEstadosOS maquinaDeEstados;
+    private final BuscaTextoOSService buscaTexto;
 
     @Autowired
-    public OrdemDeServicoService(OrdemDeServicoRepository osRepository, UsuarioService usuarioService,
+    public OrdemDeServicoService(OrdemDeServicoRepository osRepository, OrdemDeServicoArquivadaRepository arquivoRepository,
+                                 UsuarioService usuarioService,
                                  LogHistoricoOSRepository logRepository, ParticipanteOSRepository participanteRepository,
-                                 UsuarioRepository usuarioRepository) {
+                                 UsuarioRepository usuarioRepository, ContadorStatusOSService contadorStatus,
+                                 CarimboAlteracoesOSService carimboAlteracoes, MaquinaDeEstadosOS maquinaDeEstados,
+                                 BuscaTextoOSService buscaTexto) {
         this.osRepository = osRepository;
+        this.arquivoRepository = arquivoRepository;
         this.usuarioService = usuarioService;
         this.logRepository = logRepository;
         this.participanteRepository = participanteRepository;
         this.usuarioRepository = usuarioRepository;
+        this.contadorStatus = contadorStatus;
+        this.carimboAlteracoes = carimboAlteracoes;
+        this.maquinaDeEstados = maquinaDeEstados;
+        this.buscaTexto = buscaTexto;
     }
 
     @Transactional
@@ -49,48 +89,241 @@ public class OrdemDeServicoService {
                 .build();
         OrdemDeServico osSalva = osRepository.save(novaOS);
         registrarLog(osSalva, criador, "Ordem de Serviço criada.", null, "status: ABERTA");
+        contadorStatus.registrarCriacao(osSalva.getEmpresa().getId(), osSalva.getStatus());
+        buscaTexto.registrarIndexacao(osSalva);
+        carimboAlteracoes.registrarAlteracao(osSalva.getEmpresa().getId());
         return osSalva;
     }
 
+    /**
+     * Busca uma OS para exibição, já com criador e responsável carregados (a sessão fecha ao fim do método).
+     * Se a OS já foi transferida para o arquivo, devolve uma cópia desanexada lida de lá.
+     */
     @Transactional(readOnly = true)
     public OrdemDeServico buscarOSPorId(Long id) {
         Usuario utilizadorLogado = usuarioService.getUsuarioAutenticado();
+        OrdemDeServico os = osRepository.findDetalheById(id)
+                .or(() -> arquivoRepository.findDetalheById(id).map(OrdemDeServicoArquivada::paraOrdemDeServico))
+                .orElseThrow(() -> new IllegalArgumentException("Ordem de Serviço não encontrada com o ID: " + id));
+        verificarAcesso(os, utilizadorLogado);
+        return os;
+    }
+
+    // Variante para os fluxos que já resolveram o utilizador logado (uma OS do arquivo chega aqui já ARQUIVADA)
+    private OrdemDeServico buscarOSPorId(Long id, Usuario utilizadorLogado) {
         OrdemDeServico os = osRepository.findById(id)
+                .or(() -> arquivoRepository.findById(id).map(OrdemDeServicoArquivada::paraOrdemDeServico))
+                .orElseThrow(() -> new IllegalArgumentException("Ordem de Serviço não encontrada com o ID: " + id));
+        verificarAcesso(os, utilizadorLogado);
+        return os;
+    }
+
+    /**
+     * Versão atual de uma OS, com as mesmas regras de acesso do detalhe, sem carregar a entidade.
+     * Usada para responder 304 aos clientes que já têm a versão atual.
+     */
+    @Transactional(readOnly = true)
+    public long buscarVersaoOS(Long id) {
+        Usuario utilizadorLogado = usuarioService.getUsuarioAutenticado();
+        OrdemDeServicoRepository.VersaoOS versao = osRepository.findVersaoById(id)
+                .or(() -> arquivoRepository.findVersaoById(id))
+                .orElseThrow(() -> new IllegalArgumentException("Ordem de Serviço não encontrada com o ID: " + id));
+        verificarAcesso(versao.getEmpresaId(), utilizadorLogado);
+        return versao.getVersao();
+    }
+
+    // Participantes não mudam colunas da OS: a versão é incrementada pelo lock (ver findParaAlteracaoById)
+    // Uma OS arquivada é só de leitura: ela pode estar sendo copiada para o arquivo (TransferenciaArquivoOSService)
+    private OrdemDeServico buscarOSParaAlteracao(Long id, Usuario utilizadorLogado) {
+        OrdemDeServico os = osRepository.findParaAlteracaoById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Ordem de Serviço não encontrada com o ID: " + id));
+        verificarAcesso(os, utilizadorLogado);
+        if (os.getStatus() == StatusOS.ARQUIVADA) {
+            throw new IllegalStateException("Uma Ordem de Serviço arquivada não pode ser alterada.");
+        }
+        return os;
+    }
+
+    /*
+     * Compara a versão lida com a que o cliente viu. Escritas que acontecerem entre esta leitura e o commit
+     * são detectadas pelo @Version no UPDATE e chegam ao controller como OptimisticLockingFailureException.
+     */
+    private static void verificarVersao(OrdemDeServico os, Long versaoEsperada) {
+        if (versaoEsperada != null && !versaoEsperada.equals(os.getVersao())) {
+            throw new VersaoDesatualizadaException("A Ordem de Serviço foi alterada por outro utilizador.", os.getVersao());
+        }
+    }
+
+    private static void verificarAcesso(OrdemDeServico os, Usuario utilizadorLogado) {
+        verificarAcesso(os.getEmpresa().getId(), utilizadorLogado);
+    }
+
+    private static void verificarAcesso(Long empresaIdDaOS, Usuario utilizadorLogado) {
         if (utilizadorLogado.getNivelHierarquia() != NivelHierarquia.ADM &&
-                !os.getEmpresa().getId().equals(utilizadorLogado.getEmpresa().getId())) {
+                !empresaIdDaOS.equals(utilizadorLogado.getEmpresa().getId())) {
             throw new SecurityException("Acesso negado à Ordem de Serviço de outra empresa.");
         }
-        return os;
     }
 
+    /**
+     * Lista uma página das OS visíveis ao utilizador logado, da mais recente para a mais antiga.
+     * Por que foi implementado: a listagem carregava todas as OS da empresa (ou do sistema, para o ADM) a cada
+     * chamada. A paginação por cursor (keyset) lê apenas a página pedida, com custo constante em qualquer
+     * profundidade; o deslocamento por número de página existe só para os saltos da interface.
+     *
+     * @param cursor  O proximoCursor da página anterior, ou null para a primeira página.
+     * @param pagina  Número da página (a partir de 0) para saltos; não pode ser combinado com o cursor.
+     * @param tamanho Quantidade de itens por página (já limitada pelo controller).
+     * @return A página, com o cursor da próxima (nulo se esta for a última).
+     */
     @Transactional(readOnly = true)
-    public List<OrdemDeServico> listarOS() {
-        Usuario utilizadorLogado = usuarioService.getUsuarioAutenticado();
-        NivelHierarquia nivel = utilizadorLogado.getNivelHierarquia();
-        if (nivel == NivelHierarquia.ADM) return osRepository.findAll();
+    public PaginaDTO<OrdemDeServico> listarOS(String cursor, Integer pagina, int tamanho) {
+        if (cursor != null && pagina != null) {
+            throw new IllegalArgumentException("Informe o cursor ou a página, não ambos.");
+        }
+        Visibilidade visibilidade = visibilidade(usuarioService.getUsuarioAutenticado());
+
+        ChaveCursor inicio = cursor != null ? decodificarCursor(cursor) : new ChaveCursor(DATA_CURSOR_INICIAL, Long.MAX_VALUE);
+        LocalDateTime data = inicio.dataCadastro();
+        long id = inicio.id();
+        Pageable pageable = PageRequest.of(pagina != null ? pagina : 0, tamanho);
+
+        Slice<OrdemDeServico> slice;
+        if (visibilidade.empresaId() == null) {
+            slice = osRepository.buscarPaginaApos(data, id, pageable);
+        } else if (visibilidade.criadorId() == null) {
+            slice = osRepository.buscarPaginaDaEmpresaApos(visibilidade.empresaId(), data, id, pageable);
+        } else {
+            slice = osRepository.buscarPaginaDoCriadorApos(visibilidade.empresaId(), visibilidade.criadorId(), data, id, pageable);
+        }
+
+        List<OrdemDeServico> itens = slice.getContent();
+        String proximoCursor = slice.hasNext() ? codificarCursor(itens.get(itens.size() - 1)) : null;
+        return new PaginaDTO<>(itens, proximoCursor);
+    }
+
+    /**
+     * Filtra as OS visíveis ao utilizador logado pelos critérios informados, paginando por cursor como a listagem.
+     * Por que foi implementado: os filtros do quadro eram aplicados no navegador depois de baixar a empresa inteira;
+     * aqui viram uma única consulta indexada (ver {@link OrdemDeServicoSpecs}) que lê só a página pedida.
+     *
+     * @param filtro  Critérios do filtro (todos opcionais).
+     * @param cursor  O proximoCursor da página anterior, ou null para a primeira página.
+     * @param tamanho Quantidade de itens por página (já limitada pelo controller).
+     * @return A página filtrada, com o cursor da próxima.
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<OrdemDeServico> filtrarOS(OrdemDeServicoFiltroDTO filtro, String cursor, int tamanho) {
+        if (filtro.getPrazoDe() != null && filtro.getPrazoAte() != null && filtro.getPrazoDe().isAfter(filtro.getPrazoAte())) {
+            throw new IllegalArgumentException("O início do intervalo de prazo não pode ser posterior ao fim.");
+        }
+        Visibilidade visibilidade = visibilidade(usuarioService.getUsuarioAutenticado());
+        ChaveCursor inicio = cursor != null ? decodificarCursor(cursor) : new ChaveCursor(DATA_CURSOR_INICIAL, Long.MAX_VALUE);
+
+        Slice<OrdemDeServico> slice = osRepository.findBy(
+                OrdemDeServicoSpecs.filtrar(visibilidade.empresaId(), visibilidade.criadorId(), filtro, inicio.dataCadastro(), inicio.id()),
+                consulta -> consulta.project("criador", "responsavel") // Carregados no mesmo SELECT, como na listagem
+                        .slice(PageRequest.of(0, tamanho, ORDEM_LISTAGEM)));
+        if (!incluiArquivo(filtro)) {
+            List<OrdemDeServico> itens = slice.getContent();
+            String proximoCursor = slice.hasNext() ? codificarCursor(itens.get(itens.size() - 1)) : null;
+            return new PaginaDTO<>(itens, proximoCursor);
+        }
+
+        // Com as arquivadas: a mesma página (mesmo cursor) é lida também do arquivo e as duas são intercaladas
+        Slice<OrdemDeServicoArquivada> sliceArquivo = arquivoRepository.findBy(
+                OrdemDeServicoSpecs.filtrar(visibilidade.empresaId(), visibilidade.criadorId(), filtro, inicio.dataCadastro(), inicio.id()),
+                consulta -> consulta.project("criador", "responsavel").slice(PageRequest.of(0, tamanho, ORDEM_LISTAGEM)));
+        List<OrdemDeServico> todas = new ArrayList<>(slice.getContent());
+        sliceArquivo.forEach(arquivada -> todas.add(arquivada.paraOrdemDeServico()));
+        todas.sort(COMPARADOR_LISTAGEM);
+        boolean haProxima = slice.hasNext() || sliceArquivo.hasNext() || todas.size() > tamanho;
+        List<OrdemDeServico> itens = todas.subList(0, Math.min(tamanho, todas.size()));
+        String proximoCursor = haProxima ? codificarCursor(itens.get(itens.size() - 1)) : null;
+        return new PaginaDTO<>(List.copyOf(itens), proximoCursor);
+    }
+
+    // O arquivo só tem OS ARQUIVADA: é consultado quando elas foram pedidas
+    private static boolean incluiArquivo(OrdemDeServicoFiltroDTO filtro) {
+        if (filtro.getStatus() != null && !filtro.getStatus().isEmpty()) {
+            return filtro.getStatus().contains(StatusOS.ARQUIVADA);
+        }
+        return Boolean.TRUE.equals(filtro.getIncluirArquivadas());
+    }
+
+    /**
+     * Regras de visibilidade das OS do utilizador logado (ver {@link Visibilidade}).
+     */
+    public Visibilidade visibilidadeDoUtilizadorLogado() {
+        return visibilidade(usuarioService.getUsuarioAutenticado());
+    }
+
+    private static Visibilidade visibilidade(Usuario utilizador) {
+        NivelHierarquia nivel = utilizador.getNivelHierarquia();
+        if (nivel == NivelHierarquia.ADM) {
+            return new Visibilidade(null, null);
+        }
         if (nivel == NivelHierarquia.DIRETOR || nivel == NivelHierarquia.GESTOR || nivel == NivelHierarquia.SUPERVISOR) {
-            return osRepository.findByEmpresaId(utilizadorLogado.getEmpresa().getId());
+            return new Visibilidade(utilizador.getEmpresa().getId(), null);
+        }
+        return new Visibilidade(utilizador.getEmpresa().getId(), utilizador.getId());
+    }
+
+    private record ChaveCursor(LocalDateTime dataCadastro, long id) {
+    }
+
+    // O cursor é a chave de ordenação do último item, em Base64 para que o cliente o trate como opaco
+    private static String codificarCursor(OrdemDeServico os) {
+        String chave = os.getDataCadastro() + "|" + os.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(chave.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ChaveCursor decodificarCursor(String cursor) {
+        try {
+            String[] chave = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (chave.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido.");
+            }
+            return new ChaveCursor(LocalDateTime.parse(chave[0]), Long.parseLong(chave[1]));
+        } catch (DateTimeParseException | IllegalArgumentException e) { // NumberFormatException é uma IllegalArgumentException
+            throw new IllegalArgumentException("Cursor inválido.");
         }
-        return osRepository.findByEmpresaIdAndCriadorId(utilizadorLogado.getEmpresa().getId(), utilizadorLogado.getId());
     }
 
+    /**
+     * Cancela a OS (ou arquiva, se já concluída). Uma OS já cancelada ou arquivada fica como está, para que
+     * a operação possa ser repetida (ver RepetidorDeTransacoes).
+     *
+     * @param versaoEsperada A versão informada pelo cliente (If-Match), ou null para alterar a versão atual.
+     * @throws VersaoDesatualizadaException se a OS já não estiver na versão esperada.
+     */
     @Transactional
-    public void deletarOS(Long id) {
+    public void deletarOS(Long id, Long versaoEsperada) {
         Usuario utilizadorLogado = usuarioService.getUsuarioAutenticado();
-        OrdemDeServico osParaDeletar = buscarOSPorId(id);
+        OrdemDeServico osParaDeletar = buscarOSPorId(id, utilizadorLogado);
+        verificarVersao(osParaDeletar, versaoEsperada);
         StatusOS statusAnterior = osParaDeletar.getStatus();
         StatusOS novoStatus = (statusAnterior == StatusOS.CONCLUIDA) ? StatusOS.ARQUIVADA : StatusOS.CANCELADA;
+        if (statusAnterior == novoStatus || statusAnterior == StatusOS.ARQUIVADA) {
+            return;
+        }
+        maquinaDeEstados.verificar(statusAnterior, novoStatus, utilizadorLogado.getNivelHierarquia());
         String acaoLog = (novoStatus == StatusOS.ARQUIVADA) ? "OS arquivada." : "OS cancelada.";
         osParaDeletar.setStatus(novoStatus);
+        if (novoStatus.isEncerramento()) {
+            osParaDeletar.setDataEncerramento(LocalDateTime.now());
+        }
         osRepository.save(osParaDeletar);
         registrarLog(osParaDeletar, utilizadorLogado, acaoLog, "status: " + statusAnterior, "status: " + novoStatus);
+        contadorStatus.registrarMudanca(osParaDeletar.getEmpresa().getId(), statusAnterior, novoStatus);
+        buscaTexto.registrarStatus(osParaDeletar.getEmpresa().getId(), List.of(id), novoStatus);
+        carimboAlteracoes.registrarAlteracao(osParaDeletar.getEmpresa().getId());
     }
 
     @Transactional
     public ParticipanteOS adicionarParticipante(Long osId, Long usuarioId) {
         Usuario adminOuSupervisor = usuarioService.getUsuarioAutenticado();
-        OrdemDeServico os = this.buscarOSPorId(osId);
+        OrdemDeServico os = buscarOSParaAlteracao(osId, adminOuSupervisor);
         Usuario participanteParaAdicionar = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new IllegalArgumentException("Utilizador a ser adicionado não encontrado com ID: " + usuarioId));
 
@@ -107,10 +340,17 @@ public class OrdemDeServicoService {
         return participacaoSalva;
     }
 
+    /**
+     * Remove um participante da OS.
+     *
+     * @param versaoEsperada A versão informada pelo cliente (If-Match), ou null para alterar a versão atual.
+     * @throws VersaoDesatualizadaException se a OS já não estiver na versão esperada.
+     */
     @Transactional
-    public void removerParticipante(Long osId, Long participanteId) {
+    public void removerParticipante(Long osId, Long participanteId, Long versaoEsperada) {
         Usuario adminOuSupervisor = usuarioService.getUsuarioAutenticado();
-        OrdemDeServico os = this.buscarOSPorId(osId);
+        OrdemDeServico os = buscarOSParaAlteracao(osId, adminOuSupervisor);
+        verificarVersao(os, versaoEsperada);
         ParticipanteOS participacaoParaRemover = participanteRepository.findById(participanteId)
                 .orElseThrow(() -> new IllegalArgumentException("Participação não encontrada com ID: " + participanteId));
 
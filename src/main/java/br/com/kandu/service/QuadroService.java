@@ -0,0 +1,157 @@
+// src/main/java/br/com/kandu/service/QuadroService.java
+package br.com.kandu.service;
+
+import br.com.kandu.dto.ColunaQuadroDTO;
+import br.com.kandu.dto.OrdemDeServicoResponseDTO;
+import br.com.kandu.dto.QuadroDTO;
+import br.com.kandu.dto.RaiaQuadroDTO;
+import br.com.kandu.entity.OrdemDeServico;
+import br.com.kandu.enums.AgrupamentoQuadro;
+import br.com.kandu.enums.StatusOS;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Montagem do quadro Kanban (colunas por status, raias opcionais por responsável).
+ * Por que foi implementado: cada cliente baixava a lista de OS inteira para agrupar por status no navegador,
+ * e o carregamento do quadro era a principal reclamação de desempenho. Aqui o quadro sai de duas consultas,
+ * independentemente do número de OS: uma contagem agrupada por coluna e uma busca dos N cartões mais recentes
+ * de cada coluna, numerados no banco com row_number() por coluna. As regras de visibilidade são as da listagem,
+ * e as OS ARQUIVADA ficam de fora do quadro, como ficam da listagem.
+ */
+@Service
+public class QuadroService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Monta o quadro das OS visíveis.
+     *
+     * @param visibilidade     As regras de visibilidade do utilizador (as mesmas da listagem).
+     * @param agrupamento      Se as colunas são repetidas por responsável.
+     * @param cartoesPorColuna Quantos cartões trazer em cada coluna (já limitado pelo controller).
+     * @return O quadro com todas as colunas (exceto ARQUIVADA), inclusive as vazias.
+     */
+    @Transactional(readOnly = true)
+    public QuadroDTO montarQuadro(OrdemDeServicoService.Visibilidade visibilidade, AgrupamentoQuadro agrupamento, int cartoesPorColuna) {
+        boolean porResponsavel = agrupamento == AgrupamentoQuadro.RESPONSAVEL;
+
+        // Raias na ordem de criação do mapa; a chave nula é a raia sem responsável (ou o quadro sem raias)
+        Map<Long, Raia> raias = new LinkedHashMap<>();
+        for (Object[] linha : contarPorColuna(visibilidade, porResponsavel)) {
+            Long responsavelId = porResponsavel ? (Long) linha[1] : null;
+            long total = ((Number) linha[porResponsavel ? 2 : 1]).longValue();
+            raias.computeIfAbsent(responsavelId, id -> new Raia()).coluna((StatusOS) linha[0]).total = total;
+        }
+        for (OrdemDeServico os : buscarCartoes(visibilidade, porResponsavel, cartoesPorColuna)) {
+            Long responsavelId = porResponsavel && os.getResponsavel() != null ? os.getResponsavel().getId() : null;
+            Raia raia = raias.computeIfAbsent(responsavelId, id -> new Raia()); // OS criada entre as duas consultas
+            if (responsavelId != null) {
+                raia.nome = os.getResponsavel().getNomeCompleto();
+            }
+            raia.coluna(os.getStatus()).cartoes.add(OrdemDeServicoResponseDTO.de(os));
+        }
+        if (raias.isEmpty()) {
+            raias.put(null, new Raia()); // Quadro vazio: ainda assim devolve as colunas
+        }
+
+        List<RaiaQuadroDTO> resultado = new ArrayList<>();
+        raias.entrySet().stream()
+                // Raias por nome do responsável; a raia sem responsável por último
+                .sorted(Comparator.comparing((Map.Entry<Long, Raia> e) -> e.getKey() == null)
+                        .thenComparing(e -> Objects.toString(e.getValue().nome, "")))
+                .forEach(e -> resultado.add(e.getValue().paraDTO(e.getKey())));
+        return new QuadroDTO(agrupamento, cartoesPorColuna, resultado);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> contarPorColuna(OrdemDeServicoService.Visibilidade visibilidade, boolean porResponsavel) {
+        // os.responsavel.id lê a coluna responsavel_id, sem JOIN com usuarios
+        String agrupamento = porResponsavel ? "os.status, os.responsavel.id" : "os.status";
+        Query query = entityManager.createQuery("select " + agrupamento + ", count(os) from OrdemDeServico os"
+                + filtroVisibilidade(visibilidade, "os") + " group by " + agrupamento);
+        vincularVisibilidade(query, visibilidade);
+        return query.getResultList();
+    }
+
+    private List<OrdemDeServico> buscarCartoes(OrdemDeServicoService.Visibilidade visibilidade, boolean porResponsavel, int cartoesPorColuna) {
+        String particao = porResponsavel ? "o.status, o.responsavel.id" : "o.status";
+        String jpql = "select os from OrdemDeServico os join fetch os.criador left join fetch os.responsavel"
+                + " where os.id in (select c.id from ("
+                + "select o.id as id, row_number() over (partition by " + particao
+                + " order by o.dataCadastro desc, o.id desc) as posicao"
+                + " from OrdemDeServico o" + filtroVisibilidade(visibilidade, "o")
+                + ") c where c.posicao <= :limite)"
+                + " order by os.dataCadastro desc, os.id desc";
+        TypedQuery<OrdemDeServico> query = entityManager.createQuery(jpql, OrdemDeServico.class)
+                .setParameter("limite", cartoesPorColuna)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        vincularVisibilidade(query, visibilidade);
+        return query.getResultList();
+    }
+
+    // Mesma condição de OrdemDeServicoRepository.FORA_DO_ARQUIVO, com o alias de cada consulta
+    private static String filtroVisibilidade(OrdemDeServicoService.Visibilidade visibilidade, String alias) {
+        String filtro = " where " + alias + ".status <> br.com.kandu.enums.StatusOS.ARQUIVADA";
+        if (visibilidade.empresaId() == null) {
+            return filtro;
+        }
+        filtro += " and " + alias + ".empresa.id = :empresaId";
+        if (visibilidade.criadorId() != null) {
+            filtro += " and " + alias + ".criador.id = :criadorId";
+        }
+        return filtro;
+    }
+
+    private static void vincularVisibilidade(Query query, OrdemDeServicoService.Visibilidade visibilidade) {
+        if (visibilidade.empresaId() != null) {
+            query.setParameter("empresaId", visibilidade.empresaId());
+            if (visibilidade.criadorId() != null) {
+                query.setParameter("criadorId", visibilidade.criadorId());
+            }
+        }
+    }
+
+    // Acumuladores de uma raia enquanto o resultado das duas consultas é distribuído
+    private static class Raia {
+        private String nome;
+        private final Map<StatusOS, Coluna> colunas = new EnumMap<>(StatusOS.class);
+
+        Coluna coluna(StatusOS status) {
+            return colunas.computeIfAbsent(status, s -> new Coluna());
+        }
+
+        RaiaQuadroDTO paraDTO(Long responsavelId) {
+            List<ColunaQuadroDTO> dtos = new ArrayList<>();
+            for (StatusOS status : StatusOS.values()) {
+                if (status == StatusOS.ARQUIVADA) {
+                    continue;
+                }
+                Coluna coluna = colunas.getOrDefault(status, new Coluna());
+                // Uma OS criada entre as duas consultas pode aparecer nos cartões sem estar no total
+                dtos.add(new ColunaQuadroDTO(status, Math.max(coluna.total, coluna.cartoes.size()), coluna.cartoes));
+            }
+            return new RaiaQuadroDTO(responsavelId, nome, dtos);
+        }
+    }
+
+    private static class Coluna {
+        private long total;
+        private final List<OrdemDeServicoResponseDTO> cartoes = new ArrayList<>();
+    }
+}
@@ -0,0 +1,157 @@
+// src/main/java/br/com/kandu/service/RefreshTokenService.java
+package br.com.kandu.service;
+
+import br.com.kandu.dto.TokenDTO;
+import br.com.kandu.entity.RefreshToken;
+import br.com.kandu.entity.Usuario;
+import br.com.kandu.repository.RefreshTokenRepository;
+import br.com.kandu.security.jwt.JwtTokenProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Emissão e rotação de refresh tokens.
+ * Por que foi implementado: os tokens de acesso passaram a ser curtos, e renová-los pelo login exigiria
+ * uma verificação BCrypt a cada poucos minutos por usuário ativo. O refresh token é um valor aleatório de
+ * 256 bits; como não pode ser adivinhado, basta um SHA-256 (e não BCrypt) para guardá-lo, e a renovação
+ * custa apenas uma busca pelo hash.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final VersaoContaService versaoContaService;
+    private final long validadeDias;
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               JwtTokenProvider jwtTokenProvider,
+                               VersaoContaService versaoContaService,
+                               @Value("${kandu.jwt.refresh.validade-dias:30}") long validadeDias) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.versaoContaService = versaoContaService;
+        this.validadeDias = validadeDias;
+    }
+
+    /**
+     * Emite o primeiro refresh token de uma nova família (ex: no login).
+     *
+     * @return O refresh token em claro, que só existe na resposta ao cliente.
+     */
+    @Transactional
+    public String emitir(Usuario usuario) {
+        return emitir(usuario, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Troca um refresh token por um novo par de tokens (acesso + refresh da mesma família).
+     * O token apresentado é consumido; se ele já tinha sido usado ou revogado, toda a família é revogada,
+     * pois o reuso indica que o token vazou.
+     *
+     * @param refreshToken O refresh token em claro.
+     * @return O novo par de tokens.
+     * @throws BadCredentialsException se o token for inválido, expirado, reutilizado ou o usuário estiver inativo.
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class) // A revogação da família precisa ser gravada
+    public TokenDTO renovar(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new BadCredentialsException("Refresh token é obrigatório.");
+        }
+        RefreshToken registro = refreshTokenRepository.findByHash(hash(refreshToken))
+                .orElseThrow(() -> new BadCredentialsException("Refresh token inválido."));
+
+        LocalDateTime agora = LocalDateTime.now();
+        if (refreshTokenRepository.marcarComoUsado(registro.getId(), agora) == 0) {
+            int revogados = refreshTokenRepository.revogarFamilia(registro.getFamilia());
+            logger.warn("Reuso de refresh token detectado para o usuário '{}'; {} tokens da família revogados.",
+                    registro.getUsuario().getNomeUsuario(), revogados);
+            throw new BadCredentialsException("Refresh token já utilizado. Faça login novamente.");
+        }
+        if (!registro.getExpiraEm().isAfter(agora)) {
+            throw new BadCredentialsException("Refresh token expirado. Faça login novamente.");
+        }
+        Usuario usuario = registro.getUsuario();
+        if (!usuario.isAtivo()) {
+            refreshTokenRepository.revogarFamilia(registro.getFamilia());
+            throw new BadCredentialsException("Usuário '" + usuario.getNomeUsuario() + "' está inativo.");
+        }
+
+        String novoRefresh = emitir(usuario, registro.getFamilia());
+        versaoContaService.registrar(usuario.getId(), usuario.getVersaoConta());
+        return new TokenDTO(jwtTokenProvider.generateToken(usuario), novoRefresh);
+    }
+
+    /**
+     * Encerra as sessões de refresh no logout, para que o cliente não volte a renovar o token de acesso revogado.
+     * Com o refresh token da sessão, revoga só a família dele; sem ele (ou se ele não for do usuário), revoga
+     * todos os refresh tokens do usuário.
+     *
+     * @param usuarioId    O usuário do token de acesso usado no logout.
+     * @param refreshToken O refresh token da sessão, em claro, ou null.
+     * @return Quantos refresh tokens foram revogados.
+     */
+    @Transactional
+    public int encerrarSessao(Long usuarioId, String refreshToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            Optional<RefreshToken> registro = refreshTokenRepository.findByHash(hash(refreshToken))
+                    .filter(r -> r.getUsuario().getId().equals(usuarioId));
+            if (registro.isPresent()) {
+                return refreshTokenRepository.revogarFamilia(registro.get().getFamilia());
+            }
+        }
+        return refreshTokenRepository.revogarDoUsuario(usuarioId);
+    }
+
+    /**
+     * Apaga os refresh tokens expirados, que não servem mais nem para detectar reuso.
+     */
+    @Scheduled(fixedDelayString = "${kandu.jwt.refresh.purga-ms:86400000}",
+            initialDelayString = "${kandu.jwt.refresh.purga-ms:86400000}")
+    @Transactional
+    public void purgarExpirados() {
+        int apagados = refreshTokenRepository.deleteExpiradosEm(LocalDateTime.now());
+        logger.info("Purga de refresh tokens: {} registros expirados removidos.", apagados);
+    }
+
+    private String emitir(Usuario usuario, String familia) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(RefreshToken.builder()
+                .hash(hash(token))
+                .familia(familia)
+                .usuario(usuario)
+                .expiraEm(LocalDateTime.now().plusDays(validadeDias))
+                .build());
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível na JVM.", e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+// src/main/java/br/com/kandu/service/RepetidorDeTransacoes.java
+package br.com.kandu.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Repete uma operação transacional que perdeu a corrida para outra escrita na mesma OS (@Version).
+ * Por que foi implementado: com o controle otimista, duas alterações simultâneas da mesma OS não se
+ * sobrescrevem mais; a segunda falha no commit. Quando o cliente não fixou uma versão (sem If-Match) e a
+ * operação decide o resultado pelo estado atual (ex: cancelar ou arquivar), basta repeti-la com a OS relida,
+ * em vez de devolver o conflito ao usuário. As tentativas são limitadas e espaçadas com um pouco de aleatoriedade,
+ * para que as escritas concorrentes não colidam de novo; esgotadas, o conflito chega ao controller (409).
+ */
+@Service
+public class RepetidorDeTransacoes {
+
+    private final int maxTentativas;
+    private final long esperaBaseMs;
+    private final Counter repetidas;
+    private final Counter esgotadas;
+
+    @Autowired
+    public RepetidorDeTransacoes(MeterRegistry meterRegistry,
+                                 @Value("${kandu.os.concorrencia.max-tentativas:3}") int maxTentativas,
+                                 @Value("${kandu.os.concorrencia.espera-base-ms:10}") long esperaBaseMs) {
+        this.maxTentativas = Math.max(1, maxTentativas);
+        this.esperaBaseMs = esperaBaseMs;
+        this.repetidas = Counter.builder("os.conflitos.versao").tag("resultado", "repetida")
+                .description("Operações repetidas após conflito de versão").register(meterRegistry);
+        this.esgotadas = Counter.builder("os.conflitos.versao").tag("resultado", "esgotada")
+                .description("Conflitos de versão devolvidos ao cliente após esgotar as tentativas").register(meterRegistry);
+    }
+
+    /**
+     * Executa a operação, repetindo-a em caso de conflito de versão.
+     * A operação deve abrir a própria transação (método @Transactional de outro bean) e ser segura para repetir.
+     * Dentro de uma transação já aberta ela é executada uma única vez: repetir reaproveitaria as entidades
+     * desatualizadas da mesma sessão.
+     *
+     * @throws OptimisticLockingFailureException se todas as tentativas conflitarem.
+     */
+    public void executar(Runnable operacao) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            operacao.run();
+            return;
+        }
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                operacao.run();
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (tentativa >= maxTentativas) {
+                    esgotadas.increment();
+                    throw e;
+                }
+                repetidas.increment();
+                esperar(tentativa, e);
+            }
+        }
+    }
+
+    private void esperar(int tentativa, OptimisticLockingFailureException conflito) {
+        long espera = esperaBaseMs * tentativa + ThreadLocalRandom.current().nextLong(esperaBaseMs + 1);
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflito;
+        }
+    }
+}
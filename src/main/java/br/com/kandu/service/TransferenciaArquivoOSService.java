@@ -0,0 +1,132 @@
+// src/main/java/br/com/kandu/service/TransferenciaArquivoOSService.java
+package br.com.kandu.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Transfere as OS ARQUIVADA, com os seus participantes e o seu histórico, para as tabelas de arquivo (V6).
+ * Por que foi implementado: as listagens já ignoravam as arquivadas, mas ordens_servico, participantes_os e
+ * log_historico_os (e os seus índices) continuavam crescendo com elas. Cada lote copia as linhas com
+ * INSERT ... SELECT e as apaga da origem, na mesma transação: uma OS está sempre em exatamente uma das tabelas,
+ * e um lote interrompido é desfeito e refeito na próxima execução. O arquivo é lido pelo detalhe da OS e pela
+ * busca com arquivadas (ver OrdemDeServicoService); uma OS arquivada não volta a ser alterada.
+ */
+@Service
+public class TransferenciaArquivoOSService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferenciaArquivoOSService.class);
+
+    // Filhos primeiro ao apagar, pais primeiro ao copiar (chaves estrangeiras das duas pontas)
+    private static final String COPIAR_OS = "insert into ordens_servico_arquivo (id, prazo, projeto_privado, criador_id, " +
+            "data_cadastro, empresa_id, responsavel_id, titulo, descricao, local, requisitos, status, versao, " +
+            "data_encerramento, transferida_em) select id, prazo, projeto_privado, criador_id, data_cadastro, empresa_id, " +
+            "responsavel_id, titulo, descricao, local, requisitos, status, versao, data_encerramento, :agora " +
+            "from ordens_servico where id in (:ids) and status = 'ARQUIVADA'";
+    private static final String COPIAR_PARTICIPANTES = "insert into participantes_os_arquivo (id, data_inclusao, data_saida, " +
+            "ordem_servico_id, usuario_id) select id, data_inclusao, data_saida, ordem_servico_id, usuario_id " +
+            "from participantes_os where ordem_servico_id in (:ids)";
+    private static final String COPIAR_HISTORICO = "insert into log_historico_os_arquivo (id, ordem_servico_id, timestamp, " +
+            "usuario_responsavel_acao_id, dados_antigos, dados_novos, descricao_acao) select id, ordem_servico_id, timestamp, " +
+            "usuario_responsavel_acao_id, dados_antigos, dados_novos, descricao_acao from log_historico_os where ordem_servico_id in (:ids)";
+
+    // Só apaga as linhas que foram copiadas: uma linha que escape da cópia mantém a OS presa pela chave estrangeira,
+    // o DELETE da OS falha e o lote inteiro é desfeito, em vez de a linha se perder
+    private static final String APAGAR_HISTORICO_COPIADO = "delete from log_historico_os where ordem_servico_id in (:ids) " +
+            "and id in (select id from log_historico_os_arquivo where ordem_servico_id in (:ids))";
+    private static final String APAGAR_PARTICIPANTES_COPIADOS = "delete from participantes_os where ordem_servico_id in (:ids) " +
+            "and id in (select id from participantes_os_arquivo where ordem_servico_id in (:ids))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+
+    @Autowired
+    public TransferenciaArquivoOSService(PlatformTransactionManager transactionManager,
+                                         @Value("${kandu.os.arquivo.tamanho-lote:1000}") int tamanhoLote) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Transfere para o arquivo todas as OS ARQUIVADA que ainda estão nas tabelas ativas.
+     *
+     * @return Quantas OS foram transferidas nesta execução.
+     */
+    @Scheduled(fixedDelayString = "${kandu.os.arquivo.intervalo-ms:3600000}",
+            initialDelayString = "${kandu.os.arquivo.intervalo-ms:3600000}")
+    public long transferirArquivadas() {
+        List<Long> empresas = transactionTemplate.execute(status -> entityManager
+                .createQuery("select e.id from Empresa e order by e.id", Long.class)
+                .getResultList());
+        long total = 0;
+        for (Long empresaId : empresas) {
+            try {
+                int transferidas;
+                do {
+                    transferidas = transferirLote(empresaId);
+                    total += transferidas;
+                } while (transferidas == tamanhoLote);
+            } catch (RuntimeException e) {
+                // Os lotes já confirmados ficam; o restante da empresa é tentado de novo na próxima execução
+                logger.warn("Transferência para o arquivo interrompida na empresa {}.", empresaId, e);
+            }
+        }
+        if (total > 0) {
+            logger.info("Transferência para o arquivo: {} OS arquivadas saíram das tabelas ativas.", total);
+        }
+        return total;
+    }
+
+    private int transferirLote(Long empresaId) {
+        Integer transferidas = transactionTemplate.execute(status -> {
+            // Pelo índice (empresa_id, status, ...), sem ORDER BY: a ordem não importa e o banco para no limite,
+            // em vez de ordenar todas as arquivadas da empresa a cada lote. As OS ficam travadas (FOR UPDATE) até o
+            // commit: uma escrita concorrente nelas espera a transferência terminar
+            List<Long> ids = entityManager.createQuery("select os.id from OrdemDeServico os where os.empresa.id = :empresaId " +
+                            "and os.status = br.com.kandu.enums.StatusOS.ARQUIVADA", Long.class)
+                    .setParameter("empresaId", empresaId)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .setMaxResults(tamanhoLote)
+                    .getResultList();
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            int copiadas = executar(COPIAR_OS, ids, true);
+            executar(COPIAR_PARTICIPANTES, ids, false);
+            executar(COPIAR_HISTORICO, ids, false);
+            executar(APAGAR_HISTORICO_COPIADO, ids, false);
+            executar(APAGAR_PARTICIPANTES_COPIADOS, ids, false);
+            int apagadas = executar("delete from ordens_servico where id in (:ids) and status = 'ARQUIVADA'", ids, false);
+            if (apagadas != copiadas) {
+                // ARQUIVADA não tem saída no ciclo de vida; se mesmo assim algo mudou, o lote é desfeito e refeito depois
+                throw new IllegalStateException("O lote de transferência para o arquivo mudou durante a cópia.");
+            }
+            return copiadas;
+        });
+        return transferidas == null ? 0 : transferidas;
+    }
+
+    private int executar(String sql, List<Long> ids, boolean comData) {
+        Query comando = entityManager.createNativeQuery(sql).setParameter("ids", ids);
+        if (comData) {
+            comando.setParameter("agora", LocalDateTime.now());
+        }
+        return comando.executeUpdate();
+    }
+}
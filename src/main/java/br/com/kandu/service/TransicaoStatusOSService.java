@@ -0,0 +1,179 @@
+// src/main/java/br/com/kandu/service/TransicaoStatusOSService.java
+package br.com.kandu.service;
+
+import br.com.kandu.dto.ResultadoTransicoesDTO;
+import br.com.kandu.dto.TransicaoStatusDTO;
+import br.com.kandu.entity.LogHistoricoOS;
+import br.com.kandu.entity.OrdemDeServico;
+import br.com.kandu.entity.Usuario;
+import br.com.kandu.enums.NivelHierarquia;
+import br.com.kandu.enums.StatusOS;
+import br.com.kandu.repository.OrdemDeServicoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Aplica lotes de transições de status (POST /api/os/transitions) em uma única transação.
+ * Por que foi implementado: os encarregados encerram o turno inteiro de uma vez, e mover centenas de OS uma a uma
+ * custava uma requisição, uma leitura, um UPDATE e um INSERT de log por OS. Aqui o lote é validado por inteiro
+ * a partir de uma única consulta de projeção (sem carregar as entidades) e aplicado com um UPDATE em massa por par
+ * (status atual, novo status); os logs são gravados em lotes JDBC (hibernate.jdbc.batch_size). O número de comandos
+ * depende de quantos pares distintos há no lote, não do número de OS. Se qualquer item for inválido, nada é aplicado.
+ */
+@Service
+public class TransicaoStatusOSService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final OrdemDeServicoRepository osRepository;
+    private final UsuarioService usuarioService;
+    private final MaquinaDeEstadosOS maquinaDeEstados;
+    private final ContadorStatusOSService contadorStatus;
+    private final CarimboAlteracoesOSService carimboAlteracoes;
+    private final BuscaTextoOSService buscaTexto;
+    private final int loteMaximo;
+
+    @Autowired
+    public TransicaoStatusOSService(OrdemDeServicoRepository osRepository, UsuarioService usuarioService,
+                                    MaquinaDeEstadosOS maquinaDeEstados, ContadorStatusOSService contadorStatus,
+                                    CarimboAlteracoesOSService carimboAlteracoes, BuscaTextoOSService buscaTexto,
+                                    @Value("${kandu.os.transicoes.lote-maximo:500}") int loteMaximo) {
+        this.osRepository = osRepository;
+        this.usuarioService = usuarioService;
+        this.maquinaDeEstados = maquinaDeEstados;
+        this.contadorStatus = contadorStatus;
+        this.carimboAlteracoes = carimboAlteracoes;
+        this.buscaTexto = buscaTexto;
+        this.loteMaximo = loteMaximo;
+    }
+
+    /**
+     * Valida e aplica um lote de transições. OS que já estão no status pedido são ignoradas.
+     *
+     * @throws IllegalArgumentException          se o lote for vazio, grande demais, repetir uma OS ou citar uma OS inexistente.
+     * @throws SecurityException                 se alguma OS for de outra empresa ou exigir um nível acima do utilizador.
+     * @throws IllegalStateException             se alguma transição não existir no ciclo de vida.
+     * @throws OptimisticLockingFailureException se outra operação mudar o status de uma OS do lote durante a aplicação.
+     */
+    @Transactional
+    public ResultadoTransicoesDTO aplicar(List<TransicaoStatusDTO> transicoes) {
+        if (transicoes == null || transicoes.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma transição informada.");
+        }
+        if (transicoes.size() > loteMaximo) {
+            throw new IllegalArgumentException("O lote pode ter no máximo " + loteMaximo + " transições.");
+        }
+        Usuario utilizadorLogado = usuarioService.getUsuarioAutenticado();
+
+        Map<Long, StatusOS> destinoPorOS = new LinkedHashMap<>();
+        for (TransicaoStatusDTO transicao : transicoes) {
+            if (transicao.getOsId() == null || transicao.getStatus() == null) {
+                throw new IllegalArgumentException("Cada transição precisa de osId e status.");
+            }
+            if (destinoPorOS.put(transicao.getOsId(), transicao.getStatus()) != null) {
+                throw new IllegalArgumentException("A OS " + transicao.getOsId() + " aparece mais de uma vez no lote.");
+            }
+        }
+        Map<Long, OrdemDeServicoRepository.EstadoOS> estados = osRepository.findEstadosByIdIn(destinoPorOS.keySet()).stream()
+                .collect(Collectors.toMap(OrdemDeServicoRepository.EstadoOS::getId, Function.identity()));
+
+        // Origem -> destino -> OS; cada par vira um UPDATE e um INSERT de logs
+        Map<StatusOS, Map<StatusOS, List<Long>>> grupos = new EnumMap<>(StatusOS.class);
+        int ignoradas = 0;
+        for (Map.Entry<Long, StatusOS> item : destinoPorOS.entrySet()) {
+            Long osId = item.getKey();
+            StatusOS destino = item.getValue();
+            OrdemDeServicoRepository.EstadoOS estado = estados.get(osId);
+            if (estado == null) {
+                throw new IllegalArgumentException("Ordem de Serviço não encontrada com o ID: " + osId);
+            }
+            if (utilizadorLogado.getNivelHierarquia() != NivelHierarquia.ADM &&
+                    !estado.getEmpresaId().equals(utilizadorLogado.getEmpresa().getId())) {
+                throw new SecurityException("Acesso negado à Ordem de Serviço de outra empresa.");
+            }
+            if (estado.getStatus() == destino) {
+                ignoradas++;
+                continue;
+            }
+            try {
+                maquinaDeEstados.verificar(estado.getStatus(), destino, utilizadorLogado.getNivelHierarquia());
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException("OS " + osId + ": " + e.getMessage());
+            } catch (SecurityException e) {
+                throw new SecurityException("OS " + osId + ": " + e.getMessage());
+            }
+            grupos.computeIfAbsent(estado.getStatus(), s -> new EnumMap<>(StatusOS.class))
+                    .computeIfAbsent(destino, s -> new ArrayList<>()).add(osId);
+        }
+
+        Usuario autor = entityManager.getReference(Usuario.class, utilizadorLogado.getId());
+        int aplicadas = 0;
+        for (Map.Entry<StatusOS, Map<StatusOS, List<Long>>> porOrigem : grupos.entrySet()) {
+            for (Map.Entry<StatusOS, List<Long>> porDestino : porOrigem.getValue().entrySet()) {
+                aplicadas += aplicarGrupo(porOrigem.getKey(), porDestino.getKey(), porDestino.getValue(), autor);
+            }
+        }
+
+        // Um registro por (empresa, origem, destino) no contador e por (empresa, destino) no índice de busca
+        Map<Long, Map<StatusOS, List<Long>>> porEmpresaEDestino = new HashMap<>();
+        grupos.forEach((origem, porDestino) -> porDestino.forEach((destino, ids) -> {
+            Map<Long, List<Long>> porEmpresa = ids.stream()
+                    .collect(Collectors.groupingBy(osId -> estados.get(osId).getEmpresaId()));
+            porEmpresa.forEach((empresaId, idsDaEmpresa) -> {
+                contadorStatus.registrarMudanca(empresaId, origem, destino, idsDaEmpresa.size());
+                porEmpresaEDestino.computeIfAbsent(empresaId, id -> new EnumMap<>(StatusOS.class))
+                        .computeIfAbsent(destino, d -> new ArrayList<>()).addAll(idsDaEmpresa);
+            });
+        }));
+        porEmpresaEDestino.forEach((empresaId, porDestino) -> {
+            porDestino.forEach((destino, ids) -> buscaTexto.registrarStatus(empresaId, ids, destino));
+            carimboAlteracoes.registrarAlteracao(empresaId);
+        });
+        return new ResultadoTransicoesDTO(aplicadas, ignoradas);
+    }
+
+    private int aplicarGrupo(StatusOS origem, StatusOS destino, List<Long> ids, Usuario autor) {
+        // A condição no status atual (e o incremento da versão) substitui o @Version, que o UPDATE em massa não usa
+        // Ao concluir ou cancelar, a data de encerramento começa a contar o prazo do arquivamento automático
+        String encerramento = destino.isEncerramento() ? ", os.dataEncerramento = :agora" : "";
+        Query update = entityManager.createQuery("update OrdemDeServico os set os.status = :destino, os.versao = os.versao + 1" +
+                        encerramento + " where os.id in :ids and os.status = :origem")
+                .setParameter("destino", destino)
+                .setParameter("origem", origem)
+                .setParameter("ids", ids);
+        if (destino.isEncerramento()) {
+            update.setParameter("agora", LocalDateTime.now());
+        }
+        int alteradas = update.executeUpdate();
+        if (alteradas != ids.size()) {
+            throw new OptimisticLockingFailureException("O status de alguma OS do lote foi alterado por outra operação; nada foi aplicado.");
+        }
+        for (Long osId : ids) { // Referências sem SELECT; os INSERTs saem agrupados no flush
+            entityManager.persist(LogHistoricoOS.builder()
+                    .ordemDeServico(entityManager.getReference(OrdemDeServico.class, osId))
+                    .usuarioResponsavelAcao(autor)
+                    .descricaoAcao("Status alterado em lote.")
+                    .dadosAntigos("status: " + origem)
+                    .dadosNovos("status: " + destino)
+                    .build());
+        }
+        return alteradas;
+    }
+}
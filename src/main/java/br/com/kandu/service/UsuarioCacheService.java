@@ -0,0 +1,167 @@
+// src/main/java/br/com/kandu/service/UsuarioCacheService.java
+package br.com.kandu.service;
+
+import br.com.kandu.entity.Empresa;
+import br.com.kandu.entity.Usuario;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Cache em memória dos usuários consultados para autenticação (por ID e por nome de usuário).
+ * Por que foi implementado: a busca do usuário é a consulta mais frequente do sistema e quase sempre
+ * retorna dados que não mudam há semanas. O cache guarda uma cópia desanexada do usuário (com a empresa)
+ * e devolve uma nova cópia a cada acerto, para que alterações feitas pelo chamador não contaminem o cache.
+ * Toda escrita em Usuario deve chamar {@link #invalidar(Usuario)}, para que a desativação de uma conta
+ * tenha efeito imediato.
+ */
+@Service
+public class UsuarioCacheService {
+
+    static final String NOME_CACHE = "usuarios";
+
+    private final Cache<Long, Usuario> porId;
+    private final Cache<String, Long> idPorNome;
+
+    @Autowired
+    public UsuarioCacheService(MeterRegistry meterRegistry,
+                               @Value("${kandu.usuarios.cache.max-size:10000}") long tamanhoMaximo,
+                               @Value("${kandu.usuarios.cache.ttl-minutes:10}") long ttlMinutos) {
+        this.porId = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos)) // Rede de segurança caso alguma escrita não invalide
+                .recordStats()
+                .build();
+        this.idPorNome = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .build();
+        // cache.gets (hit/miss), cache.size e cache.evictions, mais a taxa de acerto já calculada
+        CaffeineCacheMetrics.monitor(meterRegistry, porId, NOME_CACHE);
+        Gauge.builder("cache.hit.ratio", porId, c -> c.stats().hitRate())
+                .tag("cache", NOME_CACHE)
+                .description("Taxa de acerto do cache de usuários")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca um usuário em cache pelo ID.
+     *
+     * @return Uma cópia do usuário em cache, ou vazio se não estiver em cache.
+     */
+    public Optional<Usuario> buscarPorId(Long id) {
+        return Optional.ofNullable(porId.getIfPresent(id)).map(UsuarioCacheService::copiar);
+    }
+
+    /**
+     * Busca um usuário em cache pelo nome de usuário.
+     *
+     * @return Uma cópia do usuário em cache, ou vazio se não estiver em cache.
+     */
+    public Optional<Usuario> buscarPorNome(String nomeUsuario) {
+        Long id = idPorNome.getIfPresent(nomeUsuario);
+        if (id == null) {
+            return Optional.empty();
+        }
+        Optional<Usuario> usuario = buscarPorId(id);
+        if (usuario.isEmpty()) {
+            idPorNome.invalidate(nomeUsuario); // A entrada por ID já foi removida
+        }
+        return usuario;
+    }
+
+    /**
+     * Guarda no cache um usuário recém-carregado do banco.
+     * Só guarda usuários com a empresa já carregada, para que a cópia em cache nunca dependa de uma sessão aberta.
+     */
+    public void registrar(Usuario usuario) {
+        if (usuario == null || usuario.getId() == null || !Hibernate.isInitialized(usuario.getEmpresa())) {
+            return;
+        }
+        porId.put(usuario.getId(), copiar(usuario));
+        idPorNome.put(usuario.getNomeUsuario(), usuario.getId());
+    }
+
+    /**
+     * Remove um usuário do cache após uma alteração.
+     * A remoção é feita imediatamente e de novo após o commit, para que uma leitura concorrente feita
+     * antes do commit não recoloque a versão antiga no cache.
+     */
+    public void invalidar(Usuario usuario) {
+        Long id = usuario.getId();
+        String nomeUsuario = usuario.getNomeUsuario();
+        remover(id, nomeUsuario);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remover(id, nomeUsuario);
+                }
+            });
+        }
+    }
+
+    /**
+     * Esvazia o cache (ex: quando dados da empresa, copiados em cada usuário, são alterados).
+     */
+    public void invalidarTodos() {
+        porId.invalidateAll();
+        idPorNome.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    porId.invalidateAll();
+                    idPorNome.invalidateAll();
+                }
+            });
+        }
+    }
+
+    private void remover(Long id, String nomeUsuario) {
+        if (id != null) {
+            porId.invalidate(id);
+        }
+        if (nomeUsuario != null) {
+            idPorNome.invalidate(nomeUsuario);
+        }
+    }
+
+    // Cópia rasa e desanexada: relacionamentos da empresa e participações não são copiados
+    private static Usuario copiar(Usuario origem) {
+        Empresa empresa = origem.getEmpresa();
+        Empresa copiaEmpresa = empresa == null ? null : Empresa.builder()
+                .id(empresa.getId())
+                .nome(empresa.getNome())
+                .codigoInscricao(empresa.getCodigoInscricao())
+                .build();
+        return Usuario.builder()
+                .id(origem.getId())
+                .nomeCompleto(origem.getNomeCompleto())
+                .nomeUsuario(origem.getNomeUsuario())
+                .email(origem.getEmail())
+                .senha(origem.getSenha())
+                .nivelHierarquia(origem.getNivelHierarquia())
+                .funcao(origem.getFuncao())
+                .ativo(origem.isAtivo())
+                .versaoConta(origem.getVersaoConta())
+                .empresa(copiaEmpresa)
+                .build();
+    }
+
+    long tamanhoEstimado() {
+        porId.cleanUp();
+        return porId.estimatedSize();
+    }
+}
@@ -2,6 +2,7 @@
 package br.com.kandu.service;
 
 import br.com.kandu.dto.LoginDTO;
+import br.com.kandu.dto.TokenDTO;
 import br.com.kandu.dto.UsuarioAdminCriacaoDTO;
 import br.com.kandu.dto.UsuarioAdminAtualizacaoDTO;
 import br.com.kandu.dto.UsuarioCadastroDTO;
@@ -9,6 +10,7 @@ import br.com.kandu.entity.Empresa;
 import br.com.kandu.entity.Usuario;
 import br.com.kandu.enums.NivelHierarquia;
 import br.com.kandu.repository.UsuarioRepository;
+import br.com.kandu.security.KanduPrincipal;
 import br.com.kandu.security.jwt.JwtTokenProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -17,6 +19,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,20 +28,32 @@ import java.util.Optional;
 @Service
 public class UsuarioService {
 
+    // Atributo da requisição onde o usuário autenticado fica guardado depois da primeira consulta
+    private static final String ATRIBUTO_USUARIO_AUTENTICADO = UsuarioService.class.getName() + ".USUARIO_AUTENTICADO";
+
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final EmpresaService empresaService;
+    private final VersaoContaService versaoContaService;
+    private final UsuarioCacheService usuarioCache;
+    private final RefreshTokenService refreshTokenService;
 
     @Autowired
     public UsuarioService(UsuarioRepository usuarioRepository,
                           PasswordEncoder passwordEncoder,
                           JwtTokenProvider jwtTokenProvider,
-                          EmpresaService empresaService) {
+                          EmpresaService empresaService,
+                          VersaoContaService versaoContaService,
+                          UsuarioCacheService usuarioCache,
+                          RefreshTokenService refreshTokenService) {
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenProvider = jwtTokenProvider;
         this.empresaService = empresaService;
+        this.versaoContaService = versaoContaService;
+        this.usuarioCache = usuarioCache;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @Transactional
@@ -67,14 +83,17 @@ public class UsuarioService {
         novoUsuario.setNivelHierarquia(NivelHierarquia.COMUM);
         novoUsuario.setAtivo(true);
         novoUsuario.setEmpresa(empresaAssociada);
-        return usuarioRepository.save(novoUsuario);
+        Usuario usuarioSalvo = usuarioRepository.save(novoUsuario);
+        usuarioCache.invalidar(usuarioSalvo);
+        return usuarioSalvo;
     }
 
-    public String autenticar(LoginDTO loginDTO) {
+    public TokenDTO autenticar(LoginDTO loginDTO) {
         if (loginDTO.getNomeUsuario() == null || loginDTO.getNomeUsuario().trim().isEmpty() ||
                 loginDTO.getSenha() == null || loginDTO.getSenha().isEmpty()) {
             throw new BadCredentialsException("Nome de usuário e senha são obrigatórios.");
         }
+        // O login sempre lê do banco (sem cache): senha e status precisam estar atualizados
         Usuario usuario = usuarioRepository.findByNomeUsuario(loginDTO.getNomeUsuario().trim())
                 .orElseThrow(() -> new BadCredentialsException("Usuário não encontrado ou credenciais inválidas."));
 
@@ -84,7 +103,14 @@ public class UsuarioService {
         if (!passwordEncoder.matches(loginDTO.getSenha(), usuario.getSenha())) {
             throw new BadCredentialsException("Usuário não encontrado ou credenciais inválidas.");
         }
-        return jwtTokenProvider.generateToken(usuario);
+        // Senha gravada com outro custo de BCrypt: regrava com o custo atual, aproveitando a senha em claro do login
+        if (passwordEncoder.upgradeEncoding(usuario.getSenha())) {
+            usuario.setSenha(passwordEncoder.encode(loginDTO.getSenha()));
+            usuarioRepository.save(usuario);
+            usuarioCache.invalidar(usuario);
+        }
+        versaoContaService.registrar(usuario.getId(), usuario.getVersaoConta());
+        return new TokenDTO(jwtTokenProvider.generateToken(usuario), refreshTokenService.emitir(usuario));
     }
 
     public Usuario getUsuarioAutenticado() {
@@ -93,8 +119,29 @@ public class UsuarioService {
             throw new IllegalStateException("Nenhum utilizador autenticado encontrado no contexto de segurança.");
         }
         String nomeUsuarioAutenticado = authentication.getName();
-        return usuarioRepository.findByNomeUsuario(nomeUsuarioAutenticado)
+
+        // Resolvido no máximo uma vez por requisição: os serviços chamam este método várias vezes
+        // no mesmo fluxo (ex: deletarOS -> buscarOSPorId). Fora de uma requisição HTTP, consulta sempre.
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos != null
+                && atributos.getAttribute(ATRIBUTO_USUARIO_AUTENTICADO, RequestAttributes.SCOPE_REQUEST) instanceof Usuario emCache
+                && nomeUsuarioAutenticado.equals(emCache.getNomeUsuario())) {
+            return emCache;
+        }
+
+        // Depois da requisição, o cache de usuários; só então o banco (já trazendo a empresa)
+        Optional<Usuario> encontrado = authentication.getPrincipal() instanceof KanduPrincipal principal
+                ? usuarioCache.buscarPorId(principal.getId())
+                        .or(() -> carregarEmCache(usuarioRepository.findComEmpresaById(principal.getId())))
+                : usuarioCache.buscarPorNome(nomeUsuarioAutenticado)
+                        .or(() -> carregarEmCache(usuarioRepository.findComEmpresaByNomeUsuario(nomeUsuarioAutenticado)));
+        Usuario usuario = encontrado
                 .orElseThrow(() -> new IllegalStateException("Utilizador autenticado '" + nomeUsuarioAutenticado + "' não foi encontrado no banco de dados."));
+
+        if (atributos != null) {
+            atributos.setAttribute(ATRIBUTO_USUARIO_AUTENTICADO, usuario, RequestAttributes.SCOPE_REQUEST);
+        }
+        return usuario;
     }
 
     @Transactional(readOnly = true)
@@ -134,13 +181,15 @@ public class UsuarioService {
         novoUsuario.setAtivo(true);
         novoUsuario.setEmpresa(empresaDoAdmin);
 
-        return usuarioRepository.save(novoUsuario);
+        Usuario usuarioSalvo = usuarioRepository.save(novoUsuario);
+        usuarioCache.invalidar(usuarioSalvo);
+        return usuarioSalvo;
     }
 
     @Transactional
     public Usuario atualizarUsuarioPorAdmin(Long usuarioIdParaAtualizar, UsuarioAdminAtualizacaoDTO dto) {
         Usuario adminLogado = getUsuarioAutenticado();
-        Usuario usuarioParaAtualizar = usuarioRepository.findById(usuarioIdParaAtualizar)
+        Usuario usuarioParaAtualizar = usuarioRepository.findComEmpresaById(usuarioIdParaAtualizar)
                 .orElseThrow(() -> new IllegalArgumentException("Usuário a ser atualizado não encontrado com ID: " + usuarioIdParaAtualizar));
 
         if (!usuarioParaAtualizar.getEmpresa().getId().equals(adminLogado.getEmpresa().getId()) && adminLogado.getNivelHierarquia() != NivelHierarquia.ADM) {
@@ -149,6 +198,9 @@ public class UsuarioService {
 
         validarPermissaoHierarquica(adminLogado.getNivelHierarquia(), dto.getNivelHierarquia(), true, usuarioParaAtualizar.getNivelHierarquia(), adminLogado.getId().equals(usuarioIdParaAtualizar));
 
+        NivelHierarquia nivelAnterior = usuarioParaAtualizar.getNivelHierarquia();
+        boolean ativoAnterior = usuarioParaAtualizar.isAtivo();
+
         if (dto.getNivelHierarquia() != null) {
             usuarioParaAtualizar.setNivelHierarquia(dto.getNivelHierarquia());
         }
@@ -162,7 +214,20 @@ public class UsuarioService {
             usuarioParaAtualizar.setAtivo(dto.getAtivo());
         }
 
-        return usuarioRepository.save(usuarioParaAtualizar);
+        // Mudança de nível ou de status invalida os tokens já emitidos para a conta
+        if (usuarioParaAtualizar.getNivelHierarquia() != nivelAnterior || usuarioParaAtualizar.isAtivo() != ativoAnterior) {
+            usuarioParaAtualizar.setVersaoConta(usuarioParaAtualizar.getVersaoConta() + 1);
+            versaoContaService.invalidar(usuarioParaAtualizar.getId());
+        }
+
+        Usuario usuarioSalvo = usuarioRepository.save(usuarioParaAtualizar);
+        usuarioCache.invalidar(usuarioSalvo);
+        return usuarioSalvo;
+    }
+
+    private Optional<Usuario> carregarEmCache(Optional<Usuario> carregado) {
+        carregado.ifPresent(usuarioCache::registrar);
+        return carregado;
     }
 
     private void validarPermissaoHierarquica(NivelHierarquia adminNivel, NivelHierarquia alvoNivel, boolean isUpdate, NivelHierarquia alvoNivelAtual, boolean isAdminModificandoASiMesmo) {
@@ -181,7 +246,7 @@ public class UsuarioService {
 
     public Usuario buscarUsuarioPorIdNaEmpresa(Long usuarioId) {
         Usuario adminLogado = getUsuarioAutenticado();
-        Usuario usuario = usuarioRepository.findById(usuarioId)
+        Usuario usuario = usuarioRepository.findComEmpresaById(usuarioId) // A resposta exibe o nome da empresa
                 .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado com ID: " + usuarioId));
 
         if (adminLogado.getNivelHierarquia() != NivelHierarquia.ADM && !usuario.getEmpresa().getId().equals(adminLogado.getEmpresa().getId())) {
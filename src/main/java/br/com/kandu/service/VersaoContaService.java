@@ -0,0 +1,87 @@
+// src/main/java/br/com/kandu/service/VersaoContaService.java
+package br.com.kandu.service;
+
+import br.com.kandu.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Checagem de revogação dos tokens JWT pela versão da conta.
+ * Por que foi implementado: o filtro de autenticação deixou de carregar o Usuario a cada requisição,
+ * mas ainda precisa recusar tokens de contas desativadas ou que mudaram de nível. O token carrega a
+ * versão da conta no momento do login; aqui comparamos com a versão atual, mantida em memória por
+ * poucos segundos para que a consulta ao banco aconteça no máximo uma vez por usuário nesse intervalo.
+ */
+@Service
+public class VersaoContaService {
+
+    static final String NOME_CACHE = "usuarios.versao-conta";
+
+    // Marcador para contas inativas ou inexistentes (o Caffeine não armazena valores nulos)
+    private static final long CONTA_INDISPONIVEL = -1L;
+
+    private final UsuarioRepository usuarioRepository;
+    private final LoadingCache<Long, Long> versoes;
+
+    @Autowired
+    public VersaoContaService(UsuarioRepository usuarioRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${kandu.jwt.versao-conta.ttl-seconds:60}") long ttlSegundos) {
+        this.usuarioRepository = usuarioRepository;
+        this.versoes = Caffeine.newBuilder()
+                .maximumSize(50_000)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats()
+                .build(this::carregarVersao);
+        CaffeineCacheMetrics.monitor(meterRegistry, versoes, NOME_CACHE);
+    }
+
+    /**
+     * Verifica se a versão da conta informada no token ainda é a versão atual de uma conta ativa.
+     *
+     * @param usuarioId   O ID do usuário (claim do token).
+     * @param versaoToken A versão da conta gravada no token.
+     * @return true se o token ainda deve ser aceito.
+     */
+    public boolean isVersaoValida(Long usuarioId, long versaoToken) {
+        Long atual = versoes.get(usuarioId);
+        return atual != null && atual != CONTA_INDISPONIVEL && atual == versaoToken;
+    }
+
+    /**
+     * Registra a versão atual de uma conta (ex: no login), evitando a consulta na primeira requisição.
+     */
+    public void registrar(Long usuarioId, long versaoConta) {
+        versoes.put(usuarioId, versaoConta);
+    }
+
+    /**
+     * Descarta a versão em memória de uma conta alterada.
+     * A entrada é removida imediatamente e de novo após o commit, para que uma leitura concorrente
+     * feita antes do commit não deixe a versão antiga em cache até o fim do TTL.
+     */
+    public void invalidar(Long usuarioId) {
+        versoes.invalidate(usuarioId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versoes.invalidate(usuarioId);
+                }
+            });
+        }
+    }
+
+    private Long carregarVersao(Long usuarioId) {
+        return usuarioRepository.findVersaoContaAtivaById(usuarioId).orElse(CONTA_INDISPONIVEL);
+    }
+}
@@ -0,0 +1,119 @@
+-- V1: esquema inicial do Kandu (tabelas, chaves primárias, restrições únicas e chaves estrangeiras).
+-- Equivalente ao que o ddl-auto=update gerava a partir das entidades. A partir daqui o esquema é
+-- mantido pelos scripts versionados, aplicados uma única vez pelo Flyway, e o Hibernate apenas o valida.
+-- Os status são varchar com check, e não o enum do H2, para que o script sirva também em outros bancos.
+
+create table empresas (
+    id bigint generated by default as identity,
+    codigo_inscricao varchar(20) not null unique,
+    nome varchar(100) not null,
+    primary key (id)
+);
+
+create table usuarios (
+    ativo boolean not null,
+    empresa_id bigint not null,
+    id bigint generated by default as identity,
+    versao_conta bigint not null,
+    nome_usuario varchar(50) not null,
+    email varchar(100) not null,
+    funcao varchar(100),
+    nome_completo varchar(150) not null,
+    senha varchar(255) not null,
+    nivel_hierarquia varchar(30) not null check (nivel_hierarquia in ('ADM','COMUM','DIRETOR','GESTOR','SUPERVISOR')),
+    primary key (id),
+    constraint uk_usuario_nome_usuario unique (nome_usuario),
+    constraint uk_usuario_email unique (email)
+);
+
+create table ordens_servico (
+    prazo date,
+    projeto_privado boolean not null,
+    criador_id bigint not null,
+    data_cadastro timestamp(6) not null,
+    empresa_id bigint not null,
+    id bigint generated by default as identity,
+    responsavel_id bigint,
+    titulo varchar(200) not null,
+    descricao text not null,
+    local varchar(255),
+    requisitos text,
+    status varchar(30) not null check (status in ('ABERTA','ARQUIVADA','CANCELADA','CONCLUIDA','EM_ANDAMENTO','PENDENTE_APROVACAO')),
+    primary key (id)
+);
+
+create table participantes_os (
+    data_inclusao timestamp(6) not null,
+    data_saida timestamp(6),
+    id bigint generated by default as identity,
+    ordem_servico_id bigint not null,
+    usuario_id bigint not null,
+    primary key (id),
+    constraint uk_participante_os unique (ordem_servico_id, usuario_id)
+);
+
+create table log_historico_os (
+    id bigint generated by default as identity,
+    ordem_servico_id bigint not null,
+    timestamp timestamp(6) not null,
+    usuario_responsavel_acao_id bigint not null,
+    dados_antigos text,
+    dados_novos text,
+    descricao_acao varchar(255) not null,
+    primary key (id)
+);
+
+create table refresh_tokens (
+    revogado boolean not null,
+    criado_em timestamp(6) not null,
+    expira_em timestamp(6) not null,
+    id bigint generated by default as identity,
+    usado_em timestamp(6),
+    usuario_id bigint not null,
+    familia varchar(36) not null,
+    hash varchar(64) not null,
+    primary key (id),
+    constraint uk_refresh_token_hash unique (hash)
+);
+
+create table tokens_revogados (
+    expira_em timestamp(6) not null,
+    id bigint generated by default as identity,
+    revogado_em timestamp(6) not null,
+    usuario_id bigint,
+    jti varchar(36) not null,
+    primary key (id),
+    constraint uk_token_revogado_jti unique (jti)
+);
+
+create table chaves_api (
+    ativa boolean not null,
+    conta_servico_id bigint not null,
+    criada_em timestamp(6) not null,
+    empresa_id bigint not null,
+    id bigint generated by default as identity,
+    revogada_em timestamp(6),
+    prefixo varchar(16) not null,
+    hash varchar(64) not null,
+    descricao varchar(150),
+    primary key (id),
+    constraint uk_chave_api_prefixo unique (prefixo)
+);
+
+alter table usuarios add constraint fk_usuario_empresa foreign key (empresa_id) references empresas (id);
+alter table ordens_servico add constraint fk_os_empresa foreign key (empresa_id) references empresas (id);
+alter table ordens_servico add constraint fk_os_criador foreign key (criador_id) references usuarios (id);
+alter table ordens_servico add constraint fk_os_responsavel foreign key (responsavel_id) references usuarios (id);
+alter table participantes_os add constraint fk_participante_os foreign key (ordem_servico_id) references ordens_servico (id);
+alter table participantes_os add constraint fk_participante_usuario foreign key (usuario_id) references usuarios (id);
+alter table log_historico_os add constraint fk_log_os foreign key (ordem_servico_id) references ordens_servico (id);
+alter table log_historico_os add constraint fk_log_usuario foreign key (usuario_responsavel_acao_id) references usuarios (id);
+alter table refresh_tokens add constraint fk_refresh_token_usuario foreign key (usuario_id) references usuarios (id);
+alter table chaves_api add constraint fk_chave_api_empresa foreign key (empresa_id) references empresas (id);
+alter table chaves_api add constraint fk_chave_api_conta_servico foreign key (conta_servico_id) references usuarios (id);
+
+-- Tabelas de autenticação: limpeza por expiração e revogação por família/empresa
+create index idx_refresh_token_familia on refresh_tokens (familia);
+create index idx_refresh_token_expira_em on refresh_tokens (expira_em);
+create index idx_token_revogado_expira_em on tokens_revogados (expira_em);
+create index idx_chave_api_empresa on chaves_api (empresa_id);
@@ -0,0 +1,21 @@
+-- V2: índices compostos para os caminhos de acesso mais frequentes das Ordens de Serviço.
+-- Cada índice começa pela coluna de igualdade mais seletiva da consulta que atende e termina
+-- pela coluna de ordenação, para que o banco leia só as linhas da página, já na ordem certa.
+-- O PlanoDeConsultaTest verifica com EXPLAIN que as consultas de OS continuam usando o seu índice.
+
+-- findByEmpresaIdAndStatus e o filtro por status (OrdemDeServicoSpecs)
+create index idx_os_empresa_status on ordens_servico (empresa_id, status, data_cadastro);
+
+-- buscarPaginaDoCriadorApos (listagem das próprias OS) e o filtro por criador
+create index idx_os_empresa_criador_data_cadastro on ordens_servico (empresa_id, criador_id, data_cadastro, id);
+
+-- findByEmpresaIdAndResponsavelId e o filtro por responsável
+create index idx_os_empresa_responsavel on ordens_servico (empresa_id, responsavel_id, data_cadastro);
+
+-- buscarPaginaDaEmpresaApos (listagem por cursor) e o filtro por intervalo de prazo
+create index idx_os_empresa_data_cadastro on ordens_servico (empresa_id, data_cadastro, id);
+create index idx_os_empresa_prazo on ordens_servico (empresa_id, prazo);
+
+-- findByOrdemDeServicoIdOrderByTimestampDesc (histórico da OS, mais recente primeiro, sem ORDER BY em memória
+-- nos bancos que percorrem o índice de trás para frente)
+create index idx_log_os_timestamp on log_historico_os (ordem_servico_id, timestamp);
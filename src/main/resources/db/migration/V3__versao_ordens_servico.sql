@@ -0,0 +1,4 @@
+-- V3: versão das Ordens de Serviço (@Version), usada como ETag do detalhe e no controle de concorrência.
+-- As OS existentes começam na versão 0, como as novas.
+
+alter table ordens_servico add column versao bigint default 0 not null;
@@ -0,0 +1,35 @@
+-- V4: sequências para os ids das tabelas mais escritas, no lugar do IDENTITY.
+-- Com IDENTITY o Hibernate precisa executar cada INSERT na hora para descobrir o id, e não consegue
+-- agrupá-los em lotes JDBC. Com uma sequência e o otimizador pooled-lo (hibernate.id.optimizer.pooled.preferred),
+-- cada chamada à sequência reserva um bloco de 50 ids, que a aplicação distribui em memória.
+-- O incremento precisa ser igual ao allocationSize das entidades (o ddl-auto=validate confere).
+--
+-- As colunas deixam de ser identity e passam a ter a própria sequência como default: uma linha gravada por fora
+-- da aplicação consome um valor da sequência, ou seja, um bloco inteiro de 50 ids que nenhuma instância vai
+-- distribuir. (Com o identity, ela receberia um id do contador do identity, que não sabe dos blocos reservados
+-- pela aplicação, e colidiria com eles.) Cada sequência começa depois do maior id gravado até esta versão.
+-- (Em PostgreSQL, o equivalente é drop identity, set default nextval('seq_...') e setval com max(id) + 1.)
+
+create sequence seq_empresas start with 1 increment by 50;
+create sequence seq_usuarios start with 1 increment by 50;
+create sequence seq_ordens_servico start with 1 increment by 50;
+create sequence seq_participantes_os start with 1 increment by 50;
+create sequence seq_log_historico_os start with 1 increment by 50;
+
+alter sequence seq_empresas restart with (select coalesce(max(id), 0) + 1 from empresas);
+alter sequence seq_usuarios restart with (select coalesce(max(id), 0) + 1 from usuarios);
+alter sequence seq_ordens_servico restart with (select coalesce(max(id), 0) + 1 from ordens_servico);
+alter sequence seq_participantes_os restart with (select coalesce(max(id), 0) + 1 from participantes_os);
+alter sequence seq_log_historico_os restart with (select coalesce(max(id), 0) + 1 from log_historico_os);
+
+alter table empresas alter column id drop identity;
+alter table usuarios alter column id drop identity;
+alter table ordens_servico alter column id drop identity;
+alter table participantes_os alter column id drop identity;
+alter table log_historico_os alter column id drop identity;
+
+alter table empresas alter column id set default next value for seq_empresas;
+alter table usuarios alter column id set default next value for seq_usuarios;
+alter table ordens_servico alter column id set default next value for seq_ordens_servico;
+alter table participantes_os alter column id set default next value for seq_participantes_os;
+alter table log_historico_os alter column id set default next value for seq_log_historico_os;
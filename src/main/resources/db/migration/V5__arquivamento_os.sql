@@ -0,0 +1,30 @@
+-- V5: arquivamento automático das OS encerradas (ArquivamentoOSService).
+-- data_encerramento guarda quando a OS foi concluída ou cancelada; é o que o job compara com o prazo de
+-- arquivamento da empresa (empresas.dias_para_arquivar, ou o padrão da aplicação quando nulo).
+-- As OS já encerradas antes desta versão usam a data do último registro de histórico (ou a de cadastro).
+
+alter table ordens_servico add column data_encerramento timestamp(6);
+alter table empresas add column dias_para_arquivar integer;
+
+update ordens_servico os set data_encerramento = coalesce(
+        (select max(l.timestamp) from log_historico_os l where l.ordem_servico_id = os.id), os.data_cadastro)
+    where os.status in ('CONCLUIDA', 'CANCELADA') and os.data_encerramento is null;
+
+-- Seleção de cada lote do job: OS da empresa em um status de encerramento, mais antigas primeiro
+create index idx_os_empresa_status_encerramento on ordens_servico (empresa_id, status, data_encerramento);
+
+-- Um registro por lote arquivado (e não um por OS), com o intervalo de ids afetado
+create table log_arquivamento_os (
+    id bigint generated by default as identity,
+    empresa_id bigint not null,
+    timestamp timestamp(6) not null,
+    status_anterior varchar(30) not null,
+    quantidade integer not null,
+    primeiro_os_id bigint not null,
+    ultimo_os_id bigint not null,
+    encerradas_antes_de timestamp(6) not null,
+    primary key (id)
+);
+
+alter table log_arquivamento_os add constraint fk_log_arquivamento_empresa foreign key (empresa_id) references empresas (id);
+create index idx_log_arquivamento_empresa on log_arquivamento_os (empresa_id, timestamp);
@@ -0,0 +1,55 @@
+-- V6: tabelas de arquivo das OS ARQUIVADA (TransferenciaArquivoOSService).
+-- As OS arquivadas, com os seus participantes e o seu histórico, saem das tabelas usadas no dia a dia e vêm para
+-- cá em lotes. As colunas são as mesmas das tabelas de origem (os ids são mantidos), mais a data da transferência.
+-- Não há sequência nem identity: toda linha chega aqui com o id que já tinha.
+
+create table ordens_servico_arquivo (
+    id bigint not null,
+    prazo date,
+    projeto_privado boolean not null,
+    criador_id bigint not null,
+    data_cadastro timestamp(6) not null,
+    empresa_id bigint not null,
+    responsavel_id bigint,
+    titulo varchar(200) not null,
+    descricao text not null,
+    local varchar(255),
+    requisitos text,
+    status varchar(30) not null check (status in ('ABERTA','ARQUIVADA','CANCELADA','CONCLUIDA','EM_ANDAMENTO','PENDENTE_APROVACAO')),
+    versao bigint not null,
+    data_encerramento timestamp(6),
+    transferida_em timestamp(6) not null,
+    primary key (id)
+);
+
+create table participantes_os_arquivo (
+    id bigint not null,
+    data_inclusao timestamp(6) not null,
+    data_saida timestamp(6),
+    ordem_servico_id bigint not null,
+    usuario_id bigint not null,
+    primary key (id)
+);
+
+create table log_historico_os_arquivo (
+    id bigint not null,
+    ordem_servico_id bigint not null,
+    timestamp timestamp(6) not null,
+    usuario_responsavel_acao_id bigint not null,
+    dados_antigos text,
+    dados_novos text,
+    descricao_acao varchar(255) not null,
+    primary key (id)
+);
+
+alter table ordens_servico_arquivo add constraint fk_os_arquivo_empresa foreign key (empresa_id) references empresas (id);
+alter table ordens_servico_arquivo add constraint fk_os_arquivo_criador foreign key (criador_id) references usuarios (id);
+alter table ordens_servico_arquivo add constraint fk_os_arquivo_responsavel foreign key (responsavel_id) references usuarios (id);
+alter table participantes_os_arquivo add constraint fk_participante_arquivo_os foreign key (ordem_servico_id) references ordens_servico_arquivo (id);
+alter table log_historico_os_arquivo add constraint fk_log_arquivo_os foreign key (ordem_servico_id) references ordens_servico_arquivo (id);
+
+-- A busca com arquivadas percorre o arquivo na mesma ordem da listagem (data de cadastro, id)
+create index idx_os_arquivo_empresa_data_cadastro on ordens_servico_arquivo (empresa_id, data_cadastro, id);
+create index idx_os_arquivo_empresa_criador on ordens_servico_arquivo (empresa_id, criador_id, data_cadastro, id);
+create index idx_participante_arquivo_os on participantes_os_arquivo (ordem_servico_id);
+create index idx_log_arquivo_os on log_historico_os_arquivo (ordem_servico_id, timestamp);
@@ -0,0 +1,5 @@
+-- V7: carimbo de alterações das OS de cada empresa, usado como ETag das listagens (CarimboAlteracoesOSService).
+-- Fica no banco para que todas as instâncias da aplicação vejam o mesmo valor; só é lido e alterado por SQL
+-- nativo, sem mapeamento na entidade Empresa, para que um UPDATE da empresa nunca grave um carimbo antigo.
+
+alter table empresas add column carimbo_os bigint default 0 not null;
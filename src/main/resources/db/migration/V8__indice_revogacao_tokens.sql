@@ -0,0 +1,4 @@
+-- V8: índice de tokens_revogados por data da revogação.
+-- Cada instância lê periodicamente as revogações recentes para o seu filtro de Bloom (TokenRevogacaoService).
+
+create index idx_token_revogado_revogado_em on tokens_revogados (revogado_em);
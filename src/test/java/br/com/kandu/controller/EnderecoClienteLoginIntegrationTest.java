@@ -0,0 +1,47 @@
+// src/test/java/br/com/kandu/controller/EnderecoClienteLoginIntegrationTest.java
+package br.com.kandu.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Servidor real (e não MockMvc): quem resolve o X-Forwarded-For é o Tomcat
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "kandu.login.limite.ip.capacidade=2",
+        "kandu.login.limite.ip.recarga-por-minuto=1"
+})
+@ActiveProfiles("test")
+public class EnderecoClienteLoginIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private HttpStatus login(String nomeUsuario, String encaminhadoPara) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", encaminhadoPara);
+        String corpo = "{\"nomeUsuario\":\"" + nomeUsuario + "\",\"senha\":\"errada\"}";
+        return HttpStatus.valueOf(restTemplate.postForEntity("/auth/login", new HttpEntity<>(corpo, headers), String.class)
+                .getStatusCode().value());
+    }
+
+    @Test
+    @DisplayName("Atrás de um proxy confiável, cada cliente deve ter o próprio balde de IP")
+    void deveLimitarPeloEnderecoDoClienteEncaminhadoPeloProxy() {
+        // A conexão vem de 127.0.0.1 (proxy confiável); o cliente é o primeiro endereço do X-Forwarded-For
+        assertThat(login("ip_a1", "203.0.113.10")).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(login("ip_a2", "203.0.113.10")).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(login("ip_a3", "203.0.113.10")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        assertThat(login("ip_b1", "198.51.100.20")).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+}
@@ -3,14 +3,24 @@ package br.com.kandu.controller;
 
 import br.com.kandu.dto.OrdemDeServicoCriacaoDTO;
 import br.com.kandu.entity.Empresa;
+import br.com.kandu.entity.LogArquivamentoOS;
 import br.com.kandu.entity.OrdemDeServico;
 import br.com.kandu.entity.Usuario;
 import br.com.kandu.enums.NivelHierarquia;
 import br.com.kandu.enums.StatusOS;
 import br.com.kandu.repository.EmpresaRepository;
+import br.com.kandu.repository.LogArquivamentoOSRepository;
+import br.com.kandu.repository.LogHistoricoOSRepository;
 import br.com.kandu.repository.OrdemDeServicoRepository;
+import br.com.kandu.repository.ParticipanteOSRepository;
 import br.com.kandu.repository.UsuarioRepository;
+import br.com.kandu.service.ArquivamentoOSService;
+import br.com.kandu.service.BuscaTextoOSService;
+import br.com.kandu.service.ContadorStatusOSService;
+import br.com.kandu.service.TransferenciaArquivoOSService;
+import br.com.kandu.util.ContadorDeConsultasSql;
 import br.com.kandu.util.TestUtils; // <-- IMPORT QUE ESTAVA FALTANDO
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -19,10 +29,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -44,6 +62,22 @@ public class OrdemDeServicoControllerIntegrationTest {
     @Autowired
     private OrdemDeServicoRepository osRepository;
     @Autowired
+    private ParticipanteOSRepository participanteRepository;
+    @Autowired
+    private LogHistoricoOSRepository logRepository;
+    @Autowired
+    private LogArquivamentoOSRepository logArquivamentoRepository;
+    @Autowired
+    private ArquivamentoOSService arquivamentoService;
+    @Autowired
+    private TransferenciaArquivoOSService transferenciaService;
+    @Autowired
+    private ContadorStatusOSService contadorStatus;
+    @Autowired
+    private BuscaTextoOSService buscaTexto;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
     private TestUtils testUtils; // Injetando nossa classe de utilitários
 
     private String comumToken;
@@ -55,9 +89,7 @@ public class OrdemDeServicoControllerIntegrationTest {
     @BeforeEach
     @Transactional
     void setUp() throws Exception {
-        osRepository.deleteAllInBatch();
-        usuarioRepository.deleteAllInBatch();
-        empresaRepository.deleteAllInBatch();
+        testUtils.limparBanco();
 
         empresa = empresaRepository.saveAndFlush(Empresa.builder().nome("Empresa OS Teste").codigoInscricao("OS-EMP").build());
 
@@ -96,13 +128,14 @@ public class OrdemDeServicoControllerIntegrationTest {
         // Teste para Utilizador COMUM: deve ver apenas a sua OS
         mockMvc.perform(get("/api/os").header("Authorization", "Bearer " + comumToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].titulo", is("OS do Comum")));
+                .andExpect(jsonPath("$.itens", hasSize(1)))
+                .andExpect(jsonPath("$.itens[0].titulo", is("OS do Comum")))
+                .andExpect(jsonPath("$.proximoCursor").value(nullValue()));
 
         // Teste para SUPERVISOR: deve ver as duas OS
         mockMvc.perform(get("/api/os").header("Authorization", "Bearer " + supervisorToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)));
+                .andExpect(jsonPath("$.itens", hasSize(2)));
     }
 
     @Test
@@ -127,4 +160,660 @@ public class OrdemDeServicoControllerIntegrationTest {
                         .header("Authorization", "Bearer " + comumToken))
                 .andExpect(status().isForbidden());
     }
+
+    @Test
+    @DisplayName("[Deletar OS] Deve carregar o utilizador logado no máximo uma vez por requisição")
+    void deletarOsDeveCarregarUtilizadorUmaVez() throws Exception {
+        OrdemDeServico os = osRepository.save(OrdemDeServico.builder().titulo("OS contada").descricao("...").status(StatusOS.ABERTA).empresa(empresa).criador(usuarioComum).build());
+
+        ContadorDeConsultasSql.zerar();
+        mockMvc.perform(delete("/api/os/" + os.getId())
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isNoContent());
+
+        assertThat(ContadorDeConsultasSql.contarSelectsNaTabela("usuarios")).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("[Listar OS] Deve percorrer todas as OS pelo cursor, sem repetir nem pular itens")
+    void devePaginarOsPorCursor() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            osRepository.save(OrdemDeServico.builder().titulo("OS " + i).descricao("...").status(StatusOS.ABERTA).empresa(empresa).criador(usuarioSupervisor).build());
+        }
+
+        List<Long> ids = new ArrayList<>();
+        List<Integer> tamanhos = new ArrayList<>();
+        String cursor = null;
+        do {
+            var requisicao = get("/api/os").param("tamanho", "2").header("Authorization", "Bearer " + supervisorToken);
+            if (cursor != null) {
+                requisicao.param("cursor", cursor);
+            }
+            JsonNode pagina = objectMapper.readTree(mockMvc.perform(requisicao)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            pagina.get("itens").forEach(item -> ids.add(item.get("id").asLong()));
+            tamanhos.add(pagina.get("itens").size());
+            cursor = pagina.get("proximoCursor").isNull() ? null : pagina.get("proximoCursor").asText();
+        } while (cursor != null);
+
+        assertThat(tamanhos).containsExactly(2, 2, 1);
+        // Da mais recente para a mais antiga (mesma data de cadastro: desempate pelo id)
+        assertThat(ids).hasSize(5).doesNotHaveDuplicates().isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    @Test
+    @DisplayName("[Listar OS] Deve limitar o tamanho da página e recusar cursor inválido ou salto profundo")
+    void deveLimitarTamanhoERecusarParametrosInvalidos() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            osRepository.save(OrdemDeServico.builder().titulo("OS " + i).descricao("...").status(StatusOS.ABERTA).empresa(empresa).criador(usuarioSupervisor).build());
+        }
+
+        mockMvc.perform(get("/api/os").param("pagina", "1").param("tamanho", "2").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens", hasSize(1)));
+        mockMvc.perform(get("/api/os").param("tamanho", "100000").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens", hasSize(3)));
+        mockMvc.perform(get("/api/os").param("cursor", "nao-e-um-cursor").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/os").param("pagina", "100000").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String exportar(String token, String formato) throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/os/exportar").param("formato", formato)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("[Exportar OS] Deve exportar em streaming respeitando a visibilidade de cada perfil")
+    void deveExportarOsRespeitandoVisibilidade() throws Exception {
+        osRepository.save(OrdemDeServico.builder().titulo("OS do Comum, com \"aspas\"").descricao("...").status(StatusOS.ABERTA).empresa(empresa).criador(usuarioComum).build());
+        for (int i = 1; i <= 4; i++) {
+            osRepository.save(OrdemDeServico.builder().titulo("OS " + i).descricao("...").status(StatusOS.ABERTA).empresa(empresa).criador(usuarioSupervisor).build());
+        }
+        osRepository.save(OrdemDeServico.builder().titulo("OS arquivada").descricao("...").status(StatusOS.ARQUIVADA).empresa(empresa).criador(usuarioSupervisor).build());
+
+        // SUPERVISOR: todas as OS da empresa fora do arquivo, uma por linha (mais que o fetch size de teste, que é 2)
+        String ndjson = exportar(supervisorToken, "ndjson");
+        String[] linhas = ndjson.trim().split("\n");
+        assertThat(linhas).hasSize(5);
+        assertThat(objectMapper.readTree(linhas[0]).get("titulo").asText()).isEqualTo("OS 4");
+        assertThat(ndjson).doesNotContain("OS arquivada");
+
+        // COMUM: apenas a própria OS; o CSV escapa vírgulas e aspas
+        String csv = exportar(comumToken, "csv");
+        String[] linhasCsv = csv.split("\r\n");
+        assertThat(linhasCsv).hasSize(2);
+        assertThat(linhasCsv[0]).startsWith("id,titulo,");
+        assertThat(linhasCsv[1]).contains("\"OS do Comum, com \"\"aspas\"\"\"");
+
+        mockMvc.perform(get("/api/os/exportar").param("formato", "xlsx").header("Authorization", "Bearer " + comumToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("[Importar OS] Deve gravar as linhas válidas e devolver os erros por linha")
+    void deveImportarOsEmMassa() throws Exception {
+        String csv = "id,titulo,descricao,local,prazo,status,requisitos,projetoPrivado\r\n"
+                + "99,Trocar disjuntor,\"Quadro 2, sala 10\r\nlevar escada\",Bloco A,2030-01-15,,,false\r\n"
+                + ",,Sem título,,,,,\r\n"
+                + ",'=Fórmula,desc,,amanhã,,,\r\n"
+                + ",Pintura,Parede,,,EM_ANDAMENTO,EPI,true\r\n"
+                + ",Arquivo morto,Caixas,,,ARQUIVADA,,\r\n";
+        mockMvc.perform(post("/api/os/importar").contentType("text/csv;charset=UTF-8").content(csv)
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importadas").value(2))
+                .andExpect(jsonPath("$.rejeitadas").value(3))
+                .andExpect(jsonPath("$.erros[0].linha").value(4))
+                .andExpect(jsonPath("$.erros[1].linha").value(5))
+                .andExpect(jsonPath("$.erros[1].mensagem", containsString("Prazo")))
+                .andExpect(jsonPath("$.erros[2].linha").value(7))
+                .andExpect(jsonPath("$.erros[2].mensagem", containsString("ARQUIVADA")));
+
+        List<OrdemDeServico> importadas = osRepository.findAll();
+        assertThat(importadas).hasSize(2);
+        OrdemDeServico disjuntor = importadas.stream().filter(os -> os.getTitulo().equals("Trocar disjuntor")).findFirst().orElseThrow();
+        assertThat(disjuntor.getDescricao()).isEqualTo("Quadro 2, sala 10\r\nlevar escada");
+        assertThat(disjuntor.getPrazo()).isEqualTo(LocalDate.of(2030, 1, 15));
+        assertThat(disjuntor.getStatus()).isEqualTo(StatusOS.ABERTA);
+        assertThat(disjuntor.getId()).isNotEqualTo(99L);
+        assertThat(logRepository.count()).isEqualTo(2);
+
+        String ndjson = "{\"titulo\":\"Limpeza\",\"descricao\":\"Filtros\",\"prazo\":null}\n"
+                + "{\"titulo\": \n"
+                + "\n"
+                + "{\"titulo\":\"Sem descrição\"}\n";
+        mockMvc.perform(post("/api/os/importar").contentType("application/x-ndjson").content(ndjson)
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importadas").value(1))
+                .andExpect(jsonPath("$.erros[*].linha", contains(2, 4)));
+        assertThat(osRepository.count()).isEqualTo(3);
+
+        // Um registro maior que o limite (500 caracteres nos testes) vai para o relatório e encerra a leitura
+        String ndjsonGrande = "{\"titulo\":\"Grande\",\"descricao\":\"" + "x".repeat(600) + "\"}\n"
+                + "{\"titulo\":\"Depois\",\"descricao\":\"d\"}\n";
+        mockMvc.perform(post("/api/os/importar").contentType("application/x-ndjson").content(ndjsonGrande)
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importadas").value(0))
+                .andExpect(jsonPath("$.rejeitadas").value(1))
+                .andExpect(jsonPath("$.erros[0].linha").value(1))
+                .andExpect(jsonPath("$.erros[0].mensagem", containsString("500")));
+        String csvGrande = "titulo,descricao\r\nAntes,d\r\n\"" + "x".repeat(600) + "\r\nDepois,d\r\n";
+        mockMvc.perform(post("/api/os/importar").contentType("text/csv").content(csvGrande)
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importadas").value(1))
+                .andExpect(jsonPath("$.rejeitadas").value(1))
+                .andExpect(jsonPath("$.erros[0].linha").value(3));
+        assertThat(osRepository.count()).isEqualTo(4);
+
+        mockMvc.perform(post("/api/os/importar").contentType("text/csv").content("nome,valor\r\nx,y\r\n")
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/os/importar").contentType(MediaType.APPLICATION_JSON).content("[]")
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isUnsupportedMediaType());
+        mockMvc.perform(post("/api/os/importar").contentType("text/csv").content(csv)
+                        .header("Authorization", "Bearer " + comumToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private OrdemDeServico salvarEncerrada(Empresa empresaDaOS, StatusOS status, int diasDesdeEncerramento) {
+        return osRepository.save(OrdemDeServico.builder().titulo("Encerrada " + status).descricao("...").status(status)
+                .dataEncerramento(LocalDateTime.now().minusDays(diasDesdeEncerramento))
+                .empresa(empresaDaOS).criador(usuarioSupervisor).build());
+    }
+
+    @Test
+    @DisplayName("[Arquivamento] Deve arquivar em lotes as OS encerradas há mais dias que o prazo da empresa")
+    void deveArquivarOsEncerradasEmLotes() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            salvarEncerrada(empresa, StatusOS.CONCLUIDA, 100);
+        }
+        salvarEncerrada(empresa, StatusOS.CANCELADA, 91);
+        OrdemDeServico recente = salvarEncerrada(empresa, StatusOS.CONCLUIDA, 10);
+        osRepository.save(OrdemDeServico.builder().titulo("Aberta").descricao("...").status(StatusOS.ABERTA)
+                .empresa(empresa).criador(usuarioSupervisor).build());
+        Empresa prazoCurto = empresaRepository.save(Empresa.builder().nome("Prazo Curto").codigoInscricao("ARQ-5")
+                .diasParaArquivar(5).build());
+        salvarEncerrada(prazoCurto, StatusOS.CONCLUIDA, 10);
+
+        // Padrão de 90 dias na empresa do teste (lotes de 2: 2 + 2 + 1 concluídas e 1 cancelada) e 5 dias na outra
+        assertThat(arquivamentoService.arquivarVencidas()).isEqualTo(7);
+        assertThat(arquivamentoService.arquivarVencidas()).isZero(); // O que já foi arquivado sai da seleção
+
+        List<LogArquivamentoOS> lotes = logArquivamentoRepository.findByEmpresaId(empresa.getId());
+        assertThat(lotes).hasSize(4);
+        assertThat(lotes).extracting(LogArquivamentoOS::getQuantidade).containsExactlyInAnyOrder(2, 2, 1, 1);
+        assertThat(logArquivamentoRepository.findByEmpresaId(prazoCurto.getId())).hasSize(1);
+        assertThat(osRepository.findById(recente.getId()).orElseThrow().getStatus()).isEqualTo(StatusOS.CONCLUIDA);
+
+        // As listagens deixam as arquivadas de fora, a menos que sejam pedidas
+        mockMvc.perform(get("/api/os").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens", hasSize(2)));
+        mockMvc.perform(get("/api/os/filtrar").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(jsonPath("$.itens", hasSize(2)));
+        mockMvc.perform(get("/api/os/filtrar").param("incluirArquivadas", "true").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(jsonPath("$.itens", hasSize(8)));
+        mockMvc.perform(get("/api/os/filtrar").param("status", "ARQUIVADA").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(jsonPath("$.itens", hasSize(6)));
+
+        // O cancelamento passa a contar o prazo de arquivamento
+        Long abertaId = osRepository.findByEmpresaIdAndStatus(empresa.getId(), StatusOS.ABERTA).get(0).getId();
+        mockMvc.perform(delete("/api/os/" + abertaId).header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isNoContent());
+        assertThat(osRepository.findById(abertaId).orElseThrow().getDataEncerramento()).isNotNull();
+
+        testUtils.limparBanco(); // Não deixa registros de arquivamento presos às empresas para as outras classes
+    }
+
+    private int contarLinhas(String tabela) {
+        return jdbcTemplate.queryForObject("select count(*) from " + tabela, Integer.class);
+    }
+
+    @Test
+    @DisplayName("[Arquivo OS] Deve transferir as arquivadas para o arquivo e continuar lendo-as no detalhe e na busca")
+    void deveTransferirArquivadasEManterLeitura() throws Exception {
+        List<Long> arquivadas = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            arquivadas.add(salvarEncerrada(empresa, StatusOS.CONCLUIDA, 1).getId());
+        }
+        osRepository.save(OrdemDeServico.builder().titulo("Ativa").descricao("...").status(StatusOS.ABERTA)
+                .empresa(empresa).criador(usuarioSupervisor).build());
+        mockMvc.perform(post("/api/os/" + arquivadas.get(0) + "/participantes/" + usuarioComum.getId())
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk());
+        for (Long id : arquivadas) {
+            mockMvc.perform(delete("/api/os/" + id).header("Authorization", "Bearer " + supervisorToken))
+                    .andExpect(status().isNoContent()); // CONCLUIDA -> ARQUIVADA
+        }
+        long historico = logRepository.count();
+        // Arquivada é só de leitura: os participantes não mudam mais
+        mockMvc.perform(post("/api/os/" + arquivadas.get(1) + "/participantes/" + usuarioComum.getId())
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isBadRequest());
+
+        // Lotes de 2 nos testes: 2 + 1
+        assertThat(transferenciaService.transferirArquivadas()).isEqualTo(3);
+        assertThat(transferenciaService.transferirArquivadas()).isZero();
+        assertThat(osRepository.count()).isEqualTo(1);
+        assertThat(participanteRepository.count()).isZero();
+        assertThat(logRepository.count()).isZero();
+        assertThat(contarLinhas("ordens_servico_arquivo")).isEqualTo(3);
+        assertThat(contarLinhas("participantes_os_arquivo")).isEqualTo(1);
+        assertThat(contarLinhas("log_historico_os_arquivo")).isEqualTo(historico);
+
+        // Detalhe (e o seu ETag) lidos do arquivo; cancelar de novo continua sem efeito
+        String etag = mockMvc.perform(get("/api/os/" + arquivadas.get(0)).header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("ARQUIVADA")))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/os/" + arquivadas.get(0)).header("If-None-Match", etag)
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(delete("/api/os/" + arquivadas.get(0)).header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isNoContent());
+
+        // A listagem só vê a ativa; a busca com arquivadas intercala as duas tabelas na ordem da listagem
+        mockMvc.perform(get("/api/os").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(jsonPath("$.itens", hasSize(1)));
+        mockMvc.perform(get("/api/os/filtrar").param("status", "ARQUIVADA").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(jsonPath("$.itens", hasSize(3)));
+        String primeira = mockMvc.perform(get("/api/os/filtrar").param("incluirArquivadas", "true").param("tamanho", "3")
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(jsonPath("$.itens[*].titulo", contains("Ativa", "Encerrada CONCLUIDA", "Encerrada CONCLUIDA")))
+                .andExpect(jsonPath("$.proximoCursor", notNullValue()))
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/api/os/filtrar").param("incluirArquivadas", "true").param("tamanho", "3")
+                        .param("cursor", objectMapper.readTree(primeira).get("proximoCursor").asText())
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(jsonPath("$.itens[*].id", contains(arquivadas.get(0).intValue())))
+                .andExpect(jsonPath("$.proximoCursor", nullValue()));
+
+        // As OS do arquivo continuam na contagem por status
+        contadorStatus.reconciliar();
+        mockMvc.perform(get("/api/os/contagem").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(jsonPath("$.ARQUIVADA", is(3)))
+                .andExpect(jsonPath("$.ABERTA", is(1)));
+
+        testUtils.limparBanco();
+    }
+
+    @Test
+    @DisplayName("[Busca OS] Deve buscar por texto com prefixos, sem acentos, respeitando a visibilidade e o arquivo")
+    void deveBuscarOsPorTextoRespeitandoVisibilidade() throws Exception {
+        buscaTexto.reconstruir(); // Descarta o que os outros testes indexaram antes de limpar o banco
+        Empresa outraEmpresa = empresaRepository.saveAndFlush(Empresa.builder().nome("Outra Empresa").codigoInscricao("OS-OUTRA").build());
+        testUtils.criarUsuario("sup_outra", "sup.outra@kandu.com", "pass", NivelHierarquia.SUPERVISOR, outraEmpresa);
+        String outraToken = testUtils.obterToken("sup_outra", "pass");
+
+        long vazamento = criarOsPelaApi(comumToken, "Vazamento na bomba d'água", "Bloco B pingando", null);
+        long valvula = criarOsPelaApi(supervisorToken, "Troca de válvula", "Válvula da Bomba travada", "Chave inglesa");
+        long pintura = criarOsPelaApi(supervisorToken, "Pintura", "Parede da recepção", null);
+        long daOutra = criarOsPelaApi(outraToken, "Bomba de incêndio", "Teste mensal", null);
+
+        // Cada perfil vê o que veria na listagem; o maior id primeiro
+        assertThat(buscar(supervisorToken, "bomba")).containsExactly(valvula, vazamento);
+        assertThat(buscar(comumToken, "bomba")).containsExactly(vazamento);
+        assertThat(buscar(outraToken, "bomba")).containsExactly(daOutra);
+        // Sem acentos nem maiúsculas, todos os termos como prefixo, em qualquer dos três campos
+        assertThat(buscar(supervisorToken, "VALVULA")).containsExactly(valvula);
+        assertThat(buscar(supervisorToken, "bomb trav")).containsExactly(valvula);
+        assertThat(buscar(supervisorToken, "inglesa")).containsExactly(valvula);
+        assertThat(buscar(supervisorToken, "bomba pintura")).isEmpty();
+
+        // Paginação por cursor
+        String primeira = mockMvc.perform(get("/api/os/search").param("q", "bomba").param("tamanho", "1")
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(jsonPath("$.itens[*].id", contains((int) valvula)))
+                .andExpect(jsonPath("$.proximoCursor", notNullValue()))
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/api/os/search").param("q", "bomba").param("tamanho", "1")
+                        .param("cursor", objectMapper.readTree(primeira).get("proximoCursor").asText())
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(jsonPath("$.itens[*].id", contains((int) vazamento)))
+                .andExpect(jsonPath("$.proximoCursor", nullValue()));
+        mockMvc.perform(get("/api/os/search").param("q", "a").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isBadRequest());
+
+        // Uma alteração feita direto no banco entra na reconstrução; o arquivamento pela API atualiza o índice na hora
+        jdbcTemplate.update("update ordens_servico set requisitos = 'Bomba reserva' where id = ?", pintura);
+        jdbcTemplate.update("update ordens_servico set status = 'CONCLUIDA' where id = ?", valvula);
+        buscaTexto.reconstruir();
+        assertThat(buscar(supervisorToken, "bomba reserva")).containsExactly(pintura);
+        mockMvc.perform(delete("/api/os/" + valvula).header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isNoContent());
+        assertThat(buscar(supervisorToken, "bomba")).containsExactly(pintura, vazamento);
+
+        // Arquivadas só quando pedidas, inclusive depois de transferidas para o arquivo
+        transferenciaService.transferirArquivadas();
+        mockMvc.perform(get("/api/os/search").param("q", "bomba").param("incluirArquivadas", "true")
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(jsonPath("$.itens[*].id", contains((int) pintura, (int) valvula, (int) vazamento)))
+                .andExpect(jsonPath("$.itens[1].status", is("ARQUIVADA")));
+
+        // Uma OS gravada por outra instância, que avança o carimbo da empresa, entra na sincronização periódica
+        jdbcTemplate.update("insert into ordens_servico (titulo, descricao, status, empresa_id, criador_id, data_cadastro, "
+                + "projeto_privado) values ('Hidrante', 'Bomba do hidrante', 'ABERTA', ?, ?, current_timestamp, false)",
+                empresa.getId(), usuarioSupervisor.getId());
+        jdbcTemplate.update("update empresas set carimbo_os = carimbo_os + 1 where id = ?", empresa.getId());
+        Long hidrante = jdbcTemplate.queryForObject("select id from ordens_servico where titulo = 'Hidrante'", Long.class);
+        assertThat(buscar(supervisorToken, "hidrante")).isEmpty();
+        buscaTexto.sincronizar();
+        assertThat(buscar(supervisorToken, "hidrante")).containsExactly(hidrante);
+
+        testUtils.limparBanco();
+    }
+
+    private long criarOsPelaApi(String token, String titulo, String descricao, String requisitos) throws Exception {
+        OrdemDeServicoCriacaoDTO dto = new OrdemDeServicoCriacaoDTO();
+        dto.setTitulo(titulo);
+        dto.setDescricao(descricao);
+        dto.setRequisitos(requisitos);
+        String resposta = mockMvc.perform(post("/api/os").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(resposta).get("id").asLong();
+    }
+
+    private List<Long> buscar(String token, String consulta) throws Exception {
+        String resposta = mockMvc.perform(get("/api/os/search").param("q", consulta).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Long> ids = new ArrayList<>();
+        objectMapper.readTree(resposta).get("itens").forEach(item -> ids.add(item.get("id").asLong()));
+        return ids;
+    }
+
+    private int contarComandosAoListar() throws Exception {
+        ContadorDeConsultasSql.zerar();
+        mockMvc.perform(get("/api/os").param("tamanho", "100").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk());
+        return ContadorDeConsultasSql.contarComandos();
+    }
+
+    private void criarOsComResponsavelProprio(int quantidade, String prefixo) {
+        for (int i = 0; i < quantidade; i++) {
+            Usuario responsavel = testUtils.criarUsuario(prefixo + i, prefixo + i + "@kandu.com", "pass", NivelHierarquia.COMUM, empresa);
+            osRepository.save(OrdemDeServico.builder().titulo("OS " + prefixo + i).descricao("...").status(StatusOS.ABERTA)
+                    .empresa(empresa).criador(responsavel).responsavel(responsavel).build());
+        }
+    }
+
+    @Test
+    @DisplayName("[Listar OS] A quantidade de comandos SQL não deve crescer com o número de OS listadas")
+    void listagemNaoDeveTerConsultasPorLinha() throws Exception {
+        criarOsComResponsavelProprio(2, "poucos");
+        contarComandosAoListar(); // Aquece os caches de autenticação
+        int comPoucas = contarComandosAoListar();
+
+        criarOsComResponsavelProprio(10, "muitos");
+        int comMuitas = contarComandosAoListar();
+
+        assertThat(comMuitas).isEqualTo(comPoucas);
+        assertThat(comMuitas).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("[Detalhe OS] Deve exibir a OS com criador e responsável em um único SELECT")
+    void detalheDeveCarregarAssociacoesNaMesmaConsulta() throws Exception {
+        criarOsComResponsavelProprio(1, "detalhe");
+        OrdemDeServico os = osRepository.findAll().get(0);
+
+        ContadorDeConsultasSql.zerar();
+        mockMvc.perform(get("/api/os/" + os.getId()).header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.responsavelNome", is("Usuário detalhe0")))
+                .andExpect(jsonPath("$.criadorNome", is("Usuário detalhe0")));
+        assertThat(ContadorDeConsultasSql.contarSelectsNaTabela("ordens_servico")).isEqualTo(1);
+        assertThat(ContadorDeConsultasSql.contarSelectsNaTabela("usuarios")).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("[Filtrar OS] Deve combinar os critérios no banco, paginar e respeitar a visibilidade")
+    void deveFiltrarOsPorMultiplosCriterios() throws Exception {
+        LocalDate hoje = LocalDate.now();
+        osRepository.save(OrdemDeServico.builder().titulo("Aberta A").descricao("...").status(StatusOS.ABERTA).local("Bloco A - Sala 1")
+                .prazo(hoje.plusDays(1)).empresa(empresa).criador(usuarioSupervisor).responsavel(usuarioComum).build());
+        osRepository.save(OrdemDeServico.builder().titulo("Andamento A").descricao("...").status(StatusOS.EM_ANDAMENTO).local("Bloco A - Sala 2")
+                .prazo(hoje.plusDays(3)).empresa(empresa).criador(usuarioSupervisor).responsavel(usuarioComum).build());
+        osRepository.save(OrdemDeServico.builder().titulo("Aberta B").descricao("...").status(StatusOS.ABERTA).local("Bloco B")
+                .prazo(hoje.plusDays(30)).empresa(empresa).criador(usuarioSupervisor).build());
+        osRepository.save(OrdemDeServico.builder().titulo("Concluída A").descricao("...").status(StatusOS.CONCLUIDA).local("Bloco A_")
+                .prazo(hoje.plusDays(2)).empresa(empresa).criador(usuarioComum).responsavel(usuarioComum).build());
+
+        // Status em conjunto + responsável + intervalo de prazo, paginado de 1 em 1
+        JsonNode primeira = objectMapper.readTree(mockMvc.perform(get("/api/os/filtrar")
+                        .param("status", "ABERTA", "EM_ANDAMENTO")
+                        .param("responsavelId", usuarioComum.getId().toString())
+                        .param("prazoDe", hoje.toString()).param("prazoAte", hoje.plusDays(7).toString())
+                        .param("tamanho", "1")
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].titulo", is("Andamento A")))
+                .andReturn().getResponse().getContentAsString());
+        mockMvc.perform(get("/api/os/filtrar")
+                        .param("status", "ABERTA", "EM_ANDAMENTO")
+                        .param("responsavelId", usuarioComum.getId().toString())
+                        .param("prazoDe", hoje.toString()).param("prazoAte", hoje.plusDays(7).toString())
+                        .param("tamanho", "1").param("cursor", primeira.get("proximoCursor").asText())
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[*].titulo", contains("Aberta A")))
+                .andExpect(jsonPath("$.proximoCursor").value(nullValue()));
+
+        // Local por prefixo: o "_" digitado é literal, não curinga
+        mockMvc.perform(get("/api/os/filtrar").param("local", "Bloco A_").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[*].titulo", contains("Concluída A")));
+
+        // COMUM só enxerga as próprias OS, mesmo filtrando por outro criador
+        mockMvc.perform(get("/api/os/filtrar").param("criadorId", usuarioSupervisor.getId().toString()).header("Authorization", "Bearer " + comumToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens", hasSize(0)));
+
+        mockMvc.perform(get("/api/os/filtrar").param("prazoDe", hoje.plusDays(5).toString()).param("prazoAte", hoje.toString())
+                        .header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("[Contagem OS] Deve acompanhar criação e cancelamento sem consultar ordens_servico")
+    void contagemDeveAcompanharCriacaoECancelamento() throws Exception {
+        OrdemDeServicoCriacaoDTO dto = new OrdemDeServicoCriacaoDTO();
+        dto.setTitulo("OS contada");
+        dto.setDescricao("...");
+        String criada = mockMvc.perform(post("/api/os").header("Authorization", "Bearer " + comumToken)
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(criada).get("id").asLong();
+
+        mockMvc.perform(get("/api/os/contagem").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ABERTA", is(1)))
+                .andExpect(jsonPath("$.CANCELADA", is(0)));
+
+        mockMvc.perform(delete("/api/os/" + id).header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isNoContent());
+
+        ContadorDeConsultasSql.zerar();
+        mockMvc.perform(get("/api/os/contagem").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ABERTA", is(0)))
+                .andExpect(jsonPath("$.CANCELADA", is(1)));
+        assertThat(ContadorDeConsultasSql.contarSelectsNaTabela("ordens_servico")).isZero();
+
+        mockMvc.perform(get("/api/os/contagem").header("Authorization", "Bearer " + comumToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("[ETag OS] Detalhe deve responder 304 lendo só a versão, e 200 com novo ETag após alteração")
+    void detalheDeveResponderNaoModificadoPelaVersao() throws Exception {
+        criarOsComResponsavelProprio(1, "etag");
+        OrdemDeServico os = osRepository.findAll().get(0);
+
+        String etag = mockMvc.perform(get("/api/os/" + os.getId()).header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        ContadorDeConsultasSql.zerar();
+        mockMvc.perform(get("/api/os/" + os.getId()).header("Authorization", "Bearer " + supervisorToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        assertThat(ContadorDeConsultasSql.contarSelectsNaTabela("ordens_servico")).isEqualTo(1);
+        assertThat(ContadorDeConsultasSql.ultimoSelect().toLowerCase()).doesNotContain(" join ");
+
+        mockMvc.perform(delete("/api/os/" + os.getId()).header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/os/" + os.getId()).header("Authorization", "Bearer " + supervisorToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.status", is("CANCELADA")));
+
+        mockMvc.perform(get("/api/os/" + (os.getId() + 1000)).header("Authorization", "Bearer " + supervisorToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("[ETag OS] Listagem deve responder 304 sem consultar as OS enquanto nada mudar na empresa")
+    void listagemDeveResponderNaoModificadoPeloCarimbo() throws Exception {
+        criarOsComResponsavelProprio(3, "carimbo");
+
+        String etag = mockMvc.perform(get("/api/os").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).startsWith("W/");
+
+        ContadorDeConsultasSql.zerar();
+        mockMvc.perform(get("/api/os").header("Authorization", "Bearer " + supervisorToken).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertThat(ContadorDeConsultasSql.contarSelectsNaTabela("ordens_servico")).isZero();
+
+        // Outra consulta e outro perfil têm ETags próprios
+        mockMvc.perform(get("/api/os").param("tamanho", "1").header("Authorization", "Bearer " + supervisorToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/os").header("Authorization", "Bearer " + comumToken).header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        OrdemDeServicoCriacaoDTO dto = new OrdemDeServicoCriacaoDTO();
+        dto.setTitulo("OS nova");
+        dto.setDescricao("...");
+        mockMvc.perform(post("/api/os").header("Authorization", "Bearer " + comumToken)
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/os").header("Authorization", "Bearer " + supervisorToken).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.itens", hasSize(4)));
+    }
+
+    @Test
+    @DisplayName("[Concorrência OS] Alterações com If-Match desatualizado devem receber 412 com o ETag atual")
+    void alteracoesDevemRespeitarIfMatch() throws Exception {
+        criarOsComResponsavelProprio(1, "versao");
+        Long osId = osRepository.findAll().get(0).getId();
+        String etagInicial = etagDoDetalhe(osId);
+
+        // Participantes não mudam colunas da OS, mas a versão avança mesmo assim
+        mockMvc.perform(post("/api/os/" + osId + "/participantes/" + usuarioComum.getId()).header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk());
+        String etagAtual = etagDoDetalhe(osId);
+        assertThat(etagAtual).isNotEqualTo(etagInicial);
+        Long participanteId = participanteRepository.findByOrdemDeServicoIdAndUsuarioId(osId, usuarioComum.getId()).orElseThrow().getId();
+
+        mockMvc.perform(delete("/api/os/" + osId + "/participantes/" + participanteId).header("Authorization", "Bearer " + supervisorToken)
+                        .header("If-Match", etagInicial))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string("ETag", etagAtual));
+        mockMvc.perform(delete("/api/os/" + osId + "/participantes/" + participanteId).header("Authorization", "Bearer " + supervisorToken)
+                        .header("If-Match", etagAtual))
+                .andExpect(status().isNoContent());
+
+        // A remoção também avançou a versão; um ETag de outra OS nunca corresponde
+        mockMvc.perform(delete("/api/os/" + osId).header("Authorization", "Bearer " + supervisorToken).header("If-Match", etagAtual))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/os/" + osId).header("Authorization", "Bearer " + supervisorToken).header("If-Match", "W/\"os-0-0\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/os/" + osId).header("Authorization", "Bearer " + supervisorToken).header("If-Match", etagDoDetalhe(osId)))
+                .andExpect(status().isNoContent());
+        assertThat(osRepository.findById(osId).orElseThrow().getStatus()).isEqualTo(StatusOS.CANCELADA);
+    }
+
+    private String etagDoDetalhe(Long osId) throws Exception {
+        return mockMvc.perform(get("/api/os/" + osId).header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    @Test
+    @DisplayName("[Transições OS] Lote deve ser aplicado com comandos em massa, por inteiro ou não aplicado")
+    void deveAplicarLoteDeTransicoes() throws Exception {
+        List<Map<String, Object>> lote = new ArrayList<>();
+        List<Long> emAndamento = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            OrdemDeServico os = osRepository.save(OrdemDeServico.builder().titulo("Turno " + i).descricao("...").status(StatusOS.EM_ANDAMENTO)
+                    .empresa(empresa).criador(usuarioComum).build());
+            emAndamento.add(os.getId());
+            lote.add(Map.of("osId", os.getId(), "status", "PENDENTE_APROVACAO"));
+        }
+        OrdemDeServico pendente = osRepository.save(OrdemDeServico.builder().titulo("Pendente").descricao("...").status(StatusOS.PENDENTE_APROVACAO)
+                .empresa(empresa).criador(usuarioComum).build());
+        OrdemDeServico aberta = osRepository.save(OrdemDeServico.builder().titulo("Aberta").descricao("...").status(StatusOS.ABERTA)
+                .empresa(empresa).criador(usuarioComum).build());
+
+        // Uma transição inexistente invalida o lote inteiro
+        List<Map<String, Object>> invalido = new ArrayList<>(lote);
+        invalido.add(Map.of("osId", aberta.getId(), "status", "CONCLUIDA"));
+        mockMvc.perform(post("/api/os/transitions").header("Authorization", "Bearer " + supervisorToken)
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(invalido)))
+                .andExpect(status().isConflict());
+        assertThat(osRepository.findById(emAndamento.get(0)).orElseThrow().getStatus()).isEqualTo(StatusOS.EM_ANDAMENTO);
+
+        // Aprovar exige SUPERVISOR
+        mockMvc.perform(post("/api/os/transitions").header("Authorization", "Bearer " + comumToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(Map.of("osId", pendente.getId(), "status", "CONCLUIDA")))))
+                .andExpect(status().isForbidden());
+
+        lote.add(Map.of("osId", pendente.getId(), "status", "CONCLUIDA"));
+        lote.add(Map.of("osId", aberta.getId(), "status", "ABERTA"));
+        long logsAntes = logRepository.count();
+        ContadorDeConsultasSql.zerar();
+        mockMvc.perform(post("/api/os/transitions").header("Authorization", "Bearer " + supervisorToken)
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.aplicadas", is(26)))
+                .andExpect(jsonPath("$.ignoradas", is(1)));
+        assertThat(ContadorDeConsultasSql.contarComandos()).isLessThan(10); // Dois pares distintos, não 26 OS
+
+        assertThat(osRepository.findAllById(emAndamento)).allSatisfy(os -> {
+            assertThat(os.getStatus()).isEqualTo(StatusOS.PENDENTE_APROVACAO);
+            assertThat(os.getVersao()).isEqualTo(1L);
+        });
+        assertThat(osRepository.findById(pendente.getId()).orElseThrow().getStatus()).isEqualTo(StatusOS.CONCLUIDA);
+        assertThat(logRepository.count()).isEqualTo(logsAntes + 26);
+    }
 }
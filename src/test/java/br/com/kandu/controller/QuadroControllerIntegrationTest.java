@@ -0,0 +1,122 @@
+// src/test/java/br/com/kandu/controller/QuadroControllerIntegrationTest.java
+package br.com.kandu.controller;
+
+import br.com.kandu.entity.Empresa;
+import br.com.kandu.entity.OrdemDeServico;
+import br.com.kandu.entity.Usuario;
+import br.com.kandu.enums.NivelHierarquia;
+import br.com.kandu.enums.StatusOS;
+import br.com.kandu.repository.EmpresaRepository;
+import br.com.kandu.repository.OrdemDeServicoRepository;
+import br.com.kandu.util.ContadorDeConsultasSql;
+import br.com.kandu.util.TestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class QuadroControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EmpresaRepository empresaRepository;
+    @Autowired
+    private OrdemDeServicoRepository osRepository;
+    @Autowired
+    private TestUtils testUtils;
+
+    private Empresa empresa;
+    private Usuario comum;
+    private Usuario supervisor;
+    private String comumToken;
+    private String supervisorToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testUtils.limparBanco();
+        empresa = empresaRepository.saveAndFlush(Empresa.builder().nome("Empresa Quadro").codigoInscricao("QUADRO").build());
+        comum = testUtils.criarUsuario("comum_quadro", "comum.quadro@kandu.com", "pass", NivelHierarquia.COMUM, empresa);
+        comumToken = testUtils.obterToken("comum_quadro", "pass");
+        supervisor = testUtils.criarUsuario("sup_quadro", "sup.quadro@kandu.com", "pass", NivelHierarquia.SUPERVISOR, empresa);
+        supervisorToken = testUtils.obterToken("sup_quadro", "pass");
+
+        criarOs("Aberta 1", StatusOS.ABERTA, supervisor, comum);
+        criarOs("Aberta 2", StatusOS.ABERTA, supervisor, null);
+        criarOs("Aberta 3", StatusOS.ABERTA, comum, comum);
+        criarOs("Andamento 1", StatusOS.EM_ANDAMENTO, supervisor, supervisor);
+    }
+
+    private void criarOs(String titulo, StatusOS status, Usuario criador, Usuario responsavel) {
+        osRepository.save(OrdemDeServico.builder().titulo(titulo).descricao("...").status(status)
+                .empresa(empresa).criador(criador).responsavel(responsavel).build());
+    }
+
+    @Test
+    @DisplayName("[Quadro] Deve devolver todas as colunas com o total e só os N cartões mais recentes")
+    void deveMontarColunasComTotalECartoesLimitados() throws Exception {
+        criarOs("Arquivada 1", StatusOS.ARQUIVADA, supervisor, comum);
+
+        mockMvc.perform(get("/api/board").param("cartoes", "2").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.agrupamento", is("NENHUM")))
+                .andExpect(jsonPath("$.raias", hasSize(1)))
+                .andExpect(jsonPath("$.raias[0].colunas", hasSize(StatusOS.values().length - 1)))
+                .andExpect(jsonPath("$.raias[0].colunas[?(@.status == 'ARQUIVADA')]", empty()))
+                .andExpect(jsonPath("$.raias[0].colunas[?(@.status == 'ABERTA')].total", contains(3)))
+                .andExpect(jsonPath("$.raias[0].colunas[?(@.status == 'ABERTA')].cartoes[*].titulo", contains("Aberta 3", "Aberta 2")))
+                .andExpect(jsonPath("$.raias[0].colunas[?(@.status == 'EM_ANDAMENTO')].total", contains(1)))
+                .andExpect(jsonPath("$.raias[0].colunas[?(@.status == 'CONCLUIDA')].total", contains(0)));
+    }
+
+    @Test
+    @DisplayName("[Quadro] Deve separar as raias por responsável e respeitar a visibilidade do COMUM")
+    void deveSepararRaiasPorResponsavel() throws Exception {
+        mockMvc.perform(get("/api/board").param("raias", "responsavel").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                // Por nome do responsável; as OS sem responsável por último
+                .andExpect(jsonPath("$.raias[*].responsavelNome", contains("Usuário comum_quadro", "Usuário sup_quadro", null)))
+                .andExpect(jsonPath("$.raias[0].colunas[?(@.status == 'ABERTA')].total", contains(2)))
+                .andExpect(jsonPath("$.raias[2].colunas[?(@.status == 'ABERTA')].cartoes[*].titulo", contains("Aberta 2")));
+
+        // COMUM só vê as OS que criou
+        mockMvc.perform(get("/api/board").header("Authorization", "Bearer " + comumToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.raias[0].colunas[?(@.status == 'ABERTA')].total", contains(1)))
+                .andExpect(jsonPath("$.raias[0].colunas[?(@.status == 'EM_ANDAMENTO')].total", contains(0)));
+
+        mockMvc.perform(get("/api/board").param("raias", "prazo").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("[Quadro] Deve montar o quadro com duas consultas de OS, qualquer que seja o número de OS")
+    void deveMontarQuadroComDuasConsultas() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            Usuario responsavel = testUtils.criarUsuario("resp_quadro" + i, "resp.quadro" + i + "@kandu.com", "pass", NivelHierarquia.COMUM, empresa);
+            criarOs("Extra " + i, StatusOS.values()[i % StatusOS.values().length], supervisor, responsavel);
+        }
+        mockMvc.perform(get("/api/board").header("Authorization", "Bearer " + supervisorToken)); // Aquece os caches de autenticação
+
+        ContadorDeConsultasSql.zerar();
+        mockMvc.perform(get("/api/board").param("raias", "responsavel").header("Authorization", "Bearer " + supervisorToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.raias", hasSize(20))); // Os responsáveis só com OS ARQUIVADA não têm raia
+        assertThat(ContadorDeConsultasSql.contarSelectsNaTabela("ordens_servico")).isEqualTo(2);
+        assertThat(ContadorDeConsultasSql.contarSelectsNaTabela("empresas")).isEqualTo(1); // Carimbo do ETag
+        assertThat(ContadorDeConsultasSql.contarComandos()).isEqualTo(3);
+    }
+}
@@ -1,12 +1,18 @@
 // src/test/java/br/com/kandu/controller/SecurityIntegrationTest.java
 package br.com.kandu.controller;
 
+import br.com.kandu.dto.ChaveApiCriacaoDTO;
+import br.com.kandu.dto.ChaveApiResponseDTO;
 import br.com.kandu.dto.LoginDTO;
+import br.com.kandu.dto.RefreshTokenDTO;
 import br.com.kandu.dto.TokenDTO;
 import br.com.kandu.dto.UsuarioCadastroDTO;
 import br.com.kandu.entity.Empresa; // Novo import
+import br.com.kandu.enums.NivelHierarquia;
 import br.com.kandu.repository.EmpresaRepository; // Novo import
 import br.com.kandu.repository.UsuarioRepository;
+import br.com.kandu.util.ContadorDeConsultasSql;
+import br.com.kandu.util.TestUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -20,6 +26,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 // import org.springframework.transaction.annotation.Transactional; // Se precisar
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -43,15 +51,19 @@ public class SecurityIntegrationTest {
     @Autowired // Injete o EmpresaRepository
     private EmpresaRepository empresaRepository;
 
+    @Autowired
+    private TestUtils testUtils;
+
     private String jwtToken;
+    private String refreshToken;
+    private Empresa empresa;
     private final String codigoInscricaoTesteGlobal = "INTEG_EMP001"; // Código global para o teste
 
     @BeforeEach
         // @Transactional // Pode ser útil se houver problemas de transação com deleteAll
     void setUp() throws Exception {
         // Limpar dados de testes anteriores para garantir isolamento
-        usuarioRepository.deleteAll();
-        empresaRepository.deleteAll();
+        testUtils.limparBanco();
 
         // 1. Criar uma empresa para o teste
         Empresa empresaParaTeste = Empresa.builder()
@@ -61,7 +73,7 @@ public class SecurityIntegrationTest {
         // Como não temos endpoint de criar empresa ainda (ou não queremos depender dele aqui),
         // podemos salvar diretamente via repositório para o setup do teste.
         // Em um teste de integração mais puro, você chamaria o endpoint de criação de empresa.
-        empresaRepository.save(empresaParaTeste);
+        this.empresa = empresaRepository.save(empresaParaTeste);
 
 
         // 2. Cadastrar um usuário associado a essa empresa
@@ -93,6 +105,7 @@ public class SecurityIntegrationTest {
         String responseString = loginResult.getResponse().getContentAsString();
         TokenDTO tokenDTO = objectMapper.readValue(responseString, TokenDTO.class);
         this.jwtToken = tokenDTO.getToken();
+        this.refreshToken = tokenDTO.getRefreshToken();
     }
 
     // ... (seus métodos de teste @Test continuam aqui) ...
@@ -141,4 +154,133 @@ public class SecurityIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").value("Este é um recurso público, qualquer um pode acessar."));
     }
+
+    @Test
+    @DisplayName("Token revogado no logout não deve mais ser aceito")
+    void tokenRevogadoNoLogoutNaoDeveSerAceito() throws Exception {
+        mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Bearer " + this.jwtToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/test/protected")
+                        .header("Authorization", "Bearer " + this.jwtToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Depois do logout, o refresh token da sessão não deve mais renovar o token de acesso")
+    void refreshDeveFalharDepoisDoLogout() throws Exception {
+        mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Bearer " + this.jwtToken))
+                .andExpect(status().isNoContent());
+
+        assertThat(renovar(this.refreshToken).getResponse().getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    @DisplayName("Logout com o refresh token no corpo deve encerrar só aquela sessão")
+    void logoutComRefreshTokenDeveEncerrarSoASessao() throws Exception {
+        LoginDTO login = new LoginDTO();
+        login.setNomeUsuario("integtestuser");
+        login.setSenha("senha123");
+        TokenDTO outraSessao = objectMapper.readValue(mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(login)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), TokenDTO.class);
+
+        RefreshTokenDTO dto = new RefreshTokenDTO();
+        dto.setRefreshToken(this.refreshToken);
+        mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Bearer " + this.jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isNoContent());
+
+        assertThat(renovar(this.refreshToken).getResponse().getStatus()).isEqualTo(401);
+        assertThat(renovar(outraSessao.getRefreshToken()).getResponse().getStatus()).isEqualTo(200);
+    }
+
+    private MvcResult renovar(String refresh) throws Exception {
+        RefreshTokenDTO dto = new RefreshTokenDTO();
+        dto.setRefreshToken(refresh);
+        return mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andReturn();
+    }
+
+    @Test
+    @DisplayName("Refresh token deve gerar novo par de tokens e não poder ser reutilizado")
+    void refreshDeveRotacionarTokens() throws Exception {
+        MvcResult renovacao = renovar(this.refreshToken);
+        assertThat(renovacao.getResponse().getStatus()).isEqualTo(200);
+        TokenDTO novos = objectMapper.readValue(renovacao.getResponse().getContentAsString(), TokenDTO.class);
+        assertThat(novos.getRefreshToken()).isNotEqualTo(this.refreshToken);
+
+        mockMvc.perform(get("/api/test/protected")
+                        .header("Authorization", "Bearer " + novos.getToken()))
+                .andExpect(status().isOk());
+
+        // Reuso do token antigo: recusado e toda a família revogada, inclusive o token recém-emitido
+        assertThat(renovar(this.refreshToken).getResponse().getStatus()).isEqualTo(401);
+        assertThat(renovar(novos.getRefreshToken()).getResponse().getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    @DisplayName("Refresh token desconhecido deve retornar 401")
+    void refreshDesconhecidoDeveRetornarUnauthorized() throws Exception {
+        assertThat(renovar("token-que-nao-existe").getResponse().getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    @DisplayName("Chave de API deve autenticar a integração sem consultar o banco após o primeiro uso e parar de valer ao ser revogada")
+    void chaveApiDeveAutenticarEPararDeValerAoSerRevogada() throws Exception {
+        testUtils.criarUsuario("diretorapi", "diretorapi@example.com", "senha123", NivelHierarquia.DIRETOR, empresa);
+        String tokenDiretor = testUtils.obterToken("diretorapi", "senha123");
+
+        ChaveApiCriacaoDTO criacao = new ChaveApiCriacaoDTO();
+        criacao.setDescricao("ERP da empresa");
+        MvcResult resultado = mockMvc.perform(post("/api/chaves-api")
+                        .header("Authorization", "Bearer " + tokenDiretor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(criacao)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        ChaveApiResponseDTO chave = objectMapper.readValue(resultado.getResponse().getContentAsString(), ChaveApiResponseDTO.class);
+        assertThat(chave.getChave()).startsWith("kdu_" + chave.getPrefixo() + ".");
+
+        mockMvc.perform(get("/api/test/protected").header("X-API-Key", chave.getChave()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value("Olá, " + chave.getContaServicoNome() + "! Você acessou um recurso protegido. Seu nível é: [COMUM]"));
+
+        // Segunda requisição: verificação e versão da conta vêm da memória
+        ContadorDeConsultasSql.zerar();
+        mockMvc.perform(get("/api/test/protected").header("X-API-Key", chave.getChave()))
+                .andExpect(status().isOk());
+        assertThat(ContadorDeConsultasSql.contarSelectsNaTabela("chaves_api")).isZero();
+        assertThat(ContadorDeConsultasSql.contarSelectsNaTabela("usuarios")).isZero();
+
+        // Segredo errado com prefixo válido
+        mockMvc.perform(get("/api/test/protected").header("X-API-Key", "kdu_" + chave.getPrefixo() + ".segredo-errado"))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(delete("/api/chaves-api/" + chave.getId())
+                        .header("Authorization", "Bearer " + tokenDiretor))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/test/protected").header("X-API-Key", chave.getChave()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Usuário COMUM não deve poder criar chaves de API")
+    void usuarioComumNaoDeveCriarChaveApi() throws Exception {
+        ChaveApiCriacaoDTO criacao = new ChaveApiCriacaoDTO();
+        criacao.setDescricao("Integração não autorizada");
+        mockMvc.perform(post("/api/chaves-api")
+                        .header("Authorization", "Bearer " + this.jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(criacao)))
+                .andExpect(status().isForbidden());
+    }
 }
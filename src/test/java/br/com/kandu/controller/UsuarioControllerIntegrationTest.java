@@ -10,6 +10,7 @@ import br.com.kandu.entity.Usuario;
 import br.com.kandu.enums.NivelHierarquia;
 import br.com.kandu.repository.EmpresaRepository;
 import br.com.kandu.repository.UsuarioRepository;
+import br.com.kandu.util.TestUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -46,6 +47,8 @@ public class UsuarioControllerIntegrationTest {
     private EmpresaRepository empresaRepository;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private TestUtils testUtils;
 
     private String adminSistemaToken;
     private String diretorEmpresaAToken;
@@ -59,8 +62,7 @@ public class UsuarioControllerIntegrationTest {
     @BeforeEach
     @Transactional
     void setUp() throws Exception {
-        usuarioRepository.deleteAllInBatch();
-        empresaRepository.deleteAllInBatch();
+        testUtils.limparBanco();
 
         empresaA = empresaRepository.saveAndFlush(Empresa.builder().nome("Empresa Kandu A").codigoInscricao("EMPA001").build());
         empresaB = empresaRepository.saveAndFlush(Empresa.builder().nome("Empresa Kandu B").codigoInscricao("EMPB002").build());
@@ -92,8 +94,7 @@ public class UsuarioControllerIntegrationTest {
     @AfterEach
     @Transactional
     void tearDown() {
-        usuarioRepository.deleteAllInBatch();
-        empresaRepository.deleteAllInBatch();
+        testUtils.limparBanco();
     }
 
     private String criarUsuarioEObterToken(String nomeUsuario, String email, String senha, NivelHierarquia nivel, Empresa empresa) throws Exception {
@@ -209,4 +210,26 @@ public class UsuarioControllerIntegrationTest {
                 .andExpect(jsonPath("$.nivelHierarquia", is("SUPERVISOR")))
                 .andExpect(jsonPath("$.empresaId", is(empresaA.getId().intValue())));
     }
+
+    @Test
+    @DisplayName("[Cache] Desativação pelo ADM deve bloquear o usuário imediatamente")
+    void desativacaoDeveTerEfeitoImediato() throws Exception {
+        String token = criarUsuarioEObterToken("cache_empa", "cache@empa.com", "senha123", NivelHierarquia.COMUM, empresaA);
+        Usuario usuario = usuarioRepository.findByNomeUsuario("cache_empa").orElseThrow();
+
+        // Primeira requisição coloca o usuário nos caches
+        mockMvc.perform(get("/api/os").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        UsuarioAdminAtualizacaoDTO atualizacaoDTO = new UsuarioAdminAtualizacaoDTO();
+        atualizacaoDTO.setAtivo(false);
+        mockMvc.perform(put("/api/usuarios/" + usuario.getId())
+                        .header("Authorization", "Bearer " + adminSistemaToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(atualizacaoDTO)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/os").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
 }
@@ -0,0 +1,100 @@
+// src/test/java/br/com/kandu/repository/InsercaoEmLoteBenchmarkTest.java
+package br.com.kandu.repository;
+
+import br.com.kandu.entity.Empresa;
+import br.com.kandu.entity.LogHistoricoOS;
+import br.com.kandu.entity.OrdemDeServico;
+import br.com.kandu.entity.Usuario;
+import br.com.kandu.enums.NivelHierarquia;
+import br.com.kandu.enums.StatusOS;
+import br.com.kandu.util.ContadorDeConsultasSql;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mede quantas linhas por segundo a criação de OS em massa (cada uma com o seu log de histórico) consegue gravar,
+ * do jeito que uma importação faz: persist em uma transação, com flush e clear a cada bloco.
+ * Fica fora do build normal (@Tag("benchmark")); rode com: mvn test -Pbenchmark
+ */
+@DataJpaTest(showSql = false) // O log de cada comando dominaria a medida
+@Tag("benchmark")
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Cada medida confirma a própria transação, como em produção
+public class InsercaoEmLoteBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InsercaoEmLoteBenchmarkTest.class);
+
+    private static final int AQUECIMENTO = 1_000;
+    private static final int QUANTIDADE = 10_000;
+    private static final int BLOCO = 50;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EmpresaRepository empresaRepository;
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    @Autowired
+    private OrdemDeServicoRepository osRepository;
+    @Autowired
+    private LogHistoricoOSRepository logRepository;
+
+    @AfterEach
+    void apagar() {
+        logRepository.deleteAllInBatch();
+        osRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+        empresaRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("[Benchmark] Inserções por segundo na criação de OS com log de histórico")
+    void medirCriacaoDeOsComLog() {
+        Empresa empresa = empresaRepository.save(Empresa.builder().nome("Empresa Benchmark").codigoInscricao("BENCH01").build());
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nomeCompleto("Usuário Benchmark").nomeUsuario("bench")
+                .email("bench@example.com").senha("hash").nivelHierarquia(NivelHierarquia.SUPERVISOR).empresa(empresa).build());
+
+        gravar(AQUECIMENTO, empresa, usuario); // JIT e caches do Hibernate
+        ContadorDeConsultasSql.zerar();
+        long inicio = System.nanoTime();
+        gravar(QUANTIDADE, empresa, usuario);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long linhas = 2L * QUANTIDADE;
+        // Comandos preparados: com lotes JDBC, um por lote (e um por bloco de ids), não um por linha
+        log.info("[benchmark] {} OS + {} logs em {} ms: {} inserções/s, {} comandos SQL preparados", QUANTIDADE, QUANTIDADE,
+                Math.round(segundos * 1000), Math.round(linhas / segundos), ContadorDeConsultasSql.contarComandos());
+        assertThat(osRepository.count()).isEqualTo(AQUECIMENTO + QUANTIDADE);
+        assertThat(logRepository.count()).isEqualTo(AQUECIMENTO + QUANTIDADE);
+    }
+
+    private void gravar(int quantidade, Empresa empresa, Usuario usuario) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < quantidade; i++) {
+                OrdemDeServico os = OrdemDeServico.builder().titulo("OS benchmark " + i).descricao("Importada")
+                        .status(StatusOS.ABERTA).empresa(empresa).criador(usuario).build();
+                entityManager.persist(os);
+                entityManager.persist(LogHistoricoOS.builder().ordemDeServico(os).usuarioResponsavelAcao(usuario)
+                        .descricaoAcao("Ordem de Serviço criada.").build());
+                if ((i + 1) % BLOCO == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,149 @@
+// src/test/java/br/com/kandu/repository/PlanoDeConsultaTest.java
+package br.com.kandu.repository;
+
+import br.com.kandu.entity.Empresa;
+import br.com.kandu.entity.LogHistoricoOS;
+import br.com.kandu.entity.OrdemDeServico;
+import br.com.kandu.entity.Usuario;
+import br.com.kandu.enums.NivelHierarquia;
+import br.com.kandu.enums.StatusOS;
+import br.com.kandu.util.ContadorDeConsultasSql;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica, pelo EXPLAIN do H2, que as consultas mais frequentes usam os índices criados em
+ * db/migration/V2__indices_consultas_os.sql. O SQL explicado é exatamente o que o Hibernate gerou
+ * para o método do repositório, de modo que uma mudança na consulta ou a remoção de um índice
+ * falha aqui em vez de virar uma varredura completa da tabela em produção.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // O ANALYZE do H2 faz commit: o cenário é gravado e apagado explicitamente
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PlanoDeConsultaTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EmpresaRepository empresaRepository;
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    @Autowired
+    private OrdemDeServicoRepository osRepository;
+    @Autowired
+    private LogHistoricoOSRepository logRepository;
+
+    private Empresa empresa;
+    private Usuario usuario;
+
+    @BeforeAll
+    void criarCenario() {
+        // O otimizador do H2 escolhe o índice pelas estatísticas: com a tabela quase vazia todos os índices
+        // custam o mesmo. Por isso o cenário tem uma distribuição parecida com a real e roda ANALYZE.
+        empresa = empresaRepository.save(Empresa.builder().nome("Empresa Plano").codigoInscricao("PLANO01").build());
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            usuarios.add(Usuario.builder()
+                    .nomeCompleto("Usuário Plano " + i).nomeUsuario("plano" + i).email("plano" + i + "@example.com").senha("hash")
+                    .nivelHierarquia(NivelHierarquia.SUPERVISOR).empresa(empresa).build());
+        }
+        usuarios = usuarioRepository.saveAll(usuarios);
+        usuario = usuarios.get(0);
+
+        StatusOS[] status = StatusOS.values();
+        List<OrdemDeServico> ordens = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ordens.add(OrdemDeServico.builder().titulo("OS " + i).descricao("...")
+                    .status(status[i % status.length]).empresa(empresa)
+                    .criador(usuarios.get(i % 10)).responsavel(usuarios.get((i / 10) % 10)).build());
+        }
+        ordens = osRepository.saveAll(ordens);
+
+        List<LogHistoricoOS> logs = new ArrayList<>();
+        for (OrdemDeServico os : ordens.subList(0, 30)) {
+            for (int j = 0; j < 20; j++) {
+                logs.add(LogHistoricoOS.builder().ordemDeServico(os).usuarioResponsavelAcao(usuario).descricaoAcao("Evento " + j).build());
+            }
+        }
+        logRepository.saveAll(logs);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void apagarCenario() {
+        logRepository.deleteAllInBatch();
+        osRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+        empresaRepository.deleteAllInBatch();
+    }
+
+    @BeforeEach
+    void zerarContador() {
+        ContadorDeConsultasSql.zerar();
+    }
+
+    // Executa o EXPLAIN do último SELECT emitido, com os mesmos valores de parâmetro da chamada
+    private String planoDoUltimoSelect(Object... parametros) {
+        String plano = jdbcTemplate.queryForObject("EXPLAIN " + ContadorDeConsultasSql.ultimoSelect(), String.class, parametros);
+        return plano.toUpperCase(Locale.ROOT);
+    }
+
+    @Test
+    @DisplayName("findByEmpresaIdAndStatus deve usar o índice (empresa_id, status)")
+    void buscaPorStatusDeveUsarIndice() {
+        osRepository.findByEmpresaIdAndStatus(empresa.getId(), StatusOS.ABERTA);
+
+        String plano = planoDoUltimoSelect(empresa.getId(), StatusOS.ABERTA.name());
+        assertThat(plano).contains("PUBLIC.IDX_OS_EMPRESA_STATUS: EMPRESA_ID = ", "AND STATUS = ");
+    }
+
+    @Test
+    @DisplayName("findByEmpresaIdAndResponsavelId deve usar o índice (empresa_id, responsavel_id)")
+    void buscaPorResponsavelDeveUsarIndice() {
+        osRepository.findByEmpresaIdAndResponsavelId(empresa.getId(), usuario.getId());
+
+        String plano = planoDoUltimoSelect(empresa.getId(), usuario.getId());
+        assertThat(plano).contains("PUBLIC.IDX_OS_EMPRESA_RESPONSAVEL: EMPRESA_ID = ", "AND RESPONSAVEL_ID = ");
+    }
+
+    @Test
+    @DisplayName("A listagem das OS do criador deve usar o índice (empresa_id, criador_id, data_cadastro, id)")
+    void listagemDoCriadorDeveUsarIndice() {
+        LocalDateTime cursor = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+        osRepository.buscarPaginaDoCriadorApos(empresa.getId(), usuario.getId(), cursor, Long.MAX_VALUE, PageRequest.of(0, 20));
+
+        String plano = planoDoUltimoSelect(empresa.getId(), usuario.getId(), cursor, cursor, Long.MAX_VALUE, 21);
+        assertThat(plano).contains("PUBLIC.IDX_OS_EMPRESA_CRIADOR_DATA_CADASTRO: EMPRESA_ID = ", "AND CRIADOR_ID = ");
+    }
+
+    @Test
+    @DisplayName("O histórico da OS deve ser lido por índice em ordem_servico_id, sem JOIN nem varredura")
+    void historicoDeveUsarIndice() {
+        Long osId = osRepository.findAll().get(0).getId();
+        logRepository.findByOrdemDeServicoIdOrderByTimestampDesc(osId);
+
+        // O H2 não credita a ordenação do índice composto quando a coluna filtrada vem antes da ordenada, e
+        // empata com o índice que ele mesmo cria para a chave estrangeira; os dois começam por ordem_servico_id.
+        // Em bancos com varredura reversa (ex: PostgreSQL), idx_log_os_timestamp também elimina o ORDER BY.
+        String plano = planoDoUltimoSelect(osId);
+        assertThat(plano).containsPattern("/\\* PUBLIC\\.\\w+: ORDEM_SERVICO_ID = \\?1 \\*/")
+                .doesNotContain("TABLESCAN", "INNER JOIN");
+    }
+}
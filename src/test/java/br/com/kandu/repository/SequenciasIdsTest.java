@@ -0,0 +1,47 @@
+// src/test/java/br/com/kandu/repository/SequenciasIdsTest.java
+package br.com.kandu.repository;
+
+import br.com.kandu.entity.Empresa;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class SequenciasIdsTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Linha gravada por fora da aplicação não deve receber um id do bloco reservado pela aplicação")
+    void insercaoExternaNaoDeveColidirComBlocoReservado() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) { // Reserva um bloco de 50 ids, dos quais só 3 são usados
+            Empresa empresa = Empresa.builder().nome("Empresa seq " + i).codigoInscricao("SEQ" + i).build();
+            entityManager.persist(empresa);
+            ids.add(empresa.getId());
+        }
+        entityManager.flush();
+
+        entityManager.createNativeQuery("insert into empresas (nome, codigo_inscricao) values ('Externa', 'SEQEXT')")
+                .executeUpdate();
+        Long idExterno = ((Number) entityManager.createNativeQuery(
+                "select id from empresas where codigo_inscricao = 'SEQEXT'").getSingleResult()).longValue();
+
+        for (int i = 3; i < 6; i++) { // Continua no mesmo bloco
+            Empresa empresa = Empresa.builder().nome("Empresa seq " + i).codigoInscricao("SEQ" + i).build();
+            entityManager.persist(empresa);
+            ids.add(empresa.getId());
+        }
+        entityManager.flush();
+
+        assertThat(ids).doesNotContain(idExterno).doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.kandu.security;
+
+import br.com.kandu.exception.ServicoIndisponivelException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ExecutorPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ExecutorPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    @DisplayName("Deve gerar e verificar hashes BCrypt com o custo configurado")
+    void deveGerarEVerificarHash() {
+        encoder = new ExecutorPasswordEncoder(4, 2, 10, 5000, 2, meterRegistry);
+
+        String hash = encoder.encode("senha123");
+
+        assertThat(hash).startsWith("$2a$04$");
+        assertThat(encoder.matches("senha123", hash)).isTrue();
+        assertThat(encoder.matches("outraSenha", hash)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve pedir regravação apenas de hashes com custo menor que o atual")
+    void deveDetectarCustoDiferente() {
+        encoder = new ExecutorPasswordEncoder(5, 1, 10, 5000, 2, meterRegistry);
+
+        assertThat(encoder.upgradeEncoding(encoder.encode("senha"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("senha"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("senha"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve recusar com ServicoIndisponivelException quando o executor estiver saturado")
+    void deveRecusarQuandoSaturado() {
+        // Uma thread, fila de um e espera de 1 ms: os hashes de custo alto continuam ocupando o executor
+        encoder = new ExecutorPasswordEncoder(14, 1, 1, 1, 3, meterRegistry);
+
+        assertThrows(ServicoIndisponivelException.class, () -> encoder.encode("ocupa-a-thread"));
+        assertThrows(ServicoIndisponivelException.class, () -> encoder.encode("ocupa-a-fila"));
+        ServicoIndisponivelException recusa = assertThrows(ServicoIndisponivelException.class, () -> encoder.encode("recusada"));
+
+        assertThat(recusa.getRetryAfterSegundos()).isEqualTo(3);
+        assertThat(meterRegistry.get("senha.bcrypt.recusas").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Calibração deve respeitar os limites de custo")
+    void calibracaoDeveRespeitarLimites() {
+        encoder = new ExecutorPasswordEncoder(4, 1, 1, 5000, 2, meterRegistry);
+
+        assertThat(ExecutorPasswordEncoder.calibrarCusto(1, 4, 6)).isEqualTo(4);
+        assertThat(ExecutorPasswordEncoder.calibrarCusto(600_000, 4, 6)).isEqualTo(6);
+    }
+}
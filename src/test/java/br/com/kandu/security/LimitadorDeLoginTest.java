@@ -0,0 +1,120 @@
+package br.com.kandu.security;
+
+import br.com.kandu.exception.MuitasTentativasException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LimitadorDeLoginTest {
+
+    private static final String IP = "10.0.0.1";
+
+    private final AtomicLong agora = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private SimpleMeterRegistry meterRegistry;
+    private LimitadorDeLogin limitador;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 3 tentativas por usuário (recarga de 6/min = 1 a cada 10 s), 10 por IP; o usuário é bloqueado após 3 falhas
+        // e o IP após 6, esquecendo 1 falha por minuto; bloqueio com base de 30 s
+        limitador = new LimitadorDeLogin(meterRegistry,
+                new LimitadorDeLogin.Regras(3, 6, 3, 0), new LimitadorDeLogin.Regras(10, 10, 6, 1),
+                30, 900, 15, 1000, agora::get);
+    }
+
+    private void avancarSegundos(long segundos) {
+        agora.addAndGet(TimeUnit.SECONDS.toNanos(segundos));
+    }
+
+    @Test
+    @DisplayName("Deve recusar acima da capacidade do balde e liberar após a recarga")
+    void deveRecusarAcimaDaCapacidade() {
+        for (int i = 0; i < 3; i++) {
+            limitador.verificar("Maria", IP);
+        }
+        MuitasTentativasException recusa = assertThrows(MuitasTentativasException.class, () -> limitador.verificar(" maria ", IP));
+        assertThat(recusa.getRetryAfterSegundos()).isEqualTo(10);
+
+        avancarSegundos(10);
+        assertDoesNotThrow(() -> limitador.verificar("maria", IP));
+        assertThat(meterRegistry.get("login.tentativas.recusadas").tag("chave", "usuario").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Deve limitar por endereço mesmo variando o nome de usuário")
+    void deveLimitarPorIp() {
+        for (int i = 0; i < 10; i++) {
+            limitador.verificar("usuario" + i, IP);
+        }
+        assertThrows(MuitasTentativasException.class, () -> limitador.verificar("outro", IP));
+        assertDoesNotThrow(() -> limitador.verificar("outro", "10.0.0.2"));
+        assertThat(meterRegistry.get("login.tentativas.recusadas").tag("chave", "ip").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Deve bloquear com tempo exponencial após falhas consecutivas")
+    void deveBloquearExponencialmente() {
+        for (int i = 0; i < 3; i++) {
+            limitador.registrarFalha("joao", IP);
+        }
+        assertThat(assertThrows(MuitasTentativasException.class, () -> limitador.verificar("joao", IP))
+                .getRetryAfterSegundos()).isEqualTo(30);
+
+        avancarSegundos(30);
+        limitador.registrarFalha("joao", IP); // Quarta falha: bloqueio dobra
+        assertThat(assertThrows(MuitasTentativasException.class, () -> limitador.verificar("joao", "10.0.0.3"))
+                .getRetryAfterSegundos()).isEqualTo(60);
+    }
+
+    @Test
+    @DisplayName("Login bem-sucedido deve zerar as falhas do usuário")
+    void sucessoDeveZerarFalhas() {
+        limitador.verificar("ana", IP);
+        limitador.registrarFalha("ana", IP);
+        limitador.registrarFalha("ana", IP);
+        limitador.registrarSucesso("ana", IP);
+        limitador.registrarFalha("ana", "10.0.0.4");
+
+        assertDoesNotThrow(() -> limitador.verificar("ana", "10.0.0.4"));
+    }
+
+    @Test
+    @DisplayName("Falhas de usuários diferentes no mesmo endereço só bloqueiam o endereço num limiar maior, que decai")
+    void enderecoCompartilhadoDeveTerLimiarMaiorEDecair() {
+        for (int i = 0; i < 5; i++) {
+            limitador.registrarFalha("pessoa" + i, IP); // Uma falha de cada pessoa atrás do mesmo NAT
+        }
+        assertDoesNotThrow(() -> limitador.verificar("outra", IP));
+
+        avancarSegundos(120); // Duas falhas esquecidas: 3 restantes
+        limitador.registrarFalha("pessoa5", IP);
+        limitador.registrarFalha("pessoa6", IP);
+        assertDoesNotThrow(() -> limitador.verificar("outra", IP));
+
+        limitador.registrarFalha("pessoa7", IP); // Sexta falha vigente: o endereço é bloqueado
+        assertThat(assertThrows(MuitasTentativasException.class, () -> limitador.verificar("outra", IP))
+                .getRetryAfterSegundos()).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Login bem-sucedido deve perdoar metade das falhas do endereço")
+    void sucessoDevePerdoarMetadeDasFalhasDoEndereco() {
+        for (int i = 0; i < 5; i++) {
+            limitador.registrarFalha("pessoa" + i, IP);
+        }
+        limitador.registrarSucesso("pessoa0", IP); // 5 -> 2,5
+        limitador.registrarFalha("pessoa8", IP);
+        limitador.registrarFalha("pessoa9", IP);
+
+        assertDoesNotThrow(() -> limitador.verificar("outra", IP));
+    }
+}
@@ -0,0 +1,133 @@
+package br.com.kandu.security.apikey;
+
+import br.com.kandu.entity.ChaveApi;
+import br.com.kandu.entity.Empresa;
+import br.com.kandu.entity.Usuario;
+import br.com.kandu.enums.NivelHierarquia;
+import br.com.kandu.repository.ChaveApiRepository;
+import br.com.kandu.security.KanduPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ChaveApiVerificadorTest {
+
+    private static final String PREFIXO = "AbCdEfGhIjKl";
+    private static final String SEGREDO = "segredo-da-integracao";
+
+    private ChaveApiRepository chaveApiRepository;
+    private ChaveApiVerificador verificador;
+    private ChaveApi chave;
+
+    @BeforeEach
+    void setUp() {
+        chaveApiRepository = mock(ChaveApiRepository.class);
+        verificador = new ChaveApiVerificador(chaveApiRepository, new SimpleMeterRegistry(), "pepper-de-teste", 100, 10, 10);
+
+        Usuario conta = Usuario.builder().id(7L).nomeUsuario("api_" + PREFIXO)
+                .nivelHierarquia(NivelHierarquia.SUPERVISOR).ativo(true).versaoConta(2).build();
+        chave = ChaveApi.builder().id(1L).prefixo(PREFIXO).hash(verificador.hash(SEGREDO))
+                .empresa(Empresa.builder().id(3L).build()).contaServico(conta).ativa(true).build();
+        when(chaveApiRepository.findByPrefixo(PREFIXO)).thenReturn(Optional.of(chave));
+    }
+
+    @Test
+    @DisplayName("Deve consultar o banco apenas no primeiro uso da chave")
+    void deveConsultarBancoApenasNoPrimeiroUso() {
+        String valor = ChaveApiVerificador.montar(PREFIXO, SEGREDO);
+
+        Optional<KanduPrincipal> primeira = verificador.verificar(valor);
+        Optional<KanduPrincipal> segunda = verificador.verificar(valor);
+
+        assertThat(primeira).isPresent();
+        assertThat(segunda.get().getEmpresaId()).isEqualTo(3L);
+        assertThat(segunda.get().getNivelHierarquia()).isEqualTo(NivelHierarquia.SUPERVISOR);
+        assertThat(segunda.get().getVersaoConta()).isEqualTo(2L);
+        verify(chaveApiRepository, times(1)).findByPrefixo(PREFIXO);
+    }
+
+    @Test
+    @DisplayName("Deve recusar segredo incorreto e chaves malformadas")
+    void deveRecusarSegredoIncorretoEChavesMalformadas() {
+        assertThat(verificador.verificar(ChaveApiVerificador.montar(PREFIXO, "outro-segredo"))).isEmpty();
+        assertThat(verificador.verificar(null)).isEmpty();
+        assertThat(verificador.verificar(PREFIXO + "." + SEGREDO)).isEmpty();
+        assertThat(verificador.verificar("kdu_" + PREFIXO)).isEmpty();
+        assertThat(verificador.verificar("kdu_." + SEGREDO)).isEmpty();
+        assertThat(verificador.verificar("kdu_" + PREFIXO + ".")).isEmpty();
+        verify(chaveApiRepository, never()).findByPrefixo("");
+    }
+
+    @Test
+    @DisplayName("Deve guardar em cache também a recusa de prefixos desconhecidos")
+    void deveGuardarRecusaDePrefixoDesconhecido() {
+        when(chaveApiRepository.findByPrefixo("desconhecido")).thenReturn(Optional.empty());
+
+        verificador.verificar(ChaveApiVerificador.montar("desconhecido", SEGREDO));
+        verificador.verificar(ChaveApiVerificador.montar("desconhecido", SEGREDO));
+
+        verify(chaveApiRepository, times(1)).findByPrefixo("desconhecido");
+    }
+
+    @Test
+    @DisplayName("Prefixos desconhecidos não devem expulsar do cache as chaves válidas")
+    void prefixosDesconhecidosNaoDevemExpulsarChavesValidas() {
+        when(chaveApiRepository.findByPrefixo(startsWith("inventado"))).thenReturn(Optional.empty());
+        String valor = ChaveApiVerificador.montar(PREFIXO, SEGREDO);
+        assertThat(verificador.verificar(valor)).isPresent();
+
+        for (int i = 0; i < 500; i++) { // Bem mais que o tamanho dos dois caches
+            verificador.verificar(ChaveApiVerificador.montar("inventado" + i, SEGREDO));
+        }
+
+        assertThat(verificador.verificar(valor)).isPresent();
+        verify(chaveApiRepository, times(1)).findByPrefixo(PREFIXO);
+        assertThat(verificador.tamanhoEstimado()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve reler a chave para obter a versão atual da conta")
+    void deveRelerChaveParaObterVersaoAtual() {
+        String valor = ChaveApiVerificador.montar(PREFIXO, SEGREDO);
+        assertThat(verificador.verificar(valor).get().getVersaoConta()).isEqualTo(2L);
+
+        chave.getContaServico().setVersaoConta(3); // Ex: o nível da conta de serviço foi alterado
+
+        assertThat(verificador.verificar(valor).get().getVersaoConta()).isEqualTo(2L);
+        assertThat(verificador.reverificar(valor).get().getVersaoConta()).isEqualTo(3L);
+        assertThat(verificador.verificar(valor).get().getVersaoConta()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Chave revogada deve deixar de valer após a invalidação")
+    void chaveRevogadaDeveDeixarDeValerAposInvalidacao() {
+        String valor = ChaveApiVerificador.montar(PREFIXO, SEGREDO);
+        assertThat(verificador.verificar(valor)).isPresent();
+
+        chave.setAtiva(false);
+        verificador.invalidar(PREFIXO);
+
+        assertThat(verificador.verificar(valor)).isEmpty();
+        verify(chaveApiRepository, times(2)).findByPrefixo(anyString());
+    }
+
+    @Test
+    @DisplayName("O hash gravado deve depender do pepper")
+    void hashDeveDependerDoPepper() {
+        ChaveApiVerificador outro = new ChaveApiVerificador(chaveApiRepository, new SimpleMeterRegistry(), "outro-pepper", 100, 10, 10);
+        assertThat(outro.hash(SEGREDO)).isNotEqualTo(verificador.hash(SEGREDO));
+        assertThat(verificador.hash(SEGREDO)).isEqualTo(verificador.hash(SEGREDO));
+    }
+}
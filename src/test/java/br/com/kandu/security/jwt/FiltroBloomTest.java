@@ -0,0 +1,42 @@
+package br.com.kandu.security.jwt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FiltroBloomTest {
+
+    @Test
+    @DisplayName("Nunca deve dar falso negativo")
+    void naoDeveTerFalsoNegativo() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        String[] valores = new String[10_000];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = UUID.randomUUID().toString();
+            filtro.adicionar(valores[i]);
+        }
+        for (String valor : valores) {
+            assertThat(filtro.podeConter(valor)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Taxa de falso positivo deve ficar próxima da configurada")
+    void taxaDeFalsoPositivoDeveFicarProximaDaConfigurada() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.adicionar(UUID.randomUUID().toString());
+        }
+        int falsosPositivos = 0;
+        int consultas = 100_000;
+        for (int i = 0; i < consultas; i++) {
+            if (filtro.podeConter(UUID.randomUUID().toString())) {
+                falsosPositivos++;
+            }
+        }
+        assertThat((double) falsosPositivos / consultas).isLessThan(0.02);
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.kandu.security.jwt;
+
+import br.com.kandu.entity.Usuario;
+import br.com.kandu.enums.NivelHierarquia;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class JwtTokenCacheTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtTokenCache tokenCache;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        JwtTokenProvider provider = new JwtTokenProvider(new RegistroDeRejeicoesJwt(new SimpleMeterRegistry(), 10, 1000));
+        ReflectionTestUtils.setField(provider, "jwtSecretString", "TesteSuperSecretoMuitoLongoParaNaoDarErroDeTamanhoMinimoComHS256");
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 3600000L);
+        provider.init();
+        jwtTokenProvider = spy(provider);
+
+        meterRegistry = new SimpleMeterRegistry();
+        tokenCache = new JwtTokenCache(jwtTokenProvider, meterRegistry, 100);
+
+        token = jwtTokenProvider.generateToken(Usuario.builder().id(1L).nomeUsuario("cacheuser").nivelHierarquia(NivelHierarquia.COMUM).build());
+    }
+
+    @Test
+    @DisplayName("Deve verificar a assinatura apenas uma vez para o mesmo token")
+    void deveVerificarAssinaturaApenasUmaVez() {
+        Optional<Claims> primeira = tokenCache.verificar(token);
+        Optional<Claims> segunda = tokenCache.verificar(token);
+        Optional<Claims> terceira = tokenCache.verificar(token);
+
+        assertThat(primeira).isPresent();
+        assertThat(segunda).isPresent();
+        assertThat(terceira.get().getSubject()).isEqualTo("cacheuser");
+        verify(jwtTokenProvider, times(1)).validarEObterClaims(token);
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", JwtTokenCache.NOME_CACHE).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", JwtTokenCache.NOME_CACHE).tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Não deve armazenar tokens inválidos no cache")
+    void naoDeveArmazenarTokenInvalido() {
+        assertThat(tokenCache.verificar("token.invalido.jwt")).isEmpty();
+        assertThat(tokenCache.verificar(token + "x")).isEmpty();
+        assertThat(tokenCache.tamanhoEstimado()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve verificar novamente um token após ser invalidado")
+    void deveReverificarAposInvalidacao() {
+        tokenCache.verificar(token);
+        tokenCache.invalidar(token);
+        tokenCache.verificar(token);
+
+        verify(jwtTokenProvider, times(2)).validarEObterClaims(token);
+    }
+}
@@ -1,10 +1,13 @@
 package br.com.kandu.security.jwt;
 
+import br.com.kandu.entity.Empresa;
 import br.com.kandu.entity.Usuario;
 import br.com.kandu.enums.NivelHierarquia;
+import br.com.kandu.security.KanduPrincipal;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -22,10 +25,12 @@ public class JwtTokenProviderTest {
     private final String testSecret = "TesteSuperSecretoMuitoLongoParaNaoDarErroDeTamanhoMinimoComHS256"; // 64 chars
     private final long testExpirationMs = 3600000; // 1 hora
     private SecretKey testSecretKey;
+    private RegistroDeRejeicoesJwt rejeicoes;
 
     @BeforeEach
     void setUp() {
-        jwtTokenProvider = new JwtTokenProvider();
+        rejeicoes = new RegistroDeRejeicoesJwt(new SimpleMeterRegistry(), 10, 1000);
+        jwtTokenProvider = new JwtTokenProvider(rejeicoes);
         // Injeta os valores de @Value manualmente para o teste unitário
         ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecretString", testSecret);
         ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationInMs", testExpirationMs);
@@ -57,4 +62,63 @@ public class JwtTokenProviderTest {
         assertThat(claims.getSubject()).isEqualTo("testuser");
         assertThat(claims.getExpiration()).isAfter(new Date()); // Verifica se a expiração está no futuro
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Deve montar o principal a partir das claims do token")
+    void deveMontarPrincipalDasClaims() {
+        Usuario usuario = Usuario.builder()
+                .id(7L)
+                .nomeUsuario("principaluser")
+                .nivelHierarquia(NivelHierarquia.GESTOR)
+                .empresa(Empresa.builder().id(3L).build())
+                .versaoConta(2L)
+                .build();
+
+        KanduPrincipal principal = jwtTokenProvider.getPrincipal(
+                jwtTokenProvider.parseClaims(jwtTokenProvider.generateToken(usuario)));
+
+        assertThat(principal).isNotNull();
+        assertThat(principal.getId()).isEqualTo(7L);
+        assertThat(principal.getUsername()).isEqualTo("principaluser");
+        assertThat(principal.getEmpresaId()).isEqualTo(3L);
+        assertThat(principal.getNivelHierarquia()).isEqualTo(NivelHierarquia.GESTOR);
+        assertThat(principal.getVersaoConta()).isEqualTo(2L);
+        assertThat(principal.getAuthorities()).extracting("authority").containsExactly("GESTOR");
+    }
+
+    @Test
+    @DisplayName("Não deve montar principal para token sem as claims de identificação")
+    void naoDeveMontarPrincipalDeTokenAntigo() {
+        String tokenAntigo = Jwts.builder()
+                .subject("legado")
+                .expiration(new Date(System.currentTimeMillis() + testExpirationMs))
+                .signWith(testSecretKey)
+                .compact();
+
+        assertThat(jwtTokenProvider.getPrincipal(jwtTokenProvider.parseClaims(tokenAntigo))).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve contar a recusa de tokens por motivo")
+    void deveContarRecusasPorMotivo() {
+        String expirado = Jwts.builder()
+                .subject("expirado")
+                .issuedAt(new Date(System.currentTimeMillis() - 20000))
+                .expiration(new Date(System.currentTimeMillis() - 10000))
+                .signWith(testSecretKey)
+                .compact();
+        String outraAssinatura = Jwts.builder()
+                .subject("forjado")
+                .expiration(new Date(System.currentTimeMillis() + 10000))
+                .signWith(Keys.hmacShaKeyFor("OutraChaveSecretaMuitoLongaParaAssinarTokensForjadosComHS256!!".getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThat(jwtTokenProvider.validateToken(expirado)).isFalse();
+        assertThat(jwtTokenProvider.validateToken(outraAssinatura)).isFalse();
+        assertThat(jwtTokenProvider.validateToken("nao.e.jwt")).isFalse();
+
+        assertThat(rejeicoes.contagem(RegistroDeRejeicoesJwt.Motivo.EXPIRADO)).isEqualTo(1.0);
+        assertThat(rejeicoes.contagem(RegistroDeRejeicoesJwt.Motivo.ASSINATURA_INVALIDA)).isEqualTo(1.0);
+        assertThat(rejeicoes.contagem(RegistroDeRejeicoesJwt.Motivo.MALFORMADO)).isEqualTo(1.0);
+    }
+}
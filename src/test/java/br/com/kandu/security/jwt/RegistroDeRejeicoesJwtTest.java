@@ -0,0 +1,68 @@
+package br.com.kandu.security.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RegistroDeRejeicoesJwtTest {
+
+    private final AtomicLong agora = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private SimpleMeterRegistry meterRegistry;
+    private RegistroDeRejeicoesJwt rejeicoes;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Sem amostragem (1 em 1), no máximo uma linha de log por segundo
+        rejeicoes = new RegistroDeRejeicoesJwt(meterRegistry, 1, 1000, agora::get);
+    }
+
+    @Test
+    @DisplayName("Deve contar todas as recusas mas registrar no log no máximo uma por intervalo")
+    void deveLimitarLogMasContarTodas() {
+        for (int i = 0; i < 50; i++) {
+            rejeicoes.registrar(RegistroDeRejeicoesJwt.Motivo.MALFORMADO, "token malformado");
+        }
+
+        assertThat(meterRegistry.get("jwt.rejeicoes").tag("motivo", "malformado").counter().count()).isEqualTo(50.0);
+        assertThat(rejeicoes.omitidasDesdeUltimoLog()).isEqualTo(49);
+
+        // Após o intervalo, a próxima recusa é registrada e zera as omitidas
+        agora.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        rejeicoes.registrar(RegistroDeRejeicoesJwt.Motivo.ASSINATURA_INVALIDA, "assinatura inválida");
+        assertThat(rejeicoes.omitidasDesdeUltimoLog()).isZero();
+    }
+
+    @Test
+    @DisplayName("Token expirado deve ser contado sem passar pelo canal de log limitado")
+    void expiradoNaoDeveConsumirOLog() {
+        for (int i = 0; i < 10; i++) {
+            rejeicoes.registrar(RegistroDeRejeicoesJwt.Motivo.EXPIRADO, "expirado");
+        }
+
+        assertThat(meterRegistry.get("jwt.rejeicoes").tag("motivo", "expirado").counter().count()).isEqualTo(10.0);
+        assertThat(rejeicoes.omitidasDesdeUltimoLog()).isZero();
+
+        // A janela de log continua livre para a primeira recusa relevante
+        rejeicoes.registrar(RegistroDeRejeicoesJwt.Motivo.REVOGADO, "revogado");
+        assertThat(rejeicoes.omitidasDesdeUltimoLog()).isZero();
+    }
+
+    @Test
+    @DisplayName("Erro interno deve ser contado sem passar pela amostragem das recusas")
+    void erroInternoNaoDeveSerAmostrado() {
+        rejeicoes.registrar(RegistroDeRejeicoesJwt.Motivo.MALFORMADO, "ocupa a janela de log");
+        for (int i = 0; i < 3; i++) {
+            rejeicoes.registrarErroInterno(new IllegalStateException("falha no cache"));
+        }
+
+        assertThat(meterRegistry.get("jwt.rejeicoes").tag("motivo", "erro_interno").counter().count()).isEqualTo(3.0);
+        assertThat(rejeicoes.omitidasDesdeUltimoLog()).isZero();
+    }
+}
@@ -0,0 +1,102 @@
+package br.com.kandu.security.jwt;
+
+import br.com.kandu.entity.TokenRevogado;
+import br.com.kandu.repository.TokenRevogadoRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevogacaoServiceTest {
+
+    @Mock
+    private TokenRevogadoRepository tokenRevogadoRepository;
+    @Mock
+    private JwtTokenCache tokenCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevogacaoService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new TokenRevogacaoService(tokenRevogadoRepository, tokenCache, meterRegistry, 1000, 0.01);
+    }
+
+    private Claims claims(String jti) {
+        return Jwts.claims().id(jti).subject("usuario").add(JwtTokenProvider.CLAIM_USUARIO_ID, 5L)
+                .expiration(new Date(System.currentTimeMillis() + 60_000)).build();
+    }
+
+    @Test
+    @DisplayName("Token não revogado deve ser liberado pelo filtro sem consultar o banco")
+    void tokenNaoRevogadoNaoDeveConsultarBanco() {
+        service.carregar();
+
+        assertThat(service.isRevogado("jti-qualquer")).isFalse();
+        verify(tokenRevogadoRepository, never()).existsByJti(any());
+        assertThat(meterRegistry.get("jwt.revogacao.consultas").tag("resultado", "filtro").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Token revogado deve ser confirmado no banco")
+    void tokenRevogadoDeveSerConfirmadoNoBanco() {
+        when(tokenRevogadoRepository.existsByJti("jti-revogado")).thenReturn(false, true);
+
+        service.revogar(claims("jti-revogado"));
+
+        assertThat(service.isRevogado("jti-revogado")).isTrue();
+        verify(tokenRevogadoRepository).save(argThat((TokenRevogado t) -> t.getJti().equals("jti-revogado") && t.getUsuarioId() == 5L));
+    }
+
+    @Test
+    @DisplayName("Revogação concorrente do mesmo token deve ser tratada como já revogado")
+    void revogacaoConcorrenteDeveSerTratadaComoJaRevogado() {
+        when(tokenRevogadoRepository.existsByJti("jti-duplo")).thenReturn(false, true);
+        when(tokenRevogadoRepository.save(any(TokenRevogado.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_token_revogado_jti"));
+
+        service.revogar(claims("jti-duplo"));
+
+        assertThat(service.isRevogado("jti-duplo")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sincronização deve trazer para o filtro as revogações feitas em outras instâncias")
+    void sincronizacaoDeveTrazerRevogacoesDeOutrasInstancias() {
+        when(tokenRevogadoRepository.findJtisRevogadosDesde(any(LocalDateTime.class))).thenReturn(List.of("jti-de-outra"));
+        when(tokenRevogadoRepository.existsByJti("jti-de-outra")).thenReturn(true);
+
+        assertThat(service.isRevogado("jti-de-outra")).isFalse(); // Ainda não está no filtro desta instância
+        service.sincronizar();
+
+        assertThat(service.isRevogado("jti-de-outra")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Reconstrução deve carregar no filtro as revogações ainda válidas")
+    void reconstrucaoDeveCarregarRevogacoesValidas() {
+        when(tokenRevogadoRepository.findJtisValidosEm(any(LocalDateTime.class))).thenReturn(List.of("jti-persistido"));
+        when(tokenRevogadoRepository.existsByJti("jti-persistido")).thenReturn(true);
+
+        service.purgarExpirados();
+
+        assertThat(service.isRevogado("jti-persistido")).isTrue();
+        verify(tokenRevogadoRepository).deleteExpiradosEm(any(LocalDateTime.class));
+    }
+}
@@ -0,0 +1,89 @@
+// src/test/java/br/com/kandu/service/ContadorStatusOSServiceTest.java
+package br.com.kandu.service;
+
+import br.com.kandu.enums.StatusOS;
+import br.com.kandu.repository.OrdemDeServicoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ContadorStatusOSServiceTest {
+
+    private OrdemDeServicoRepository osRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ContadorStatusOSService contador;
+
+    @BeforeEach
+    void setUp() {
+        osRepository = mock(OrdemDeServicoRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        contador = new ContadorStatusOSService(osRepository, meterRegistry);
+    }
+
+    private static List<Object[]> linhas(Object[]... linhas) {
+        return new ArrayList<>(List.of(linhas));
+    }
+
+    private double gauge(long empresaId, StatusOS status) {
+        return meterRegistry.get("os.status.contagem").tag("empresa", String.valueOf(empresaId)).tag("status", status.name()).gauge().value();
+    }
+
+    @Test
+    @DisplayName("Deve contar criações e mudanças de status por empresa e publicar os gauges")
+    void deveContarPorEmpresaEStatus() {
+        contador.registrarCriacao(1L, StatusOS.ABERTA);
+        contador.registrarCriacao(1L, StatusOS.ABERTA);
+        contador.registrarCriacao(2L, StatusOS.ABERTA);
+        contador.registrarMudanca(1L, StatusOS.ABERTA, StatusOS.CANCELADA);
+
+        assertThat(contador.contagem(1L)).containsEntry(StatusOS.ABERTA, 1L).containsEntry(StatusOS.CANCELADA, 1L)
+                .containsEntry(StatusOS.CONCLUIDA, 0L).hasSize(StatusOS.values().length);
+        assertThat(contador.contagem(null)).containsEntry(StatusOS.ABERTA, 2L); // Soma de todas as empresas
+        assertThat(contador.contagem(99L).values()).allMatch(v -> v == 0L);
+        assertThat(gauge(1L, StatusOS.CANCELADA)).isEqualTo(1.0);
+        assertThat(gauge(2L, StatusOS.ABERTA)).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Dentro de uma transação, só deve contar depois do commit")
+    void deveContarSomenteAposCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            contador.registrarCriacao(1L, StatusOS.ABERTA);
+            assertThat(contador.contagem(1L)).containsEntry(StatusOS.ABERTA, 0L);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(contador.contagem(1L)).containsEntry(StatusOS.ABERTA, 1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("A reconciliação deve corrigir os desvios pelo banco e contar as correções")
+    void reconciliacaoDeveCorrigirDesvios() {
+        contador.registrarCriacao(1L, StatusOS.ABERTA);
+        contador.registrarCriacao(3L, StatusOS.EM_ANDAMENTO); // Empresa que não tem mais OS no banco
+        when(osRepository.contarPorEmpresaEStatus()).thenReturn(linhas(
+                new Object[]{1L, StatusOS.ABERTA, 4L},
+                new Object[]{2L, StatusOS.CONCLUIDA, 2L}));
+
+        contador.reconciliar();
+
+        assertThat(contador.contagem(1L)).containsEntry(StatusOS.ABERTA, 4L);
+        assertThat(contador.contagem(2L)).containsEntry(StatusOS.CONCLUIDA, 2L);
+        assertThat(contador.contagem(3L)).containsEntry(StatusOS.EM_ANDAMENTO, 0L);
+        assertThat(meterRegistry.get("os.status.contagem.correcoes").counter().count()).isEqualTo(3.0);
+        assertThat(gauge(2L, StatusOS.CONCLUIDA)).isEqualTo(2.0);
+    }
+}
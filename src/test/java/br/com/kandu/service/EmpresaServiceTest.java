@@ -33,6 +33,9 @@ public class EmpresaServiceTest {
     @Mock
     private UsuarioRepository usuarioRepository; // Mock para o teste de deleção
 
+    @Mock
+    private UsuarioCacheService usuarioCache;
+
     @InjectMocks
     private EmpresaService empresaService;
 
@@ -0,0 +1,89 @@
+// src/test/java/br/com/kandu/service/ImportacaoOSBenchmarkTest.java
+package br.com.kandu.service;
+
+import br.com.kandu.dto.ResultadoImportacaoDTO;
+import br.com.kandu.entity.Empresa;
+import br.com.kandu.enums.FormatoExportacao;
+import br.com.kandu.enums.NivelHierarquia;
+import br.com.kandu.repository.EmpresaRepository;
+import br.com.kandu.repository.OrdemDeServicoRepository;
+import br.com.kandu.util.TestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mede a vazão da importação de OS em CSV com o H2 em modo arquivo, como na meta de 10 mil OS por minuto.
+ * Fica fora do build normal (@Tag("benchmark")); rode com: mvn test -Pbenchmark
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/benchmark/importacao;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@Tag("benchmark")
+public class ImportacaoOSBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacaoOSBenchmarkTest.class);
+
+    private static final int AQUECIMENTO = 1_000;
+    private static final int QUANTIDADE = 10_000;
+
+    @Autowired
+    private ImportacaoOSService importacaoService;
+    @Autowired
+    private EmpresaRepository empresaRepository;
+    @Autowired
+    private OrdemDeServicoRepository osRepository;
+    @Autowired
+    private TestUtils testUtils;
+
+    @AfterEach
+    void apagar() {
+        SecurityContextHolder.clearContext();
+        testUtils.limparBanco();
+    }
+
+    @Test
+    @DisplayName("[Benchmark] OS importadas por minuto a partir de CSV")
+    void medirImportacaoCsv() throws Exception {
+        testUtils.limparBanco();
+        Empresa empresa = empresaRepository.save(Empresa.builder().nome("Empresa Importação").codigoInscricao("IMP01").build());
+        testUtils.criarUsuario("importador", "importador@kandu.com", "pass", NivelHierarquia.SUPERVISOR, empresa);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("importador", null, List.of()));
+
+        importacaoService.importar(FormatoExportacao.CSV, csv(AQUECIMENTO)); // JIT e caches do Hibernate
+        long inicio = System.nanoTime();
+        ResultadoImportacaoDTO resultado = importacaoService.importar(FormatoExportacao.CSV, csv(QUANTIDADE));
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        log.info("[benchmark] {} OS importadas em {} ms: {} OS/min", resultado.getImportadas(),
+                Math.round(segundos * 1000), Math.round(QUANTIDADE / segundos * 60));
+        assertThat(resultado.getRejeitadas()).isZero();
+        assertThat(osRepository.count()).isEqualTo(AQUECIMENTO + QUANTIDADE);
+    }
+
+    private static ByteArrayInputStream csv(int linhas) {
+        StringBuilder csv = new StringBuilder("titulo,descricao,local,prazo,status,requisitos,projetoPrivado\r\n");
+        for (int i = 0; i < linhas; i++) {
+            csv.append("OS importada ").append(i).append(",\"Revisão, item ").append(i)
+                    .append("\",Bloco ").append(i % 7).append(",2030-06-30,ABERTA,EPI,false\r\n");
+        }
+        return new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.kandu.service;
+
+import br.com.kandu.enums.StatusOS;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndiceTextoOSTest {
+
+    @Test
+    @DisplayName("Deve separar os termos sem acentos, em minúsculas, sem repetição e sem termos de uma letra")
+    void deveNormalizarTermos() {
+        assertThat(IndiceTextoOS.termos("Válvula da BOMBA d'água — válvula 2, B12"))
+                .containsExactly("valvula", "da", "bomba", "agua", "b12");
+        assertThat(IndiceTextoOS.termos("  ")).isEmpty();
+        assertThat(IndiceTextoOS.termos(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve exigir todos os termos como prefixo, do maior id para o menor, com cursor e limite")
+    void deveBuscarPorPrefixosComCursor() {
+        IndiceTextoOS indice = new IndiceTextoOS();
+        indice.indexar(3, 1, StatusOS.ABERTA, "Bomba de incêndio");
+        indice.indexar(1, 1, StatusOS.ABERTA, "Vazamento nas bombas");
+        indice.indexar(2, 2, StatusOS.ABERTA, "Bomba com vazamento");
+
+        assertThat(indice.buscar(List.of("bomb"), null, false, Long.MAX_VALUE, 10)).containsExactly(3L, 2L, 1L);
+        assertThat(indice.buscar(List.of("vaz", "bomba"), null, false, Long.MAX_VALUE, 10)).containsExactly(2L, 1L);
+        assertThat(indice.buscar(List.of("bomba"), null, false, 3, 1)).containsExactly(2L);
+        assertThat(indice.buscar(List.of("bomba", "pintura"), null, false, Long.MAX_VALUE, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve filtrar por criador e status, e reindexar uma OS sem deixar os termos antigos")
+    void deveAplicarVisibilidadeEReindexar() {
+        IndiceTextoOS indice = new IndiceTextoOS();
+        indice.indexar(1, 1, StatusOS.ABERTA, "Bomba");
+        indice.indexar(2, 2, StatusOS.ABERTA, "Bomba");
+
+        assertThat(indice.buscar(List.of("bomba"), 2L, false, Long.MAX_VALUE, 10)).containsExactly(2L);
+
+        indice.alterarStatus(2, StatusOS.ARQUIVADA);
+        indice.alterarStatus(99, StatusOS.ARQUIVADA); // Fora do índice: ignorada
+        assertThat(indice.buscar(List.of("bomba"), null, false, Long.MAX_VALUE, 10)).containsExactly(1L);
+        assertThat(indice.buscar(List.of("bomba"), null, true, Long.MAX_VALUE, 10)).containsExactly(2L, 1L);
+
+        indice.indexar(1, 1, StatusOS.ABERTA, "Pintura");
+        assertThat(indice.buscar(List.of("bomba"), null, false, Long.MAX_VALUE, 10)).isEmpty();
+        assertThat(indice.buscar(List.of("pint"), null, false, Long.MAX_VALUE, 10)).containsExactly(1L);
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.kandu.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LeitorCsvTest {
+
+    @Test
+    @DisplayName("Deve ler campos entre aspas, aspas duplicadas e quebras de linha dentro do campo")
+    void deveLerRegistrosComAspas() throws Exception {
+        LeitorCsv leitor = new LeitorCsv(new StringReader("a,\"b, c\",\"diz \"\"oi\"\"\"\r\n\r\n\"x\ny\",,z\nfim"), 100);
+
+        assertThat(leitor.proximoRegistro()).containsExactly("a", "b, c", "diz \"oi\"");
+        assertThat(leitor.getLinhaDoRegistro()).isEqualTo(1);
+        assertThat(leitor.proximoRegistro()).containsExactly("x\ny", "", "z");
+        assertThat(leitor.getLinhaDoRegistro()).isEqualTo(3);
+        assertThat(leitor.proximoRegistro()).containsExactly("fim");
+        assertThat(leitor.getLinhaDoRegistro()).isEqualTo(5);
+        assertThat(leitor.proximoRegistro()).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve recusar um campo com aspas não fechadas")
+    void deveRecusarAspasNaoFechadas() throws Exception {
+        LeitorCsv leitor = new LeitorCsv(new StringReader("ok\n\"aberto,sem fim\n"), 100);
+
+        assertThat(leitor.proximoRegistro()).containsExactly("ok");
+        assertThatThrownBy(leitor::proximoRegistro).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Deve recusar um registro maior que o tamanho máximo, sem acumular o resto da entrada")
+    void deveRecusarRegistroMaiorQueOMaximo() throws Exception {
+        LeitorCsv leitor = new LeitorCsv(new StringReader("abc,de\n\"x" + "y".repeat(1000) + "\n"), 6);
+
+        assertThat(leitor.proximoRegistro()).containsExactly("abc", "de");
+        assertThatThrownBy(leitor::proximoRegistro).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("linha 2");
+    }
+}
@@ -0,0 +1,41 @@
+// src/test/java/br/com/kandu/service/MaquinaDeEstadosOSTest.java
+package br.com.kandu.service;
+
+import br.com.kandu.enums.NivelHierarquia;
+import br.com.kandu.enums.StatusOS;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MaquinaDeEstadosOSTest {
+
+    private final MaquinaDeEstadosOS maquina = new MaquinaDeEstadosOS();
+
+    @Test
+    @DisplayName("Deve seguir o ciclo de vida documentado no StatusOS")
+    void deveSeguirCicloDeVida() {
+        assertThat(maquina.destinos(StatusOS.ABERTA)).containsExactlyInAnyOrder(StatusOS.EM_ANDAMENTO, StatusOS.CANCELADA);
+        assertThat(maquina.destinos(StatusOS.PENDENTE_APROVACAO))
+                .containsExactlyInAnyOrder(StatusOS.CONCLUIDA, StatusOS.EM_ANDAMENTO, StatusOS.CANCELADA);
+        assertThat(maquina.destinos(StatusOS.CONCLUIDA)).containsExactly(StatusOS.ARQUIVADA);
+        assertThat(maquina.destinos(StatusOS.ARQUIVADA)).isEmpty();
+        // Os destinos são montados uma vez: a consulta devolve sempre o mesmo conjunto, sem permitir alterá-lo
+        assertThat(maquina.destinos(StatusOS.ABERTA)).isSameAs(maquina.destinos(StatusOS.ABERTA)).isUnmodifiable();
+
+        assertThrows(IllegalStateException.class, () -> maquina.verificar(StatusOS.ABERTA, StatusOS.CONCLUIDA, NivelHierarquia.ADM));
+        assertThrows(IllegalStateException.class, () -> maquina.verificar(StatusOS.ARQUIVADA, StatusOS.ABERTA, NivelHierarquia.ADM));
+    }
+
+    @Test
+    @DisplayName("Deve exigir o nível mínimo de cada transição")
+    void deveExigirNivelMinimo() {
+        assertDoesNotThrow(() -> maquina.verificar(StatusOS.ABERTA, StatusOS.EM_ANDAMENTO, NivelHierarquia.COMUM));
+        assertDoesNotThrow(() -> maquina.verificar(StatusOS.EM_ANDAMENTO, StatusOS.PENDENTE_APROVACAO, NivelHierarquia.COMUM));
+        assertThrows(SecurityException.class, () -> maquina.verificar(StatusOS.PENDENTE_APROVACAO, StatusOS.CONCLUIDA, NivelHierarquia.COMUM));
+        assertDoesNotThrow(() -> maquina.verificar(StatusOS.PENDENTE_APROVACAO, StatusOS.CONCLUIDA, NivelHierarquia.SUPERVISOR));
+        assertDoesNotThrow(() -> maquina.verificar(StatusOS.CANCELADA, StatusOS.ARQUIVADA, NivelHierarquia.DIRETOR));
+    }
+}
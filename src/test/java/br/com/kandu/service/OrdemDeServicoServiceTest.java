@@ -2,6 +2,7 @@
 package br.com.kandu.service;
 
 import br.com.kandu.dto.OrdemDeServicoCriacaoDTO;
+import br.com.kandu.dto.PaginaDTO;
 import br.com.kandu.entity.Empresa;
 import br.com.kandu.entity.LogHistoricoOS;
 import br.com.kandu.entity.OrdemDeServico;
@@ -9,7 +10,9 @@ import br.com.kandu.entity.ParticipanteOS;
 import br.com.kandu.entity.Usuario;
 import br.com.kandu.enums.NivelHierarquia;
 import br.com.kandu.enums.StatusOS;
+import br.com.kandu.exception.VersaoDesatualizadaException;
 import br.com.kandu.repository.LogHistoricoOSRepository;
+import br.com.kandu.repository.OrdemDeServicoArquivadaRepository;
 import br.com.kandu.repository.OrdemDeServicoRepository;
 import br.com.kandu.repository.ParticipanteOSRepository;
 import br.com.kandu.repository.UsuarioRepository;
@@ -21,7 +24,11 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +37,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +53,16 @@ public class OrdemDeServicoServiceTest {
     private ParticipanteOSRepository participanteRepository;
     @Mock
     private UsuarioRepository usuarioRepository;
+    @Mock
+    private ContadorStatusOSService contadorStatus;
+    @Mock
+    private CarimboAlteracoesOSService carimboAlteracoes;
+    @Mock
+    private MaquinaDeEstadosOS maquinaDeEstados;
+    @Mock
+    private OrdemDeServicoArquivadaRepository arquivoRepository;
+    @Mock
+    private BuscaTextoOSService buscaTexto;
 
     @InjectMocks
     private OrdemDeServicoService osService;
@@ -80,6 +98,7 @@ public class OrdemDeServicoServiceTest {
         assertThat(logSalvo).isNotNull();
         assertThat(logSalvo.getDescricaoAcao()).isEqualTo("Ordem de Serviço criada.");
         assertThat(logSalvo.getOrdemDeServico().getId()).isEqualTo(10L);
+        verify(contadorStatus).registrarCriacao(1L, StatusOS.ABERTA);
     }
 
     @Test
@@ -89,13 +108,29 @@ public class OrdemDeServicoServiceTest {
         when(usuarioService.getUsuarioAutenticado()).thenReturn(usuarioSupervisor);
         when(osRepository.findById(20L)).thenReturn(Optional.of(osExistente));
         ArgumentCaptor<LogHistoricoOS> logCaptor = ArgumentCaptor.forClass(LogHistoricoOS.class);
-        osService.deletarOS(20L);
+        osService.deletarOS(20L, null);
         verify(osRepository).save(any(OrdemDeServico.class));
         verify(logRepository).save(logCaptor.capture());
         LogHistoricoOS logSalvo = logCaptor.getValue();
         assertThat(logSalvo.getDescricaoAcao()).isEqualTo("OS cancelada.");
         assertThat(logSalvo.getDadosAntigos()).isEqualTo("status: ABERTA");
         assertThat(logSalvo.getDadosNovos()).isEqualTo("status: CANCELADA");
+        verify(contadorStatus).registrarMudanca(1L, StatusOS.ABERTA, StatusOS.CANCELADA);
+    }
+
+    @Test
+    @DisplayName("Não deve alterar a OS quando a versão esperada (If-Match) já não é a atual")
+    void naoDeveDeletarOsComVersaoDesatualizada() {
+        OrdemDeServico osExistente = OrdemDeServico.builder().id(20L).versao(4L).status(StatusOS.ABERTA).empresa(empresa).criador(usuarioComum).build();
+        when(usuarioService.getUsuarioAutenticado()).thenReturn(usuarioSupervisor);
+        when(osRepository.findById(20L)).thenReturn(Optional.of(osExistente));
+
+        VersaoDesatualizadaException e = assertThrows(VersaoDesatualizadaException.class, () -> osService.deletarOS(20L, 3L));
+
+        assertThat(e.getVersaoAtual()).isEqualTo(4L);
+        assertThat(osExistente.getStatus()).isEqualTo(StatusOS.ABERTA);
+        verify(osRepository, never()).save(any(OrdemDeServico.class));
+        verifyNoInteractions(logRepository, contadorStatus, carimboAlteracoes);
     }
 
     // --- Testes para Participantes ---
@@ -107,7 +142,7 @@ public class OrdemDeServicoServiceTest {
         OrdemDeServico os = OrdemDeServico.builder().id(1L).empresa(empresa).build();
 
         when(usuarioService.getUsuarioAutenticado()).thenReturn(usuarioSupervisor);
-        when(osRepository.findById(1L)).thenReturn(Optional.of(os));
+        when(osRepository.findParaAlteracaoById(1L)).thenReturn(Optional.of(os));
         when(usuarioRepository.findById(3L)).thenReturn(Optional.of(participanteCandidato));
         when(participanteRepository.findByOrdemDeServicoIdAndUsuarioId(1L, 3L)).thenReturn(Optional.empty());
 
@@ -126,7 +161,7 @@ public class OrdemDeServicoServiceTest {
         OrdemDeServico os = OrdemDeServico.builder().id(1L).empresa(empresa).build();
 
         when(usuarioService.getUsuarioAutenticado()).thenReturn(usuarioSupervisor);
-        when(osRepository.findById(1L)).thenReturn(Optional.of(os));
+        when(osRepository.findParaAlteracaoById(1L)).thenReturn(Optional.of(os));
         when(usuarioRepository.findById(3L)).thenReturn(Optional.of(participanteExistente));
         when(participanteRepository.findByOrdemDeServicoIdAndUsuarioId(1L, 3L)).thenReturn(Optional.of(new ParticipanteOS()));
 
@@ -142,10 +177,10 @@ public class OrdemDeServicoServiceTest {
         os.getParticipantes().add(participacao);
 
         when(usuarioService.getUsuarioAutenticado()).thenReturn(usuarioSupervisor);
-        when(osRepository.findById(1L)).thenReturn(Optional.of(os));
+        when(osRepository.findParaAlteracaoById(1L)).thenReturn(Optional.of(os));
         when(participanteRepository.findById(5L)).thenReturn(Optional.of(participacao));
 
-        osService.removerParticipante(1L, 5L);
+        osService.removerParticipante(1L, 5L, null);
 
         verify(osRepository).save(os);
         verify(logRepository).save(argThat(log ->
@@ -153,4 +188,35 @@ public class OrdemDeServicoServiceTest {
         ));
         assertThat(os.getParticipantes()).isEmpty(); // Verifica se a lista foi esvaziada
     }
+
+    @Test
+    @DisplayName("Utilizador COMUM deve listar apenas as próprias OS, com cursor para a próxima página")
+    void comumDeveListarPropriasOsComCursor() {
+        when(usuarioService.getUsuarioAutenticado()).thenReturn(usuarioComum);
+        LocalDateTime cadastro = LocalDateTime.of(2025, 6, 1, 10, 0);
+        OrdemDeServico os = OrdemDeServico.builder().id(42L).dataCadastro(cadastro).build();
+        Pageable pageable = PageRequest.of(0, 1);
+        when(osRepository.buscarPaginaDoCriadorApos(eq(empresa.getId()), eq(usuarioComum.getId()), any(LocalDateTime.class), eq(Long.MAX_VALUE), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(os), pageable, true));
+
+        PaginaDTO<OrdemDeServico> pagina = osService.listarOS(null, null, 1);
+
+        assertThat(pagina.getItens()).containsExactly(os);
+        assertThat(pagina.getProximoCursor()).isNotNull();
+
+        // A página seguinte parte exatamente da chave (dataCadastro, id) do último item
+        when(osRepository.buscarPaginaDoCriadorApos(empresa.getId(), usuarioComum.getId(), cadastro, 42L, pageable))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        PaginaDTO<OrdemDeServico> seguinte = osService.listarOS(pagina.getProximoCursor(), null, 1);
+        assertThat(seguinte.getItens()).isEmpty();
+        assertThat(seguinte.getProximoCursor()).isNull();
+        verify(osRepository, never()).buscarPaginaDaEmpresaApos(anyLong(), any(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Deve recusar cursor malformado")
+    void deveRecusarCursorMalformado() {
+        when(usuarioService.getUsuarioAutenticado()).thenReturn(usuarioComum);
+        assertThrows(IllegalArgumentException.class, () -> osService.listarOS("invalido", null, 10));
+    }
 }
@@ -0,0 +1,73 @@
+// src/test/java/br/com/kandu/service/RepetidorDeTransacoesTest.java
+package br.com.kandu.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RepetidorDeTransacoesTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RepetidorDeTransacoes repetidor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        repetidor = new RepetidorDeTransacoes(meterRegistry, 3, 0);
+    }
+
+    private double conflitos(String resultado) {
+        return meterRegistry.get("os.conflitos.versao").tag("resultado", resultado).counter().count();
+    }
+
+    @Test
+    @DisplayName("Deve repetir a operação após conflitos de versão até ela passar")
+    void deveRepetirAposConflito() {
+        AtomicInteger execucoes = new AtomicInteger();
+
+        repetidor.executar(() -> {
+            if (execucoes.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("conflito");
+            }
+        });
+
+        assertThat(execucoes.get()).isEqualTo(3);
+        assertThat(conflitos("repetida")).isEqualTo(2.0);
+        assertThat(conflitos("esgotada")).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve devolver o conflito após esgotar as tentativas")
+    void deveDesistirAposMaximoDeTentativas() {
+        AtomicInteger execucoes = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> repetidor.executar(() -> {
+            execucoes.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflito");
+        }));
+
+        assertThat(execucoes.get()).isEqualTo(3);
+        assertThat(conflitos("esgotada")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Não deve repetir falhas que não são conflitos de versão")
+    void naoDeveRepetirOutrasFalhas() {
+        AtomicInteger execucoes = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> repetidor.executar(() -> {
+            execucoes.incrementAndGet();
+            throw new IllegalArgumentException("OS não encontrada");
+        }));
+
+        assertThat(execucoes.get()).isEqualTo(1);
+        assertThat(conflitos("repetida")).isZero();
+    }
+}
@@ -0,0 +1,99 @@
+// src/test/java/br/com/kandu/service/TransferenciaArquivoBenchmarkTest.java
+package br.com.kandu.service;
+
+import br.com.kandu.entity.Empresa;
+import br.com.kandu.entity.Usuario;
+import br.com.kandu.enums.NivelHierarquia;
+import br.com.kandu.repository.EmpresaRepository;
+import br.com.kandu.repository.OrdemDeServicoArquivadaRepository;
+import br.com.kandu.util.TestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Transfere para o arquivo um volume sintético de um milhão de OS (900 mil arquivadas, com histórico e participantes)
+ * com o H2 em modo arquivo, e confere que nada se perde nem sobra nas tabelas ativas.
+ * Fica fora do build normal (@Tag("benchmark")); rode com: mvn test -Pbenchmark
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/benchmark/arquivo;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.show-sql=false",
+        "kandu.os.arquivo.tamanho-lote=5000"
+})
+@ActiveProfiles("test")
+@Tag("benchmark")
+public class TransferenciaArquivoBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferenciaArquivoBenchmarkTest.class);
+
+    private static final int TOTAL = 1_000_000;
+    private static final int ATIVAS = 100_000;
+    private static final long PRIMEIRO_ID = 10_000_000L; // Longe dos ids entregues pelas sequências
+
+    @Autowired
+    private TransferenciaArquivoOSService transferenciaService;
+    @Autowired
+    private OrdemDeServicoArquivadaRepository arquivoRepository;
+    @Autowired
+    private EmpresaRepository empresaRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TestUtils testUtils;
+
+    @AfterEach
+    void apagar() {
+        testUtils.limparBanco();
+    }
+
+    @Test
+    @DisplayName("[Benchmark] Transferência de um milhão de OS para as tabelas de arquivo")
+    void medirTransferenciaParaOArquivo() {
+        testUtils.limparBanco();
+        Empresa empresa = empresaRepository.save(Empresa.builder().nome("Empresa Arquivo").codigoInscricao("ARQ-BENCH").build());
+        Usuario usuario = testUtils.criarUsuario("arquivista", "arquivista@kandu.com", "pass", NivelHierarquia.SUPERVISOR, empresa);
+
+        // As primeiras ATIVAS seguem abertas; as demais já estão ARQUIVADA, cada uma com um log e metade com um participante
+        jdbcTemplate.update("insert into ordens_servico (id, titulo, descricao, data_cadastro, status, projeto_privado, versao, " +
+                        "empresa_id, criador_id) select ? + x, concat('OS sintética ', x), 'Gerada para o teste de arquivo', " +
+                        "dateadd('MINUTE', x, timestamp '2020-01-01 00:00:00'), case when x <= ? then 'ABERTA' else 'ARQUIVADA' end, " +
+                        "false, 1, ?, ? from system_range(1, ?)",
+                PRIMEIRO_ID, ATIVAS, empresa.getId(), usuario.getId(), TOTAL);
+        jdbcTemplate.update("insert into log_historico_os (id, ordem_servico_id, timestamp, usuario_responsavel_acao_id, descricao_acao) " +
+                "select ? + x, ? + x, timestamp '2024-01-01 00:00:00', ?, 'OS arquivada.' from system_range(?, ?)",
+                PRIMEIRO_ID, PRIMEIRO_ID, usuario.getId(), ATIVAS + 1, TOTAL);
+        jdbcTemplate.update("insert into participantes_os (id, data_inclusao, ordem_servico_id, usuario_id) " +
+                "select ? + x, timestamp '2024-01-01 00:00:00', ? + x, ? from system_range(?, ?) where mod(x, 2) = 0",
+                PRIMEIRO_ID, PRIMEIRO_ID, usuario.getId(), ATIVAS + 1, TOTAL);
+
+        long inicio = System.nanoTime();
+        long transferidas = transferenciaService.transferirArquivadas();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        int arquivadas = TOTAL - ATIVAS;
+        log.info("[benchmark] {} OS (com histórico e participantes) transferidas em {} ms: {} OS/s", transferidas,
+                Math.round(segundos * 1000), Math.round(transferidas / segundos));
+        assertThat(transferidas).isEqualTo(arquivadas);
+        assertThat(contar("ordens_servico")).isEqualTo(ATIVAS);
+        assertThat(contar("log_historico_os")).isZero();
+        assertThat(contar("participantes_os")).isZero();
+        assertThat(contar("ordens_servico_arquivo")).isEqualTo(arquivadas);
+        assertThat(contar("log_historico_os_arquivo")).isEqualTo(arquivadas);
+        assertThat(contar("participantes_os_arquivo")).isEqualTo(arquivadas / 2);
+        assertThat(arquivoRepository.findDetalheById(PRIMEIRO_ID + TOTAL)).isPresent();
+    }
+
+    private long contar(String tabela) {
+        return jdbcTemplate.queryForObject("select count(*) from " + tabela, Long.class);
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.kandu.service;
+
+import br.com.kandu.entity.Empresa;
+import br.com.kandu.entity.Usuario;
+import br.com.kandu.enums.NivelHierarquia;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UsuarioCacheServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UsuarioCacheService usuarioCache;
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        usuarioCache = new UsuarioCacheService(meterRegistry, 100, 10);
+        usuario = Usuario.builder()
+                .id(10L)
+                .nomeUsuario("cacheado")
+                .nivelHierarquia(NivelHierarquia.SUPERVISOR)
+                .ativo(true)
+                .empresa(Empresa.builder().id(1L).nome("Empresa Cache").codigoInscricao("CACHE").build())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Deve encontrar o usuário por ID e por nome após registrar")
+    void deveEncontrarPorIdENome() {
+        usuarioCache.registrar(usuario);
+
+        assertThat(usuarioCache.buscarPorId(10L)).get().extracting(Usuario::getNomeUsuario).isEqualTo("cacheado");
+        assertThat(usuarioCache.buscarPorNome("cacheado")).get().extracting(u -> u.getEmpresa().getNome()).isEqualTo("Empresa Cache");
+        assertThat(meterRegistry.get("cache.hit.ratio").tag("cache", UsuarioCacheService.NOME_CACHE).gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Alterações feitas no objeto devolvido não devem contaminar o cache")
+    void deveDevolverCopias() {
+        usuarioCache.registrar(usuario);
+        usuario.setAtivo(false);
+        usuarioCache.buscarPorId(10L).orElseThrow().setNivelHierarquia(NivelHierarquia.ADM);
+
+        Usuario emCache = usuarioCache.buscarPorId(10L).orElseThrow();
+        assertThat(emCache.isAtivo()).isTrue();
+        assertThat(emCache.getNivelHierarquia()).isEqualTo(NivelHierarquia.SUPERVISOR);
+    }
+
+    @Test
+    @DisplayName("Deve remover o usuário por ID e por nome ao invalidar")
+    void deveInvalidar() {
+        usuarioCache.registrar(usuario);
+        usuarioCache.invalidar(usuario);
+
+        assertThat(usuarioCache.buscarPorId(10L)).isEmpty();
+        assertThat(usuarioCache.buscarPorNome("cacheado")).isEmpty();
+        assertThat(usuarioCache.tamanhoEstimado()).isZero();
+    }
+}
@@ -2,6 +2,7 @@
 package br.com.kandu.service;
 
 import br.com.kandu.dto.LoginDTO;
+import br.com.kandu.dto.TokenDTO;
 import br.com.kandu.dto.UsuarioAdminCriacaoDTO;
 import br.com.kandu.dto.UsuarioAdminAtualizacaoDTO;
 import br.com.kandu.dto.UsuarioCadastroDTO;
@@ -24,6 +25,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import br.com.kandu.security.KanduPrincipal;
 
 import java.util.List;
 import java.util.Optional;
@@ -45,6 +50,12 @@ public class UsuarioServiceTest {
     private JwtTokenProvider jwtTokenProvider;
     @Mock
     private EmpresaService empresaService;
+    @Mock
+    private VersaoContaService versaoContaService;
+    @Mock
+    private UsuarioCacheService usuarioCache;
+    @Mock
+    private RefreshTokenService refreshTokenService;
 
     @Mock
     private Authentication authentication;
@@ -117,14 +128,16 @@ public class UsuarioServiceTest {
     @AfterEach
     void tearDown() {
         SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
     }
 
     private void simularUsuarioAutenticado(Usuario usuario) {
         reset(authentication, securityContext);
         when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(true);
         when(authentication.getName()).thenReturn(usuario.getNomeUsuario());
         SecurityContextHolder.setContext(securityContext);
-        when(usuarioRepository.findByNomeUsuario(usuario.getNomeUsuario())).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.findComEmpresaByNomeUsuario(usuario.getNomeUsuario())).thenReturn(Optional.of(usuario));
     }
 
     @Test
@@ -233,7 +246,7 @@ public class UsuarioServiceTest {
     @DisplayName("[Admin Atualização] DIRETOR deve atualizar função e ativar/desativar COMUM da sua empresa")
     void atualizarUsuarioPorAdmin_diretorAtualizaComumComSucesso() {
         simularUsuarioAutenticado(diretorEmpresaA);
-        when(usuarioRepository.findById(comumEmpresaA.getId())).thenReturn(Optional.of(comumEmpresaA));
+        when(usuarioRepository.findComEmpresaById(comumEmpresaA.getId())).thenReturn(Optional.of(comumEmpresaA));
         when(usuarioRepository.save(any(Usuario.class))).thenAnswer(inv -> inv.getArgument(0));
 
         usuarioAdminAtualizacaoDTO.setFuncao("Analista Senior");
@@ -244,6 +257,10 @@ public class UsuarioServiceTest {
 
         assertThat(resultado.getFuncao()).isEqualTo("Analista Senior");
         assertThat(resultado.isAtivo()).isFalse();
+        // Desativação precisa ter efeito imediato: cache de usuários e versão da conta invalidados
+        verify(usuarioCache).invalidar(comumEmpresaA);
+        verify(versaoContaService).invalidar(comumEmpresaA.getId());
+        assertThat(resultado.getVersaoConta()).isEqualTo(1L);
     }
 
     @Test
@@ -251,7 +268,7 @@ public class UsuarioServiceTest {
     void atualizarUsuarioPorAdmin_diretorNaoAtualizaUsuarioOutraEmpresa() {
         simularUsuarioAutenticado(diretorEmpresaA);
         Usuario comumEmpresaB = Usuario.builder().id(200L).nomeUsuario("comum_empb").empresa(empresaMockB).nivelHierarquia(NivelHierarquia.COMUM).build();
-        when(usuarioRepository.findById(200L)).thenReturn(Optional.of(comumEmpresaB));
+        when(usuarioRepository.findComEmpresaById(200L)).thenReturn(Optional.of(comumEmpresaB));
 
         SecurityException exception = assertThrows(SecurityException.class, () -> {
             usuarioService.atualizarUsuarioPorAdmin(200L, usuarioAdminAtualizacaoDTO);
@@ -263,7 +280,7 @@ public class UsuarioServiceTest {
     @DisplayName("[Admin Atualização] GESTOR não deve promover COMUM para DIRETOR (nível acima do seu)")
     void atualizarUsuarioPorAdmin_gestorNaoPromoveParaDiretor() {
         simularUsuarioAutenticado(gestorEmpresaA);
-        when(usuarioRepository.findById(comumEmpresaA.getId())).thenReturn(Optional.of(comumEmpresaA));
+        when(usuarioRepository.findComEmpresaById(comumEmpresaA.getId())).thenReturn(Optional.of(comumEmpresaA));
 
         usuarioAdminAtualizacaoDTO.setNivelHierarquia(NivelHierarquia.DIRETOR);
 
@@ -277,7 +294,7 @@ public class UsuarioServiceTest {
     @DisplayName("[Admin Atualização] ADM Sistema deve poder atualizar usuário de qualquer empresa")
     void atualizarUsuarioPorAdmin_admSistemaAtualizaQualquerEmpresa() {
         simularUsuarioAutenticado(adminSistema);
-        when(usuarioRepository.findById(comumEmpresaA.getId())).thenReturn(Optional.of(comumEmpresaA));
+        when(usuarioRepository.findComEmpresaById(comumEmpresaA.getId())).thenReturn(Optional.of(comumEmpresaA));
         when(usuarioRepository.save(any(Usuario.class))).thenAnswer(inv -> inv.getArgument(0));
 
         usuarioAdminAtualizacaoDTO.setFuncao("Promovido pelo ADM");
@@ -296,9 +313,27 @@ public class UsuarioServiceTest {
         when(usuarioRepository.findByNomeUsuario(loginDTO.getNomeUsuario())).thenReturn(Optional.of(usuarioExistenteAuthTest));
         when(passwordEncoder.matches(loginDTO.getSenha(), usuarioExistenteAuthTest.getSenha())).thenReturn(true);
         when(jwtTokenProvider.generateToken(usuarioExistenteAuthTest)).thenReturn("token.jwt.valido");
+        when(refreshTokenService.emitir(usuarioExistenteAuthTest)).thenReturn("refresh.token");
 
-        String token = usuarioService.autenticar(loginDTO);
-        assertThat(token).isEqualTo("token.jwt.valido");
+        TokenDTO tokens = usuarioService.autenticar(loginDTO);
+        assertThat(tokens.getToken()).isEqualTo("token.jwt.valido");
+        assertThat(tokens.getRefreshToken()).isEqualTo("refresh.token");
+    }
+
+    @Test
+    @DisplayName("[Autenticação] Deve regravar a senha quando o custo do hash for diferente do atual")
+    void deveRegravarSenhaComCustoDiferenteNoLogin() {
+        when(usuarioRepository.findByNomeUsuario(loginDTO.getNomeUsuario())).thenReturn(Optional.of(usuarioExistenteAuthTest));
+        when(passwordEncoder.matches(loginDTO.getSenha(), "senhaHasheadaPeloBCrypt")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("senhaHasheadaPeloBCrypt")).thenReturn(true);
+        when(passwordEncoder.encode(loginDTO.getSenha())).thenReturn("hashComNovoCusto");
+        when(jwtTokenProvider.generateToken(usuarioExistenteAuthTest)).thenReturn("token.jwt.valido");
+
+        usuarioService.autenticar(loginDTO);
+
+        assertThat(usuarioExistenteAuthTest.getSenha()).isEqualTo("hashComNovoCusto");
+        verify(usuarioRepository).save(usuarioExistenteAuthTest);
+        verify(usuarioCache).invalidar(usuarioExistenteAuthTest);
     }
 
     @Test
@@ -339,4 +374,32 @@ public class UsuarioServiceTest {
         assertThrows(BadCredentialsException.class, () -> usuarioService.autenticar(loginDTO));
         verifyNoInteractions(usuarioRepository, passwordEncoder, jwtTokenProvider);
     }
+
+    @Test
+    @DisplayName("[Usuário Autenticado] Deve consultar o banco apenas uma vez por requisição")
+    void getUsuarioAutenticado_deveConsultarUmaVezPorRequisicao() {
+        simularUsuarioAutenticado(diretorEmpresaA);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        Usuario primeiro = usuarioService.getUsuarioAutenticado();
+        Usuario segundo = usuarioService.getUsuarioAutenticado();
+
+        assertThat(segundo).isSameAs(primeiro);
+        verify(usuarioRepository, times(1)).findComEmpresaByNomeUsuario(diretorEmpresaA.getNomeUsuario());
+    }
+
+    @Test
+    @DisplayName("[Usuário Autenticado] Deve carregar pelo ID do principal do token")
+    void getUsuarioAutenticado_deveCarregarPeloIdDoPrincipal() {
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(authentication.getName()).thenReturn(diretorEmpresaA.getNomeUsuario());
+        SecurityContextHolder.setContext(securityContext);
+        when(authentication.getPrincipal()).thenReturn(new KanduPrincipal(diretorEmpresaA.getId(),
+                diretorEmpresaA.getNomeUsuario(), empresaMockA.getId(), NivelHierarquia.DIRETOR, 0L));
+        when(usuarioRepository.findComEmpresaById(diretorEmpresaA.getId())).thenReturn(Optional.of(diretorEmpresaA));
+
+        assertThat(usuarioService.getUsuarioAutenticado()).isSameAs(diretorEmpresaA);
+        verify(usuarioRepository, never()).findComEmpresaByNomeUsuario(anyString());
+    }
 }
@@ -0,0 +1,70 @@
+// src/test/java/br/com/kandu/util/ContadorDeConsultasSql.java
+package br.com.kandu.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Registra os comandos SQL emitidos pelo Hibernate durante os testes.
+ * Por que foi implementada: para que os testes de integração possam verificar quantas consultas
+ * uma requisição realmente dispara (ex: o usuário autenticado deve ser carregado no máximo uma vez).
+ * Registrada via propriedade hibernate.session_factory.statement_inspector no application.properties de teste.
+ */
+public class ContadorDeConsultasSql implements StatementInspector {
+
+    private static final Pattern COMENTARIO = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+
+    private static final List<String> comandos = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        comandos.add(sql);
+        return sql;
+    }
+
+    /**
+     * Descarta os comandos registrados até agora.
+     */
+    public static void zerar() {
+        comandos.clear();
+    }
+
+    /**
+     * Conta todos os comandos SQL registrados desde o último {@link #zerar()}.
+     */
+    public static int contarComandos() {
+        return comandos.size();
+    }
+
+    /**
+     * Devolve o último SELECT registrado, como foi enviado ao banco (com os parâmetros "?").
+     */
+    public static String ultimoSelect() {
+        for (int i = comandos.size() - 1; i >= 0; i--) {
+            String sql = comandos.get(i);
+            if (COMENTARIO.matcher(sql).replaceAll("").trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+                return sql;
+            }
+        }
+        throw new IllegalStateException("Nenhum SELECT registrado.");
+    }
+
+    /**
+     * Conta os SELECTs registrados que leem da tabela informada.
+     *
+     * @param tabela Nome da tabela no banco (ex: "usuarios").
+     * @return A quantidade de SELECTs que têm a tabela no FROM.
+     */
+    public static long contarSelectsNaTabela(String tabela) {
+        Pattern from = Pattern.compile("\\bfrom\\s+" + Pattern.quote(tabela) + "\\b");
+        return comandos.stream()
+                .map(sql -> COMENTARIO.matcher(sql).replaceAll("").toLowerCase(Locale.ROOT)) // use_sql_comments
+                .filter(sql -> sql.contains("select"))
+                .filter(sql -> from.matcher(sql).find())
+                .count();
+    }
+}
@@ -6,10 +6,22 @@ import br.com.kandu.dto.TokenDTO;
 import br.com.kandu.entity.Empresa;
 import br.com.kandu.entity.Usuario;
 import br.com.kandu.enums.NivelHierarquia;
+import br.com.kandu.repository.ChaveApiRepository;
+import br.com.kandu.repository.EmpresaRepository;
+import br.com.kandu.repository.LogArquivamentoOSRepository;
+import br.com.kandu.repository.LogHistoricoOSRepository;
+import br.com.kandu.repository.OrdemDeServicoArquivadaRepository;
+import br.com.kandu.repository.OrdemDeServicoRepository;
+import br.com.kandu.repository.ParticipanteOSRepository;
+import br.com.kandu.repository.RefreshTokenRepository;
+import br.com.kandu.repository.TokenRevogadoRepository;
 import br.com.kandu.repository.UsuarioRepository;
+import br.com.kandu.service.UsuarioCacheService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.test.web.servlet.MockMvc;
@@ -28,8 +40,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Component
 public class TestUtils {
 
+    // ObjectProvider: contextos sem @AutoConfigureMockMvc (ex: KanduApplicationTests) também carregam esta classe
     @Autowired
-    private MockMvc mockMvc;
+    private ObjectProvider<MockMvc> mockMvc;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -40,6 +53,61 @@ public class TestUtils {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private OrdemDeServicoRepository osRepository;
+
+    @Autowired
+    private LogHistoricoOSRepository logRepository;
+
+    @Autowired
+    private ParticipanteOSRepository participanteRepository;
+
+    @Autowired
+    private TokenRevogadoRepository tokenRevogadoRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private ChaveApiRepository chaveApiRepository;
+
+    @Autowired
+    private LogArquivamentoOSRepository logArquivamentoRepository;
+
+    @Autowired
+    private OrdemDeServicoArquivadaRepository osArquivadaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UsuarioCacheService usuarioCache;
+
+    /**
+     * Remove todos os dados do banco respeitando as chaves estrangeiras.
+     * O banco H2 em memória é compartilhado entre os contextos de teste, então cada classe
+     * precisa limpar também as tabelas dependentes criadas pelas outras.
+     */
+    public void limparBanco() {
+        // Tabelas de arquivo (V6): sem entidade para participantes e histórico arquivados
+        jdbcTemplate.update("delete from log_historico_os_arquivo");
+        jdbcTemplate.update("delete from participantes_os_arquivo");
+        osArquivadaRepository.deleteAllInBatch();
+        logRepository.deleteAllInBatch();
+        participanteRepository.deleteAllInBatch();
+        osRepository.deleteAllInBatch();
+        refreshTokenRepository.deleteAllInBatch();
+        chaveApiRepository.deleteAllInBatch();
+        logArquivamentoRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+        empresaRepository.deleteAllInBatch();
+        tokenRevogadoRepository.deleteAllInBatch();
+        usuarioCache.invalidarTodos(); // A limpeza em lote não passa pelos serviços que invalidam o cache
+    }
+
     /**
      * Cria e persiste um usuário no banco de dados.
      * @return A entidade Usuario criada.
@@ -66,7 +134,7 @@ public class TestUtils {
         loginDTO.setNomeUsuario(nomeUsuario);
         loginDTO.setSenha(senha);
 
-        MvcResult loginResult = mockMvc.perform(post("/auth/login")
+        MvcResult loginResult = mockMvc.getObject().perform(post("/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginDTO)))
                 .andExpect(status().isOk())